@@ -0,0 +1,90 @@
+package io.openleap.cvs.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects single values submitted for the same initialization vector within a short window and hands
+ * them to the sender as one batch. A batch is sent when the window of its first value ends or when it
+ * reaches the maximum size, whichever comes first.
+ */
+class BatchCoalescer {
+
+    interface BatchSender {
+        /**
+         * Sends the values and completes {@code results} in the same order.
+         */
+        void send(String iv, List<String> values, List<CompletableFuture<String>> results);
+    }
+
+    private final Map<String, Batch> open = new HashMap<>();
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final BatchSender sender;
+
+    BatchCoalescer(Duration window, int maxBatchSize, ScheduledExecutorService scheduler, BatchSender sender) {
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = scheduler;
+        this.sender = sender;
+    }
+
+    CompletableFuture<String> submit(String iv, String value) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Batch full = null;
+        synchronized (open) {
+            Batch batch = open.get(iv);
+            if (batch == null) {
+                Batch created = new Batch(iv);
+                open.put(iv, created);
+                scheduler.schedule(() -> flush(created), windowNanos, TimeUnit.NANOSECONDS);
+                batch = created;
+            }
+            batch.values.add(value);
+            batch.results.add(result);
+            if (batch.values.size() >= maxBatchSize) {
+                open.remove(iv);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return result;
+    }
+
+    private void flush(Batch batch) {
+        synchronized (open) {
+            if (!open.remove(batch.iv, batch)) {
+                // Already sent because it was full
+                return;
+            }
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch batch) {
+        try {
+            sender.send(batch.iv, batch.values, batch.results);
+        } catch (RuntimeException e) {
+            batch.results.forEach(result -> result.completeExceptionally(e));
+        }
+    }
+
+    private static final class Batch {
+        private final String iv;
+        private final List<String> values = new ArrayList<>();
+        private final List<CompletableFuture<String>> results = new ArrayList<>();
+
+        private Batch(String iv) {
+            this.iv = iv;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package io.openleap.cvs.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Fetches access tokens with the OAuth2 client credentials grant and reuses a token until shortly
+ * before it expires. Concurrent callers that find the token expired share one token request, which is sent
+ * asynchronously so that {@link CvsClient} does not block its scheduler thread on it.
+ */
+public class ClientCredentialsTokenProvider implements TokenProvider {
+    private final URI tokenUri;
+    private final String form;
+    private final CvsClientProperties properties;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile CachedToken cachedToken;
+    // Guarded by this
+    private CompletableFuture<CachedToken> pendingFetch;
+
+    public ClientCredentialsTokenProvider(URI tokenUri, String clientId, String clientSecret,
+                                          CvsClientProperties properties) {
+        this.tokenUri = tokenUri;
+        this.form = "grant_type=client_credentials"
+                + "&client_id=" + URLEncoder.encode(clientId, StandardCharsets.UTF_8)
+                + "&client_secret=" + URLEncoder.encode(clientSecret, StandardCharsets.UTF_8);
+        this.properties = properties;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+    }
+
+    @Override
+    public String token() {
+        try {
+            return tokenAsync().get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CvsClientException("Token request to " + tokenUri + " failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CvsClientException("Interrupted while requesting a token", e);
+        }
+    }
+
+    /**
+     * Returns the cached token or the future of the token request in flight, without waiting for it.
+     */
+    @Override
+    public CompletableFuture<String> tokenAsync() {
+        CachedToken current = cachedToken;
+        if (current != null && current.isValid()) {
+            return CompletableFuture.completedFuture(current.value());
+        }
+        CompletableFuture<CachedToken> fetch;
+        synchronized (this) {
+            current = cachedToken;
+            if (current != null && current.isValid()) {
+                return CompletableFuture.completedFuture(current.value());
+            }
+            fetch = pendingFetch;
+            if (fetch == null) {
+                CompletableFuture<CachedToken> started = fetch();
+                pendingFetch = started;
+                started.whenComplete((token, error) -> {
+                    synchronized (this) {
+                        pendingFetch = null;
+                        if (error == null) {
+                            cachedToken = token;
+                        }
+                    }
+                });
+                fetch = started;
+            }
+        }
+        return fetch.thenApply(CachedToken::value);
+    }
+
+    @Override
+    public void invalidate() {
+        cachedToken = null;
+    }
+
+    private CompletableFuture<CachedToken> fetch() {
+        HttpRequest request = HttpRequest.newBuilder(tokenUri)
+                .timeout(properties.getRequestTimeout())
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).handle((response, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                throw new CvsClientException("Token request to " + tokenUri + " failed", cause);
+            }
+            return parse(response);
+        });
+    }
+
+    private CachedToken parse(HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new CvsClientException(response.statusCode(), "Token request to " + tokenUri + " failed");
+        }
+        JsonNode body;
+        try {
+            body = objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new CvsClientException("Token request to " + tokenUri + " failed", e);
+        }
+        String accessToken = body.path("access_token").asText(null);
+        if (accessToken == null) {
+            throw new CvsClientException(response.statusCode(), "Token response contains no access_token");
+        }
+        long lifetimeNanos = body.path("expires_in").asLong(0) * 1_000_000_000L;
+        // Never keep a token for less than half of its lifetime, however large the skew is configured
+        long reuseNanos = Math.max(lifetimeNanos / 2, lifetimeNanos - properties.getTokenRefreshSkew().toNanos());
+        return new CachedToken(accessToken, System.nanoTime() + reuseNanos);
+    }
+
+    private record CachedToken(String value, long validUntilNanos) {
+        boolean isValid() {
+            return System.nanoTime() - validUntilNanos < 0;
+        }
+    }
+}
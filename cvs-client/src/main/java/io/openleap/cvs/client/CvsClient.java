@@ -0,0 +1,363 @@
+package io.openleap.cvs.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Client for the crypto vault service REST API.
+ * <p>
+ * Requests go over one shared HTTP/2 capable {@link HttpClient}, which keeps its connections open across
+ * calls. Single values passed to {@link #encrypt} and {@link #decrypt} by concurrent callers within
+ * {@code batchWindow} are coalesced into one {@code /encryptList} or {@code /decryptListWithStatus}
+ * call per initialization vector. With more than one instance available a request that has not been
+ * answered after {@code hedgeDelay} is sent to a second instance as well and the first response wins;
+ * no operation changes state on the service, so a duplicate request is harmless.
+ */
+public class CvsClient implements AutoCloseable {
+    static final String API_PATH = "/api/cvs";
+
+    private static final TypeReference<Map<String, String>> STRING_MAP = new TypeReference<>() {
+    };
+
+    private final CvsClientProperties properties;
+    private final EndpointResolver endpointResolver;
+    private final TokenProvider tokenProvider;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService scheduler;
+    private final BatchCoalescer encryptBatches;
+    private final BatchCoalescer decryptBatches;
+    private final AtomicInteger nextEndpoint = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedgedRequests = new LongAdder();
+
+    public CvsClient(CvsClientProperties properties, EndpointResolver endpointResolver, TokenProvider tokenProvider) {
+        this.properties = properties;
+        this.endpointResolver = endpointResolver;
+        this.tokenProvider = tokenProvider;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cvs-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.encryptBatches = new BatchCoalescer(properties.getBatchWindow(), properties.getMaxBatchSize(),
+                scheduler, this::sendEncryptBatch);
+        this.decryptBatches = new BatchCoalescer(properties.getBatchWindow(), properties.getMaxBatchSize(),
+                scheduler, this::sendDecryptBatch);
+    }
+
+    public String encrypt(String value, String iv) {
+        return await(encryptAsync(value, iv));
+    }
+
+    public String decrypt(String value, String iv) {
+        return await(decryptAsync(value, iv));
+    }
+
+    public CompletableFuture<String> encryptAsync(String value, String iv) {
+        if (properties.getBatchWindow().isZero()) {
+            return encryptSingle(value, iv);
+        }
+        return encryptBatches.submit(iv, value);
+    }
+
+    public CompletableFuture<String> decryptAsync(String value, String iv) {
+        if (properties.getBatchWindow().isZero()) {
+            return decryptSingle(value, iv);
+        }
+        return decryptBatches.submit(iv, value);
+    }
+
+    /**
+     * Encrypts all values of the map except {@code objectId}, in one request.
+     */
+    public Map<String, String> encryptList(Map<String, String> data, String iv) {
+        return await(exchange("/encryptList", new ListRequest(data, iv)).thenApply(body -> read(body, STRING_MAP)));
+    }
+
+    /**
+     * Decrypts all values of the map except {@code objectId}, in one request. Fails as a whole if any
+     * value cannot be decrypted.
+     */
+    public Map<String, String> decryptList(Map<String, String> data, String iv) {
+        return await(exchange("/decryptList", new ListRequest(data, iv)).thenApply(body -> read(body, STRING_MAP)));
+    }
+
+    /**
+     * Requests a fresh data key for local encryption, see {@link EnvelopeEncryptor}.
+     */
+    public DataKey generateDataKey() {
+        return await(exchange("/generateDataKey", Map.of()).thenApply(this::readDataKey));
+    }
+
+    public DataKey unwrapDataKey(String wrappedKey) {
+        return await(exchange("/unwrapDataKey", new UnwrapRequest(wrappedKey)).thenApply(this::readDataKey));
+    }
+
+    /**
+     * @return number of HTTP requests sent to the service, not counting hedged duplicates
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * @return number of duplicate requests sent to a second instance
+     */
+    public long getHedgedRequestCount() {
+        return hedgedRequests.sum();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private CompletableFuture<String> encryptSingle(String value, String iv) {
+        return exchange("/encrypt", new ValueRequest(value, iv))
+                .thenApply(body -> new String(body, StandardCharsets.UTF_8));
+    }
+
+    private CompletableFuture<String> decryptSingle(String value, String iv) {
+        return exchange("/decrypt", new ValueRequest(value, iv))
+                .thenApply(body -> new String(body, StandardCharsets.UTF_8));
+    }
+
+    private void sendEncryptBatch(String iv, List<String> values, List<CompletableFuture<String>> results) {
+        if (values.size() == 1) {
+            forward(encryptSingle(values.get(0), iv), results.get(0));
+            return;
+        }
+        exchange("/encryptList", new ListRequest(indexed(values), iv)).whenComplete((body, error) -> {
+            if (error != null) {
+                results.forEach(result -> result.completeExceptionally(unwrap(error)));
+                return;
+            }
+            Map<String, String> encrypted = read(body, STRING_MAP);
+            for (int i = 0; i < results.size(); i++) {
+                results.get(i).complete(encrypted.get(Integer.toString(i)));
+            }
+        });
+    }
+
+    private void sendDecryptBatch(String iv, List<String> values, List<CompletableFuture<String>> results) {
+        if (values.size() == 1) {
+            forward(decryptSingle(values.get(0), iv), results.get(0));
+            return;
+        }
+        // The status endpoint reports failures per entry, so one bad value does not fail the other callers
+        exchange("/decryptListWithStatus", new ListRequest(indexed(values), iv)).whenComplete((body, error) -> {
+            if (error != null) {
+                results.forEach(result -> result.completeExceptionally(unwrap(error)));
+                return;
+            }
+            JsonNode data = read(body, new TypeReference<JsonNode>() {
+            }).path("data");
+            for (int i = 0; i < results.size(); i++) {
+                JsonNode entry = data.path(Integer.toString(i));
+                String status = entry.path("status").asText();
+                if ("OK".equals(status)) {
+                    results.get(i).complete(entry.path("value").isNull() ? null : entry.path("value").asText());
+                } else {
+                    results.get(i).completeExceptionally(
+                            new CvsClientException(400, "Invalid initialization vector (" + status + ")"));
+                }
+            }
+        });
+    }
+
+    private CompletableFuture<byte[]> exchange(String path, Object body) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new CvsClientException("Failed to serialize request", e));
+        }
+        List<URI> endpoints = endpointResolver.endpoints();
+        if (endpoints.isEmpty()) {
+            return CompletableFuture.failedFuture(
+                    new CvsClientException(0, "No crypto vault service instance available"));
+        }
+        requests.increment();
+        int first = Math.floorMod(nextEndpoint.getAndIncrement(), endpoints.size());
+        Supplier<CompletableFuture<HttpResponse<byte[]>>> primary = () -> attempt(endpoints.get(first), path, json);
+        CompletableFuture<HttpResponse<byte[]>> response;
+        if (properties.isHedgingEnabled() && endpoints.size() > 1) {
+            URI second = endpoints.get((first + 1) % endpoints.size());
+            response = hedged(primary, () -> attempt(second, path, json));
+        } else {
+            response = primary.get();
+        }
+        return response.thenApply(this::checkStatus);
+    }
+
+    /**
+     * Starts the primary request and, unless it succeeded by then, the backup request after the hedge
+     * delay or as soon as the primary failed. Completes with the first successful response.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> hedged(Supplier<CompletableFuture<HttpResponse<byte[]>>> primary,
+                                                           Supplier<CompletableFuture<HttpResponse<byte[]>>> backup) {
+        CompletableFuture<HttpResponse<byte[]>> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(2);
+        AtomicBoolean backupStarted = new AtomicBoolean();
+        Runnable startBackup = () -> {
+            if (!result.isDone() && backupStarted.compareAndSet(false, true)) {
+                hedgedRequests.increment();
+                race(backup.get(), result, pending);
+            }
+        };
+        ScheduledFuture<?> timer = scheduler.schedule(startBackup,
+                properties.getHedgeDelay().toNanos(), TimeUnit.NANOSECONDS);
+        CompletableFuture<HttpResponse<byte[]>> first = primary.get();
+        race(first, result, pending);
+        first.whenComplete((response, error) -> {
+            if (error == null) {
+                timer.cancel(false);
+            } else {
+                startBackup.run();
+            }
+        });
+        result.whenComplete((response, error) -> timer.cancel(false));
+        return result;
+    }
+
+    private static void race(CompletableFuture<HttpResponse<byte[]>> attempt,
+                             CompletableFuture<HttpResponse<byte[]>> result, AtomicInteger pending) {
+        attempt.whenComplete((response, error) -> {
+            if (error == null) {
+                result.complete(response);
+            } else if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        });
+        result.whenComplete((response, error) -> attempt.cancel(true));
+    }
+
+    /**
+     * Sends one request. Transport errors and 5xx responses fail the returned future so that a hedged
+     * request can still answer; any other response is left to {@link #checkStatus}.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> attempt(URI endpoint, String path, byte[] json) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(endpoint + API_PATH + path))
+                .timeout(properties.getRequestTimeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json));
+        // A token that has to be fetched first must not hold up the scheduler thread
+        CompletableFuture<String> token;
+        try {
+            token = tokenProvider.tokenAsync();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return token.thenCompose(value -> {
+                    if (value != null) {
+                        request.header("Authorization", "Bearer " + value);
+                    }
+                    return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+                })
+                .thenApply(response -> {
+                    if (response.statusCode() >= 500) {
+                        throw new CvsClientException(response.statusCode(), errorMessage(endpoint, response));
+                    }
+                    return response;
+                });
+    }
+
+    private byte[] checkStatus(HttpResponse<byte[]> response) {
+        if (response.statusCode() == 401) {
+            tokenProvider.invalidate();
+        }
+        if (response.statusCode() != 200) {
+            throw new CvsClientException(response.statusCode(), errorMessage(response.uri(), response));
+        }
+        return response.body();
+    }
+
+    private static String errorMessage(URI endpoint, HttpResponse<byte[]> response) {
+        return "HTTP " + response.statusCode() + " from " + endpoint + ": "
+                + new String(response.body(), StandardCharsets.UTF_8);
+    }
+
+    private <T> T read(byte[] body, TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (IOException e) {
+            throw new CvsClientException("Failed to parse response", e);
+        }
+    }
+
+    private DataKey readDataKey(byte[] body) {
+        Map<String, String> response = read(body, STRING_MAP);
+        return new DataKey(Base64.getDecoder().decode(response.get("plaintextKey")), response.get("wrappedKey"));
+    }
+
+    private static Map<String, String> indexed(List<String> values) {
+        Map<String, String> data = new LinkedHashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            data.put(Integer.toString(i), values.get(i));
+        }
+        return data;
+    }
+
+    private static void forward(CompletableFuture<String> source, CompletableFuture<String> target) {
+        source.whenComplete((value, error) -> {
+            if (error == null) {
+                target.complete(value);
+            } else {
+                target.completeExceptionally(unwrap(error));
+            }
+        });
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof CvsClientException clientException) {
+                throw clientException;
+            }
+            throw new CvsClientException("Request to the crypto vault service failed", cause);
+        }
+    }
+
+    private record ValueRequest(String value, String iv) {
+    }
+
+    private record ListRequest(Map<String, String> data, String iv) {
+    }
+
+    private record UnwrapRequest(String wrappedKey) {
+    }
+}
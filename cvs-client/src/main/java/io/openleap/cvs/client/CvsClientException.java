@@ -0,0 +1,23 @@
+package io.openleap.cvs.client;
+
+/**
+ * Failure reported by the crypto vault service or raised while talking to it. The status code is
+ * {@code 0} if no HTTP response was received.
+ */
+public class CvsClientException extends RuntimeException {
+    private final int statusCode;
+
+    public CvsClientException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public CvsClientException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = 0;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
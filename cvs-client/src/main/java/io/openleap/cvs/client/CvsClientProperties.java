@@ -0,0 +1,105 @@
+package io.openleap.cvs.client;
+
+import java.time.Duration;
+
+public class CvsClientProperties {
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration requestTimeout = Duration.ofSeconds(5);
+    private Duration batchWindow = Duration.ofMillis(2);
+    private int maxBatchSize = 500;
+    private boolean hedgingEnabled = true;
+    private Duration hedgeDelay = Duration.ofMillis(50);
+    private Duration endpointRefreshInterval = Duration.ofSeconds(30);
+    private Duration tokenRefreshSkew = Duration.ofSeconds(30);
+    private Duration dataKeyMaxAge = Duration.ofMinutes(5);
+    private long dataKeyMaxUses = 1_000_000;
+    private int dataKeyCacheSize = 1000;
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public Duration getBatchWindow() {
+        return batchWindow;
+    }
+
+    public void setBatchWindow(Duration batchWindow) {
+        this.batchWindow = batchWindow;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    public void setHedgingEnabled(boolean hedgingEnabled) {
+        this.hedgingEnabled = hedgingEnabled;
+    }
+
+    public Duration getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    public void setHedgeDelay(Duration hedgeDelay) {
+        this.hedgeDelay = hedgeDelay;
+    }
+
+    public Duration getEndpointRefreshInterval() {
+        return endpointRefreshInterval;
+    }
+
+    public void setEndpointRefreshInterval(Duration endpointRefreshInterval) {
+        this.endpointRefreshInterval = endpointRefreshInterval;
+    }
+
+    public Duration getTokenRefreshSkew() {
+        return tokenRefreshSkew;
+    }
+
+    public void setTokenRefreshSkew(Duration tokenRefreshSkew) {
+        this.tokenRefreshSkew = tokenRefreshSkew;
+    }
+
+    public Duration getDataKeyMaxAge() {
+        return dataKeyMaxAge;
+    }
+
+    public void setDataKeyMaxAge(Duration dataKeyMaxAge) {
+        this.dataKeyMaxAge = dataKeyMaxAge;
+    }
+
+    public long getDataKeyMaxUses() {
+        return dataKeyMaxUses;
+    }
+
+    public void setDataKeyMaxUses(long dataKeyMaxUses) {
+        this.dataKeyMaxUses = dataKeyMaxUses;
+    }
+
+    public int getDataKeyCacheSize() {
+        return dataKeyCacheSize;
+    }
+
+    public void setDataKeyCacheSize(int dataKeyCacheSize) {
+        this.dataKeyCacheSize = dataKeyCacheSize;
+    }
+}
@@ -0,0 +1,7 @@
+package io.openleap.cvs.client;
+
+/**
+ * A data key in plain and the copy of it sealed under the master key of the service.
+ */
+public record DataKey(byte[] plaintextKey, String wrappedKey) {
+}
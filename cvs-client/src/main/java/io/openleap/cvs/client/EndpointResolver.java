@@ -0,0 +1,17 @@
+package io.openleap.cvs.client;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Source of the base URIs of the crypto vault service instances, e.g. {@code http://10.0.0.7:8080}.
+ */
+public interface EndpointResolver {
+
+    List<URI> endpoints();
+
+    static EndpointResolver of(URI... endpoints) {
+        List<URI> fixed = List.of(endpoints);
+        return () -> fixed;
+    }
+}
@@ -0,0 +1,172 @@
+package io.openleap.cvs.client;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Encrypts values locally with data keys from the service (envelope encryption), so the service is called
+ * once per data key instead of once per value.
+ * <p>
+ * A data key is used for at most {@code dataKeyMaxAge} and {@code dataKeyMaxUses} values, then a new one
+ * is requested. Every value carries the wrapped copy of its data key; decrypting unwraps it through the
+ * service once and keeps up to {@code dataKeyCacheSize} plain keys for {@code dataKeyMaxAge}.
+ * <p>
+ * Values are sealed with AES-GCM and a random nonce, so unlike {@link CvsClient#encrypt} equal values give
+ * different results. They can only be decrypted by this class, not by the service's decrypt endpoints.
+ */
+public class EnvelopeEncryptor {
+    private static final String ALGORITHM = "AES/GCM/NoPadding";
+    private static final byte FORMAT = 1;
+    private static final int NONCE_LENGTH_BYTES = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+
+    private final CvsClient client;
+    private final CvsClientProperties properties;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Map<String, CachedKey> unwrappedKeys;
+
+    private volatile ActiveKey activeKey;
+
+    public EnvelopeEncryptor(CvsClient client, CvsClientProperties properties) {
+        this.client = client;
+        this.properties = properties;
+        this.unwrappedKeys = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedKey> eldest) {
+                return size() > properties.getDataKeyCacheSize();
+            }
+        };
+    }
+
+    /**
+     * @return URL-safe Base64 of the format byte, the wrapped data key with its length, the nonce and the
+     * sealed value
+     */
+    public String encrypt(String value) {
+        ActiveKey key = activeKey;
+        if (key == null || !key.tryUse()) {
+            key = rotate(key);
+        }
+        byte[] header = ByteBuffer.allocate(3 + key.wrappedKey.length)
+                .put(FORMAT)
+                .putShort((short) key.wrappedKey.length)
+                .put(key.wrappedKey)
+                .array();
+        byte[] nonce = new byte[NONCE_LENGTH_BYTES];
+        secureRandom.nextBytes(nonce);
+        try {
+            Cipher cipher = Cipher.getInstance(ALGORITHM);
+            cipher.init(Cipher.ENCRYPT_MODE, key.key, new GCMParameterSpec(TAG_LENGTH_BITS, nonce));
+            // The header is authenticated, so a value cannot be moved under another data key
+            cipher.updateAAD(header);
+            byte[] sealed = cipher.doFinal(value.getBytes(StandardCharsets.UTF_8));
+            byte[] envelope = ByteBuffer.allocate(header.length + nonce.length + sealed.length)
+                    .put(header)
+                    .put(nonce)
+                    .put(sealed)
+                    .array();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(envelope);
+        } catch (GeneralSecurityException e) {
+            throw new CvsClientException("Local encryption failed", e);
+        }
+    }
+
+    public String decrypt(String envelope) {
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(envelope));
+        } catch (IllegalArgumentException e) {
+            throw new CvsClientException(0, "Malformed envelope");
+        }
+        if (buffer.remaining() < 3 || buffer.get() != FORMAT) {
+            throw new CvsClientException(0, "Malformed envelope");
+        }
+        int wrappedLength = Short.toUnsignedInt(buffer.getShort());
+        if (buffer.remaining() < wrappedLength + NONCE_LENGTH_BYTES + TAG_LENGTH_BITS / 8) {
+            throw new CvsClientException(0, "Malformed envelope");
+        }
+        byte[] wrappedKey = new byte[wrappedLength];
+        buffer.get(wrappedKey);
+        int headerLength = buffer.position();
+        try {
+            Cipher cipher = Cipher.getInstance(ALGORITHM);
+            cipher.init(Cipher.DECRYPT_MODE, plaintextKey(wrappedKey),
+                    new GCMParameterSpec(TAG_LENGTH_BITS, buffer.array(), headerLength, NONCE_LENGTH_BYTES));
+            cipher.updateAAD(buffer.array(), 0, headerLength);
+            int offset = headerLength + NONCE_LENGTH_BYTES;
+            return new String(cipher.doFinal(buffer.array(), offset, buffer.capacity() - offset),
+                    StandardCharsets.UTF_8);
+        } catch (AEADBadTagException e) {
+            throw new CvsClientException(0, "Envelope failed authentication");
+        } catch (GeneralSecurityException e) {
+            throw new CvsClientException("Local decryption failed", e);
+        }
+    }
+
+    private synchronized ActiveKey rotate(ActiveKey exhausted) {
+        ActiveKey current = activeKey;
+        if (current != exhausted && current.tryUse()) {
+            // Another caller rotated the key in the meantime
+            return current;
+        }
+        DataKey dataKey = client.generateDataKey();
+        long expiresAtNanos = System.nanoTime() + properties.getDataKeyMaxAge().toNanos();
+        SecretKeySpec key = new SecretKeySpec(dataKey.plaintextKey(), "AES");
+        current = new ActiveKey(key, Base64.getUrlDecoder().decode(dataKey.wrappedKey()), expiresAtNanos,
+                properties.getDataKeyMaxUses());
+        current.tryUse();
+        activeKey = current;
+        synchronized (unwrappedKeys) {
+            unwrappedKeys.put(dataKey.wrappedKey(), new CachedKey(key, expiresAtNanos));
+        }
+        return current;
+    }
+
+    private SecretKeySpec plaintextKey(byte[] wrappedKey) {
+        String wrapped = Base64.getUrlEncoder().withoutPadding().encodeToString(wrappedKey);
+        synchronized (unwrappedKeys) {
+            CachedKey cached = unwrappedKeys.get(wrapped);
+            if (cached != null && System.nanoTime() - cached.expiresAtNanos < 0) {
+                return cached.key;
+            }
+        }
+        // Concurrent misses for the same key may unwrap it more than once, which is harmless
+        SecretKeySpec key = new SecretKeySpec(client.unwrapDataKey(wrapped).plaintextKey(), "AES");
+        synchronized (unwrappedKeys) {
+            unwrappedKeys.put(wrapped, new CachedKey(key, System.nanoTime() + properties.getDataKeyMaxAge().toNanos()));
+        }
+        return key;
+    }
+
+    private static final class ActiveKey {
+        private final SecretKeySpec key;
+        private final byte[] wrappedKey;
+        private final long expiresAtNanos;
+        private final long maxUses;
+        private final AtomicLong uses = new AtomicLong();
+
+        private ActiveKey(SecretKeySpec key, byte[] wrappedKey, long expiresAtNanos, long maxUses) {
+            this.key = key;
+            this.wrappedKey = wrappedKey;
+            this.expiresAtNanos = expiresAtNanos;
+            this.maxUses = maxUses;
+        }
+
+        private boolean tryUse() {
+            return System.nanoTime() - expiresAtNanos < 0 && uses.incrementAndGet() <= maxUses;
+        }
+    }
+
+    private record CachedKey(SecretKeySpec key, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,111 @@
+package io.openleap.cvs.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Resolves the instances of the service from the Eureka REST API ({@code GET /eureka/apps/{name}})
+ * and refreshes them in the background. Only instances with status {@code UP} are used. A failed
+ * refresh keeps the last known instances.
+ */
+public class EurekaEndpointResolver implements EndpointResolver, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(EurekaEndpointResolver.class.getName());
+
+    public static final String DEFAULT_APPLICATION_NAME = "crypto-vault-service";
+
+    private final URI applicationUri;
+    private final CvsClientProperties properties;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService scheduler;
+
+    private volatile List<URI> endpoints = List.of();
+
+    /**
+     * @param eurekaUri       the Eureka service URL, e.g. {@code http://registry:8761/eureka}
+     * @param applicationName the registered application name
+     */
+    public EurekaEndpointResolver(URI eurekaUri, String applicationName, CvsClientProperties properties) {
+        String base = eurekaUri.toString().endsWith("/") ? eurekaUri.toString() : eurekaUri + "/";
+        this.applicationUri = URI.create(base + "apps/" + applicationName.toUpperCase(Locale.ROOT));
+        this.properties = properties;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cvs-client-eureka");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        refresh();
+        long interval = properties.getEndpointRefreshInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public List<URI> endpoints() {
+        return endpoints;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    void refresh() {
+        HttpRequest request = HttpRequest.newBuilder(applicationUri)
+                .timeout(properties.getRequestTimeout())
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IOException("Unexpected HTTP status " + response.statusCode());
+            }
+            endpoints = parse(objectMapper.readTree(response.body()));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to refresh instances from {0}: {1}",
+                    new Object[]{applicationUri, e.getMessage()});
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static List<URI> parse(JsonNode application) {
+        JsonNode instances = application.path("application").path("instance");
+        List<URI> up = new ArrayList<>();
+        // Eureka returns a single object instead of an array for a single instance
+        for (JsonNode instance : instances.isArray() ? instances : List.of(instances)) {
+            if (!"UP".equals(instance.path("status").asText())) {
+                continue;
+            }
+            String homePageUrl = instance.path("homePageUrl").asText("");
+            if (!homePageUrl.isEmpty()) {
+                up.add(URI.create(homePageUrl.endsWith("/")
+                        ? homePageUrl.substring(0, homePageUrl.length() - 1) : homePageUrl));
+            } else {
+                up.add(URI.create("http://" + instance.path("ipAddr").asText()
+                        + ":" + instance.path("port").path("$").asInt()));
+            }
+        }
+        return List.copyOf(up);
+    }
+}
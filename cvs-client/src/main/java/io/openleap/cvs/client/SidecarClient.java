@@ -0,0 +1,153 @@
+package io.openleap.cvs.client;
+
+import io.openleap.cvs.core.DecryptResult;
+import io.openleap.cvs.core.DecryptStatus;
+import io.openleap.cvs.core.sidecar.FrameReader;
+import io.openleap.cvs.core.sidecar.FrameWriter;
+import io.openleap.cvs.core.sidecar.MalformedFrameException;
+import io.openleap.cvs.core.sidecar.SidecarProtocol;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Client for the Unix domain socket listener of a crypto vault service running in the same pod or host,
+ * see {@link SidecarProtocol}. There is no coalescing or failover; the socket is local and cheap to call.
+ * <p>
+ * Each call borrows an idle connection or opens a new one, so concurrent callers never wait for each other.
+ * A {@link CvsClientException} carries 400 for rejected requests, 500 for failures of the service and 0 if
+ * the socket could not be used.
+ */
+public class SidecarClient implements AutoCloseable {
+    private static final int MAX_FRAME_SIZE = 64 * 1024 * 1024;
+
+    private final UnixDomainSocketAddress address;
+    private final ConcurrentLinkedDeque<Connection> idle = new ConcurrentLinkedDeque<>();
+    private volatile boolean closed;
+
+    public SidecarClient(Path socketPath) {
+        this.address = UnixDomainSocketAddress.of(socketPath);
+    }
+
+    public String encrypt(String value, String iv) {
+        return exchange(SidecarProtocol.ENCRYPT, writer -> writer.writeString(iv).writeString(value),
+                FrameReader::readString);
+    }
+
+    public String decrypt(String value, String iv) {
+        return exchange(SidecarProtocol.DECRYPT, writer -> writer.writeString(iv).writeString(value),
+                FrameReader::readString);
+    }
+
+    /**
+     * Encrypts all values of the map except {@code objectId}, in one request.
+     */
+    public Map<String, String> encryptList(Map<String, String> data, String iv) {
+        return exchange(SidecarProtocol.ENCRYPT_LIST, writer -> writeEntries(writer, data, iv), reader -> {
+            int count = reader.readInt();
+            Map<String, String> result = new LinkedHashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                result.put(reader.readString(), reader.readString());
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Decrypts all values of the map except {@code objectId}, in one request. An entry that cannot be
+     * decrypted is reported with its status instead of failing the batch.
+     */
+    public Map<String, DecryptResult> decryptList(Map<String, String> data, String iv) {
+        return exchange(SidecarProtocol.DECRYPT_LIST, writer -> writeEntries(writer, data, iv), reader -> {
+            int count = reader.readInt();
+            Map<String, DecryptResult> result = new LinkedHashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                String key = reader.readString();
+                DecryptStatus status = SidecarProtocol.decryptStatus(reader.readByte());
+                String value = reader.readString();
+                result.put(key, new DecryptResult(status, value));
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    private static void writeEntries(FrameWriter writer, Map<String, String> data, String iv) {
+        writer.writeString(iv).writeInt(data.size());
+        data.forEach((key, value) -> writer.writeString(key).writeString(value));
+    }
+
+    private <T> T exchange(byte operation, RequestBody body, ResponseBody<T> response) {
+        Connection connection = idle.pollFirst();
+        try {
+            if (connection == null) {
+                connection = new Connection(SocketChannel.open(StandardProtocolFamily.UNIX));
+                connection.channel.connect(address);
+            }
+            body.write(connection.writer.begin(operation));
+            connection.writer.writeTo(connection.channel);
+            int status = connection.reader.next(connection.channel);
+            if (status == SidecarProtocol.OK) {
+                T result = response.read(connection.reader);
+                release(connection);
+                return result;
+            }
+            String message = connection.reader.readString();
+            release(connection);
+            throw new CvsClientException(status == SidecarProtocol.BAD_REQUEST ? 400 : 500, message);
+        } catch (IOException | MalformedFrameException e) {
+            if (connection != null) {
+                connection.close();
+            }
+            throw new CvsClientException("Sidecar request to " + address.getPath() + " failed", e);
+        }
+    }
+
+    private void release(Connection connection) {
+        // Most recently used first, so surplus connections of a burst stay idle
+        idle.offerFirst(connection);
+        if (closed && idle.remove(connection)) {
+            connection.close();
+        }
+    }
+
+    private interface RequestBody {
+        void write(FrameWriter writer);
+    }
+
+    private interface ResponseBody<T> {
+        T read(FrameReader reader);
+    }
+
+    private static final class Connection {
+        private final SocketChannel channel;
+        private final FrameReader reader = new FrameReader(MAX_FRAME_SIZE);
+        private final FrameWriter writer = new FrameWriter();
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing left to clean up
+            }
+        }
+    }
+}
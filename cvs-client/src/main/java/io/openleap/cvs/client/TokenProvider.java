@@ -0,0 +1,39 @@
+package io.openleap.cvs.client;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Supplies the bearer token sent with every request.
+ */
+public interface TokenProvider {
+
+    /**
+     * Provider for services running with the {@code logger} profile, which do not check tokens.
+     */
+    TokenProvider NONE = () -> null;
+
+    /**
+     * @return the access token, or {@code null} to send the request without an {@code Authorization} header
+     */
+    String token();
+
+    /**
+     * Called by {@link CvsClient} for every request, possibly on the thread that flushes batches and starts
+     * hedged requests. The default calls {@link #token()} right away; providers that may block override it.
+     *
+     * @return future of the access token, which may be {@code null}
+     */
+    default CompletableFuture<String> tokenAsync() {
+        try {
+            return CompletableFuture.completedFuture(token());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Called when the service rejected the current token, so the next call fetches a new one.
+     */
+    default void invalidate() {
+    }
+}
@@ -0,0 +1,83 @@
+package io.openleap.cvs.client;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares one request per value with coalesced requests against a running service, e.g. one started
+ * with the {@code logger} profile. Run it with {@code scripts/measure_client}.
+ * <p>
+ * Arguments: base URI (default {@code http://localhost:8080}), number of caller threads (default 64),
+ * seconds per scenario (default 10).
+ */
+public class ClientBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        URI endpoint = URI.create(args.length > 0 ? args[0] : "http://localhost:8080");
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 10);
+
+        System.out.printf("%-12s %12s %10s %10s %10s %10s%n",
+                "scenario", "values/s", "requests", "p50 ms", "p99 ms", "p99.9 ms");
+        run("per-value", endpoint, threads, duration, Duration.ZERO);
+        run("coalesced", endpoint, threads, duration, new CvsClientProperties().getBatchWindow());
+    }
+
+    private static void run(String name, URI endpoint, int threads, Duration duration, Duration batchWindow)
+            throws Exception {
+        CvsClientProperties properties = new CvsClientProperties();
+        properties.setBatchWindow(batchWindow);
+        try (CvsClient client = new CvsClient(properties, EndpointResolver.of(endpoint), TokenProvider.NONE)) {
+            // Warm up connections and the JIT of both sides
+            measure(client, threads, Duration.ofSeconds(2));
+            long requestsBefore = client.getRequestCount();
+            long[] latencies = measure(client, threads, duration);
+            long requests = client.getRequestCount() - requestsBefore;
+            System.out.printf("%-12s %12.0f %10d %10.2f %10.2f %10.2f%n", name,
+                    latencies.length / (duration.toNanos() / 1e9), requests,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999));
+        }
+    }
+
+    private static long[] measure(CvsClient client, int threads, Duration duration) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long end = System.nanoTime() + duration.toNanos();
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String iv = "bench-user-" + (t % 4);
+            results.add(executor.submit(() -> {
+                long[] samples = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < end) {
+                    long start = System.nanoTime();
+                    client.encrypt("benchmark value " + count, iv);
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(samples, count);
+            }));
+        }
+        List<long[]> perThread = new ArrayList<>();
+        for (Future<long[]> result : results) {
+            perThread.add(result.get());
+        }
+        executor.shutdown();
+        long[] all = perThread.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return all;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(quantile * sorted.length))] / 1e6;
+    }
+}
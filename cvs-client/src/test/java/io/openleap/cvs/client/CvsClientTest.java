@@ -0,0 +1,427 @@
+package io.openleap.cvs.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CvsClient Tests")
+public class CvsClientTest {
+
+    private static final String IV = "user123";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<StubService> services = new ArrayList<>();
+    private CvsClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        services.forEach(service -> service.server.stop(0));
+    }
+
+    @Test
+    @DisplayName("Should coalesce concurrent single values into one list request")
+    void shouldCoalesceConcurrentValues() {
+        // Given
+        StubService service = startService(0);
+        client = createClient(Duration.ofMillis(200), service);
+
+        // When
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            results.add(client.encryptAsync("value-" + i, IV));
+        }
+
+        // Then
+        for (int i = 0; i < 50; i++) {
+            assertEquals("enc:" + IV + ":value-" + i, results.get(i).join());
+        }
+        assertEquals(List.of("/api/cvs/encryptList"), List.copyOf(service.paths));
+        assertEquals(1, client.getRequestCount());
+    }
+
+    @Test
+    @DisplayName("Should split coalesced values by initialization vector and batch size")
+    void shouldSplitBatchesByIvAndSize() {
+        // Given
+        StubService service = startService(0);
+        CvsClientProperties properties = properties(Duration.ofMillis(200));
+        properties.setMaxBatchSize(10);
+        client = new CvsClient(properties, EndpointResolver.of(service.uri()), TokenProvider.NONE);
+
+        // When
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(client.encryptAsync("value-" + i, IV));
+        }
+        CompletableFuture<String> otherUser = client.encryptAsync("value-0", "user456");
+
+        // Then
+        results.forEach(CompletableFuture::join);
+        assertEquals("enc:user456:value-0", otherUser.join());
+        assertEquals(List.of("/api/cvs/encryptList", "/api/cvs/encryptList", "/api/cvs/encrypt"),
+                List.copyOf(service.paths));
+    }
+
+    @Test
+    @DisplayName("Should use the single value endpoint when nothing else arrives within the window")
+    void shouldSendSingleValueAlone() {
+        // Given
+        StubService service = startService(0);
+        client = createClient(Duration.ofMillis(1), service);
+
+        // When
+        String encrypted = client.encrypt("lonely", IV);
+
+        // Then
+        assertEquals("enc:" + IV + ":lonely", encrypted);
+        assertEquals(List.of("/api/cvs/encrypt"), List.copyOf(service.paths));
+    }
+
+    @Test
+    @DisplayName("Should fail only the caller whose value cannot be decrypted")
+    void shouldFailOnlyInvalidValueInBatch() {
+        // Given
+        StubService service = startService(0);
+        client = createClient(Duration.ofMillis(200), service);
+
+        // When
+        CompletableFuture<String> valid = client.decryptAsync("enc:" + IV + ":secret", IV);
+        CompletableFuture<String> invalid = client.decryptAsync("garbage", IV);
+
+        // Then
+        assertEquals("secret", valid.join());
+        CompletionException exception = assertThrows(CompletionException.class, invalid::join);
+        assertEquals(400, ((CvsClientException) exception.getCause()).getStatusCode());
+        assertEquals("/api/cvs/decryptListWithStatus", service.paths.peek());
+    }
+
+    @Test
+    @DisplayName("Should answer from the second instance when the first one is slow")
+    void shouldHedgeSlowRequest() {
+        // Given
+        StubService slow = startService(2000);
+        StubService fast = startService(0);
+        CvsClientProperties properties = properties(Duration.ZERO);
+        properties.setHedgeDelay(Duration.ofMillis(20));
+        client = new CvsClient(properties, EndpointResolver.of(slow.uri(), fast.uri()), TokenProvider.NONE);
+
+        // When
+        long start = System.nanoTime();
+        String encrypted = client.encrypt("value", IV);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertEquals("enc:" + IV + ":value", encrypted);
+        assertTrue(elapsedMillis < 1000, "took " + elapsedMillis + " ms");
+        assertEquals(1, client.getHedgedRequestCount());
+    }
+
+    @Test
+    @DisplayName("Should not hedge requests that are answered within the hedge delay")
+    void shouldNotHedgeFastRequest() {
+        // Given
+        StubService first = startService(0);
+        StubService second = startService(0);
+        CvsClientProperties properties = properties(Duration.ZERO);
+        properties.setHedgeDelay(Duration.ofSeconds(2));
+        client = new CvsClient(properties, EndpointResolver.of(first.uri(), second.uri()), TokenProvider.NONE);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            client.encrypt("value-" + i, IV);
+        }
+
+        // Then
+        assertEquals(0, client.getHedgedRequestCount());
+        assertEquals(2, first.paths.size());
+        assertEquals(2, second.paths.size());
+    }
+
+    @Test
+    @DisplayName("Should fail over to the second instance on a server error")
+    void shouldFailOverOnServerError() {
+        // Given
+        StubService failing = startService(0);
+        failing.status = 503;
+        StubService healthy = startService(0);
+        CvsClientProperties properties = properties(Duration.ZERO);
+        properties.setHedgeDelay(Duration.ofSeconds(2));
+        client = new CvsClient(properties, EndpointResolver.of(failing.uri(), healthy.uri()), TokenProvider.NONE);
+
+        // When
+        String encrypted = client.encrypt("value", IV);
+
+        // Then
+        assertEquals("enc:" + IV + ":value", encrypted);
+        assertEquals(1, failing.paths.size());
+        assertEquals(1, healthy.paths.size());
+    }
+
+    @Test
+    @DisplayName("Should not retry client errors on another instance")
+    void shouldNotRetryClientErrors() {
+        // Given
+        StubService first = startService(0);
+        first.status = 400;
+        StubService second = startService(0);
+        client = new CvsClient(properties(Duration.ZERO), EndpointResolver.of(first.uri(), second.uri()),
+                TokenProvider.NONE);
+
+        // When
+        CvsClientException exception = assertThrows(CvsClientException.class, () -> client.encrypt("value", IV));
+
+        // Then
+        assertEquals(400, exception.getStatusCode());
+        assertTrue(second.paths.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reuse the access token until it expires")
+    void shouldCacheAccessToken() throws IOException {
+        // Given
+        StubService service = startService(0);
+        AtomicInteger tokenRequests = new AtomicInteger();
+        HttpServer tokenServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        tokenServer.createContext("/token", exchange -> {
+            tokenRequests.incrementAndGet();
+            respond(exchange, 200, "{\"access_token\":\"token-" + tokenRequests.get() + "\",\"expires_in\":300}");
+        });
+        tokenServer.start();
+        CvsClientProperties properties = properties(Duration.ZERO);
+        TokenProvider tokenProvider = new ClientCredentialsTokenProvider(
+                URI.create("http://127.0.0.1:" + tokenServer.getAddress().getPort() + "/token"),
+                "cvs", "secret", properties);
+        client = new CvsClient(properties, EndpointResolver.of(service.uri()), tokenProvider);
+
+        try {
+            // When
+            for (int i = 0; i < 5; i++) {
+                client.encrypt("value-" + i, IV);
+            }
+
+            // Then
+            assertEquals(1, tokenRequests.get());
+            assertEquals(List.of("Bearer token-1"), service.authorizations.stream().distinct().toList());
+        } finally {
+            tokenServer.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should request the access token without blocking the caller")
+    void shouldFetchAccessTokenAsynchronously() throws Exception {
+        // Given
+        StubService service = startService(0);
+        AtomicInteger tokenRequests = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer tokenServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        tokenServer.createContext("/token", exchange -> {
+            tokenRequests.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "{\"access_token\":\"token-1\",\"expires_in\":300}");
+        });
+        tokenServer.setExecutor(Executors.newCachedThreadPool());
+        tokenServer.start();
+        CvsClientProperties properties = properties(Duration.ofMillis(10));
+        TokenProvider tokenProvider = new ClientCredentialsTokenProvider(
+                URI.create("http://127.0.0.1:" + tokenServer.getAddress().getPort() + "/token"),
+                "cvs", "secret", properties);
+        client = new CvsClient(properties, EndpointResolver.of(service.uri()), tokenProvider);
+
+        try {
+            // When
+            CompletableFuture<String> first = client.encryptAsync("value-1", "iv-1");
+            sleep(100);
+            CompletableFuture<String> second = client.encryptAsync("value-2", "iv-2");
+            CompletableFuture<String> token = tokenProvider.tokenAsync();
+            sleep(100);
+
+            // Then
+            assertFalse(token.isDone());
+            assertFalse(first.isDone());
+            assertEquals(1, tokenRequests.get());
+            release.countDown();
+            assertEquals("enc:iv-1:value-1", first.get(5, TimeUnit.SECONDS));
+            assertEquals("enc:iv-2:value-2", second.get(5, TimeUnit.SECONDS));
+            assertEquals("token-1", token.get(5, TimeUnit.SECONDS));
+            assertEquals(1, tokenRequests.get());
+            assertEquals(List.of("Bearer token-1"), service.authorizations.stream().distinct().toList());
+        } finally {
+            release.countDown();
+            tokenServer.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should pass maps through the list endpoints")
+    void shouldEncryptAndDecryptMaps() {
+        // Given
+        StubService service = startService(0);
+        client = createClient(Duration.ZERO, service);
+
+        // When
+        Map<String, String> encrypted = client.encryptList(Map.of("field", "secret", "objectId", "42"), IV);
+        Map<String, String> decrypted = client.decryptList(encrypted, IV);
+
+        // Then
+        assertEquals("42", encrypted.get("objectId"));
+        assertEquals("enc:" + IV + ":secret", encrypted.get("field"));
+        assertEquals(Map.of("field", "secret", "objectId", "42"), decrypted);
+    }
+
+    @Test
+    @DisplayName("Should fail when no instance is available")
+    void shouldFailWithoutEndpoints() {
+        // Given
+        client = new CvsClient(properties(Duration.ZERO), List::of, TokenProvider.NONE);
+
+        // When & Then
+        CvsClientException exception = assertThrows(CvsClientException.class, () -> client.encrypt("value", IV));
+        assertEquals(0, exception.getStatusCode());
+    }
+
+    private CvsClient createClient(Duration batchWindow, StubService service) {
+        return new CvsClient(properties(batchWindow), EndpointResolver.of(service.uri()), TokenProvider.NONE);
+    }
+
+    private static CvsClientProperties properties(Duration batchWindow) {
+        CvsClientProperties properties = new CvsClientProperties();
+        properties.setBatchWindow(batchWindow);
+        return properties;
+    }
+
+    /**
+     * Local stand-in for the service that "encrypts" a value to {@code enc:<iv>:<value>}.
+     */
+    private StubService startService(long delayMillis) {
+        try {
+            StubService service = new StubService(HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0));
+            service.server.createContext("/api/cvs", exchange -> {
+                service.paths.add(exchange.getRequestURI().getPath());
+                String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+                if (authorization != null) {
+                    service.authorizations.add(authorization);
+                }
+                sleep(delayMillis);
+                if (service.status != 200) {
+                    respond(exchange, service.status, "{\"message\":\"failure\"}");
+                    return;
+                }
+                JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+                String iv = request.path("iv").asText();
+                respond(exchange, 200, switch (exchange.getRequestURI().getPath()) {
+                    case "/api/cvs/encrypt" -> "enc:" + iv + ":" + request.path("value").asText();
+                    case "/api/cvs/encryptList" -> mapValues(request.path("data"), value -> "enc:" + iv + ":" + value);
+                    case "/api/cvs/decryptList" -> mapValues(request.path("data"), value -> decrypt(value, iv));
+                    case "/api/cvs/decryptListWithStatus" -> decryptWithStatus(request.path("data"), iv);
+                    default -> "";
+                });
+            });
+            service.server.setExecutor(Executors.newCachedThreadPool());
+            service.server.start();
+            services.add(service);
+            return service;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String mapValues(JsonNode data, java.util.function.UnaryOperator<String> operation) {
+        ObjectNode result = objectMapper.createObjectNode();
+        for (Iterator<Map.Entry<String, JsonNode>> it = data.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> entry = it.next();
+            String value = entry.getValue().asText();
+            result.put(entry.getKey(), "objectId".equals(entry.getKey()) ? value : operation.apply(value));
+        }
+        return result.toString();
+    }
+
+    private String decryptWithStatus(JsonNode data, String iv) {
+        ObjectNode results = objectMapper.createObjectNode();
+        int failed = 0;
+        for (Iterator<Map.Entry<String, JsonNode>> it = data.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> entry = it.next();
+            String plain = decrypt(entry.getValue().asText(), iv);
+            ObjectNode result = results.putObject(entry.getKey());
+            if (plain == null) {
+                result.put("status", "AUTH_FAILURE");
+                failed++;
+            } else {
+                result.put("status", "OK").put("value", plain);
+            }
+        }
+        ObjectNode response = objectMapper.createObjectNode();
+        response.set("data", results);
+        response.put("failed", failed);
+        return response.toString();
+    }
+
+    private static String decrypt(String value, String iv) {
+        String prefix = "enc:" + iv + ":";
+        return value.startsWith(prefix) ? value.substring(prefix.length()) : null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class StubService {
+        private final HttpServer server;
+        private final Queue<String> paths = new ConcurrentLinkedQueue<>();
+        private final Queue<String> authorizations = new ConcurrentLinkedQueue<>();
+        private volatile int status = 200;
+
+        private StubService(HttpServer server) {
+            this.server = server;
+        }
+
+        private URI uri() {
+            return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package io.openleap.cvs.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EnvelopeEncryptor Tests")
+public class EnvelopeEncryptorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, byte[]> issuedKeys = new ConcurrentHashMap<>();
+    private final AtomicInteger generateCalls = new AtomicInteger();
+    private final AtomicInteger unwrapCalls = new AtomicInteger();
+    private HttpServer server;
+    private CvsClient client;
+    private CvsClientProperties properties;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Local stand-in for the data key endpoints that hands out random keys and remembers them
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/cvs/generateDataKey", exchange -> {
+            generateCalls.incrementAndGet();
+            byte[] key = new byte[32];
+            byte[] wrapped = new byte[65];
+            random.nextBytes(key);
+            random.nextBytes(wrapped);
+            String wrappedKey = Base64.getUrlEncoder().withoutPadding().encodeToString(wrapped);
+            issuedKeys.put(wrappedKey, key);
+            respond(exchange, 200, dataKeyResponse(key, wrappedKey));
+        });
+        server.createContext("/api/cvs/unwrapDataKey", exchange -> {
+            unwrapCalls.incrementAndGet();
+            String wrappedKey = objectMapper.readTree(exchange.getRequestBody()).path("wrappedKey").asText();
+            byte[] key = issuedKeys.get(wrappedKey);
+            if (key == null) {
+                respond(exchange, 400, "{\"message\":\"Data key failed authentication\"}");
+            } else {
+                respond(exchange, 200, dataKeyResponse(key, wrappedKey));
+            }
+        });
+        server.start();
+        properties = new CvsClientProperties();
+        client = new CvsClient(properties,
+                EndpointResolver.of(URI.create("http://127.0.0.1:" + server.getAddress().getPort())),
+                TokenProvider.NONE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should encrypt many values with one data key request")
+    void shouldEncryptLocallyWithOneDataKey() {
+        // Given
+        EnvelopeEncryptor encryptor = new EnvelopeEncryptor(client, properties);
+
+        // When
+        Set<String> envelopes = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            envelopes.add(encryptor.encrypt("same value"));
+        }
+
+        // Then
+        assertEquals(1, generateCalls.get());
+        assertEquals(100, envelopes.size());
+        envelopes.forEach(envelope -> assertEquals("same value", encryptor.decrypt(envelope)));
+        assertEquals(0, unwrapCalls.get());
+    }
+
+    @Test
+    @DisplayName("Should request a new data key once the maximum number of uses is reached")
+    void shouldRotateAfterMaxUses() {
+        // Given
+        properties.setDataKeyMaxUses(10);
+        EnvelopeEncryptor encryptor = new EnvelopeEncryptor(client, properties);
+
+        // When
+        for (int i = 0; i < 25; i++) {
+            encryptor.encrypt("value-" + i);
+        }
+
+        // Then
+        assertEquals(3, generateCalls.get());
+    }
+
+    @Test
+    @DisplayName("Should request a new data key once the current one is too old")
+    void shouldRotateAfterMaxAge() throws InterruptedException {
+        // Given
+        properties.setDataKeyMaxAge(Duration.ofMillis(50));
+        EnvelopeEncryptor encryptor = new EnvelopeEncryptor(client, properties);
+        encryptor.encrypt("first");
+
+        // When
+        Thread.sleep(100);
+        encryptor.encrypt("second");
+
+        // Then
+        assertEquals(2, generateCalls.get());
+    }
+
+    @Test
+    @DisplayName("Should unwrap a foreign data key once and then use the cached key")
+    void shouldCacheUnwrappedKeys() {
+        // Given
+        String first = new EnvelopeEncryptor(client, properties).encrypt("first");
+        String second = new EnvelopeEncryptor(client, properties).encrypt("second");
+        EnvelopeEncryptor decryptor = new EnvelopeEncryptor(client, properties);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            assertEquals("first", decryptor.decrypt(first));
+            assertEquals("second", decryptor.decrypt(second));
+        }
+
+        // Then
+        assertEquals(2, unwrapCalls.get());
+    }
+
+    @Test
+    @DisplayName("Should reject a tampered envelope")
+    void shouldRejectTamperedEnvelope() {
+        // Given
+        EnvelopeEncryptor encryptor = new EnvelopeEncryptor(client, properties);
+        byte[] envelope = Base64.getUrlDecoder().decode(encryptor.encrypt("value"));
+        envelope[envelope.length - 1] ^= 1;
+
+        // When
+        CvsClientException exception = assertThrows(CvsClientException.class,
+                () -> encryptor.decrypt(Base64.getUrlEncoder().withoutPadding().encodeToString(envelope)));
+
+        // Then
+        assertEquals("Envelope failed authentication", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should reject values that are not envelopes")
+    void shouldRejectMalformedEnvelope() {
+        // Given
+        EnvelopeEncryptor encryptor = new EnvelopeEncryptor(client, properties);
+
+        // When & Then
+        assertThrows(CvsClientException.class, () -> encryptor.decrypt("not an envelope"));
+        assertThrows(CvsClientException.class, () -> encryptor.decrypt("AQID"));
+    }
+
+    private String dataKeyResponse(byte[] key, String wrappedKey) throws IOException {
+        return objectMapper.writeValueAsString(Map.of(
+                "plaintextKey", Base64.getEncoder().encodeToString(key),
+                "wrappedKey", wrappedKey));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.openleap.cvs.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EurekaEndpointResolver Tests")
+public class EurekaEndpointResolverTest {
+
+    private HttpServer server;
+    private volatile String applicationBody;
+    private volatile int statusCode = 200;
+    private EurekaEndpointResolver resolver;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Local stand-in for the Eureka apps endpoint
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/eureka/apps/CRYPTO-VAULT-SERVICE", exchange -> {
+            byte[] body = applicationBody.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(statusCode, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        resolver = new EurekaEndpointResolver(
+                URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/eureka"),
+                EurekaEndpointResolver.DEFAULT_APPLICATION_NAME, new CvsClientProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        resolver.close();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should resolve instances that are UP")
+    void shouldResolveInstancesThatAreUp() {
+        // Given
+        applicationBody = """
+                {"application": {"name": "CRYPTO-VAULT-SERVICE", "instance": [
+                  {"status": "UP", "homePageUrl": "http://cvs-1:8080/", "ipAddr": "10.0.0.1", "port": {"$": 8080}},
+                  {"status": "DOWN", "homePageUrl": "http://cvs-2:8080/", "ipAddr": "10.0.0.2", "port": {"$": 8080}},
+                  {"status": "UP", "ipAddr": "10.0.0.3", "port": {"$": 8081}}
+                ]}}
+                """;
+
+        // When
+        resolver.start();
+
+        // Then
+        assertEquals(List.of(URI.create("http://cvs-1:8080"), URI.create("http://10.0.0.3:8081")),
+                resolver.endpoints());
+    }
+
+    @Test
+    @DisplayName("Should accept a single instance that is not wrapped in an array")
+    void shouldResolveSingleInstance() {
+        // Given
+        applicationBody = """
+                {"application": {"name": "CRYPTO-VAULT-SERVICE", "instance":
+                  {"status": "UP", "homePageUrl": "http://cvs-1:8080/"}}}
+                """;
+
+        // When
+        resolver.start();
+
+        // Then
+        assertEquals(List.of(URI.create("http://cvs-1:8080")), resolver.endpoints());
+    }
+
+    @Test
+    @DisplayName("Should keep the last known instances when the registry fails")
+    void shouldKeepInstancesDuringOutage() {
+        // Given
+        applicationBody = """
+                {"application": {"instance": [{"status": "UP", "homePageUrl": "http://cvs-1:8080/"}]}}
+                """;
+        resolver.start();
+
+        // When
+        statusCode = 503;
+        resolver.refresh();
+
+        // Then
+        assertEquals(List.of(URI.create("http://cvs-1:8080")), resolver.endpoints());
+    }
+}
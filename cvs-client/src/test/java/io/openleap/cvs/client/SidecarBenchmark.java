@@ -0,0 +1,99 @@
+package io.openleap.cvs.client;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the REST API with the Unix domain socket listener of a running service, e.g. one started with
+ * the {@code logger} profile and {@code cvs.sidecar.enabled=true}. Run it with {@code scripts/measure_sidecar}.
+ * <p>
+ * Arguments: base URI (default {@code http://localhost:8080}), socket path (default
+ * {@code /tmp/cvs/cvs.sock}), number of caller threads (default 8), seconds per scenario (default 10).
+ */
+public class SidecarBenchmark {
+    private static final int LIST_SIZE = 100;
+
+    public static void main(String[] args) throws Exception {
+        URI endpoint = URI.create(args.length > 0 ? args[0] : "http://localhost:8080");
+        Path socketPath = Path.of(args.length > 1 ? args[1] : "/tmp/cvs/cvs.sock");
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        Duration duration = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 10);
+
+        Map<String, String> list = new LinkedHashMap<>();
+        for (int i = 0; i < LIST_SIZE; i++) {
+            list.put("field" + i, "benchmark value " + i);
+        }
+        CvsClientProperties properties = new CvsClientProperties();
+        properties.setBatchWindow(Duration.ZERO);
+        properties.setHedgingEnabled(false);
+
+        System.out.printf("%-14s %12s %12s %10s %10s %10s%n",
+                "scenario", "requests/s", "values/s", "p50 ms", "p99 ms", "p99.9 ms");
+        try (CvsClient rest = new CvsClient(properties, EndpointResolver.of(endpoint), TokenProvider.NONE);
+             SidecarClient sidecar = new SidecarClient(socketPath)) {
+            run("rest single", 1, threads, duration, iv -> rest.encrypt("benchmark value", iv));
+            run("socket single", 1, threads, duration, iv -> sidecar.encrypt("benchmark value", iv));
+            run("rest list", LIST_SIZE, threads, duration, iv -> rest.encryptList(list, iv));
+            run("socket list", LIST_SIZE, threads, duration, iv -> sidecar.encryptList(list, iv));
+        }
+    }
+
+    private static void run(String name, int valuesPerRequest, int threads, Duration duration, Operation operation)
+            throws Exception {
+        // Warm up connections and the JIT of both sides
+        measure(operation, threads, Duration.ofSeconds(2));
+        long[] latencies = measure(operation, threads, duration);
+        double requestsPerSecond = latencies.length / (duration.toNanos() / 1e9);
+        System.out.printf("%-14s %12.0f %12.0f %10.3f %10.3f %10.3f%n", name,
+                requestsPerSecond, requestsPerSecond * valuesPerRequest,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999));
+    }
+
+    private static long[] measure(Operation operation, int threads, Duration duration) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long end = System.nanoTime() + duration.toNanos();
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String iv = "bench-user-" + (t % 4);
+            results.add(executor.submit(() -> {
+                long[] samples = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < end) {
+                    long start = System.nanoTime();
+                    operation.run(iv);
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(samples, count);
+            }));
+        }
+        List<long[]> perThread = new ArrayList<>();
+        for (Future<long[]> result : results) {
+            perThread.add(result.get());
+        }
+        executor.shutdown();
+        return perThread.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(quantile * sorted.length))] / 1e6;
+    }
+
+    private interface Operation {
+        void run(String iv);
+    }
+}
@@ -0,0 +1,267 @@
+package io.openleap.cvs.core;
+
+import io.openleap.cvs.core.jfr.CipherEvent;
+import io.openleap.cvs.core.jfr.CipherSetupEvent;
+import io.openleap.cvs.core.jfr.CryptoEvents;
+import io.openleap.cvs.core.jfr.EncodingEvent;
+import javax.crypto.*;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+public class AESUtil {
+    private static final String BACKSLASH_REPLACEMENT = "+_01+";
+    private static final byte[] BASE64_ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(StandardCharsets.US_ASCII);
+    private static final int[] BASE64_VALUES = new int[128];
+    // URL encoding of '+', of the slash replacement and of '='
+    private static final byte[] ENCODED_PLUS = "%2B".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ENCODED_SLASH = "%2B_01%2B".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ENCODED_PADDING = "%3D".getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        Arrays.fill(BASE64_VALUES, -1);
+        for (int i = 0; i < BASE64_ALPHABET.length; i++) {
+            BASE64_VALUES[BASE64_ALPHABET[i]] = i;
+        }
+    }
+
+    private AESUtil() {
+    }
+
+    public static String encrypt(String algorithm, String input, SecretKey key, GCMParameterSpec iv)
+            throws NoSuchPaddingException, NoSuchAlgorithmException, InvalidAlgorithmParameterException,
+            InvalidKeyException, BadPaddingException, IllegalBlockSizeException {
+        return encrypt(algorithm, input, key, iv, ValueCompression.DISABLED);
+    }
+
+    /**
+     * Like {@link #encrypt(String, String, SecretKey, GCMParameterSpec)}, but compresses the value first
+     * when {@code compression} is enabled and it pays off.
+     */
+    public static String encrypt(String algorithm, String input, SecretKey key, GCMParameterSpec iv,
+                                 ValueCompression compression)
+            throws NoSuchPaddingException, NoSuchAlgorithmException, InvalidAlgorithmParameterException,
+            InvalidKeyException, BadPaddingException, IllegalBlockSizeException {
+        CipherSetupEvent setupEvent = new CipherSetupEvent();
+        setupEvent.begin();
+        Cipher cipher = Cipher.getInstance(algorithm);
+        cipher.init(Cipher.ENCRYPT_MODE, key, iv);
+        setupEvent.operation = CryptoEvents.ENCRYPT;
+        setupEvent.commit();
+
+        CipherEvent cipherEvent = new CipherEvent();
+        cipherEvent.begin();
+        byte[] plainText = input.getBytes();
+        byte[] compressed = compression.compress(plainText, 0, plainText.length);
+        byte[] cipherText = cipher.doFinal(compressed != null ? compressed : plainText);
+        cipherEvent.operation = CryptoEvents.ENCRYPT;
+        cipherEvent.bytes = plainText.length;
+        cipherEvent.commit();
+
+        EncodingEvent encodingEvent = new EncodingEvent();
+        encodingEvent.begin();
+        var base64 = Base64.getEncoder().encodeToString(cipherText);
+        var backslashReplaced = base64.replace("/", BACKSLASH_REPLACEMENT);
+        var encoded = URLEncoder.encode(backslashReplaced, StandardCharsets.UTF_8);
+        encodingEvent.operation = EncodingEvent.ENCODE;
+        encodingEvent.bytes = cipherText.length;
+        encodingEvent.commit();
+
+        return encoded;
+    }
+
+    public static String decrypt(
+            String algorithm, String cipherText, SecretKey key, GCMParameterSpec iv)
+            throws NoSuchPaddingException, NoSuchAlgorithmException, InvalidAlgorithmParameterException,
+            InvalidKeyException, BadPaddingException, IllegalBlockSizeException {
+        return decrypt(algorithm, cipherText, key, iv, ValueCompression.DISABLED);
+    }
+
+    /**
+     * Like {@link #decrypt(String, String, SecretKey, GCMParameterSpec)}, and inflates a compressed value
+     * with the dictionary of {@code compression}.
+     *
+     * @throws BadPaddingException if a compressed value does not inflate
+     */
+    public static String decrypt(
+            String algorithm, String cipherText, SecretKey key, GCMParameterSpec iv, ValueCompression compression)
+            throws NoSuchPaddingException, NoSuchAlgorithmException, InvalidAlgorithmParameterException,
+            InvalidKeyException, BadPaddingException, IllegalBlockSizeException {
+        CipherSetupEvent setupEvent = new CipherSetupEvent();
+        setupEvent.begin();
+        Cipher cipher = Cipher.getInstance(algorithm);
+        cipher.init(Cipher.DECRYPT_MODE, key, iv);
+        setupEvent.operation = CryptoEvents.DECRYPT;
+        setupEvent.commit();
+
+        EncodingEvent encodingEvent = new EncodingEvent();
+        encodingEvent.begin();
+        var urlDecoded = URLDecoder.decode(cipherText, StandardCharsets.UTF_8);
+        var backslashRestored = urlDecoded.replace(BACKSLASH_REPLACEMENT, "/");
+        byte[] decoded = Base64.getDecoder().decode(backslashRestored);
+        encodingEvent.operation = EncodingEvent.DECODE;
+        encodingEvent.bytes = decoded.length;
+        encodingEvent.commit();
+
+        CipherEvent cipherEvent = new CipherEvent();
+        cipherEvent.begin();
+        byte[] plainText = cipher.doFinal(decoded);
+        cipherEvent.operation = CryptoEvents.DECRYPT;
+        cipherEvent.bytes = decoded.length;
+        cipherEvent.commit();
+
+        if (ValueCompression.isCompressed(plainText, 0, plainText.length)) {
+            plainText = compression.decompress(plainText, 0, plainText.length);
+            if (plainText == null) {
+                throw new BadPaddingException("Compressed value does not inflate");
+            }
+        }
+        return new String(plainText);
+    }
+
+    /**
+     * Reverses the transport encoding applied by {@link #encrypt}: URL decoding, restoring the slashes and
+     * Base64 decoding. Unlike {@link #decrypt} it does not throw on malformed input but returns {@code null},
+     * so batch callers can reject single entries without paying for an exception.
+     */
+    public static byte[] decodeCipherText(String cipherText) {
+        if (cipherText == null) {
+            return null;
+        }
+        // Characters outside Latin-1 become '?', which is rejected like any other non-Base64 character
+        byte[] encoded = cipherText.getBytes(StandardCharsets.ISO_8859_1);
+        int length = decodeCipherText(encoded, 0, encoded.length, encoded);
+        return length < 0 ? null : Arrays.copyOf(encoded, length);
+    }
+
+    /**
+     * Like {@link #decodeCipherText(String)}, but decodes {@code length} bytes of {@code source} into
+     * {@code target}, which may be the same array and needs room for {@code length} bytes.
+     *
+     * @return the number of cipher text bytes in {@code target}, or -1 if the input is malformed
+     */
+    public static int decodeCipherText(byte[] source, int offset, int length, byte[] target) {
+        EncodingEvent event = new EncodingEvent();
+        event.begin();
+        int decoded = decode(source, offset, length, target);
+        event.operation = EncodingEvent.DECODE;
+        event.bytes = decoded;
+        event.commit();
+        return decoded;
+    }
+
+    private static int decode(byte[] source, int offset, int length, byte[] target) {
+        // URL decoding
+        int decoded = 0;
+        for (int i = offset; i < offset + length; i++) {
+            byte c = source[i];
+            if (c == '%') {
+                int high = i + 2 < offset + length ? Character.digit(source[i + 1], 16) : -1;
+                int low = high >= 0 ? Character.digit(source[i + 2], 16) : -1;
+                if (low < 0 || high >= 8) {
+                    return -1;
+                }
+                target[decoded++] = (byte) (high << 4 | low);
+                i += 2;
+            } else {
+                target[decoded++] = c == '+' ? (byte) ' ' : c;
+            }
+        }
+
+        // Restoring the slashes, in place
+        int restored = 0;
+        for (int i = 0; i < decoded; i++) {
+            if (target[i] == '+' && i + 4 < decoded && target[i + 1] == '_' && target[i + 2] == '0'
+                    && target[i + 3] == '1' && target[i + 4] == '+') {
+                target[restored++] = '/';
+                i += 4;
+            } else {
+                target[restored++] = target[i];
+            }
+        }
+
+        // Base64 decoding, in place since the output never overtakes the input
+        if (restored % 4 != 0) {
+            return -1;
+        }
+        int padding = 0;
+        while (padding < 2 && padding < restored && target[restored - 1 - padding] == '=') {
+            padding++;
+        }
+        int bits = 0;
+        int bitCount = 0;
+        int output = 0;
+        for (int i = 0; i < restored - padding; i++) {
+            int value = target[i] >= 0 ? BASE64_VALUES[target[i]] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            bits = bits << 6 | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                target[output++] = (byte) (bits >> bitCount);
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Appends the transport encoding of the cipher text, exactly as {@link #encrypt} returns it, to
+     * {@code out}.
+     */
+    public static void appendCipherText(byte[] cipherText, int offset, int length, OutputBuffer out) {
+        EncodingEvent event = new EncodingEvent();
+        event.begin();
+        appendEncoded(cipherText, offset, length, out);
+        event.operation = EncodingEvent.ENCODE;
+        event.bytes = length;
+        event.commit();
+    }
+
+    private static void appendEncoded(byte[] cipherText, int offset, int length, OutputBuffer out) {
+        int end = offset + length;
+        int i = offset;
+        for (; i + 2 < end; i += 3) {
+            int bits = (cipherText[i] & 0xff) << 16 | (cipherText[i + 1] & 0xff) << 8 | (cipherText[i + 2] & 0xff);
+            appendBase64(out, bits >> 18);
+            appendBase64(out, bits >> 12);
+            appendBase64(out, bits >> 6);
+            appendBase64(out, bits);
+        }
+        if (i < end) {
+            int bits = (cipherText[i] & 0xff) << 16 | (i + 1 < end ? (cipherText[i + 1] & 0xff) << 8 : 0);
+            appendBase64(out, bits >> 18);
+            appendBase64(out, bits >> 12);
+            if (i + 1 < end) {
+                appendBase64(out, bits >> 6);
+            } else {
+                out.append(ENCODED_PADDING, 0, ENCODED_PADDING.length);
+            }
+            out.append(ENCODED_PADDING, 0, ENCODED_PADDING.length);
+        }
+    }
+
+    private static void appendBase64(OutputBuffer out, int sextet) {
+        byte c = BASE64_ALPHABET[sextet & 0x3f];
+        if (c == '+') {
+            out.append(ENCODED_PLUS, 0, ENCODED_PLUS.length);
+        } else if (c == '/') {
+            out.append(ENCODED_SLASH, 0, ENCODED_SLASH.length);
+        } else {
+            out.append(c);
+        }
+    }
+
+    public static SecretKey getKeyFromPassword(String password) {
+        return new SecretKeySpec(password.getBytes(StandardCharsets.UTF_8), 0, 32, "AES");
+    }
+}
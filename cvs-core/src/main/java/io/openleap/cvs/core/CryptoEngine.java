@@ -0,0 +1,397 @@
+package io.openleap.cvs.core;
+
+import io.openleap.cvs.core.jfr.CipherEvent;
+import io.openleap.cvs.core.jfr.CipherSetupEvent;
+import io.openleap.cvs.core.jfr.CryptoEvents;
+import javax.crypto.AEADBadTagException;
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * The encryption engine of the crypto vault service: AES/GCM with an initialization vector derived from the
+ * session user id, the transport encoding of the cipher text, batch processing, data keys and HMAC keys.
+ * <p>
+ * It has no dependencies, so JVM services running next to the vault can embed it and get byte-identical
+ * results without an HTTP call. Instances are immutable and thread-safe until they are {@link #destroy()
+ * destroyed}.
+ */
+public class CryptoEngine {
+    private static final String ALGORITHM = "AES/GCM/NoPadding";
+    private static final String OBJECT_ID = "objectId";
+    private static final int GCM_TAG_LENGTH_BYTES = 16;
+    private static final int DATA_KEY_LENGTH_BYTES = 32;
+    private static final int DATA_KEY_NONCE_LENGTH_BYTES = 12;
+    private static final byte DATA_KEY_FORMAT = 1;
+    // Format byte and master key fingerprint, authenticated as associated data
+    private static final int DATA_KEY_HEADER_LENGTH_BYTES = 5;
+    private static final int WRAPPED_DATA_KEY_LENGTH_BYTES =
+            DATA_KEY_HEADER_LENGTH_BYTES + DATA_KEY_NONCE_LENGTH_BYTES + DATA_KEY_LENGTH_BYTES + GCM_TAG_LENGTH_BYTES;
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+    // Further key IDs are derived on every call, so random IDs cannot grow the cache without bound
+    private static final int MAX_CACHED_HMAC_KEYS = 1024;
+
+    private final SecretKey key;
+    private final int keyVersion;
+    private final GCMParameterSpec ivParameterSpec;
+    private final ValueCompression compression;
+    private final CryptoEngine fallback;
+    private final Map<String, HmacKey> hmacKeys = new ConcurrentHashMap<>();
+
+    /**
+     * @param key                    the master key
+     * @param aesInitializationVector initialization vector used when no session user id is given; only its
+     *                                last 32 bytes are used
+     */
+    public CryptoEngine(SecretKey key, String aesInitializationVector) throws InvalidAlgorithmParameterException {
+        byte[] ivBytes = aesInitializationVector.getBytes();
+
+        if (ivBytes.length < 32) {
+            throw new InvalidAlgorithmParameterException("Wrong IV length: must be 32 bytes long");
+        }
+
+        this.key = key;
+        this.keyVersion = fingerprint(key);
+        this.ivParameterSpec =
+                new GCMParameterSpec(128, Arrays.copyOfRange(ivBytes, ivBytes.length - 32, ivBytes.length));
+        this.compression = ValueCompression.DISABLED;
+        this.fallback = null;
+    }
+
+    private CryptoEngine(CryptoEngine engine, ValueCompression compression, CryptoEngine fallback) {
+        this.key = engine.key;
+        this.keyVersion = engine.keyVersion;
+        this.ivParameterSpec = engine.ivParameterSpec;
+        this.compression = compression;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Creates an engine with the master key read from a key file, as the service does.
+     */
+    public static CryptoEngine fromKeyFile(Path keyFile, String aesInitializationVector)
+            throws IOException, InvalidAlgorithmParameterException {
+        byte[] keyFileBytes = Files.readAllBytes(keyFile);
+        try {
+            return new CryptoEngine(new RawSecretKey(keyFileBytes, 0, 32, "AES"), aesInitializationVector);
+        } finally {
+            Arrays.fill(keyFileBytes, (byte) 0);
+        }
+    }
+
+    /**
+     * Returns an engine with the same keys that compresses values before encrypting them as configured.
+     * Every engine inflates compressed values, but only with the dictionary it was given.
+     */
+    public CryptoEngine withCompression(ValueCompression compression) {
+        return new CryptoEngine(this, compression, fallback);
+    }
+
+    /**
+     * Returns an engine with the same keys that decrypts values and unwraps data keys with {@code previous}
+     * where its own key fails, so data of a previous master key stays readable while it is migrated.
+     * Encryption, data key generation and HMAC keys only use this engine's key.
+     */
+    public CryptoEngine withDecryptionFallback(CryptoEngine previous) {
+        return new CryptoEngine(this, compression, previous);
+    }
+
+    /**
+     * Returns a fingerprint of the master key, the first four bytes of its SHA-256 hash. It identifies the
+     * key without revealing anything about it.
+     */
+    public int getKeyVersion() {
+        return keyVersion;
+    }
+
+    private static int fingerprint(SecretKey key) {
+        byte[] encoded = key.getEncoded();
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(encoded);
+            return ByteBuffer.wrap(hash).getInt();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Arrays.fill(encoded, (byte) 0);
+        }
+    }
+
+    public GCMParameterSpec generateIvFromSessionUser(String sessionUserId) throws NoSuchAlgorithmException {
+        if (sessionUserId == null) {
+            return ivParameterSpec;
+        }
+
+        byte[] inputBytes = sessionUserId.getBytes(StandardCharsets.UTF_8);
+
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] hash = digest.digest(inputBytes);
+
+        byte[] iv = new byte[32];
+        System.arraycopy(hash, 0, iv, 0, 32);
+
+        return new GCMParameterSpec(128, iv);
+    }
+
+    /**
+     * Returns a cipher for the entries of one batch encrypted or decrypted with the given session user id.
+     */
+    public EntryCipher entryCipher(String iv) throws NoSuchAlgorithmException {
+        return new EntryCipher(key, generateIvFromSessionUser(iv), compression,
+                fallback != null ? fallback.entryCipher(iv) : null);
+    }
+
+    public String encrypt(String clearTextInput, String iv)
+            throws NoSuchAlgorithmException, InvalidAlgorithmParameterException, NoSuchPaddingException,
+            IllegalBlockSizeException, BadPaddingException, InvalidKeyException {
+
+        return AESUtil.encrypt(ALGORITHM, clearTextInput, key, generateIvFromSessionUser(iv), compression);
+    }
+
+    public String decrypt(String cipherInput, String iv)
+            throws NoSuchAlgorithmException, InvalidAlgorithmParameterException,
+            InvalidKeyException {
+        try {
+            return AESUtil.decrypt(ALGORITHM, cipherInput, key, generateIvFromSessionUser(iv), compression);
+        } catch (NoSuchPaddingException | IllegalBlockSizeException | BadPaddingException
+                 | IllegalArgumentException e) {
+            if (fallback != null) {
+                return fallback.decrypt(cipherInput, iv);
+            }
+            // IllegalArgumentException: the value is not valid Base64
+            throw new InvalidIvException(e.getMessage());
+        }
+    }
+
+    /**
+     * Encrypts every value of the map except {@code objectId}, which is passed through.
+     */
+    public Map<String, String> encrypt(Map<String, String> cipherInputList, String iv) {
+        return cipherInputList.entrySet().stream()
+                .collect(
+                        Collectors.toMap(
+                                v -> v.getKey(),
+                                v -> {
+                                    try {
+                                        return OBJECT_ID.equals(v.getKey())
+                                                ? v.getValue()
+                                                : encrypt(v.getValue(), iv);
+                                    } catch (NoSuchAlgorithmException
+                                             | InvalidAlgorithmParameterException
+                                             | NoSuchPaddingException
+                                             | IllegalBlockSizeException
+                                             | BadPaddingException
+                                             | InvalidKeyException e) {
+                                        throw new RuntimeException(e);
+                                    }
+                                }));
+    }
+
+    /**
+     * Decrypts every value of the map except {@code objectId}, which is passed through. Fails as a whole with
+     * an {@link InvalidIvException} if any value does not decrypt.
+     */
+    public Map<String, String> decrypt(Map<String, String> cipherInputList, String iv) {
+        return cipherInputList.entrySet().stream()
+                .collect(
+                        Collectors.toMap(
+                                v -> v.getKey(),
+                                v -> {
+                                    try {
+                                        return OBJECT_ID.equals(v.getKey())
+                                                ? v.getValue()
+                                                : decrypt(v.getValue(), iv);
+                                    } catch (NoSuchAlgorithmException
+                                             | InvalidAlgorithmParameterException
+                                             | InvalidKeyException e) {
+                                        throw new RuntimeException(e);
+                                    }
+                                }));
+    }
+
+    /**
+     * Decrypts every entry of the map independently. Instead of failing the whole batch, an entry that does
+     * not decrypt is reported with its status. Malformed input is detected without throwing; only an
+     * authentication failure surfaces from the cipher as an exception.
+     */
+    public Map<String, DecryptResult> decryptEntries(Map<String, String> cipherInputList, String iv)
+            throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidAlgorithmParameterException,
+            InvalidKeyException {
+        GCMParameterSpec parameterSpec = generateIvFromSessionUser(iv);
+        Cipher cipher = Cipher.getInstance(ALGORITHM);
+        Map<String, DecryptResult> results = new LinkedHashMap<>(cipherInputList.size() * 4 / 3 + 1);
+        for (Map.Entry<String, String> entry : cipherInputList.entrySet()) {
+            if (OBJECT_ID.equals(entry.getKey())) {
+                results.put(entry.getKey(), DecryptResult.ok(entry.getValue()));
+                continue;
+            }
+            byte[] cipherText = AESUtil.decodeCipherText(entry.getValue());
+            if (cipherText == null || cipherText.length < GCM_TAG_LENGTH_BYTES) {
+                results.put(entry.getKey(), DecryptResult.malformed());
+                continue;
+            }
+            CipherSetupEvent setupEvent = new CipherSetupEvent();
+            setupEvent.begin();
+            cipher.init(Cipher.DECRYPT_MODE, key, parameterSpec);
+            setupEvent.operation = CryptoEvents.DECRYPT;
+            setupEvent.commit();
+
+            CipherEvent cipherEvent = new CipherEvent();
+            cipherEvent.begin();
+            try {
+                byte[] plainText = cipher.doFinal(cipherText);
+                if (ValueCompression.isCompressed(plainText, 0, plainText.length)) {
+                    plainText = compression.decompress(plainText, 0, plainText.length);
+                }
+                results.put(entry.getKey(), plainText != null
+                        ? DecryptResult.ok(new String(plainText))
+                        : DecryptResult.malformed());
+            } catch (AEADBadTagException e) {
+                results.put(entry.getKey(), DecryptResult.authFailure());
+            } catch (IllegalBlockSizeException | BadPaddingException e) {
+                results.put(entry.getKey(), DecryptResult.malformed());
+            }
+            cipherEvent.operation = CryptoEvents.DECRYPT;
+            cipherEvent.bytes = cipherText.length;
+            cipherEvent.commit();
+        }
+        if (fallback != null) {
+            decryptFailedEntries(cipherInputList, iv, results);
+        }
+        return results;
+    }
+
+    private void decryptFailedEntries(Map<String, String> cipherInputList, String iv,
+                                      Map<String, DecryptResult> results)
+            throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidAlgorithmParameterException,
+            InvalidKeyException {
+        Map<String, String> failed = new LinkedHashMap<>();
+        results.forEach((name, result) -> {
+            if (result.status() == DecryptStatus.AUTH_FAILURE) {
+                failed.put(name, cipherInputList.get(name));
+            }
+        });
+        if (!failed.isEmpty()) {
+            fallback.decryptEntries(failed, iv).forEach((name, result) -> {
+                if (result.status() == DecryptStatus.OK) {
+                    results.put(name, result);
+                }
+            });
+        }
+    }
+
+    /**
+     * Generates a random AES-256 data key and seals a copy of it under the master key, so clients can
+     * encrypt locally and keep only the wrapped copy. Unlike values, data keys are sealed with a random
+     * nonce. The wrapped key is URL-safe Base64 of the format byte, the master key fingerprint, the nonce
+     * and the sealed key.
+     */
+    public DataKey generateDataKey() throws GeneralSecurityException {
+        byte[] dataKey = new byte[DATA_KEY_LENGTH_BYTES];
+        SECURE_RANDOM.nextBytes(dataKey);
+
+        ByteBuffer wrapped = ByteBuffer.allocate(WRAPPED_DATA_KEY_LENGTH_BYTES);
+        wrapped.put(DATA_KEY_FORMAT).putInt(keyVersion);
+        byte[] nonce = new byte[DATA_KEY_NONCE_LENGTH_BYTES];
+        SECURE_RANDOM.nextBytes(nonce);
+        wrapped.put(nonce);
+
+        Cipher cipher = Cipher.getInstance(ALGORITHM);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH_BYTES * 8, nonce));
+        cipher.updateAAD(wrapped.array(), 0, DATA_KEY_HEADER_LENGTH_BYTES);
+        wrapped.put(cipher.doFinal(dataKey));
+        return new DataKey(dataKey, Base64.getUrlEncoder().withoutPadding().encodeToString(wrapped.array()));
+    }
+
+    /**
+     * Opens a data key wrapped by {@link #generateDataKey()}.
+     *
+     * @throws InvalidDataKeyException if the wrapped key is malformed, was sealed under another master key
+     *                                 or has been tampered with
+     */
+    public byte[] unwrapDataKey(String wrappedKey) throws GeneralSecurityException {
+        byte[] wrapped;
+        try {
+            wrapped = Base64.getUrlDecoder().decode(wrappedKey);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDataKeyException("Malformed data key");
+        }
+        if (wrapped.length != WRAPPED_DATA_KEY_LENGTH_BYTES || wrapped[0] != DATA_KEY_FORMAT) {
+            throw new InvalidDataKeyException("Malformed data key");
+        }
+        int wrappingKeyVersion = ByteBuffer.wrap(wrapped, 1, 4).getInt();
+        if (wrappingKeyVersion != keyVersion && fallback != null && wrappingKeyVersion == fallback.keyVersion) {
+            return fallback.unwrapDataKey(wrappedKey);
+        }
+        if (wrappingKeyVersion != keyVersion) {
+            throw new InvalidDataKeyException("Data key was wrapped under a different master key");
+        }
+
+        Cipher cipher = Cipher.getInstance(ALGORITHM);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH_BYTES * 8,
+                wrapped, DATA_KEY_HEADER_LENGTH_BYTES, DATA_KEY_NONCE_LENGTH_BYTES));
+        cipher.updateAAD(wrapped, 0, DATA_KEY_HEADER_LENGTH_BYTES);
+        int offset = DATA_KEY_HEADER_LENGTH_BYTES + DATA_KEY_NONCE_LENGTH_BYTES;
+        try {
+            return cipher.doFinal(wrapped, offset, wrapped.length - offset);
+        } catch (AEADBadTagException e) {
+            throw new InvalidDataKeyException("Data key failed authentication");
+        }
+    }
+
+    /**
+     * Returns the HMAC-SHA256 key derived from the master key for the key ID. Each key ID, for example one
+     * per webhook consumer, gets an independent key; the same master key always derives the same one.
+     */
+    public HmacKey hmacKey(String keyId) throws GeneralSecurityException {
+        HmacKey hmacKey = hmacKeys.get(keyId);
+        if (hmacKey == null) {
+            byte[] masterKey = key.getEncoded();
+            try {
+                hmacKey = new HmacKey(masterKey, keyId);
+            } finally {
+                Arrays.fill(masterKey, (byte) 0);
+            }
+            if (hmacKeys.size() < MAX_CACHED_HMAC_KEYS) {
+                hmacKeys.putIfAbsent(keyId, hmacKey);
+            }
+        }
+        return hmacKey;
+    }
+
+    /**
+     * Overwrites the master key read by {@link #fromKeyFile}, the cached HMAC keys and those of the fallback
+     * engine. Engines derived with {@link #withCompression} or {@link #withDecryptionFallback} share the
+     * master key and fail as well afterwards. A key passed to the constructor belongs to the caller and is
+     * left alone.
+     */
+    public void destroy() {
+        if (key instanceof RawSecretKey rawKey) {
+            rawKey.destroy();
+        }
+        hmacKeys.values().forEach(HmacKey::destroy);
+        hmacKeys.clear();
+        if (fallback != null) {
+            fallback.destroy();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package io.openleap.cvs.core;
+
+/**
+ * A freshly generated data key and the copy of it sealed under the master key.
+ */
+public record DataKey(byte[] plaintextKey, String wrappedKey) {
+}
@@ -0,0 +1,38 @@
+package io.openleap.cvs.core;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(
+    name = "DecryptResult",
+    description = "Outcome of decrypting a single entry of a batch"
+)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DecryptResult(
+    @Schema(
+        description = "Whether the entry was decrypted",
+        example = "OK"
+    )
+    DecryptStatus status,
+
+    @Schema(
+        description = "Decrypted value, only present if the status is OK",
+        example = "sensitive data 1"
+    )
+    String value
+) {
+    private static final DecryptResult AUTH_FAILURE = new DecryptResult(DecryptStatus.AUTH_FAILURE, null);
+    private static final DecryptResult MALFORMED = new DecryptResult(DecryptStatus.MALFORMED, null);
+
+    public static DecryptResult ok(String value) {
+        return new DecryptResult(DecryptStatus.OK, value);
+    }
+
+    public static DecryptResult authFailure() {
+        return AUTH_FAILURE;
+    }
+
+    public static DecryptResult malformed() {
+        return MALFORMED;
+    }
+}
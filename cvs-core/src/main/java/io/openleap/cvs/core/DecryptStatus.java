@@ -0,0 +1,10 @@
+package io.openleap.cvs.core;
+
+public enum DecryptStatus {
+    /** The value was decrypted. */
+    OK,
+    /** The value is well formed but its authentication tag does not match the key and IV. */
+    AUTH_FAILURE,
+    /** The value is not in the encoding produced by the encrypt endpoints. */
+    MALFORMED
+}
@@ -0,0 +1,165 @@
+package io.openleap.cvs.core;
+
+import io.openleap.cvs.core.jfr.CipherEvent;
+import io.openleap.cvs.core.jfr.CipherSetupEvent;
+import io.openleap.cvs.core.jfr.CryptoEvents;
+import javax.crypto.AEADBadTagException;
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.security.GeneralSecurityException;
+import java.security.Provider;
+
+/**
+ * Encrypts and decrypts the entries of one batch on raw UTF-8 bytes, so callers that parse and write the
+ * batch themselves never create strings for the values. The results are byte-identical to
+ * {@link CryptoEngine#encrypt(String, String)} and {@link CryptoEngine#decrypt(String, String)}.
+ * <p>
+ * Get one from {@link CryptoEngine#entryCipher(String)} per batch; an instance is not thread-safe.
+ */
+public class EntryCipher {
+    private static final String ALGORITHM = "AES/GCM/NoPadding";
+    private static final int GCM_TAG_LENGTH_BYTES = 16;
+
+    private final SecretKey key;
+    private final GCMParameterSpec parameterSpec;
+    private final ValueCompression compression;
+    // Cipher of the previous master key that values failing authentication are decrypted with, or null
+    private final EntryCipher fallback;
+    private Provider provider;
+    private Cipher decryptCipher;
+    private byte[] scratch = new byte[256];
+
+    EntryCipher(SecretKey key, GCMParameterSpec parameterSpec, ValueCompression compression,
+                EntryCipher fallback) {
+        this.key = key;
+        this.parameterSpec = parameterSpec;
+        this.compression = compression;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Encrypts UTF-8 plaintext and appends the transport-encoded cipher text to {@code out}.
+     */
+    public void encrypt(byte[] plaintext, int offset, int length, OutputBuffer out) throws GeneralSecurityException {
+        int cipherTextLength = seal(plaintext, offset, length);
+        AESUtil.appendCipherText(scratch, 0, cipherTextLength, out);
+    }
+
+    /**
+     * Like {@link #encrypt}, but appends the cipher text as raw bytes, for transports that carry binary
+     * values and need no Base64 and URL encoding.
+     */
+    public void encryptRaw(byte[] plaintext, int offset, int length, OutputBuffer out)
+            throws GeneralSecurityException {
+        int cipherTextLength = seal(plaintext, offset, length);
+        out.append(scratch, 0, cipherTextLength);
+    }
+
+    private int seal(byte[] plaintext, int offset, int length) throws GeneralSecurityException {
+        if (ValueCompression.isCompressed(plaintext, offset, length)) {
+            // Decryption would take it for a compressed value
+            throw new IllegalArgumentException("Plaintext is not UTF-8, it starts with the byte 0xFF");
+        }
+        byte[] compressed = compression.compress(plaintext, offset, length);
+        if (compressed != null) {
+            plaintext = compressed;
+            offset = 0;
+            length = compressed.length;
+        }
+        CipherSetupEvent setupEvent = new CipherSetupEvent();
+        setupEvent.begin();
+        // GCM refuses to encrypt twice with the same key and IV on one Cipher instance, but looking up the
+        // provider once saves most of the cost of creating one per value
+        Cipher cipher = provider == null ? Cipher.getInstance(ALGORITHM) : Cipher.getInstance(ALGORITHM, provider);
+        provider = cipher.getProvider();
+        cipher.init(Cipher.ENCRYPT_MODE, key, parameterSpec);
+        setupEvent.operation = CryptoEvents.ENCRYPT;
+        setupEvent.commit();
+
+        CipherEvent cipherEvent = new CipherEvent();
+        cipherEvent.begin();
+        ensureScratch(length + GCM_TAG_LENGTH_BYTES);
+        int cipherTextLength = cipher.doFinal(plaintext, offset, length, scratch, 0);
+        cipherEvent.operation = CryptoEvents.ENCRYPT;
+        cipherEvent.bytes = length;
+        cipherEvent.commit();
+        return cipherTextLength;
+    }
+
+    /**
+     * Decrypts transport-encoded cipher text and appends the UTF-8 plaintext to {@code out}. Nothing is
+     * appended unless the result is {@link DecryptStatus#OK}.
+     */
+    public DecryptStatus decrypt(byte[] cipherText, int offset, int length, OutputBuffer out)
+            throws GeneralSecurityException {
+        ensureScratch(length);
+        int decoded = AESUtil.decodeCipherText(cipherText, offset, length, scratch);
+        return open(scratch, 0, decoded, out);
+    }
+
+    /**
+     * Like {@link #decrypt}, but takes the cipher text as raw bytes, as {@link #encryptRaw} appends it.
+     */
+    public DecryptStatus decryptRaw(byte[] cipherText, int offset, int length, OutputBuffer out)
+            throws GeneralSecurityException {
+        return open(cipherText, offset, length, out);
+    }
+
+    private DecryptStatus open(byte[] cipherText, int offset, int length, OutputBuffer out)
+            throws GeneralSecurityException {
+        DecryptStatus status = openWithKey(cipherText, offset, length, out);
+        return status == DecryptStatus.AUTH_FAILURE && fallback != null
+                ? fallback.open(cipherText, offset, length, out)
+                : status;
+    }
+
+    private DecryptStatus openWithKey(byte[] cipherText, int offset, int length, OutputBuffer out)
+            throws GeneralSecurityException {
+        if (length < GCM_TAG_LENGTH_BYTES) {
+            return DecryptStatus.MALFORMED;
+        }
+        CipherSetupEvent setupEvent = new CipherSetupEvent();
+        setupEvent.begin();
+        if (decryptCipher == null) {
+            decryptCipher = Cipher.getInstance(ALGORITHM);
+        }
+        decryptCipher.init(Cipher.DECRYPT_MODE, key, parameterSpec);
+        setupEvent.operation = CryptoEvents.DECRYPT;
+        setupEvent.commit();
+
+        CipherEvent cipherEvent = new CipherEvent();
+        cipherEvent.begin();
+        out.ensureCapacity(length);
+        int start = out.length();
+        try {
+            int plaintextLength = decryptCipher.doFinal(cipherText, offset, length, out.array(), start);
+            if (!ValueCompression.isCompressed(out.array(), start, plaintextLength)) {
+                out.advance(plaintextLength);
+                return DecryptStatus.OK;
+            }
+            byte[] inflated = compression.decompress(out.array(), start, plaintextLength);
+            if (inflated == null) {
+                return DecryptStatus.MALFORMED;
+            }
+            out.append(inflated, 0, inflated.length);
+            return DecryptStatus.OK;
+        } catch (AEADBadTagException e) {
+            return DecryptStatus.AUTH_FAILURE;
+        } catch (IllegalBlockSizeException | BadPaddingException e) {
+            return DecryptStatus.MALFORMED;
+        } finally {
+            cipherEvent.operation = CryptoEvents.DECRYPT;
+            cipherEvent.bytes = length;
+            cipherEvent.commit();
+        }
+    }
+
+    private void ensureScratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package io.openleap.cvs.core;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * An HMAC-SHA256 key for one key ID, derived from the master key with HKDF (RFC 5869), so services can sign
+ * and verify messages without managing secrets of their own. See {@link CryptoEngine#hmacKey(String)}.
+ * <p>
+ * Signing reuses one {@link Mac} per thread, which stays initialized with the key it used last, so a
+ * signature costs neither a provider lookup nor a key schedule. {@link #clearThreadMacs()} drops these Macs
+ * of all threads when the master key is unloaded. Instances are immutable and thread-safe.
+ */
+public final class HmacKey {
+    public static final String ALGORITHM = "HmacSHA256";
+    public static final int SIGNATURE_LENGTH_BYTES = 32;
+
+    private static final byte[] INFO_PREFIX = "cvs-hmac:".getBytes(StandardCharsets.UTF_8);
+    private static final ThreadLocal<ThreadMac> THREAD_MACS = ThreadLocal.withInitial(ThreadMac::new);
+    // The Macs of all live threads, so that idle threads do not keep a key schedule after the key is unloaded
+    private static final Map<Thread, ThreadMac> ALL_THREAD_MACS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final String keyId;
+    private final RawSecretKey key;
+
+    HmacKey(byte[] masterKey, String keyId) throws GeneralSecurityException {
+        byte[] id = keyId.getBytes(StandardCharsets.UTF_8);
+        byte[] info = new byte[INFO_PREFIX.length + id.length];
+        System.arraycopy(INFO_PREFIX, 0, info, 0, INFO_PREFIX.length);
+        System.arraycopy(id, 0, info, INFO_PREFIX.length, id.length);
+        this.keyId = keyId;
+        byte[] derived = hkdf(masterKey, info);
+        this.key = new RawSecretKey(derived, 0, derived.length, ALGORITHM);
+        Arrays.fill(derived, (byte) 0);
+    }
+
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public byte[] sign(byte[] message) {
+        return mac().doFinal(message);
+    }
+
+    /**
+     * Compares the signature of the message with the given one in constant time.
+     */
+    public boolean verify(byte[] message, byte[] signature) {
+        return matches(sign(message), signature);
+    }
+
+    /**
+     * Returns the {@link Mac} of the current thread, initialized with this key, for messages that arrive in
+     * parts. Feed it with {@link Mac#update(byte[], int, int)} and finish with {@link Mac#doFinal()} before
+     * the thread signs with another key.
+     */
+    public Mac mac() {
+        ThreadMac threadMac = THREAD_MACS.get();
+        try {
+            Mac mac = threadMac.mac;
+            if (mac == null) {
+                mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                threadMac.key = this;
+                threadMac.mac = mac;
+            } else if (threadMac.key != this) {
+                mac.init(key);
+                threadMac.key = this;
+            } else {
+                // Discard what an aborted message may have left behind
+                mac.reset();
+            }
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns a new {@link Mac} initialized with this key, for a second message in parallel on one thread.
+     */
+    public Mac newMac() throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(ALGORITHM);
+        mac.init(key);
+        return mac;
+    }
+
+    /**
+     * Drops the {@link Mac} of every thread together with the key it was initialized with. Called when the
+     * master key is unloaded, so that no thread keeps key material of an engine that is gone.
+     */
+    public static void clearThreadMacs() {
+        synchronized (ALL_THREAD_MACS) {
+            ALL_THREAD_MACS.values().forEach(ThreadMac::clear);
+        }
+    }
+
+    /**
+     * Overwrites the key, after which new Macs can no longer be initialized with it. Macs that threads keep
+     * initialized are dropped by {@link #clearThreadMacs()}.
+     */
+    void destroy() {
+        key.destroy();
+    }
+
+    /**
+     * @return number of threads whose {@link Mac} is initialized with a key
+     */
+    static int initializedThreadMacs() {
+        synchronized (ALL_THREAD_MACS) {
+            return (int) ALL_THREAD_MACS.values().stream().filter(threadMac -> threadMac.mac != null).count();
+        }
+    }
+
+    /**
+     * Compares two signatures in constant time.
+     */
+    public static boolean matches(byte[] expected, byte[] signature) {
+        return signature != null && MessageDigest.isEqual(expected, signature);
+    }
+
+    /**
+     * HKDF with SHA-256, no salt and 32 bytes of output.
+     */
+    static byte[] hkdf(byte[] inputKey, byte[] info) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(ALGORITHM);
+        mac.init(new SecretKeySpec(new byte[SIGNATURE_LENGTH_BYTES], ALGORITHM));
+        byte[] pseudoRandomKey = mac.doFinal(inputKey);
+        mac.init(new RawSecretKey(pseudoRandomKey, 0, pseudoRandomKey.length, ALGORITHM));
+        Arrays.fill(pseudoRandomKey, (byte) 0);
+        mac.update(info);
+        return mac.doFinal(new byte[]{1});
+    }
+
+    private static final class ThreadMac {
+        // Written by other threads only to clear it
+        private volatile Mac mac;
+        private volatile HmacKey key;
+
+        private ThreadMac() {
+            ALL_THREAD_MACS.put(Thread.currentThread(), this);
+        }
+
+        private void clear() {
+            mac = null;
+            key = null;
+        }
+    }
+}
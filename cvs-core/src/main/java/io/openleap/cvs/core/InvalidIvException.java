@@ -0,0 +1,8 @@
+package io.openleap.cvs.core;
+
+public class InvalidIvException extends RuntimeException {
+    public InvalidIvException(String message) {
+        // Thrown for bad client input, the stack trace carries no information
+        super(message, null, false, false);
+    }
+}
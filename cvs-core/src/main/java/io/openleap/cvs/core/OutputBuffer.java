@@ -0,0 +1,88 @@
+package io.openleap.cvs.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Growable byte buffer for encoding batch results without intermediate strings. Buffers are taken from a
+ * small shared pool with {@link #acquire()} and handed back with {@link #release()}; a buffer that is never
+ * released is simply garbage collected. An instance is not thread-safe.
+ */
+public final class OutputBuffer {
+    private static final int INITIAL_CAPACITY = 8192;
+    // Larger buffers are left to the garbage collector so a single huge batch does not pin its memory
+    private static final int MAX_POOLED_CAPACITY = 1024 * 1024;
+    private static final ArrayBlockingQueue<OutputBuffer> POOL = new ArrayBlockingQueue<>(64);
+
+    private byte[] bytes;
+    private int length;
+
+    private OutputBuffer(int capacity) {
+        bytes = new byte[capacity];
+    }
+
+    public static OutputBuffer acquire() {
+        OutputBuffer buffer = POOL.poll();
+        return buffer != null ? buffer : new OutputBuffer(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Returns the buffer to the pool. It must not be used afterwards.
+     */
+    public void release() {
+        length = 0;
+        if (bytes.length <= MAX_POOLED_CAPACITY) {
+            POOL.offer(this);
+        }
+    }
+
+    /**
+     * The backing array; only the first {@link #length()} bytes are valid. It is replaced when the buffer
+     * grows, so do not keep it across appends.
+     */
+    public byte[] array() {
+        return bytes;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public void reset() {
+        length = 0;
+    }
+
+    /**
+     * Makes room for {@code additional} more bytes.
+     */
+    public void ensureCapacity(int additional) {
+        int required = length + additional;
+        if (required > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length * 2));
+        }
+    }
+
+    /**
+     * Marks bytes written directly into {@link #array()} after {@link #ensureCapacity(int)} as valid.
+     */
+    public void advance(int count) {
+        length += count;
+    }
+
+    public void append(byte value) {
+        ensureCapacity(1);
+        bytes[length++] = value;
+    }
+
+    public void append(byte[] source, int offset, int count) {
+        ensureCapacity(count);
+        System.arraycopy(source, offset, bytes, length, count);
+        length += count;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, length);
+    }
+}
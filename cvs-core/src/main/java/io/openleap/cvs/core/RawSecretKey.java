@@ -0,0 +1,61 @@
+package io.openleap.cvs.core;
+
+import javax.crypto.SecretKey;
+import java.util.Arrays;
+
+/**
+ * A raw secret key whose bytes can be overwritten. {@link javax.crypto.spec.SecretKeySpec} keeps a copy of
+ * the key that cannot be cleared, this class keeps the only long-lived one and zeroes it in
+ * {@link #destroy()}. Ciphers and Macs take their own copy when they are initialized.
+ */
+final class RawSecretKey implements SecretKey {
+    private final String algorithm;
+    private final byte[] key;
+    private volatile boolean destroyed;
+
+    /**
+     * Copies {@code length} bytes of {@code key} from {@code offset}; the caller overwrites its array.
+     */
+    RawSecretKey(byte[] key, int offset, int length, String algorithm) {
+        if (key.length - offset < length) {
+            throw new IllegalArgumentException("Key must be at least " + length + " bytes long");
+        }
+        this.algorithm = algorithm;
+        this.key = Arrays.copyOfRange(key, offset, offset + length);
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    @Override
+    public String getFormat() {
+        return "RAW";
+    }
+
+    /**
+     * @throws IllegalStateException if the key has been destroyed
+     */
+    @Override
+    public byte[] getEncoded() {
+        byte[] copy = key.clone();
+        // Checked after copying, so a copy taken while the key is overwritten is never returned
+        if (destroyed) {
+            Arrays.fill(copy, (byte) 0);
+            throw new IllegalStateException("Key has been destroyed");
+        }
+        return copy;
+    }
+
+    @Override
+    public void destroy() {
+        destroyed = true;
+        Arrays.fill(key, (byte) 0);
+    }
+
+    @Override
+    public boolean isDestroyed() {
+        return destroyed;
+    }
+}
@@ -0,0 +1,182 @@
+package io.openleap.cvs.core;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate compression of values before they are encrypted, for large text such as JSON or XML documents.
+ * <p>
+ * A compressed value's plaintext starts with a header: the byte {@code 0xFF}, which never occurs in UTF-8 and
+ * so tells compressed values from values encrypted without compression, the codec, the dictionary id if a
+ * preset dictionary was used, and the length of the inflated value. The header is encrypted and
+ * authenticated with the rest of the value. Decryption inflates such values whether or not compression is
+ * enabled. Plaintext that starts with {@code 0xFF} is refused on encryption, so it cannot pass for a
+ * compressed value. Instances are immutable and thread-safe.
+ */
+public final class ValueCompression {
+    /**
+     * Never compresses, but inflates values compressed without a dictionary.
+     */
+    public static final ValueCompression DISABLED =
+            new ValueCompression(false, Integer.MAX_VALUE, Deflater.DEFAULT_COMPRESSION, null);
+
+    static final byte MARKER = (byte) 0xFF;
+    private static final byte DEFLATE = 1;
+    private static final byte DEFLATE_DICTIONARY = 2;
+    // Marker, codec, dictionary id and inflated length
+    private static final int MAX_HEADER_LENGTH = 10;
+    // Deflate only refers back 32 KB, so a longer dictionary is never used
+    private static final int MAX_DICTIONARY_LENGTH = 32 * 1024;
+    private static final int INITIAL_OUTPUT_LENGTH = 1024;
+
+    private final boolean enabled;
+    private final int minSize;
+    private final int level;
+    private final byte[] dictionary;
+    private final int dictionaryId;
+
+    /**
+     * @param enabled    whether values are compressed; if not, they are only inflated
+     * @param minSize    values shorter than this many bytes are never compressed
+     * @param level      Deflate level from 1 (fastest) to 9 (smallest), or -1 for the default of 6
+     * @param dictionary preset dictionary of typical content, the most common at the end, or {@code null};
+     *                   only its last 32 KB are used
+     */
+    public ValueCompression(boolean enabled, int minSize, int level, byte[] dictionary) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Deflate level must be between 1 and 9 or -1, was " + level);
+        }
+        this.enabled = enabled;
+        this.minSize = minSize;
+        this.level = level;
+        this.dictionary = dictionary == null || dictionary.length == 0 ? null
+                : Arrays.copyOfRange(dictionary, Math.max(0, dictionary.length - MAX_DICTIONARY_LENGTH), dictionary.length);
+        this.dictionaryId = this.dictionary == null ? 0 : fingerprint(this.dictionary);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Compresses a value with its header.
+     *
+     * @return the compressed value, or {@code null} if compression is disabled, the value is shorter than
+     * the minimum size or it would not get smaller
+     */
+    public byte[] compress(byte[] plaintext, int offset, int length) {
+        if (!enabled || length < minSize || length <= MAX_HEADER_LENGTH) {
+            return null;
+        }
+        // Anything that does not fit is not worth it
+        byte[] compressed = new byte[length - 1];
+        int position = 0;
+        compressed[position++] = MARKER;
+        compressed[position++] = dictionary == null ? DEFLATE : DEFLATE_DICTIONARY;
+        if (dictionary != null) {
+            position = putInt(compressed, position, dictionaryId);
+        }
+        position = putInt(compressed, position, length);
+
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(plaintext, offset, length);
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (position == compressed.length) {
+                    return null;
+                }
+                position += deflater.deflate(compressed, position, compressed.length - position);
+            }
+        } finally {
+            deflater.end();
+        }
+        return Arrays.copyOf(compressed, position);
+    }
+
+    /**
+     * Whether a decrypted value was compressed by {@link #compress}.
+     */
+    public static boolean isCompressed(byte[] value, int offset, int length) {
+        return length > 0 && value[offset] == MARKER;
+    }
+
+    /**
+     * Inflates a value compressed by {@link #compress}.
+     *
+     * @return the plaintext, or {@code null} if the value is malformed or was compressed with another
+     * dictionary
+     */
+    public byte[] decompress(byte[] value, int offset, int length) {
+        int end = offset + length;
+        if (length < MAX_HEADER_LENGTH - 4 || value[offset] != MARKER) {
+            return null;
+        }
+        byte codec = value[offset + 1];
+        int position = offset + 2;
+        if (codec == DEFLATE_DICTIONARY) {
+            if (length < MAX_HEADER_LENGTH || dictionary == null || getInt(value, position) != dictionaryId) {
+                return null;
+            }
+            position += 4;
+        } else if (codec != DEFLATE) {
+            return null;
+        }
+        int inflatedLength = getInt(value, position);
+        position += 4;
+        if (inflatedLength < 0) {
+            return null;
+        }
+
+        // The header is authenticated, but not trusted with an allocation: the output grows as it is inflated
+        byte[] plaintext = new byte[Math.min(inflatedLength, Math.max(INITIAL_OUTPUT_LENGTH, 4 * (end - position)))];
+        Inflater inflater = new Inflater(true);
+        try {
+            if (codec == DEFLATE_DICTIONARY) {
+                inflater.setDictionary(dictionary);
+            }
+            inflater.setInput(value, position, end - position);
+            int inflated = 0;
+            while (inflated < inflatedLength) {
+                if (inflated == plaintext.length) {
+                    plaintext = Arrays.copyOf(plaintext, (int) Math.min(inflatedLength, 2L * plaintext.length));
+                }
+                int count = inflater.inflate(plaintext, inflated, plaintext.length - inflated);
+                if (count == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    return null;
+                }
+                inflated += count;
+            }
+            return plaintext;
+        } catch (DataFormatException e) {
+            return null;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int putInt(byte[] target, int position, int value) {
+        ByteBuffer.wrap(target, position, 4).putInt(value);
+        return position + 4;
+    }
+
+    private static int getInt(byte[] source, int position) {
+        return ByteBuffer.wrap(source, position, 4).getInt();
+    }
+
+    private static int fingerprint(byte[] dictionary) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(dictionary)).getInt();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
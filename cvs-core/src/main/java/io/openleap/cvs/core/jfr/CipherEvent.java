@@ -0,0 +1,29 @@
+package io.openleap.cvs.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Encrypting or decrypting one value with an initialized cipher. Emitted per value, so it is disabled
+ * unless a recording enables it.
+ */
+@Name("io.openleap.cvs.Cipher")
+@Label("Cipher")
+@Category({"Crypto Vault", "Phases"})
+@Description("Cipher.doFinal of one value")
+@Enabled(false)
+@StackTrace(false)
+public class CipherEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Input Bytes")
+    @DataAmount
+    public long bytes;
+}
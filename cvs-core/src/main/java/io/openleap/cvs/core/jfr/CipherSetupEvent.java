@@ -0,0 +1,24 @@
+package io.openleap.cvs.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Looking up and initializing a {@link javax.crypto.Cipher}. Emitted per value, so it is disabled unless a
+ * recording enables it.
+ */
+@Name("io.openleap.cvs.CipherSetup")
+@Label("Cipher Setup")
+@Category({"Crypto Vault", "Phases"})
+@Description("Cipher.getInstance and Cipher.init")
+@Enabled(false)
+@StackTrace(false)
+public class CipherSetupEvent extends Event {
+    @Label("Operation")
+    public String operation;
+}
@@ -0,0 +1,24 @@
+package io.openleap.cvs.core.jfr;
+
+import jdk.jfr.Event;
+
+import java.util.List;
+
+/**
+ * The Flight Recorder events of the engine. Enable them in a recording, for example with
+ * {@code jdk.jfr.Recording#enable(Class)}, to see where the time of a request goes.
+ */
+public final class CryptoEvents {
+    public static final String ENCRYPT = "ENCRYPT";
+    public static final String DECRYPT = "DECRYPT";
+    public static final String REENCRYPT = "REENCRYPT";
+
+    public static final List<Class<? extends Event>> TYPES = List.of(
+            CryptoOperationEvent.class,
+            CipherSetupEvent.class,
+            CipherEvent.class,
+            EncodingEvent.class);
+
+    private CryptoEvents() {
+    }
+}
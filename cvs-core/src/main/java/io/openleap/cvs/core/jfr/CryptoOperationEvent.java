@@ -0,0 +1,35 @@
+package io.openleap.cvs.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One encrypt or decrypt call of a value or batch, from start to end. Emitted once per call, so it is
+ * enabled by default.
+ */
+@Name("io.openleap.cvs.CryptoOperation")
+@Label("Crypto Operation")
+@Category({"Crypto Vault"})
+@Description("An encrypt or decrypt call of a value or batch")
+@StackTrace(false)
+public class CryptoOperationEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Batch Size")
+    @Description("Number of entries, 1 for single values")
+    public int batchSize;
+
+    @Label("Plaintext Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Key Version")
+    @Description("Fingerprint of the master key")
+    public int keyVersion;
+}
@@ -0,0 +1,32 @@
+package io.openleap.cvs.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Applying or reversing the transport encoding of one cipher text: Base64, the slash replacement and URL
+ * encoding. Emitted per value, so it is disabled unless a recording enables it.
+ */
+@Name("io.openleap.cvs.Encoding")
+@Label("Cipher Text Encoding")
+@Category({"Crypto Vault", "Phases"})
+@Description("Transport encoding or decoding of one cipher text")
+@Enabled(false)
+@StackTrace(false)
+public class EncodingEvent extends Event {
+    public static final String ENCODE = "ENCODE";
+    public static final String DECODE = "DECODE";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Cipher Text Bytes")
+    @DataAmount
+    public long bytes;
+}
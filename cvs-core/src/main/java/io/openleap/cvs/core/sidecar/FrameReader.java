@@ -0,0 +1,103 @@
+package io.openleap.cvs.core.sidecar;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads {@link SidecarProtocol} frames from a blocking channel. The read buffer grows up to the maximum frame
+ * size and is reused for every frame of a connection; an instance is not thread-safe.
+ * <p>
+ * Reading past the end of a frame or a string length that does not fit the frame throws a
+ * {@link MalformedFrameException}.
+ */
+public class FrameReader {
+    private final int maxFrameSize;
+    private final ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+    private ByteBuffer frame = ByteBuffer.allocate(4096);
+
+    public FrameReader(int maxFrameSize) {
+        this.maxFrameSize = maxFrameSize;
+    }
+
+    /**
+     * Reads the next frame and returns its type.
+     *
+     * @return the type byte, or -1 if the channel was closed between frames
+     * @throws MalformedFrameException if the frame is empty or larger than the maximum frame size
+     */
+    public int next(ReadableByteChannel channel) throws IOException {
+        lengthBuffer.clear();
+        if (!readFully(channel, lengthBuffer, true)) {
+            return -1;
+        }
+        int length = lengthBuffer.getInt(0);
+        if (length < 1 || length > maxFrameSize) {
+            throw new MalformedFrameException("Invalid frame length " + length);
+        }
+        if (frame.capacity() < length) {
+            frame = ByteBuffer.allocate(Math.min(maxFrameSize, Math.max(length, frame.capacity() * 2)));
+        }
+        frame.clear().limit(length);
+        readFully(channel, frame, false);
+        frame.flip();
+        return frame.get();
+    }
+
+    public int readByte() {
+        try {
+            return frame.get();
+        } catch (BufferUnderflowException e) {
+            throw new MalformedFrameException("Frame too short");
+        }
+    }
+
+    public int readInt() {
+        try {
+            return frame.getInt();
+        } catch (BufferUnderflowException e) {
+            throw new MalformedFrameException("Frame too short");
+        }
+    }
+
+    public String readString() {
+        int length = readInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > frame.remaining()) {
+            throw new MalformedFrameException("Invalid string length " + length);
+        }
+        String value = new String(frame.array(), frame.position(), length, StandardCharsets.UTF_8);
+        frame.position(frame.position() + length);
+        return value;
+    }
+
+    /**
+     * Reads an entry count and checks it against the remaining frame, so a bogus count cannot make the caller
+     * allocate a huge map. Every entry takes at least {@code minEntrySize} bytes.
+     */
+    public int readCount(int minEntrySize) {
+        int count = readInt();
+        if (count < 0 || (long) count * minEntrySize > frame.remaining()) {
+            throw new MalformedFrameException("Invalid entry count " + count);
+        }
+        return count;
+    }
+
+    private static boolean readFully(ReadableByteChannel channel, ByteBuffer buffer, boolean eofAllowed)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (eofAllowed && buffer.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("Connection closed in the middle of a frame");
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,63 @@
+package io.openleap.cvs.core.sidecar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Builds {@link SidecarProtocol} frames. An instance is reused for every frame of a connection and is not
+ * thread-safe.
+ */
+public class FrameWriter extends ByteArrayOutputStream {
+
+    public FrameWriter() {
+        super(4096);
+    }
+
+    /**
+     * Discards the previous frame and starts a new one of the given type.
+     */
+    public FrameWriter begin(byte type) {
+        reset();
+        // Length placeholder, filled in by writeTo
+        count = 4;
+        write(type);
+        return this;
+    }
+
+    public FrameWriter writeByte(int value) {
+        write(value);
+        return this;
+    }
+
+    public FrameWriter writeInt(int value) {
+        write(value >>> 24);
+        write(value >>> 16);
+        write(value >>> 8);
+        write(value);
+        return this;
+    }
+
+    public FrameWriter writeString(String value) {
+        if (value == null) {
+            return writeInt(-1);
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        write(bytes, 0, bytes.length);
+        return this;
+    }
+
+    /**
+     * Completes the frame and writes it to the channel.
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer frame = ByteBuffer.wrap(buf, 0, count);
+        frame.putInt(0, count - 4);
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package io.openleap.cvs.core.sidecar;
+
+public class MalformedFrameException extends RuntimeException {
+    public MalformedFrameException(String message) {
+        // Thrown for bad client input, the stack trace carries no information
+        super(message, null, false, false);
+    }
+}
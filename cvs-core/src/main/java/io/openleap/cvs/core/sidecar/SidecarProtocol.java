@@ -0,0 +1,63 @@
+package io.openleap.cvs.core.sidecar;
+
+import io.openleap.cvs.core.DecryptStatus;
+
+/**
+ * Binary protocol of the Unix domain socket sidecar listener.
+ * <p>
+ * Every request and response is a frame: a big-endian {@code int} length of the rest of the frame, a type
+ * byte and the payload. Strings are an {@code int} byte length, {@code -1} for null, followed by UTF-8.
+ * Responses are sent in request order, so a client may pipeline requests on one connection.
+ * <pre>
+ * ENCRYPT      iv value                     -> OK value
+ * DECRYPT      iv value                     -> OK value
+ * ENCRYPT_LIST iv count (key value)*        -> OK count (key value)*
+ * DECRYPT_LIST iv count (key value)*        -> OK count (key status value)*
+ * </pre>
+ * {@code DECRYPT_LIST} reports every entry with one of the {@code ENTRY_} status codes and the value, which
+ * is null unless the status is {@link #ENTRY_OK}. The codes are part of the protocol and do not follow the
+ * order of {@link DecryptStatus}. Errors are answered with {@link #BAD_REQUEST} or {@link #ERROR} and a
+ * message.
+ */
+public final class SidecarProtocol {
+    public static final byte ENCRYPT = 1;
+    public static final byte DECRYPT = 2;
+    public static final byte ENCRYPT_LIST = 3;
+    public static final byte DECRYPT_LIST = 4;
+
+    public static final byte OK = 0;
+    public static final byte BAD_REQUEST = 1;
+    public static final byte ERROR = 2;
+
+    public static final byte ENTRY_OK = 0;
+    public static final byte ENTRY_AUTH_FAILURE = 1;
+    public static final byte ENTRY_MALFORMED = 2;
+
+    private SidecarProtocol() {
+    }
+
+    /**
+     * Returns the code of a {@code DECRYPT_LIST} entry status.
+     */
+    public static byte entryStatus(DecryptStatus status) {
+        return switch (status) {
+            case OK -> ENTRY_OK;
+            case AUTH_FAILURE -> ENTRY_AUTH_FAILURE;
+            case MALFORMED -> ENTRY_MALFORMED;
+        };
+    }
+
+    /**
+     * Returns the status of a {@code DECRYPT_LIST} entry code.
+     *
+     * @throws MalformedFrameException if the code is not an entry status
+     */
+    public static DecryptStatus decryptStatus(int code) {
+        return switch (code) {
+            case ENTRY_OK -> DecryptStatus.OK;
+            case ENTRY_AUTH_FAILURE -> DecryptStatus.AUTH_FAILURE;
+            case ENTRY_MALFORMED -> DecryptStatus.MALFORMED;
+            default -> throw new MalformedFrameException("Unknown entry status " + code);
+        };
+    }
+}
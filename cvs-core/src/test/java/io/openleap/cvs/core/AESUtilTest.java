@@ -1,4 +1,4 @@
-package io.openleap.cvs.util;
+package io.openleap.cvs.core;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -8,8 +8,11 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -319,4 +322,51 @@ public class AESUtilTest {
         assertEquals(originalText, decrypted1);
         assertEquals(originalText, decrypted2);
     }
+
+    @Test
+    @DisplayName("Should decode the transport encoding of an encrypted value")
+    void shouldDecodeCipherText() throws Exception {
+        // Given
+        String encrypted = AESUtil.encrypt(ALGORITHM, "Text with / slashes / and more", secretKey, ivParameterSpec);
+        Cipher cipher = Cipher.getInstance(ALGORITHM);
+        cipher.init(Cipher.DECRYPT_MODE, secretKey, ivParameterSpec);
+
+        // When
+        byte[] cipherText = AESUtil.decodeCipherText(encrypted);
+
+        // Then
+        assertNotNull(cipherText);
+        assertEquals("Text with / slashes / and more", new String(cipher.doFinal(cipherText)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"abc", "a+bc", "ab%2", "%ZZab", "%C3%A4abc", "ab=c", "a===", "ab!d"})
+    @DisplayName("Should return null instead of throwing for malformed cipher text")
+    void shouldReturnNullForMalformedCipherText(String cipherText) {
+        // When & Then
+        assertNull(AESUtil.decodeCipherText(cipherText));
+    }
+
+    @Test
+    @DisplayName("Should append the same transport encoding as encrypt and decode it from bytes")
+    void shouldAppendAndDecodeCipherTextBytes() throws Exception {
+        for (String text : new String[]{"", "a", "ab", "Text with / slashes / and more", "??>>??>>"}) {
+            // Given
+            Cipher cipher = Cipher.getInstance(ALGORITHM);
+            cipher.init(Cipher.ENCRYPT_MODE, secretKey, ivParameterSpec);
+            byte[] cipherText = cipher.doFinal(text.getBytes(StandardCharsets.UTF_8));
+            OutputBuffer out = OutputBuffer.acquire();
+
+            // When
+            AESUtil.appendCipherText(cipherText, 0, cipherText.length, out);
+            String encoded = new String(out.array(), 0, out.length(), StandardCharsets.US_ASCII);
+            byte[] decoded = new byte[out.length()];
+            int decodedLength = AESUtil.decodeCipherText(out.array(), 0, out.length(), decoded);
+            out.release();
+
+            // Then
+            assertEquals(AESUtil.encrypt(ALGORITHM, text, secretKey, ivParameterSpec), encoded);
+            assertArrayEquals(cipherText, Arrays.copyOf(decoded, decodedLength));
+        }
+    }
 }
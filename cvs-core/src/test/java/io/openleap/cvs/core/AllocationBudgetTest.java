@@ -0,0 +1,202 @@
+package io.openleap.cvs.core;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Measures the bytes each hot path operation allocates on its thread and fails if it exceeds the budget in
+ * {@code allocation-budgets.properties}. An operation runs until the JIT has compiled it, then the lowest
+ * average of a few rounds counts, so the numbers are those of a warm service.
+ */
+@DisplayName("Allocation budget Tests")
+public class AllocationBudgetTest {
+
+    private static final String ALGORITHM = "AES/GCM/NoPadding";
+    private static final String SESSION_USER_ID = "user123";
+    // In values, so batches run fewer times
+    private static final int WARM_UP_VALUES = 20_000;
+    private static final int ROUNDS = 5;
+    private static final int VALUES_PER_ROUND = 2_000;
+
+    private static ThreadMXBean threadMXBean;
+    private static Properties budgets;
+
+    @TempDir
+    Path tempDir;
+
+    private CryptoEngine engine;
+    private SecretKey key;
+    private GCMParameterSpec iv;
+    // Keeps the results alive, so the JIT cannot drop the operations
+    private long sink;
+
+    @BeforeAll
+    static void loadBudgets() throws IOException {
+        assumeAllocationCounting();
+        budgets = new Properties();
+        try (InputStream in = AllocationBudgetTest.class.getResourceAsStream("/allocation-budgets.properties")) {
+            budgets.load(in);
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path keyFile = tempDir.resolve("secret.key");
+        Files.writeString(keyFile, "ThisIsATestSecretKeyForAESEncryption123456789012345678901234567890");
+        engine = CryptoEngine.fromKeyFile(keyFile, "ThisIsATestInitializationVector123456789012345678901234567890");
+        key = AESUtil.getKeyFromPassword("ThisIsATestPasswordForAESKeyGeneration123456789012345678901234567890");
+        iv = engine.generateIvFromSessionUser(SESSION_USER_ID);
+    }
+
+    @Test
+    @DisplayName("Should encrypt a 16 byte value within its allocation budget")
+    void shouldEncryptSmallValueWithinBudget() throws Exception {
+        String value = value(16);
+        assertWithinBudget("encrypt.16B", () -> AESUtil.encrypt(ALGORITHM, value, key, iv));
+    }
+
+    @Test
+    @DisplayName("Should encrypt a 1 KB value within its allocation budget")
+    void shouldEncryptLargeValueWithinBudget() throws Exception {
+        String value = value(1024);
+        assertWithinBudget("encrypt.1KB", () -> AESUtil.encrypt(ALGORITHM, value, key, iv));
+    }
+
+    @Test
+    @DisplayName("Should decrypt a 16 byte value within its allocation budget")
+    void shouldDecryptSmallValueWithinBudget() throws Exception {
+        String cipherText = AESUtil.encrypt(ALGORITHM, value(16), key, iv);
+        assertWithinBudget("decrypt.16B", () -> AESUtil.decrypt(ALGORITHM, cipherText, key, iv));
+    }
+
+    @Test
+    @DisplayName("Should decrypt a 1 KB value within its allocation budget")
+    void shouldDecryptLargeValueWithinBudget() throws Exception {
+        String cipherText = AESUtil.encrypt(ALGORITHM, value(1024), key, iv);
+        assertWithinBudget("decrypt.1KB", () -> AESUtil.decrypt(ALGORITHM, cipherText, key, iv));
+    }
+
+    @Test
+    @DisplayName("Should derive the initialization vector of a session user within its allocation budget")
+    void shouldGenerateIvWithinBudget() throws Exception {
+        assertWithinBudget("iv.session-user", () -> engine.generateIvFromSessionUser(SESSION_USER_ID));
+    }
+
+    @Test
+    @DisplayName("Should encrypt and decrypt batches of 10 and 100 values within their allocation budgets")
+    void shouldProcessMapBatchesWithinBudget() throws Exception {
+        for (int size : new int[]{10, 100}) {
+            Map<String, String> data = batch(size);
+            Map<String, String> encrypted = engine.encrypt(data, SESSION_USER_ID);
+            assertWithinBudget("encrypt-map." + size + "x32B", size,
+                    () -> engine.encrypt(data, SESSION_USER_ID));
+            assertWithinBudget("decrypt-map." + size + "x32B", size,
+                    () -> engine.decrypt(encrypted, SESSION_USER_ID));
+            assertWithinBudget("decrypt-entries." + size + "x32B", size,
+                    () -> engine.decryptEntries(encrypted, SESSION_USER_ID));
+        }
+    }
+
+    @Test
+    @DisplayName("Should stream a batch of 10 values within its allocation budget")
+    void shouldStreamBatchWithinBudget() throws Exception {
+        byte[] plaintext = value(32).getBytes(StandardCharsets.UTF_8);
+        OutputBuffer cipherText = OutputBuffer.acquire();
+        engine.entryCipher(SESSION_USER_ID).encrypt(plaintext, 0, plaintext.length, cipherText);
+        byte[] encoded = Arrays.copyOf(cipherText.array(), cipherText.length());
+        cipherText.release();
+
+        assertWithinBudget("stream-encrypt.10x32B", 10, () -> {
+            EntryCipher cipher = engine.entryCipher(SESSION_USER_ID);
+            OutputBuffer out = OutputBuffer.acquire();
+            for (int i = 0; i < 10; i++) {
+                cipher.encrypt(plaintext, 0, plaintext.length, out);
+            }
+            int length = out.length();
+            out.release();
+            return length;
+        });
+        assertWithinBudget("stream-decrypt.10x32B", 10, () -> {
+            EntryCipher cipher = engine.entryCipher(SESSION_USER_ID);
+            OutputBuffer out = OutputBuffer.acquire();
+            for (int i = 0; i < 10; i++) {
+                cipher.decrypt(encoded, 0, encoded.length, out);
+            }
+            int length = out.length();
+            out.release();
+            return length;
+        });
+    }
+
+    private interface Operation {
+        Object run() throws Exception;
+    }
+
+    private void assertWithinBudget(String name, Operation operation) throws Exception {
+        assertWithinBudget(name, 1, operation);
+    }
+
+    private void assertWithinBudget(String name, int values, Operation operation) throws Exception {
+        String budget = budgets.getProperty(name);
+        assertNotNull(budget, "No allocation budget for " + name + " in allocation-budgets.properties");
+        for (int i = 0; i < WARM_UP_VALUES / values; i++) {
+            sink += operation.run().hashCode();
+        }
+        int iterations = VALUES_PER_ROUND / values;
+        long lowest = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = threadMXBean.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < iterations; i++) {
+                sink += operation.run().hashCode();
+            }
+            lowest = Math.min(lowest, (threadMXBean.getCurrentThreadAllocatedBytes() - before) / iterations);
+        }
+        if (Boolean.getBoolean("cvs.allocation.report")) {
+            System.out.println(name + "=" + lowest);
+        }
+        assertTrue(lowest <= Long.parseLong(budget.trim()),
+                name + " allocates " + lowest + " bytes per operation, the budget is " + budget);
+    }
+
+    private static void assumeAllocationCounting() {
+        if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            threadMXBean = bean;
+        }
+        assumeTrue(threadMXBean != null, "The JVM does not count allocated bytes per thread");
+    }
+
+    private static Map<String, String> batch(int size) {
+        Map<String, String> data = new LinkedHashMap<>();
+        data.put("objectId", "42");
+        for (int i = 0; i < size; i++) {
+            data.put("field" + i, value(32));
+        }
+        return data;
+    }
+
+    private static String value(int length) {
+        return "x".repeat(length);
+    }
+}
@@ -0,0 +1,96 @@
+package io.openleap.cvs.core;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the transport size and the encrypt and decrypt latency of JSON and XML values of growing size
+ * with and without compression. Run it with {@code scripts/measure_compression}.
+ * <p>
+ * Arguments: milliseconds per measurement (default 500).
+ */
+public class CompressionBenchmark {
+    private static final String AES_INITIALIZATION_VECTOR =
+            "ThisIsATestInitializationVector123456789012345678901234567890";
+    private static final String IV = "bench-user";
+    private static final int[] SIZES = {128, 512, 2 * 1024, 8 * 1024, 32 * 1024, 128 * 1024};
+    private static final String[] CITIES = {"Berlin", "Köln", "Hamburg", "München", "Frankfurt", "Stuttgart"};
+
+    public static void main(String[] args) throws Exception {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 500;
+        CryptoEngine plain = new CryptoEngine(
+                AESUtil.getKeyFromPassword("ThisIsABenchmarkSecretKeyForAESEncryption1234567890"), AES_INITIALIZATION_VECTOR);
+
+        for (String format : List.of("json", "xml")) {
+            byte[] dictionary = document(format, 2 * 1024, new Random(1)).getBytes(StandardCharsets.UTF_8);
+            List<Variant> variants = List.of(
+                    new Variant("none", plain),
+                    new Variant("deflate 1", plain.withCompression(new ValueCompression(true, 0, 1, null))),
+                    new Variant("deflate 6", plain.withCompression(new ValueCompression(true, 0, 6, null))),
+                    new Variant("deflate 6 + dict", plain.withCompression(new ValueCompression(true, 0, 6, dictionary))));
+
+            System.out.printf("%s values%n%8s %-18s %10s %8s %12s %12s%n",
+                    format, "size", "variant", "encrypted", "ratio", "encrypt us", "decrypt us");
+            for (int size : SIZES) {
+                String value = document(format, size, new Random(size));
+                int valueBytes = value.getBytes(StandardCharsets.UTF_8).length;
+                for (Variant variant : variants) {
+                    String encrypted = variant.engine().encrypt(value, IV);
+                    double encryptMicros = measure(millis, () -> variant.engine().encrypt(value, IV));
+                    double decryptMicros = measure(millis, () -> variant.engine().decrypt(encrypted, IV));
+                    System.out.printf("%8d %-18s %10d %8.2f %12.1f %12.1f%n", valueBytes, variant.name(),
+                            encrypted.length(), encrypted.length() / (double) valueBytes, encryptMicros, decryptMicros);
+                }
+            }
+            System.out.println();
+        }
+    }
+
+    private static double measure(long millis, Operation operation) throws Exception {
+        // Warm up, then measure
+        for (int pass = 0; pass < 2; pass++) {
+            long end = System.nanoTime() + millis * 1_000_000;
+            long start = System.nanoTime();
+            int count = 0;
+            while (System.nanoTime() < end) {
+                operation.run();
+                count++;
+            }
+            if (pass == 1) {
+                return (System.nanoTime() - start) / 1000.0 / count;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * A document of about {@code size} bytes made of records with repeating keys and varying values.
+     */
+    private static String document(String format, int size, Random random) {
+        StringBuilder document = new StringBuilder(format.equals("json") ? "{\"customers\": [" : "<customers>");
+        for (int i = 0; document.length() < size; i++) {
+            String name = "customer-" + random.nextInt(100000);
+            String city = CITIES[random.nextInt(CITIES.length)];
+            int zip = 10000 + random.nextInt(89999);
+            if (format.equals("json")) {
+                document.append(i > 0 ? ", " : "").append("{\"id\": ").append(i).append(", \"name\": \"").append(name)
+                        .append("\", \"address\": {\"zip\": \"").append(zip).append("\", \"city\": \"")
+                        .append(city).append("\"}, \"active\": ").append(random.nextBoolean()).append('}');
+            } else {
+                document.append("<customer id=\"").append(i).append("\"><name>").append(name)
+                        .append("</name><address><zip>").append(zip).append("</zip><city>").append(city)
+                        .append("</city></address><active>").append(random.nextBoolean()).append("</active></customer>");
+            }
+        }
+        return document.append(format.equals("json") ? "]}" : "</customers>").toString();
+    }
+
+    private record Variant(String name, CryptoEngine engine) {
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,388 @@
+package io.openleap.cvs.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.InvalidAlgorithmParameterException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CryptoEngine Unit Tests")
+public class CryptoEngineTest {
+
+    private static final String AES_INITIALIZATION_VECTOR =
+            "ThisIsATestInitializationVector123456789012345678901234567890";
+
+    @TempDir
+    Path tempDir;
+
+    private Path keyFile;
+    private CryptoEngine engine;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keyFile = tempDir.resolve("secret.key");
+        Files.writeString(keyFile, "ThisIsATestSecretKeyForAESEncryption123456789012345678901234567890");
+        engine = CryptoEngine.fromKeyFile(keyFile, AES_INITIALIZATION_VECTOR);
+    }
+
+    @Test
+    @DisplayName("Should give the same cipher text from two engines with the same key")
+    void shouldBeDeterministicAcrossInstances() throws Exception {
+        // Given
+        CryptoEngine other = CryptoEngine.fromKeyFile(keyFile, AES_INITIALIZATION_VECTOR);
+
+        // When
+        String encrypted = engine.encrypt("sensitive data", "user123");
+
+        // Then
+        assertEquals(encrypted, other.encrypt("sensitive data", "user123"));
+        assertEquals("sensitive data", other.decrypt(encrypted, "user123"));
+        assertEquals(engine.getKeyVersion(), other.getKeyVersion());
+    }
+
+    @Test
+    @DisplayName("Should pass objectId through batches and report failed entries")
+    void shouldProcessBatches() throws Exception {
+        // Given
+        Map<String, String> data = new LinkedHashMap<>();
+        data.put("objectId", "42");
+        data.put("field", "value");
+
+        // When
+        Map<String, String> encrypted = engine.encrypt(data, "user123");
+        encrypted.put("broken", "AAAA");
+        Map<String, DecryptResult> results = engine.decryptEntries(encrypted, "user123");
+
+        // Then
+        assertEquals("42", encrypted.get("objectId"));
+        assertEquals(DecryptResult.ok("42"), results.get("objectId"));
+        assertEquals(DecryptResult.ok("value"), results.get("field"));
+        assertEquals(DecryptStatus.MALFORMED, results.get("broken").status());
+        assertThrows(InvalidIvException.class, () -> engine.decrypt(encrypted, "user123"));
+    }
+
+    @Test
+    @DisplayName("Should give the same results on bytes through an entry cipher")
+    void shouldMatchEntryCipherResults() throws Exception {
+        // Given
+        byte[] plaintext = "sensitive data ü".getBytes(StandardCharsets.UTF_8);
+        EntryCipher cipher = engine.entryCipher("user123");
+        OutputBuffer out = OutputBuffer.acquire();
+
+        // When
+        cipher.encrypt(plaintext, 0, plaintext.length, out);
+        String encrypted = new String(out.array(), 0, out.length(), StandardCharsets.US_ASCII);
+        out.reset();
+        byte[] encryptedBytes = encrypted.getBytes(StandardCharsets.US_ASCII);
+        DecryptStatus status = cipher.decrypt(encryptedBytes, 0, encryptedBytes.length, out);
+        DecryptStatus malformed = cipher.decrypt(new byte[]{'A', 'A'}, 0, 2, OutputBuffer.acquire());
+
+        // Then
+        assertEquals(engine.encrypt("sensitive data ü", "user123"), encrypted);
+        assertEquals(DecryptStatus.OK, status);
+        assertEquals("sensitive data ü", new String(out.array(), 0, out.length(), StandardCharsets.UTF_8));
+        assertEquals(DecryptStatus.MALFORMED, malformed);
+        out.release();
+    }
+
+    @Test
+    @DisplayName("Should encrypt to the raw bytes of the transport-encoded cipher text and decrypt them back")
+    void shouldEncryptRawCipherText() throws Exception {
+        // Given
+        byte[] plaintext = "sensitive data ü".getBytes(StandardCharsets.UTF_8);
+        EntryCipher cipher = engine.entryCipher("user123");
+        OutputBuffer out = OutputBuffer.acquire();
+
+        // When
+        cipher.encryptRaw(plaintext, 0, plaintext.length, out);
+        byte[] raw = Arrays.copyOf(out.array(), out.length());
+        out.reset();
+        DecryptStatus status = cipher.decryptRaw(raw, 0, raw.length, out);
+        raw[0] ^= 1;
+        DecryptStatus tampered = cipher.decryptRaw(raw, 0, raw.length, OutputBuffer.acquire());
+        DecryptStatus truncated = cipher.decryptRaw(raw, 0, 15, OutputBuffer.acquire());
+
+        // Then
+        raw[0] ^= 1;
+        assertArrayEquals(AESUtil.decodeCipherText(engine.encrypt("sensitive data ü", "user123")), raw);
+        assertEquals(DecryptStatus.OK, status);
+        assertEquals("sensitive data ü", new String(out.array(), 0, out.length(), StandardCharsets.UTF_8));
+        assertEquals(DecryptStatus.AUTH_FAILURE, tampered);
+        assertEquals(DecryptStatus.MALFORMED, truncated);
+        out.release();
+    }
+
+    @Test
+    @DisplayName("Should decrypt values and unwrap data keys of the previous master key with a fallback")
+    void shouldFallBackToPreviousKey() throws Exception {
+        // Given
+        Path newKeyFile = tempDir.resolve("new.key");
+        Files.writeString(newKeyFile, "AnotherTestSecretKeyForAESEncryption12345678901234567890123456789");
+        CryptoEngine current = CryptoEngine.fromKeyFile(newKeyFile, AES_INITIALIZATION_VECTOR);
+        CryptoEngine rotated = current.withDecryptionFallback(engine);
+        String previousValue = engine.encrypt("old value", "user123");
+        String currentValue = current.encrypt("new value", "user123");
+        DataKey previousDataKey = engine.generateDataKey();
+        byte[] previousBytes = previousValue.getBytes(StandardCharsets.US_ASCII);
+        byte[] previousRaw = AESUtil.decodeCipherText(previousValue);
+        EntryCipher cipher = rotated.entryCipher("user123");
+        OutputBuffer out = OutputBuffer.acquire();
+
+        // When
+        DecryptStatus status = cipher.decrypt(previousBytes, 0, previousBytes.length, out);
+        DecryptStatus rawStatus = cipher.decryptRaw(previousRaw, 0, previousRaw.length, out);
+        Map<String, DecryptResult> results = rotated.decryptEntries(
+                Map.of("old", previousValue, "new", currentValue, "other", engine.encrypt("x", "user456")),
+                "user123");
+
+        // Then
+        assertEquals(currentValue, rotated.encrypt("new value", "user123"));
+        assertEquals("old value", rotated.decrypt(previousValue, "user123"));
+        assertEquals("new value", rotated.decrypt(currentValue, "user123"));
+        assertEquals(Map.of("old", "old value", "new", "new value"),
+                rotated.decrypt(Map.of("old", previousValue, "new", currentValue), "user123"));
+        assertEquals(DecryptStatus.OK, status);
+        assertEquals(DecryptStatus.OK, rawStatus);
+        assertEquals("old valueold value", new String(out.array(), 0, out.length(), StandardCharsets.UTF_8));
+        assertEquals(DecryptResult.ok("old value"), results.get("old"));
+        assertEquals(DecryptResult.ok("new value"), results.get("new"));
+        assertEquals(DecryptStatus.AUTH_FAILURE, results.get("other").status());
+        assertThrows(InvalidIvException.class, () -> current.decrypt(previousValue, "user123"));
+        assertThrows(InvalidIvException.class, () -> rotated.decrypt(previousValue, "user456"));
+        assertArrayEquals(previousDataKey.plaintextKey(), rotated.unwrapDataKey(previousDataKey.wrappedKey()));
+        assertThrows(InvalidDataKeyException.class, () -> current.unwrapDataKey(previousDataKey.wrappedKey()));
+        out.release();
+    }
+
+    @Test
+    @DisplayName("Should compress large values and inflate them on every decrypt path")
+    void shouldCompressLargeValues() throws Exception {
+        // Given
+        CryptoEngine compressing = engine.withCompression(new ValueCompression(true, 256, -1, null));
+        String document = "{\"items\": [" + "{\"name\": \"item\", \"price\": 10}, ".repeat(50) + "{}]}";
+        byte[] documentBytes = document.getBytes(StandardCharsets.UTF_8);
+        EntryCipher cipher = compressing.entryCipher("user123");
+        OutputBuffer out = OutputBuffer.acquire();
+
+        // When
+        String encrypted = compressing.encrypt(document, "user123");
+        cipher.encrypt(documentBytes, 0, documentBytes.length, out);
+        String encryptedBytes = new String(out.array(), 0, out.length(), StandardCharsets.US_ASCII);
+        out.reset();
+        DecryptStatus status = cipher.decrypt(encryptedBytes.getBytes(StandardCharsets.US_ASCII), 0,
+                encryptedBytes.length(), out);
+
+        // Then
+        assertTrue(encrypted.length() < documentBytes.length / 4);
+        assertEquals(encrypted, encryptedBytes);
+        assertEquals(document, engine.decrypt(encrypted, "user123"));
+        assertEquals(DecryptResult.ok(document),
+                engine.decryptEntries(Map.of("document", encrypted), "user123").get("document"));
+        assertEquals(DecryptStatus.OK, status);
+        assertEquals(document, new String(out.array(), 0, out.length(), StandardCharsets.UTF_8));
+        assertEquals(engine.encrypt("short value", "user123"), compressing.encrypt("short value", "user123"));
+        assertEquals("short value", compressing.decrypt(engine.encrypt("short value", "user123"), "user123"));
+        out.release();
+    }
+
+    @Test
+    @DisplayName("Should refuse plaintext that looks compressed and not trust the inflated length")
+    void shouldNotTrustCompressionHeader() throws Exception {
+        // Given
+        byte[] looksCompressed = {(byte) 0xff, 0x01, 0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xff};
+        EntryCipher cipher = engine.entryCipher("user123");
+        OutputBuffer out = OutputBuffer.acquire();
+        ValueCompression compression = new ValueCompression(true, 32, -1, null);
+        byte[] document = "{\"name\": \"item\", \"price\": 10}, ".repeat(5000).getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = compression.compress(document, 0, document.length);
+        // A header that claims far more than the deflated data holds
+        byte[] inflatedLengthTooLarge = Arrays.copyOf(compressed, compressed.length);
+        inflatedLengthTooLarge[2] = 0x7f;
+        inflatedLengthTooLarge[3] = (byte) 0xff;
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> cipher.encryptRaw(looksCompressed, 0, looksCompressed.length, out));
+        assertThrows(IllegalArgumentException.class,
+                () -> cipher.encrypt(looksCompressed, 0, looksCompressed.length, out));
+        assertEquals(0, out.length());
+        assertTrue(compressed.length * 4 < document.length);
+        assertArrayEquals(document, compression.decompress(compressed, 0, compressed.length));
+        assertNull(compression.decompress(inflatedLengthTooLarge, 0, inflatedLengthTooLarge.length));
+        out.release();
+    }
+
+    @Test
+    @DisplayName("Should inflate values compressed with a dictionary only with the same dictionary")
+    void shouldRequireSameDictionary() throws Exception {
+        // Given
+        byte[] dictionary = "{\"firstName\": \"\", \"lastName\": \"\", \"street\": \"\", \"city\": \"\"}"
+                .getBytes(StandardCharsets.UTF_8);
+        CryptoEngine withDictionary = engine.withCompression(new ValueCompression(true, 32, 9, dictionary));
+        CryptoEngine otherDictionary = engine.withCompression(
+                new ValueCompression(false, 32, 9, "other".getBytes(StandardCharsets.UTF_8)));
+        String value = "{\"firstName\": \"Jane\", \"lastName\": \"Doe\", \"street\": \"Main St\", \"city\": \"Köln\"}";
+
+        // When
+        String encrypted = withDictionary.encrypt(value, "user123");
+
+        // Then
+        assertTrue(encrypted.length() < engine.encrypt(value, "user123").length());
+        assertEquals(value, withDictionary.decrypt(encrypted, "user123"));
+        assertThrows(InvalidIvException.class, () -> otherDictionary.decrypt(encrypted, "user123"));
+        assertEquals(DecryptStatus.MALFORMED,
+                engine.decryptEntries(Map.of("value", encrypted), "user123").get("value").status());
+    }
+
+    @Test
+    @DisplayName("Should unwrap a data key only with the master key that wrapped it")
+    void shouldUnwrapDataKeyWithSameMasterKey() throws Exception {
+        // Given
+        DataKey dataKey = engine.generateDataKey();
+        Files.writeString(keyFile, "AnotherTestSecretKeyForAESEncryption12345678901234567890123456789");
+        CryptoEngine otherMasterKey = CryptoEngine.fromKeyFile(keyFile, AES_INITIALIZATION_VECTOR);
+
+        // When & Then
+        assertArrayEquals(dataKey.plaintextKey(), engine.unwrapDataKey(dataKey.wrappedKey()));
+        assertThrows(InvalidDataKeyException.class, () -> otherMasterKey.unwrapDataKey(dataKey.wrappedKey()));
+    }
+
+    @Test
+    @DisplayName("Should reject an initialization vector shorter than 32 bytes")
+    void shouldRejectShortInitializationVector() {
+        // When & Then
+        assertThrows(InvalidAlgorithmParameterException.class,
+                () -> CryptoEngine.fromKeyFile(keyFile, "too short"));
+    }
+
+    @Test
+    @DisplayName("Should derive HMAC keys with HKDF-SHA256 as in RFC 5869")
+    void shouldDeriveHmacKeysWithHkdf() throws Exception {
+        // Given: test case 3 of RFC 5869, no salt and no info
+        byte[] inputKey = new byte[22];
+        Arrays.fill(inputKey, (byte) 0x0b);
+
+        // When
+        byte[] derived = HmacKey.hkdf(inputKey, new byte[0]);
+
+        // Then
+        assertEquals("8da4e775a563c18f715f802a063c5a31b8a11f5c5ee1879ec3454e5f3c738d2d", HexFormat.of().formatHex(derived));
+    }
+
+    @Test
+    @DisplayName("Should sign with an independent key per key ID and verify only matching signatures")
+    void shouldSignAndVerifyPerKeyId() throws Exception {
+        // Given
+        byte[] message = "{\"event\": \"order.created\"}".getBytes(StandardCharsets.UTF_8);
+        HmacKey webhooks = engine.hmacKey("webhooks");
+        HmacKey records = engine.hmacKey("records");
+
+        // When
+        byte[] signature = webhooks.sign(message);
+        byte[] otherKeyId = records.sign(message);
+        byte[] otherEngine = CryptoEngine.fromKeyFile(keyFile, AES_INITIALIZATION_VECTOR).hmacKey("webhooks").sign(message);
+
+        // Then
+        assertEquals(HmacKey.SIGNATURE_LENGTH_BYTES, signature.length);
+        assertArrayEquals(signature, otherEngine);
+        assertFalse(Arrays.equals(signature, otherKeyId));
+        assertTrue(webhooks.verify(message, signature));
+        assertFalse(records.verify(message, signature));
+        assertFalse(webhooks.verify("tampered".getBytes(StandardCharsets.UTF_8), signature));
+        assertFalse(webhooks.verify(message, Arrays.copyOf(signature, 16)));
+        assertFalse(webhooks.verify(message, null));
+    }
+
+    @Test
+    @DisplayName("Should give the same signatures when a thread alternates keys and streams messages")
+    void shouldReuseThreadMacAcrossKeys() throws Exception {
+        // Given
+        byte[] message = "message in two parts".getBytes(StandardCharsets.UTF_8);
+        HmacKey first = engine.hmacKey("first");
+        HmacKey second = engine.hmacKey("second");
+        byte[] expected = first.newMac().doFinal(message);
+
+        // When
+        second.sign(message);
+        first.mac().update(message, 0, 5);
+        // An aborted message must not leak into the next signature
+        byte[] afterAbort = first.sign(message);
+        Mac streaming = first.mac();
+        streaming.update(message, 0, 7);
+        streaming.update(message, 7, message.length - 7);
+
+        // Then
+        assertArrayEquals(expected, afterAbort);
+        assertArrayEquals(expected, streaming.doFinal());
+        assertSame(first, engine.hmacKey("first"));
+    }
+
+    @Test
+    @DisplayName("Should drop the Macs that idle threads keep initialized with an HMAC key")
+    void shouldClearThreadMacs() throws Exception {
+        // Given
+        byte[] message = "message".getBytes(StandardCharsets.UTF_8);
+        HmacKey key = engine.hmacKey("webhooks");
+        byte[] expected = key.newMac().doFinal(message);
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        try {
+            worker.submit(() -> key.sign(message)).get();
+            assertTrue(HmacKey.initializedThreadMacs() > 0);
+
+            // When
+            HmacKey.clearThreadMacs();
+
+            // Then
+            assertEquals(0, HmacKey.initializedThreadMacs());
+            assertArrayEquals(expected, worker.submit(() -> key.sign(message)).get());
+        } finally {
+            worker.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should overwrite the master key read from the key file and its HMAC keys when destroyed")
+    void shouldOverwriteKeysWhenDestroyed() throws Exception {
+        // Given
+        CryptoEngine compressing = engine.withCompression(new ValueCompression(true, 256, -1, null));
+        HmacKey hmacKey = engine.hmacKey("webhooks");
+        CryptoEngine callerKey = new CryptoEngine(
+                AESUtil.getKeyFromPassword("ThisIsATestSecretKeyForAESEncryption123456789012345678901234567890"),
+                AES_INITIALIZATION_VECTOR);
+
+        // When
+        engine.destroy();
+        callerKey.destroy();
+
+        // Then
+        assertKeyDestroyed(() -> engine.encrypt("data", "user123"));
+        assertKeyDestroyed(() -> compressing.encrypt("data", "user123"));
+        assertKeyDestroyed(hmacKey::newMac);
+        assertKeyDestroyed(engine::generateDataKey);
+        assertEquals("data", callerKey.decrypt(callerKey.encrypt("data", "user123"), "user123"));
+    }
+
+    static void assertKeyDestroyed(Executable executable) {
+        // Depending on the provider selection the JCE reports it as an InvalidKeyException with this cause
+        Throwable cause = assertThrows(Exception.class, executable);
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        assertInstanceOf(IllegalStateException.class, cause);
+        assertEquals("Key has been destroyed", cause.getMessage());
+    }
+}
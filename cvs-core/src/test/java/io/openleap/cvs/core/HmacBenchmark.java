@@ -0,0 +1,62 @@
+package io.openleap.cvs.core;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Random;
+
+/**
+ * Compares the signing latency of a new {@link Mac} per message with the per-thread {@link Mac} of
+ * {@link HmacKey}, for messages of growing size. Run it with {@code scripts/measure_hmac}.
+ * <p>
+ * Arguments: milliseconds per measurement (default 500).
+ */
+public class HmacBenchmark {
+    private static final String AES_INITIALIZATION_VECTOR =
+            "ThisIsATestInitializationVector123456789012345678901234567890";
+    private static final int[] SIZES = {64, 1024, 16 * 1024, 1024 * 1024};
+
+    public static void main(String[] args) throws Exception {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 500;
+        CryptoEngine engine = new CryptoEngine(
+                AESUtil.getKeyFromPassword("ThisIsABenchmarkSecretKeyForAESEncryption1234567890"), AES_INITIALIZATION_VECTOR);
+        HmacKey hmacKey = engine.hmacKey("benchmark");
+        SecretKeySpec key = new SecretKeySpec(HmacKey.hkdf(new byte[32], new byte[0]), HmacKey.ALGORITHM);
+
+        System.out.printf("%10s %16s %16s %16s%n", "size", "new Mac us", "thread Mac us", "derive+sign us");
+        for (int size : SIZES) {
+            byte[] message = new byte[size];
+            new Random(size).nextBytes(message);
+            double newMac = measure(millis, () -> {
+                Mac mac = Mac.getInstance(HmacKey.ALGORITHM);
+                mac.init(key);
+                mac.doFinal(message);
+            });
+            double threadMac = measure(millis, () -> hmacKey.sign(message));
+            // A key ID that misses the cache: derivation and a fresh key on the thread's Mac
+            double derive = measure(millis, () -> new HmacKey(new byte[32], "uncached").sign(message));
+            System.out.printf("%10d %16.2f %16.2f %16.2f%n", size, newMac, threadMac, derive);
+        }
+    }
+
+    private static double measure(long millis, Operation operation) throws Exception {
+        // Warm up, then measure
+        for (int pass = 0; pass < 2; pass++) {
+            long end = System.nanoTime() + millis * 1_000_000;
+            long start = System.nanoTime();
+            int count = 0;
+            while (System.nanoTime() < end) {
+                operation.run();
+                count++;
+            }
+            if (pass == 1) {
+                return (System.nanoTime() - start) / 1000.0 / count;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run() throws Exception;
+    }
+}
@@ -1,9 +1,12 @@
 package io.openleap.cvs;
 
+import io.openleap.cvs.config.CvsRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(CvsRuntimeHints.class)
 public class CryptoVaultServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(CryptoVaultServiceApplication.class, args);
@@ -0,0 +1,129 @@
+package io.openleap.cvs.audit;
+
+import io.openleap.cvs.config.AuditProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only audit log of crypto operations. Request threads only encode a compact record into a lock-free
+ * ring buffer; a single writer thread moves the records into memory-mapped segment files and forces them to
+ * disk at most once per {@link AuditProperties#getFsyncInterval() fsync interval} (group commit).
+ * <p>
+ * Records never contain plaintext or ciphertext. Read them with {@link AuditLogReader}.
+ * <p>
+ * A request waits at most {@link AuditProperties#getPublishTimeout()} for room in a full buffer. Records that
+ * do not fit in time or arrive after the writer is gone are dropped and counted in {@link #getLostRecords()}.
+ */
+@Component
+public class AuditLog implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditLog.class);
+    private static final int DRAIN_BATCH_SIZE = 4096;
+
+    private final AuditProperties properties;
+    private final LongAdder lostRecords = new LongAdder();
+    private AuditRingBuffer ringBuffer;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    public AuditLog(AuditProperties properties) {
+        this.properties = properties;
+    }
+
+    public void record(AuditOperation operation, String clientId, int keyVersion, int entryCount, String objectId) {
+        if (running && !ringBuffer.publish(
+                System.currentTimeMillis(), operation, keyVersion, entryCount, clientId, objectId)) {
+            lostRecords.increment();
+        }
+    }
+
+    /**
+     * Returns the number of records dropped since the start of the service.
+     */
+    public long getLostRecords() {
+        return lostRecords.sum();
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        AuditSegmentWriter writer;
+        try {
+            writer = new AuditSegmentWriter(
+                    Paths.get(properties.getDirectory()), (int) properties.getSegmentSize().toBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open audit log in " + properties.getDirectory(), e);
+        }
+        AuditRingBuffer buffer =
+                new AuditRingBuffer(properties.getBufferCapacity(), properties.getPublishTimeout().toNanos());
+        ringBuffer = buffer;
+        running = true;
+        writerThread = new Thread(() -> writeLoop(writer, buffer), "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server so that in-flight requests are still recorded
+        return 0;
+    }
+
+    private void writeLoop(AuditSegmentWriter writer, AuditRingBuffer buffer) {
+        long fsyncIntervalNanos = properties.getFsyncInterval().toNanos();
+        long lastForce = System.nanoTime();
+        try {
+            while (running || !buffer.isEmpty()) {
+                int drained = buffer.drainTo(writer, DRAIN_BATCH_SIZE);
+                long now = System.nanoTime();
+                if (now - lastForce >= fsyncIntervalNanos) {
+                    writer.force();
+                    lastForce = now;
+                }
+                if (drained == 0 && running) {
+                    LockSupport.parkNanos(100_000);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Audit writer failed, audit records are no longer persisted", e);
+            running = false;
+        } finally {
+            // Producers that passed the running check must not wait for a writer that is gone
+            buffer.close();
+            try {
+                writer.close();
+            } catch (IOException e) {
+                LOGGER.error("Failed to close audit segment", e);
+            }
+        }
+    }
+}
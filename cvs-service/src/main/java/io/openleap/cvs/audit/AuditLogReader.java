@@ -0,0 +1,97 @@
+package io.openleap.cvs.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Reads the segment files written by {@link AuditLog}.
+ * <p>
+ * Used from the command line it prints all records of an audit directory as tab separated lines:
+ * <pre>
+ * java -cp app.jar -Dloader.main=io.openleap.cvs.audit.AuditLogReader \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher &lt;audit directory&gt;
+ * </pre>
+ */
+public final class AuditLogReader {
+
+    private AuditLogReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: AuditLogReader <audit directory>");
+            System.exit(1);
+        }
+        for (Path segment : segments(Paths.get(args[0]))) {
+            read(segment, auditRecord -> System.out.println(String.join("\t",
+                    Instant.ofEpochMilli(auditRecord.timestampMillis()).toString(),
+                    auditRecord.operation().name(),
+                    String.format("%08x", auditRecord.keyVersion()),
+                    Integer.toString(auditRecord.entryCount()),
+                    auditRecord.clientId(),
+                    auditRecord.objectId())));
+        }
+    }
+
+    /**
+     * Lists the segment files of an audit directory in write order.
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(AuditSegmentWriter.SEGMENT_PREFIX)
+                                && name.endsWith(AuditSegmentWriter.SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    public static void read(Path segment, Consumer<AuditRecord> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < AuditSegmentWriter.SEGMENT_HEADER_SIZE
+                    || buffer.getInt() != AuditSegmentWriter.MAGIC
+                    || buffer.getInt() != AuditSegmentWriter.VERSION) {
+                throw new IOException("Not an audit segment: " + segment);
+            }
+            while (buffer.remaining() >= Short.BYTES) {
+                int length = buffer.getShort() & 0xFFFF;
+                if (length == 0 || length > buffer.remaining()) {
+                    break;
+                }
+                consumer.accept(decode(buffer.slice(buffer.position(), length)));
+                buffer.position(buffer.position() + length);
+            }
+        }
+    }
+
+    private static AuditRecord decode(ByteBuffer record) {
+        long timestampMillis = record.getLong();
+        AuditOperation operation = AuditOperation.fromCode(record.get());
+        int keyVersion = record.getInt();
+        int entryCount = record.getInt();
+        int clientIdLength = record.get() & 0xFF;
+        int objectIdLength = record.get() & 0xFF;
+        String clientId = readUtf8(record, clientIdLength);
+        String objectId = objectIdLength == 0 ? null : readUtf8(record, objectIdLength);
+        return new AuditRecord(timestampMillis, operation, keyVersion, entryCount, clientId, objectId);
+    }
+
+    private static String readUtf8(ByteBuffer record, int length) {
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,26 @@
+package io.openleap.cvs.audit;
+
+public enum AuditOperation {
+    ENCRYPT,
+    DECRYPT,
+    ENCRYPT_LIST,
+    DECRYPT_LIST,
+    GENERATE_DATA_KEY,
+    UNWRAP_DATA_KEY,
+    REENCRYPT_LIST,
+    TOKENIZE,
+    DETOKENIZE,
+    DELETE_TOKEN,
+    SIGN,
+    VERIFY;
+
+    private static final AuditOperation[] VALUES = values();
+
+    public static AuditOperation fromCode(int code) {
+        return VALUES[code];
+    }
+
+    public byte code() {
+        return (byte) ordinal();
+    }
+}
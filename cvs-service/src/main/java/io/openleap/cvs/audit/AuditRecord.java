@@ -0,0 +1,11 @@
+package io.openleap.cvs.audit;
+
+public record AuditRecord(
+        long timestampMillis,
+        AuditOperation operation,
+        int keyVersion,
+        int entryCount,
+        String clientId,
+        String objectId
+) {
+}
@@ -0,0 +1,183 @@
+package io.openleap.cvs.audit;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer of fixed-size audit record slots.
+ * <p>
+ * Producers claim a sequence number with a CAS, encode the record into the slot without allocating and
+ * publish it by storing the sequence number for the slot. The single consumer copies published slots in
+ * sequence order. No locks are taken on either side. When the buffer is full, producers back off until the
+ * consumer catches up, for at most the maximum wait. A record is dropped if the wait runs out or the buffer
+ * is closed because its consumer is gone, so a failed writer never blocks request threads.
+ * <p>
+ * Record layout (big endian): timestamp millis (8), operation (1), key version (4), entry count (4),
+ * client id length (1), object id length (1), client id (UTF-8), object id (UTF-8).
+ */
+final class AuditRingBuffer {
+    static final int SLOT_SIZE = 256;
+    static final int HEADER_SIZE = 19;
+    static final int MAX_CLIENT_ID_BYTES = 64;
+    static final int MAX_OBJECT_ID_BYTES = SLOT_SIZE - HEADER_SIZE - MAX_CLIENT_ID_BYTES;
+
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final byte[] slots;
+    private final AtomicLongArray published;
+    private final int capacity;
+    private final int mask;
+    private final long maxWaitNanos;
+    private final AtomicLong producerSequence = new AtomicLong();
+    private final AtomicLong consumerSequence = new AtomicLong();
+    private volatile boolean closed;
+
+    AuditRingBuffer(int capacity, long maxWaitNanos) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Audit buffer capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.maxWaitNanos = maxWaitNanos;
+        this.slots = new byte[capacity * SLOT_SIZE];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Encodes a record into the next slot.
+     *
+     * @return {@code false} if the record was dropped because the buffer stayed full or is closed
+     */
+    boolean publish(long timestampMillis, AuditOperation operation, int keyVersion, int entryCount,
+                    String clientId, String objectId) {
+        long sequence = claim();
+        if (sequence < 0) {
+            return false;
+        }
+        int index = (int) (sequence & mask);
+        int offset = index * SLOT_SIZE;
+
+        LONG.set(slots, offset, timestampMillis);
+        slots[offset + 8] = operation.code();
+        INT.set(slots, offset + 9, keyVersion);
+        INT.set(slots, offset + 13, entryCount);
+        int clientIdLength = putUtf8(clientId, offset + HEADER_SIZE, MAX_CLIENT_ID_BYTES);
+        int objectIdLength = putUtf8(objectId, offset + HEADER_SIZE + clientIdLength, MAX_OBJECT_ID_BYTES);
+        slots[offset + 17] = (byte) clientIdLength;
+        slots[offset + 18] = (byte) objectIdLength;
+
+        published.lazySet(index, sequence);
+        return true;
+    }
+
+    /**
+     * Copies up to {@code maxRecords} published records to the sink and releases their slots.
+     *
+     * @return the number of records copied
+     */
+    int drainTo(AuditSegmentWriter sink, int maxRecords) throws IOException {
+        long next = consumerSequence.get();
+        int count = 0;
+        while (count < maxRecords) {
+            int index = (int) (next & mask);
+            if (published.get(index) != next) {
+                break;
+            }
+            int offset = index * SLOT_SIZE;
+            int length = HEADER_SIZE + (slots[offset + 17] & 0xFF) + (slots[offset + 18] & 0xFF);
+            sink.write(slots, offset, length);
+            next++;
+            count++;
+        }
+        if (count > 0) {
+            consumerSequence.set(next);
+        }
+        return count;
+    }
+
+    boolean isEmpty() {
+        return consumerSequence.get() == producerSequence.get();
+    }
+
+    /**
+     * Tells producers that nothing is drained any more, so they drop their records instead of waiting.
+     */
+    void close() {
+        closed = true;
+    }
+
+    /**
+     * @return the claimed sequence number, or -1 if the buffer is closed or stayed full for the maximum wait
+     */
+    private long claim() {
+        int attempts = 0;
+        long deadline = 0;
+        while (!closed) {
+            long sequence = producerSequence.get();
+            if (sequence - consumerSequence.get() >= capacity) {
+                if (++attempts < 100) {
+                    Thread.onSpinWait();
+                } else if (attempts == 100) {
+                    deadline = System.nanoTime() + maxWaitNanos;
+                } else if (System.nanoTime() - deadline >= 0) {
+                    return -1;
+                } else {
+                    LockSupport.parkNanos(10_000);
+                }
+            } else if (producerSequence.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+        return -1;
+    }
+
+    private int putUtf8(String value, int offset, int maxBytes) {
+        if (value == null) {
+            return 0;
+        }
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (length + 1 > maxBytes) {
+                    break;
+                }
+                slots[offset + length++] = (byte) c;
+            } else if (c < 0x800) {
+                if (length + 2 > maxBytes) {
+                    break;
+                }
+                slots[offset + length++] = (byte) (0xC0 | (c >> 6));
+                slots[offset + length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                if (length + 4 > maxBytes) {
+                    break;
+                }
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                slots[offset + length++] = (byte) (0xF0 | (codePoint >> 18));
+                slots[offset + length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                slots[offset + length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                slots[offset + length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                if (length + 3 > maxBytes) {
+                    break;
+                }
+                char encoded = Character.isSurrogate(c) ? '?' : c;
+                slots[offset + length++] = (byte) (0xE0 | (encoded >> 12));
+                slots[offset + length++] = (byte) (0x80 | ((encoded >> 6) & 0x3F));
+                slots[offset + length++] = (byte) (0x80 | (encoded & 0x3F));
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,89 @@
+package io.openleap.cvs.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+/**
+ * Appends audit records to memory-mapped segment files of a fixed size and rotates to a new segment when
+ * the current one is full. Each record is stored as a two byte length followed by the record bytes; the
+ * zero-filled remainder of a segment marks its end. Only the audit writer thread uses this class.
+ */
+final class AuditSegmentWriter implements Closeable {
+    static final int MAGIC = 0x43565341;
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 8;
+    static final String SEGMENT_PREFIX = "audit-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentSize;
+    private long segmentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private boolean dirty;
+
+    AuditSegmentWriter(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        this.segmentIndex = nextSegmentIndex(directory);
+        openSegment();
+    }
+
+    void write(byte[] source, int offset, int length) throws IOException {
+        if (buffer.remaining() < Short.BYTES + length) {
+            rotate();
+        }
+        buffer.putShort((short) length);
+        buffer.put(source, offset, length);
+        dirty = true;
+    }
+
+    /**
+     * Flushes all records written since the last call to disk.
+     */
+    void force() {
+        if (dirty) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private void rotate() throws IOException {
+        close();
+        segmentIndex++;
+        openSegment();
+    }
+
+    private void openSegment() throws IOException {
+        Path segment = directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        dirty = true;
+    }
+
+    private static long nextSegmentIndex(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .mapToLong(name -> Long.parseLong(
+                            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .max()
+                    .orElse(-1) + 1;
+        }
+    }
+}
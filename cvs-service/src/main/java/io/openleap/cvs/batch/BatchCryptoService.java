@@ -0,0 +1,274 @@
+package io.openleap.cvs.batch;
+
+import io.openleap.cvs.config.BatchProperties;
+import io.openleap.cvs.core.DecryptStatus;
+import io.openleap.cvs.core.EntryCipher;
+import io.openleap.cvs.core.OutputBuffer;
+import io.openleap.cvs.service.CryptoService;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encrypts and decrypts batches of documents that each have their own session user and operation. The
+ * documents are ordered by session user, so the documents of one user share an {@link EntryCipher} and its
+ * initialization vector is derived once, plus once for every further task the user's documents reach into.
+ * The ordered documents are split into tasks with about the same number of values, which run on a worker
+ * pool and the request thread in parallel. Results keep the order of the request.
+ */
+@Service
+public class BatchCryptoService implements SmartLifecycle {
+    private static final String OBJECT_ID = "objectId";
+
+    private final CryptoService cryptoService;
+    private final BatchProperties properties;
+    private volatile ExecutorService workers;
+
+    public BatchCryptoService(CryptoService cryptoService, BatchProperties properties) {
+        this.cryptoService = cryptoService;
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the result of every document, in the same order. Values that do not decrypt are reported in the
+     * result of their document and do not fail the batch.
+     *
+     * @throws IllegalArgumentException if the batch is too large or a document lacks its operation or values
+     */
+    public List<BatchResult> process(List<BatchDocument> documents) throws GeneralSecurityException {
+        if (documents.size() > properties.getMaxDocuments()) {
+            throw new IllegalArgumentException("Batch of " + documents.size()
+                    + " documents exceeds the maximum of " + properties.getMaxDocuments());
+        }
+        long values = 0;
+        for (int i = 0; i < documents.size(); i++) {
+            values += validate(documents.get(i), i);
+        }
+        int[] order = orderBySessionUser(documents);
+        BatchResult[] results = new BatchResult[documents.size()];
+        ExecutorService executor = workers;
+        int[] bounds = split(documents, order, values, executor != null ? taskCount(values) : 1);
+
+        List<Future<?>> futures = new ArrayList<>(bounds.length - 2);
+        try {
+            for (int task = 0; task < bounds.length - 2; task++) {
+                int from = bounds[task];
+                int to = bounds[task + 1];
+                futures.add(executor.submit(() -> {
+                    process(documents, order, from, to, results);
+                    return null;
+                }));
+            }
+            // The request thread takes the last task instead of waiting idle
+            process(documents, order, bounds[bounds.length - 2], bounds[bounds.length - 1], results);
+            for (Future<?> future : futures) {
+                join(future);
+            }
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public void start() {
+        if (properties.getWorkerThreads() <= 0) {
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                properties.getWorkerThreads(), properties.getWorkerThreads(), 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "batch-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        workers = executor;
+    }
+
+    @Override
+    public void stop() {
+        ExecutorService executor = workers;
+        if (executor == null) {
+            return;
+        }
+        workers = null;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return workers != null;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server so that in-flight batches still get their workers
+        return 0;
+    }
+
+    private int taskCount(long values) {
+        long byValues = values / Math.max(1, properties.getMinValuesPerTask());
+        return (int) Math.max(1, Math.min(properties.getWorkerThreads() + 1, byValues));
+    }
+
+    private void process(List<BatchDocument> documents, int[] order, int from, int to, BatchResult[] results)
+            throws GeneralSecurityException {
+        OutputBuffer buffer = OutputBuffer.acquire();
+        try {
+            EntryCipher cipher = null;
+            String cipherIv = null;
+            for (int i = from; i < to; i++) {
+                BatchDocument document = documents.get(order[i]);
+                if (cipher == null || !Objects.equals(cipherIv, document.iv())) {
+                    cipher = cryptoService.entryCipher(document.iv());
+                    cipherIv = document.iv();
+                }
+                results[order[i]] = document.operation() == BatchOperation.ENCRYPT
+                        ? encrypt(document, cipher, buffer)
+                        : decrypt(document, cipher, buffer);
+            }
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private static BatchResult encrypt(BatchDocument document, EntryCipher cipher, OutputBuffer buffer)
+            throws GeneralSecurityException {
+        Map<String, String> data = new LinkedHashMap<>(document.data().size() * 4 / 3 + 1);
+        for (Map.Entry<String, String> entry : document.data().entrySet()) {
+            if (OBJECT_ID.equals(entry.getKey())) {
+                data.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+            byte[] plaintext = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            buffer.reset();
+            cipher.encrypt(plaintext, 0, plaintext.length, buffer);
+            data.put(entry.getKey(), new String(buffer.array(), 0, buffer.length(), StandardCharsets.US_ASCII));
+        }
+        return new BatchResult(document.objectId(), data, null);
+    }
+
+    private static BatchResult decrypt(BatchDocument document, EntryCipher cipher, OutputBuffer buffer)
+            throws GeneralSecurityException {
+        Map<String, String> data = new LinkedHashMap<>(document.data().size() * 4 / 3 + 1);
+        Map<String, DecryptStatus> errors = null;
+        for (Map.Entry<String, String> entry : document.data().entrySet()) {
+            if (OBJECT_ID.equals(entry.getKey())) {
+                data.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+            // Characters outside Latin-1 become '?', which is rejected like any other non-Base64 character
+            byte[] cipherText = entry.getValue().getBytes(StandardCharsets.ISO_8859_1);
+            buffer.reset();
+            DecryptStatus status = cipher.decrypt(cipherText, 0, cipherText.length, buffer);
+            if (status == DecryptStatus.OK) {
+                data.put(entry.getKey(), new String(buffer.array(), 0, buffer.length(), StandardCharsets.UTF_8));
+            } else {
+                if (errors == null) {
+                    errors = new LinkedHashMap<>();
+                }
+                errors.put(entry.getKey(), status);
+            }
+        }
+        return new BatchResult(document.objectId(), data, errors);
+    }
+
+    private static int validate(BatchDocument document, int index) {
+        if (document == null || document.operation() == null || document.data() == null) {
+            throw new IllegalArgumentException("Document " + index + " needs an operation and data");
+        }
+        for (String value : document.data().values()) {
+            if (value == null) {
+                throw new IllegalArgumentException("Document " + index + " has a null value");
+            }
+        }
+        return document.data().size();
+    }
+
+    /**
+     * Returns the document indexes grouped by session user, the groups in order of first appearance and the
+     * documents of a group in request order.
+     */
+    private static int[] orderBySessionUser(List<BatchDocument> documents) {
+        Map<String, Integer> groups = new HashMap<>();
+        int[] group = new int[documents.size()];
+        for (int i = 0; i < documents.size(); i++) {
+            group[i] = groups.computeIfAbsent(documents.get(i).iv(), iv -> groups.size());
+        }
+        int[] offsets = new int[groups.size() + 1];
+        for (int g : group) {
+            offsets[g + 1]++;
+        }
+        for (int g = 0; g < groups.size(); g++) {
+            offsets[g + 1] += offsets[g];
+        }
+        int[] order = new int[documents.size()];
+        for (int i = 0; i < documents.size(); i++) {
+            order[offsets[group[i]]++] = i;
+        }
+        return order;
+    }
+
+    /**
+     * Splits the ordered documents into {@code tasks} ranges with about the same number of values. Task
+     * {@code t} covers {@code order[bounds[t]]} up to, not including, {@code order[bounds[t + 1]]}.
+     */
+    private static int[] split(List<BatchDocument> documents, int[] order, long values, int tasks) {
+        int[] bounds = new int[tasks + 1];
+        long perTask = (values + tasks - 1) / tasks;
+        int task = 1;
+        long seen = 0;
+        for (int i = 0; i < order.length && task < tasks; i++) {
+            seen += documents.get(order[i]).data().size();
+            while (task < tasks && seen >= perTask * task) {
+                bounds[task++] = i + 1;
+            }
+        }
+        while (task <= tasks) {
+            bounds[task++] = order.length;
+        }
+        return bounds;
+    }
+
+    private static void join(Future<?> future) throws GeneralSecurityException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a batch task", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GeneralSecurityException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.openleap.cvs.batch;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+@Schema(
+    name = "BatchDocument",
+    description = "One document of a batch, with its own operation and session user"
+)
+public record BatchDocument(
+    @Schema(
+        description = "Whether the values of the document are encrypted or decrypted",
+        example = "DECRYPT",
+        required = true
+    )
+    BatchOperation operation,
+
+    @Schema(
+        description = "Session user ID used to generate the initialization vector of this document",
+        example = "user123"
+    )
+    String iv,
+
+    @Schema(
+        description = "Identifier of the document, returned as-is with its result",
+        example = "12345"
+    )
+    String objectId,
+
+    @Schema(
+        description = "Values to encrypt or decrypt",
+        example = "{\"field1\": \"sensitive data 1\", \"field2\": \"sensitive data 2\"}",
+        required = true
+    )
+    Map<String, String> data
+) {
+}
@@ -0,0 +1,6 @@
+package io.openleap.cvs.batch;
+
+public enum BatchOperation {
+    ENCRYPT,
+    DECRYPT
+}
@@ -0,0 +1,33 @@
+package io.openleap.cvs.batch;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.openleap.cvs.core.DecryptStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+@Schema(
+    name = "BatchResult",
+    description = "Result of one document of a batch"
+)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchResult(
+    @Schema(
+        description = "Identifier of the document as sent",
+        example = "12345"
+    )
+    String objectId,
+
+    @Schema(
+        description = "Encrypted or decrypted values. Values that could not be decrypted are left out.",
+        example = "{\"field1\": \"sensitive data 1\"}"
+    )
+    Map<String, String> data,
+
+    @Schema(
+        description = "Status of every value that could not be decrypted, only present if there is one",
+        example = "{\"field2\": \"AUTH_FAILURE\"}"
+    )
+    Map<String, DecryptStatus> errors
+) {
+}
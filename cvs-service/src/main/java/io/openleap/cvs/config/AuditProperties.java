@@ -0,0 +1,67 @@
+package io.openleap.cvs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "cvs.audit")
+public class AuditProperties {
+    private boolean enabled;
+    private String directory = "audit";
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+    private int bufferCapacity = 65536;
+    private Duration fsyncInterval = Duration.ofMillis(100);
+    // How long a request waits for room in a full buffer before its record is dropped and counted as lost
+    private Duration publishTimeout = Duration.ofSeconds(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(DataSize segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public int getBufferCapacity() {
+        return bufferCapacity;
+    }
+
+    public void setBufferCapacity(int bufferCapacity) {
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    public Duration getFsyncInterval() {
+        return fsyncInterval;
+    }
+
+    public void setFsyncInterval(Duration fsyncInterval) {
+        this.fsyncInterval = fsyncInterval;
+    }
+
+    public Duration getPublishTimeout() {
+        return publishTimeout;
+    }
+
+    public void setPublishTimeout(Duration publishTimeout) {
+        this.publishTimeout = publishTimeout;
+    }
+}
@@ -0,0 +1,37 @@
+package io.openleap.cvs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "cvs.batch")
+public class BatchProperties {
+    private int maxDocuments = 1000;
+    private int workerThreads = Runtime.getRuntime().availableProcessors();
+    // Batches with fewer values are processed on the request thread alone
+    private int minValuesPerTask = 64;
+
+    public int getMaxDocuments() {
+        return maxDocuments;
+    }
+
+    public void setMaxDocuments(int maxDocuments) {
+        this.maxDocuments = maxDocuments;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    public int getMinValuesPerTask() {
+        return minValuesPerTask;
+    }
+
+    public void setMinValuesPerTask(int minValuesPerTask) {
+        this.minValuesPerTask = minValuesPerTask;
+    }
+}
@@ -0,0 +1,47 @@
+package io.openleap.cvs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Component
+@ConfigurationProperties(prefix = "cvs.compression")
+public class CompressionProperties {
+    private boolean enabled;
+    private DataSize minSize = DataSize.ofBytes(512);
+    // Deflate level from 1 (fastest) to 9 (smallest), -1 for the default of 6
+    private int level = -1;
+    private String dictionaryPath;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(DataSize minSize) {
+        this.minSize = minSize;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public String getDictionaryPath() {
+        return dictionaryPath;
+    }
+
+    public void setDictionaryPath(String dictionaryPath) {
+        this.dictionaryPath = dictionaryPath;
+    }
+}
@@ -0,0 +1,18 @@
+package io.openleap.cvs.config;
+
+import io.openleap.cvs.web.CpuTimeFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CpuTimeFilterConfig {
+
+    @Bean
+    public FilterRegistrationBean<CpuTimeFilter> cpuTimeFilterRegistration(CpuTimeFilter cpuTimeFilter) {
+        // The security filter chains add it before authentication, so it must not run a second time after them
+        FilterRegistrationBean<CpuTimeFilter> registration = new FilterRegistrationBean<>(cpuTimeFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
@@ -11,6 +11,8 @@ public class CvsConfig {
     private String encryptionKeyPath;
     @NotBlank
     private String aesInitializationVector;
+    // Key that re-encryption jobs decrypt with, while values are migrated to the current key
+    private String previousEncryptionKeyPath;
 
     public String getAesInitializationVector() {
         return aesInitializationVector;
@@ -27,4 +29,12 @@ public class CvsConfig {
     public void setEncryptionKeyPath(String encryptionKeyPath) {
         this.encryptionKeyPath = encryptionKeyPath;
     }
+
+    public String getPreviousEncryptionKeyPath() {
+        return previousEncryptionKeyPath;
+    }
+
+    public void setPreviousEncryptionKeyPath(String previousEncryptionKeyPath) {
+        this.previousEncryptionKeyPath = previousEncryptionKeyPath;
+    }
 }
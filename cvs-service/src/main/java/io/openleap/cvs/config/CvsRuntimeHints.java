@@ -0,0 +1,134 @@
+package io.openleap.cvs.config;
+
+import io.openleap.cvs.controller.dto.BatchRequestDto;
+import io.openleap.cvs.controller.dto.BatchResponseDto;
+import io.openleap.cvs.controller.dto.DataKeyResponseDto;
+import io.openleap.cvs.controller.dto.DecryptListRequestDto;
+import io.openleap.cvs.controller.dto.DecryptListResponseDto;
+import io.openleap.cvs.controller.dto.DecryptRequestDto;
+import io.openleap.cvs.controller.dto.DetokenizeRequestDto;
+import io.openleap.cvs.controller.dto.DetokenizeResponseDto;
+import io.openleap.cvs.controller.dto.EncryptListRequestDto;
+import io.openleap.cvs.controller.dto.EncryptRequestDto;
+import io.openleap.cvs.controller.dto.JobStatusDto;
+import io.openleap.cvs.controller.dto.MacSignRequestDto;
+import io.openleap.cvs.controller.dto.MacSignResponseDto;
+import io.openleap.cvs.controller.dto.MacVerifyRequestDto;
+import io.openleap.cvs.controller.dto.MacVerifyResponseDto;
+import io.openleap.cvs.controller.dto.ProbeStatusDto;
+import io.openleap.cvs.controller.dto.RecordingStatusDto;
+import io.openleap.cvs.controller.dto.TokenizeRequestDto;
+import io.openleap.cvs.controller.dto.TokenizeResponseDto;
+import io.openleap.cvs.controller.dto.UnwrapDataKeyRequestDto;
+import io.openleap.cvs.controller.dto.error.ErrorResponse;
+import io.openleap.cvs.metering.UsageSnapshot;
+import io.swagger.v3.oas.annotations.OpenAPIDefinition;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.info.Info;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.OAuthFlow;
+import io.swagger.v3.oas.annotations.security.OAuthFlows;
+import io.swagger.v3.oas.annotations.security.OAuthScope;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.security.SecurityScheme;
+import io.swagger.v3.oas.annotations.servers.Server;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * Native image hints for the types the service reaches only through reflection: the request and
+ * response payloads bound by Jackson, the configuration properties, the springdoc annotations read at
+ * runtime and the JCE implementations looked up by algorithm name.
+ */
+public class CvsRuntimeHints implements RuntimeHintsRegistrar {
+    static final List<Class<?>> PAYLOAD_TYPES = List.of(
+            EncryptRequestDto.class,
+            DecryptRequestDto.class,
+            EncryptListRequestDto.class,
+            DecryptListRequestDto.class,
+            DecryptListResponseDto.class,
+            JobStatusDto.class,
+            DataKeyResponseDto.class,
+            UnwrapDataKeyRequestDto.class,
+            UsageSnapshot.class,
+            RecordingStatusDto.class,
+            ProbeStatusDto.class,
+            TokenizeRequestDto.class,
+            TokenizeResponseDto.class,
+            DetokenizeRequestDto.class,
+            DetokenizeResponseDto.class,
+            MacSignRequestDto.class,
+            MacSignResponseDto.class,
+            MacVerifyRequestDto.class,
+            MacVerifyResponseDto.class,
+            BatchRequestDto.class,
+            BatchResponseDto.class,
+            ErrorResponse.class);
+
+    static final List<Class<?>> CONFIGURATION_TYPES = List.of(
+            CvsConfig.class,
+            JwksProperties.class,
+            TrainingProperties.class,
+            AuditProperties.class,
+            RequestDecompressionProperties.class,
+            JobProperties.class,
+            DocumentProperties.class,
+            SidecarProperties.class,
+            MeteringProperties.class,
+            FlightRecorderProperties.class,
+            WarmUpProperties.class,
+            CompressionProperties.class,
+            TokenProperties.class,
+            BatchProperties.class,
+            MtlsProperties.class,
+            MtlsProperties.Client.class,
+            MacProperties.class,
+            OpenApiConfig.class);
+
+    static final List<Class<?>> OPENAPI_ANNOTATION_TYPES = List.of(
+            OpenAPIDefinition.class, Info.class, Server.class, Tag.class,
+            SecurityScheme.class, SecurityRequirement.class, OAuthFlows.class, OAuthFlow.class, OAuthScope.class,
+            Operation.class, Parameter.class, ApiResponses.class, ApiResponse.class,
+            Content.class, Schema.class, ExampleObject.class);
+
+    static final List<String> JCE_TYPES = List.of(
+            "com.sun.crypto.provider.SunJCE",
+            "com.sun.crypto.provider.AESCipher$General",
+            "com.sun.crypto.provider.GaloisCounterMode$AESGCM",
+            "sun.security.provider.SHA2$SHA256",
+            "com.sun.crypto.provider.HmacCore$HmacSHA256",
+            "sun.security.rsa.RSAKeyFactory$Legacy",
+            "sun.security.rsa.RSASignature$SHA256withRSA");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+        PAYLOAD_TYPES.forEach(type -> bindingRegistrar.registerReflectionHints(hints.reflection(), type));
+
+        CONFIGURATION_TYPES.forEach(type -> hints.reflection().registerType(type,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS,
+                MemberCategory.DECLARED_FIELDS));
+
+        OPENAPI_ANNOTATION_TYPES.forEach(type -> hints.reflection().registerType(type,
+                MemberCategory.INVOKE_PUBLIC_METHODS));
+
+        JCE_TYPES.forEach(type -> hints.reflection().registerType(TypeReference.of(type),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS));
+
+        hints.resources()
+                .registerPattern("static/*")
+                .registerPattern("logback.xml");
+    }
+}
@@ -0,0 +1,42 @@
+package io.openleap.cvs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "cvs.documents")
+public class DocumentProperties {
+    private Map<String, List<String>> policies = new HashMap<>();
+    private int policyCacheSize = 256;
+    // Largest transformed document, which is held in memory until it is complete
+    private DataSize maxSize = DataSize.ofMegabytes(16);
+
+    public Map<String, List<String>> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(Map<String, List<String>> policies) {
+        this.policies = policies;
+    }
+
+    public int getPolicyCacheSize() {
+        return policyCacheSize;
+    }
+
+    public void setPolicyCacheSize(int policyCacheSize) {
+        this.policyCacheSize = policyCacheSize;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+}
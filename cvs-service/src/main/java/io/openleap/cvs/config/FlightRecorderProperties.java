@@ -0,0 +1,30 @@
+package io.openleap.cvs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "cvs.flight-recorder")
+public class FlightRecorderProperties {
+    private Duration maxDuration = Duration.ofMinutes(30);
+    private DataSize maxSize = DataSize.ofMegabytes(256);
+
+    public Duration getMaxDuration() {
+        return maxDuration;
+    }
+
+    public void setMaxDuration(Duration maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+}
@@ -0,0 +1,56 @@
+package io.openleap.cvs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Component
+@ConfigurationProperties(prefix = "cvs.jobs")
+public class JobProperties {
+    private String directory = "jobs";
+    private int chunkSize = 1000;
+    private int workerThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+    private DataSize maxInputSize = DataSize.ofGigabytes(10);
+    // Records per second over all jobs, so jobs can run next to live traffic; 0 for no limit
+    private int maxRecordsPerSecond;
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    public DataSize getMaxInputSize() {
+        return maxInputSize;
+    }
+
+    public void setMaxInputSize(DataSize maxInputSize) {
+        this.maxInputSize = maxInputSize;
+    }
+
+    public int getMaxRecordsPerSecond() {
+        return maxRecordsPerSecond;
+    }
+
+    public void setMaxRecordsPerSecond(int maxRecordsPerSecond) {
+        this.maxRecordsPerSecond = maxRecordsPerSecond;
+    }
+}
@@ -0,0 +1,47 @@
+package io.openleap.cvs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "cvs.jwks")
+public class JwksProperties {
+    private Duration refreshInterval = Duration.ofMinutes(5);
+    private Duration retryInterval = Duration.ofSeconds(15);
+    private Duration minRefreshInterval = Duration.ofSeconds(10);
+    private Duration fetchTimeout = Duration.ofSeconds(3);
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public Duration getRetryInterval() {
+        return retryInterval;
+    }
+
+    public void setRetryInterval(Duration retryInterval) {
+        this.retryInterval = retryInterval;
+    }
+
+    public Duration getMinRefreshInterval() {
+        return minRefreshInterval;
+    }
+
+    public void setMinRefreshInterval(Duration minRefreshInterval) {
+        this.minRefreshInterval = minRefreshInterval;
+    }
+
+    public Duration getFetchTimeout() {
+        return fetchTimeout;
+    }
+
+    public void setFetchTimeout(Duration fetchTimeout) {
+        this.fetchTimeout = fetchTimeout;
+    }
+}
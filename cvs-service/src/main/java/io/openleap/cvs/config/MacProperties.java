@@ -0,0 +1,23 @@
+package io.openleap.cvs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "cvs.mac")
+public class MacProperties {
+    // Clients allowed to sign with each key ID; key IDs that are not listed cannot sign. Verifying is open
+    private Map<String, List<String>> signers = new HashMap<>();
+
+    public Map<String, List<String>> getSigners() {
+        return signers;
+    }
+
+    public void setSigners(Map<String, List<String>> signers) {
+        this.signers = signers;
+    }
+}
@@ -0,0 +1,18 @@
+package io.openleap.cvs.config;
+
+import io.openleap.cvs.web.CborListConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class MessageConverterConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Last, so responses that Jackson can write are only CBOR when the client accepts nothing else
+        converters.add(new CborListConverter());
+    }
+}
@@ -0,0 +1,115 @@
+package io.openleap.cvs.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.naming.InvalidNameException;
+import javax.naming.ldap.LdapName;
+import javax.naming.ldap.Rdn;
+import javax.security.auth.x500.X500Principal;
+import java.io.IOException;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Authenticates callers by the client certificate the TLS connector has verified. The certificate subject is
+ * mapped to roles by {@link MtlsProperties#getClients()}, and the principal is named after the subject's common
+ * name, which becomes the client id of metering and audit. The principal is cached per TLS session, so after
+ * the handshake a request costs a map lookup and a comparison of the presented certificate with the cached one.
+ */
+public class MtlsAuthenticationFilter extends OncePerRequestFilter {
+    static final String CERTIFICATES_ATTRIBUTE = "jakarta.servlet.request.X509Certificate";
+    static final String SESSION_ID_ATTRIBUTE = "jakarta.servlet.request.ssl_session_id";
+
+    private final Map<X500Principal, List<GrantedAuthority>> authorities = new HashMap<>();
+    private final Map<String, SessionPrincipal> sessions;
+
+    public MtlsAuthenticationFilter(MtlsProperties properties) {
+        for (MtlsProperties.Client client : properties.getClients()) {
+            authorities.put(new X500Principal(client.getSubject()), client.getRoles().stream()
+                    .<GrantedAuthority>map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                    .toList());
+        }
+        int cacheSize = properties.getSessionCacheSize();
+        this.sessions = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SessionPrincipal> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = authenticate(request);
+        if (authentication != null) {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(authentication);
+            SecurityContextHolder.setContext(context);
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Returns the authentication of the request's client certificate, or null if the request has no certificate
+     * or its subject is not a configured client.
+     */
+    Authentication authenticate(HttpServletRequest request) {
+        if (!(request.getAttribute(CERTIFICATES_ATTRIBUTE) instanceof X509Certificate[] chain)
+                || chain.length == 0) {
+            return null;
+        }
+        X509Certificate certificate = chain[0];
+        if (!(request.getAttribute(SESSION_ID_ATTRIBUTE) instanceof String sessionId) || sessionId.isEmpty()) {
+            return authenticate(certificate);
+        }
+        SessionPrincipal cached = sessions.get(sessionId);
+        // A session id is only trusted together with the certificate it was authenticated with
+        if (cached != null && (cached.certificate() == certificate || cached.certificate().equals(certificate))) {
+            return cached.authentication();
+        }
+        Authentication authentication = authenticate(certificate);
+        sessions.put(sessionId, new SessionPrincipal(certificate, authentication));
+        return authentication;
+    }
+
+    private Authentication authenticate(X509Certificate certificate) {
+        X500Principal subject = certificate.getSubjectX500Principal();
+        List<GrantedAuthority> roles = authorities.get(subject);
+        if (roles == null) {
+            return null;
+        }
+        return new PreAuthenticatedAuthenticationToken(commonName(subject), certificate, roles);
+    }
+
+    private static String commonName(X500Principal subject) {
+        String name = subject.getName();
+        try {
+            for (Rdn rdn : new LdapName(name).getRdns()) {
+                if ("CN".equalsIgnoreCase(rdn.getType())) {
+                    return rdn.getValue().toString();
+                }
+            }
+        } catch (InvalidNameException e) {
+            // The connector has parsed the certificate, so its subject is a valid name
+        }
+        return name;
+    }
+
+    private record SessionPrincipal(X509Certificate certificate, Authentication authentication) {
+    }
+}
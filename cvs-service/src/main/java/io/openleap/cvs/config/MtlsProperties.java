@@ -0,0 +1,54 @@
+package io.openleap.cvs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "cvs.mtls")
+public class MtlsProperties {
+    // Callers are authorized by the subject of their client certificate; unlisted subjects get no roles
+    private List<Client> clients = new ArrayList<>();
+    // Number of TLS sessions whose authenticated principal is kept
+    private int sessionCacheSize = 10_000;
+
+    public List<Client> getClients() {
+        return clients;
+    }
+
+    public void setClients(List<Client> clients) {
+        this.clients = clients;
+    }
+
+    public int getSessionCacheSize() {
+        return sessionCacheSize;
+    }
+
+    public void setSessionCacheSize(int sessionCacheSize) {
+        this.sessionCacheSize = sessionCacheSize;
+    }
+
+    public static class Client {
+        // Distinguished name of the certificate subject, e.g. "CN=orders-service,O=Example"
+        private String subject;
+        private List<String> roles = new ArrayList<>();
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public void setSubject(String subject) {
+            this.subject = subject;
+        }
+
+        public List<String> getRoles() {
+            return roles;
+        }
+
+        public void setRoles(List<String> roles) {
+            this.roles = roles;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package io.openleap.cvs.config;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * JWK set source that keeps the key set in memory and refreshes it in the background, so request
+ * threads never wait on the identity provider in the common case.
+ * <p>
+ * The key set is fetched once on {@link #start()} and then refreshed ahead of time on a fixed schedule.
+ * A token signed with an unknown {@code kid} triggers an on-demand refresh that is shared by all
+ * concurrent callers and rate limited by the minimum refresh interval. A failed refresh never discards
+ * the last good key set.
+ */
+public class RefreshAheadJwkSource implements JWKSource<SecurityContext>, AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RefreshAheadJwkSource.class);
+
+    private final URI jwkSetUri;
+    private final JwksProperties properties;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicReference<CompletableFuture<JWKSet>> inFlight = new AtomicReference<>();
+
+    private volatile JWKSet jwkSet;
+    private volatile long lastRefreshAttemptNanos;
+
+    public RefreshAheadJwkSource(URI jwkSetUri, JwksProperties properties) {
+        this.jwkSetUri = jwkSetUri;
+        this.properties = properties;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.getFetchTimeout())
+                .build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        boolean loaded = awaitRefresh() != null;
+        if (!loaded) {
+            LOGGER.warn("Initial JWK set fetch from {} failed, retrying in the background", jwkSetUri);
+        }
+        scheduleRefresh(loaded ? properties.getRefreshInterval() : properties.getRetryInterval());
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        JWKSet current = jwkSet;
+        if (current != null) {
+            List<JWK> matches = jwkSelector.select(current);
+            if (!matches.isEmpty() || !refreshAllowed()) {
+                return matches;
+            }
+        }
+
+        JWKSet latest = jwkSet;
+        if (latest != current) {
+            // Another caller refreshed the key set in the meantime
+            List<JWK> matches = jwkSelector.select(latest);
+            if (!matches.isEmpty()) {
+                return matches;
+            }
+        }
+
+        JWKSet refreshed = awaitRefresh();
+        if (refreshed != null) {
+            return jwkSelector.select(refreshed);
+        }
+        if (current == null) {
+            throw new KeySourceException("No JWK set available from " + jwkSetUri);
+        }
+        return jwkSelector.select(current);
+    }
+
+    JWKSet getJwkSet() {
+        return jwkSet;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private boolean refreshAllowed() {
+        return System.nanoTime() - lastRefreshAttemptNanos >= properties.getMinRefreshInterval().toNanos();
+    }
+
+    private void scheduleRefresh(Duration delay) {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        scheduler.schedule(() -> {
+            boolean refreshed = awaitRefresh() != null;
+            scheduleRefresh(refreshed ? properties.getRefreshInterval() : properties.getRetryInterval());
+        }, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Refreshes the key set, joining a refresh that is already in progress instead of starting another one.
+     *
+     * @return the refreshed key set, or {@code null} if the refresh failed
+     */
+    private JWKSet awaitRefresh() {
+        CompletableFuture<JWKSet> refresh = new CompletableFuture<>();
+        CompletableFuture<JWKSet> running = inFlight.compareAndExchange(null, refresh);
+        if (running == null) {
+            lastRefreshAttemptNanos = System.nanoTime();
+            try {
+                JWKSet fetched = fetch();
+                jwkSet = fetched;
+                refresh.complete(fetched);
+            } catch (Exception e) {
+                LOGGER.warn("Failed to refresh JWK set from {}: {}", jwkSetUri, e.getMessage());
+                refresh.completeExceptionally(e);
+            } finally {
+                inFlight.set(null);
+            }
+            running = refresh;
+        }
+
+        try {
+            return running.get(properties.getFetchTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    private JWKSet fetch() throws IOException, InterruptedException, ParseException {
+        HttpRequest request = HttpRequest.newBuilder(jwkSetUri)
+                .timeout(properties.getFetchTimeout())
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Unexpected HTTP status " + response.statusCode());
+        }
+        JWKSet fetched = JWKSet.parse(response.body());
+        if (fetched.isEmpty()) {
+            throw new ParseException("JWK set contains no keys", 0);
+        }
+        return fetched;
+    }
+}
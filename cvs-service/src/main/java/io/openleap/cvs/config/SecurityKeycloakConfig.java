@@ -0,0 +1,78 @@
+package io.openleap.cvs.config;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.openleap.cvs.jfr.JwtValidationEvent;
+import io.openleap.cvs.web.CpuTimeFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
+import org.springframework.security.web.SecurityFilterChain;
+
+import java.net.URI;
+
+@Profile({"keycloak"})
+@Configuration
+public class SecurityKeycloakConfig {
+
+    @Bean
+    public SecurityFilterChain filterChain(HttpSecurity http, CpuTimeFilter cpuTimeFilter) throws Exception {
+        http.authorizeHttpRequests(
+                        authorize ->
+                                authorize
+                                        .requestMatchers("/swagger-ui/**", "/v3/**", "/health/**").permitAll()
+                                        .requestMatchers("/api/cvs/admin/**").hasAuthority("ROLE_cvs.admin")
+                                        .requestMatchers("/api/cvs/**").hasAuthority("ROLE_cvs.read")
+                                        .anyRequest().authenticated())
+                .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt ->
+                        jwt.jwtAuthenticationConverter(customJwtAuthenticationConverter())))
+                // Before the token is validated, so its validation and rejected requests are charged as well
+                .addFilterBefore(cpuTimeFilter, BearerTokenAuthenticationFilter.class);
+
+        return http.build();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public RefreshAheadJwkSource jwkSource(
+            @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+            JwksProperties jwksProperties) {
+        return new RefreshAheadJwkSource(URI.create(jwkSetUri), jwksProperties);
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(RefreshAheadJwkSource jwkSource) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        // Claims are validated by the Spring Security validators configured on the decoder
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(jwtProcessor);
+        return token -> {
+            JwtValidationEvent event = new JwtValidationEvent();
+            event.begin();
+            try {
+                Jwt jwt = decoder.decode(token);
+                event.valid = true;
+                return jwt;
+            } finally {
+                event.commit();
+            }
+        };
+    }
+
+    @Bean
+    public static JwtAuthenticationConverter customJwtAuthenticationConverter() {
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(new CustomJwtGrantedAuthoritiesConverter());
+        return converter;
+    }
+}
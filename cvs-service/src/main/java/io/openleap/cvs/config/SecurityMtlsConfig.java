@@ -0,0 +1,40 @@
+package io.openleap.cvs.config;
+
+import io.openleap.cvs.web.CpuTimeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.preauth.x509.X509AuthenticationFilter;
+
+/**
+ * Authenticates callers by client certificate instead of a JWT, for deployments where the service is only
+ * reached over mutual TLS. Use it instead of the keycloak profile, with the same roles.
+ */
+@Profile({"mtls"})
+@Configuration
+public class SecurityMtlsConfig {
+
+    @Bean
+    public SecurityFilterChain filterChain(HttpSecurity http, MtlsProperties mtlsProperties,
+                                           CpuTimeFilter cpuTimeFilter) throws Exception {
+        http.authorizeHttpRequests(
+                        authorize ->
+                                authorize
+                                        .requestMatchers("/swagger-ui/**", "/v3/**", "/health/**").permitAll()
+                                        .requestMatchers("/api/cvs/admin/**").hasAuthority("ROLE_cvs.admin")
+                                        .requestMatchers("/api/cvs/**").hasAuthority("ROLE_cvs.read")
+                                        .anyRequest().authenticated())
+                .addFilterAt(new MtlsAuthenticationFilter(mtlsProperties), X509AuthenticationFilter.class)
+                // Before the certificate is mapped, so rejected requests are charged as well
+                .addFilterBefore(cpuTimeFilter, X509AuthenticationFilter.class)
+                // No browser sessions: every request carries the certificate of its TLS connection
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+
+        return http.build();
+    }
+}
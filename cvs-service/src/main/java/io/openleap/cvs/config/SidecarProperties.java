@@ -0,0 +1,55 @@
+package io.openleap.cvs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Component
+@ConfigurationProperties(prefix = "cvs.sidecar")
+public class SidecarProperties {
+    private boolean enabled = false;
+    private String socketPath = "/var/run/cvs/cvs.sock";
+    private String socketPermissions = "rw-rw----";
+    private int maxConnections = 64;
+    private DataSize maxFrameSize = DataSize.ofMegabytes(16);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getSocketPath() {
+        return socketPath;
+    }
+
+    public void setSocketPath(String socketPath) {
+        this.socketPath = socketPath;
+    }
+
+    public String getSocketPermissions() {
+        return socketPermissions;
+    }
+
+    public void setSocketPermissions(String socketPermissions) {
+        this.socketPermissions = socketPermissions;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public DataSize getMaxFrameSize() {
+        return maxFrameSize;
+    }
+
+    public void setMaxFrameSize(DataSize maxFrameSize) {
+        this.maxFrameSize = maxFrameSize;
+    }
+}
@@ -0,0 +1,87 @@
+package io.openleap.cvs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "cvs.tokens")
+public class TokenProperties {
+    private boolean enabled = true;
+    private String directory = "tokens";
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+    // Tokens the off-heap index holds before it grows; each takes 32 bytes at the highest load
+    private int initialCapacity = 1 << 16;
+    // Flush every write to disk before answering, so acknowledged tokens survive a power loss
+    private boolean syncWrites = true;
+    private int maxBatchSize = 10000;
+    private Duration compactionInterval = Duration.ofMinutes(1);
+    // Share of a segment taken by deleted records before it is compacted
+    private double compactionGarbageRatio = 0.5;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(DataSize segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public int getInitialCapacity() {
+        return initialCapacity;
+    }
+
+    public void setInitialCapacity(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+    }
+
+    public boolean isSyncWrites() {
+        return syncWrites;
+    }
+
+    public void setSyncWrites(boolean syncWrites) {
+        this.syncWrites = syncWrites;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Duration getCompactionInterval() {
+        return compactionInterval;
+    }
+
+    public void setCompactionInterval(Duration compactionInterval) {
+        this.compactionInterval = compactionInterval;
+    }
+
+    public double getCompactionGarbageRatio() {
+        return compactionGarbageRatio;
+    }
+
+    public void setCompactionGarbageRatio(double compactionGarbageRatio) {
+        this.compactionGarbageRatio = compactionGarbageRatio;
+    }
+}
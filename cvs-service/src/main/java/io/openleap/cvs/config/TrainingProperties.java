@@ -0,0 +1,47 @@
+package io.openleap.cvs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "cvs.training")
+public class TrainingProperties {
+    private boolean enabled;
+    private int iterations = 2000;
+    private Mode mode = Mode.EXIT;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public enum Mode {
+        /**
+         * Exit after the training run, e.g. to dump an AppCDS archive with {@code -XX:ArchiveClassesAtExit}.
+         */
+        EXIT,
+        /**
+         * Take a CRaC checkpoint after the training run and keep serving after the restore.
+         */
+        CHECKPOINT
+    }
+}
@@ -0,0 +1,57 @@
+package io.openleap.cvs.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "cvs.warm-up")
+public class WarmUpProperties {
+    private boolean enabled = true;
+    private Duration window = Duration.ofMillis(500);
+    // Throughput is stable once this many consecutive windows are within the tolerance of the previous one
+    private int stableWindows = 3;
+    private double tolerance = 0.1;
+    private Duration maxDuration = Duration.ofSeconds(60);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public int getStableWindows() {
+        return stableWindows;
+    }
+
+    public void setStableWindows(int stableWindows) {
+        this.stableWindows = stableWindows;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public Duration getMaxDuration() {
+        return maxDuration;
+    }
+
+    public void setMaxDuration(Duration maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+}
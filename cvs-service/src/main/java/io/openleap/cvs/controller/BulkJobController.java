@@ -0,0 +1,180 @@
+package io.openleap.cvs.controller;
+
+import io.openleap.cvs.audit.AuditLog;
+import io.openleap.cvs.controller.dto.JobStatusDto;
+import io.openleap.cvs.controller.dto.error.ErrorResponse;
+import io.openleap.cvs.job.BulkJob;
+import io.openleap.cvs.job.BulkJobService;
+import io.openleap.cvs.job.JobFormat;
+import io.openleap.cvs.job.JobOperation;
+import io.openleap.cvs.job.JobStatus;
+import io.openleap.cvs.service.CryptoService;
+import io.openleap.cvs.util.ClientIdResolver;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Tag(
+    name = "Bulk Jobs",
+    description = "Asynchronous encryption, decryption and re-encryption of large NDJSON or CSV datasets"
+)
+@SecurityRequirement(name = "LocalKeycloakOauth2")
+@RestController
+@RequestMapping(BulkJobController.PATH)
+public class BulkJobController {
+    public static final String PATH = "/api/cvs/jobs";
+
+    @Autowired
+    private BulkJobService bulkJobService;
+    @Autowired
+    private CryptoService cryptoService;
+    @Autowired
+    private AuditLog auditLog;
+
+    @Operation(
+        summary = "Create a bulk job",
+        description = "Uploads an NDJSON (one JSON object of string fields per line) or CSV (with a header line) " +
+                     "dataset and starts encrypting or decrypting every field except 'objectId' in the background. " +
+                     "REENCRYPT jobs take records with 'ciphertext' and 'iv' fields instead, decrypt the cipher " +
+                     "text with the previous master key, or the current one if that fails, and the record's IV " +
+                     "and encrypt it again with the current key; the result contains no plaintext. " +
+                     "Poll the returned job for its status and download the result once it is COMPLETED."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "Job accepted",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = JobStatusDto.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - Invalid CSV header",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing authentication token"),
+        @ApiResponse(responseCode = "413", description = "Input exceeds cvs.jobs.max-input-size"),
+        @ApiResponse(responseCode = "415", description = "Content type is neither application/x-ndjson nor text/csv")
+    })
+    @PostMapping(consumes = {"application/x-ndjson", "text/csv"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> create(
+            @Parameter(description = "Operation applied to every field", required = true)
+            @RequestParam JobOperation operation,
+            @Parameter(description = "Session user ID used to generate the initialization vector; for REENCRYPT " +
+                    "the one to encrypt with again, by default the record's own", example = "user123")
+            @RequestParam(required = false) String iv,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        JobFormat format = JobFormat.fromMediaType(MediaType.parseMediaType(contentType));
+        String clientId = ClientIdResolver.currentClientId();
+        BulkJob job;
+        try {
+            job = bulkJobService.create(clientId, operation, format, iv, body);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(
+                    new ErrorResponse(e.getMessage(), e.getClass().getName(), LocalDateTime.now()),
+                    HttpStatus.BAD_REQUEST);
+        }
+        // The job is metered once it has ended, when its plaintext bytes are known
+        if (auditLog.isRunning()) {
+            int records = (int) Math.min(job.getRecords(), Integer.MAX_VALUE);
+            auditLog.record(operation.auditOperation(), clientId, cryptoService.getKeyVersion(), records,
+                    job.getId());
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create(PATH + "/" + job.getId()))
+                .body(JobStatusDto.of(job));
+    }
+
+    @Operation(
+        summary = "List bulk jobs",
+        description = "Returns the status of the jobs the calling client created on this instance."
+    )
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<JobStatusDto>> list() {
+        return ResponseEntity.ok(bulkJobService.list(ClientIdResolver.currentClientId()).stream()
+                .map(JobStatusDto::of)
+                .toList());
+    }
+
+    @Operation(summary = "Get the status of a bulk job")
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Job status",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = JobStatusDto.class))
+        ),
+        @ApiResponse(responseCode = "404", description = "Unknown job or job of another client")
+    })
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<JobStatusDto> status(@PathVariable String id) {
+        return bulkJobService.find(id, ClientIdResolver.currentClientId())
+                .map(job -> ResponseEntity.ok(JobStatusDto.of(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(
+        summary = "Download the result of a bulk job",
+        description = "Streams the processed records in input order, in the format of the input."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Result"),
+        @ApiResponse(responseCode = "404", description = "Unknown job or job of another client"),
+        @ApiResponse(responseCode = "409", description = "Job has not completed")
+    })
+    @GetMapping(value = "/{id}/result", produces = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<Resource> result(@PathVariable String id) throws IOException {
+        BulkJob job = bulkJobService.find(id, ClientIdResolver.currentClientId()).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getStatus() != JobStatus.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(job.getFormat().getMediaType())
+                .body(new InputStreamResource(bulkJobService.openResult(job)));
+    }
+
+    @Operation(summary = "Delete a finished bulk job and its files")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Job deleted"),
+        @ApiResponse(responseCode = "404", description = "Unknown job or job of another client"),
+        @ApiResponse(responseCode = "409", description = "Job is still running")
+    })
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable String id) throws IOException {
+        BulkJob job = bulkJobService.find(id, ClientIdResolver.currentClientId()).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return bulkJobService.delete(job)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
@@ -0,0 +1,447 @@
+package io.openleap.cvs.controller;
+
+import io.openleap.cvs.audit.AuditLog;
+import io.openleap.cvs.audit.AuditOperation;
+import io.openleap.cvs.batch.BatchCryptoService;
+import io.openleap.cvs.batch.BatchDocument;
+import io.openleap.cvs.batch.BatchOperation;
+import io.openleap.cvs.batch.BatchResult;
+import io.openleap.cvs.controller.dto.BatchRequestDto;
+import io.openleap.cvs.controller.dto.BatchResponseDto;
+import io.openleap.cvs.controller.dto.DecryptListRequestDto;
+import io.openleap.cvs.controller.dto.DecryptListResponseDto;
+import io.openleap.cvs.controller.dto.DecryptRequestDto;
+import io.openleap.cvs.controller.dto.EncryptListRequestDto;
+import io.openleap.cvs.controller.dto.EncryptRequestDto;
+import io.openleap.cvs.core.DecryptResult;
+import io.openleap.cvs.core.DecryptStatus;
+import io.openleap.cvs.core.InvalidIvException;
+import io.openleap.cvs.metering.UsageMeter;
+import io.openleap.cvs.service.CryptoService;
+import io.openleap.cvs.util.ClientIdResolver;
+import io.openleap.cvs.web.EncodedEntries;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.NoSuchPaddingException;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+
+@Tag(
+    name = "Crypto Vault Service",
+    description = "API for encrypting and decrypting sensitive data using AES-GCM encryption with user-specific initialization vectors"
+)
+@SecurityRequirement(name = "LocalKeycloakOauth2")
+@RestController
+@RequestMapping(CryptoVaultController.PATH)
+public class CryptoVaultController {
+    public static final String PATH = "/api/cvs";
+    public static final String ENCRYPT_LIST_PATH = "/encryptList";
+    public static final String DECRYPT_LIST_PATH = "/decryptList";
+    private static final String OBJECT_ID = "objectId";
+
+    @Autowired
+    private CryptoService cryptoService;
+    @Autowired
+    private AuditLog auditLog;
+    @Autowired
+    private UsageMeter usageMeter;
+    @Autowired
+    private BatchCryptoService batchCryptoService;
+
+    @Operation(
+        summary = "Encrypt a single value",
+        description = "Encrypts a single string value using AES-GCM encryption with a user-specific initialization vector. " +
+                     "The IV is generated from the provided session user ID using SHA-256 hashing."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Value successfully encrypted",
+            content = @Content(
+                mediaType = "text/plain",
+                schema = @Schema(type = "string", description = "Base64 encoded encrypted value"),
+                examples = @ExampleObject(value = "U2FsdGVkX1+vupppZksvRf5pq5g5XjFRlipRkwB0K1Y=")
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - Invalid input parameters",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = io.openleap.cvs.controller.dto.error.ErrorResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized - Invalid or missing authentication token"
+        ),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error - Encryption failed",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = io.openleap.cvs.controller.dto.error.ErrorResponse.class)
+            )
+        )
+    })
+    @PostMapping(value = "/encrypt", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> encrypt(
+            @Parameter(
+                description = "Request containing the value to encrypt and initialization vector",
+                required = true,
+                schema = @Schema(implementation = EncryptRequestDto.class)
+            )
+            @RequestBody @Valid EncryptRequestDto encryptRequestDto)
+            throws InvalidAlgorithmParameterException, NoSuchPaddingException, IllegalBlockSizeException,
+            NoSuchAlgorithmException, BadPaddingException, InvalidKeyException {
+        var response = cryptoService.encryptWithAesCbc(encryptRequestDto.value(), encryptRequestDto.iv());
+        record(AuditOperation.ENCRYPT, 1, UsageMeter.utf8Length(encryptRequestDto.value()), null);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @Operation(
+        summary = "Decrypt a single value",
+        description = "Decrypts a single encrypted string value using AES-GCM decryption with a user-specific initialization vector. " +
+                     "The IV must match the one used during encryption."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Value successfully decrypted",
+            content = @Content(
+                mediaType = "text/plain",
+                schema = @Schema(type = "string", description = "Decrypted plain text value"),
+                examples = @ExampleObject(value = "sensitive data")
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - Invalid initialization vector or malformed encrypted data",
+            content = @Content(
+                mediaType = "text/plain",
+                schema = @Schema(type = "string"),
+                examples = @ExampleObject(value = "Invalid initialization vector")
+            )
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized - Invalid or missing authentication token"
+        ),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error - Decryption failed",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = io.openleap.cvs.controller.dto.error.ErrorResponse.class)
+            )
+        )
+    })
+    @PostMapping(value = "/decrypt", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> decrypt(
+            @Parameter(
+                description = "Request containing the encrypted value and initialization vector",
+                required = true,
+                schema = @Schema(implementation = DecryptRequestDto.class)
+            )
+            @RequestBody @Valid DecryptRequestDto decryptRequestDto)
+            throws InvalidAlgorithmParameterException,
+            NoSuchAlgorithmException, InvalidKeyException {
+        try {
+            var response = cryptoService.decryptWithAesCbc(decryptRequestDto.value(), decryptRequestDto.iv());
+            record(AuditOperation.DECRYPT, 1, UsageMeter.utf8Length(response), null);
+            return new ResponseEntity<>(
+                    response, HttpStatus.OK);
+        } catch (InvalidIvException e) {
+            return new ResponseEntity<>("Invalid initialization vector", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @Operation(
+        summary = "Encrypt multiple values",
+        description = "Encrypts multiple key-value pairs using AES-GCM encryption. " +
+                     "The 'objectId' field is excluded from encryption and returned as-is. " +
+                     "All other values are encrypted using the provided initialization vector. " +
+                     "A request sent as application/cbor with Accept: application/cbor is answered in CBOR, " +
+                     "with the encrypted values as byte strings of the raw cipher text."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Values successfully encrypted",
+            content = {
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(
+                        type = "object",
+                        description = "Map of encrypted values with the same keys as input",
+                        example = "{\"field1\": \"U2FsdGVkX1+vupppZksvRf5pq5g5XjFRlipRkwB0K1Y=\", \"objectId\": \"12345\", \"field2\": \"U2FsdGVkX1+abc123def456ghi789jkl012mno345pqr678stu901vwx234yz=\"}"
+                    )
+                ),
+                @Content(
+                    mediaType = "application/cbor",
+                    schema = @Schema(type = "object", description = "Map of raw cipher texts with the same keys as input")
+                )
+            }
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - Invalid input parameters",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = io.openleap.cvs.controller.dto.error.ErrorResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized - Invalid or missing authentication token"
+        ),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error - Encryption failed",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = io.openleap.cvs.controller.dto.error.ErrorResponse.class)
+            )
+        )
+    })
+    @PostMapping(value = ENCRYPT_LIST_PATH,
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<Map<String, String>> encryptMap(
+            @Parameter(
+                description = "Request containing the map of values to encrypt and initialization vector",
+                required = true,
+                schema = @Schema(implementation = EncryptListRequestDto.class)
+            )
+            @RequestBody @Valid EncryptListRequestDto encryptListRequestDto) {
+        var response = cryptoService.encryptWithAesCbc(encryptListRequestDto.data(), encryptListRequestDto.iv());
+        record(AuditOperation.ENCRYPT_LIST, response.size(), plaintextBytes(response, encryptListRequestDto.data()),
+                response.get(OBJECT_ID));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @Operation(
+        summary = "Decrypt multiple values",
+        description = "Decrypts multiple key-value pairs using AES-GCM decryption. " +
+                     "The 'objectId' field is excluded from decryption and returned as-is. " +
+                     "All other values are decrypted using the provided initialization vector. " +
+                     "A request sent as application/cbor may carry the values as byte strings of the raw cipher " +
+                     "text and is answered in CBOR with Accept: application/cbor."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Values successfully decrypted",
+            content = {
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(
+                        type = "object",
+                        description = "Map of decrypted values with the same keys as input",
+                        example = "{\"field1\": \"sensitive data 1\", \"objectId\": \"12345\", \"field2\": \"sensitive data 2\"}"
+                    )
+                ),
+                @Content(
+                    mediaType = "application/cbor",
+                    schema = @Schema(type = "object", description = "Map of decrypted values with the same keys as input")
+                )
+            }
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - Invalid initialization vector or malformed encrypted data",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = io.openleap.cvs.controller.dto.error.ErrorResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized - Invalid or missing authentication token"
+        ),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error - Decryption failed",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = io.openleap.cvs.controller.dto.error.ErrorResponse.class)
+            )
+        )
+    })
+    @PostMapping(value = DECRYPT_LIST_PATH,
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<Map<String, String>> decryptMap(
+            @Parameter(
+                description = "Request containing the map of encrypted values and initialization vector",
+                required = true,
+                schema = @Schema(implementation = DecryptListRequestDto.class)
+            )
+            @RequestBody @Valid DecryptListRequestDto decryptListRequestDto) {
+        var response = cryptoService.decryptWithAesCbc(decryptListRequestDto.data(), decryptListRequestDto.iv());
+        record(AuditOperation.DECRYPT_LIST, response.size(), plaintextBytes(response, response),
+                response.get(OBJECT_ID));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @Operation(
+        summary = "Decrypt multiple values with a status per entry",
+        description = "Decrypts multiple key-value pairs like /decryptList, but an entry that cannot be decrypted " +
+                     "does not fail the whole request. Every entry is returned with a status: OK with the decrypted " +
+                     "value, AUTH_FAILURE if the value does not match the key and initialization vector, or " +
+                     "MALFORMED if the value is not a valid encrypted value."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "All entries processed, see the status of each entry",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = DecryptListResponseDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - Invalid input parameters",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = io.openleap.cvs.controller.dto.error.ErrorResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized - Invalid or missing authentication token"
+        ),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error - Decryption failed",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = io.openleap.cvs.controller.dto.error.ErrorResponse.class)
+            )
+        )
+    })
+    @PostMapping(value = "/decryptListWithStatus", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<DecryptListResponseDto> decryptMapWithStatus(
+            @Parameter(
+                description = "Request containing the map of encrypted values and initialization vector",
+                required = true,
+                schema = @Schema(implementation = DecryptListRequestDto.class)
+            )
+            @RequestBody @Valid DecryptListRequestDto decryptListRequestDto)
+            throws InvalidAlgorithmParameterException, NoSuchPaddingException, NoSuchAlgorithmException,
+            InvalidKeyException {
+        Map<String, DecryptResult> results =
+                cryptoService.decryptEntries(decryptListRequestDto.data(), decryptListRequestDto.iv());
+        int failed = 0;
+        long plaintextBytes = 0;
+        for (Map.Entry<String, DecryptResult> entry : results.entrySet()) {
+            if (entry.getValue().status() != DecryptStatus.OK) {
+                failed++;
+            } else if (!OBJECT_ID.equals(entry.getKey())) {
+                plaintextBytes += UsageMeter.utf8Length(entry.getValue().value());
+            }
+        }
+        record(AuditOperation.DECRYPT_LIST, results.size(), plaintextBytes,
+                decryptListRequestDto.data().get(OBJECT_ID));
+        return new ResponseEntity<>(new DecryptListResponseDto(results, failed), HttpStatus.OK);
+    }
+
+    @Operation(
+        summary = "Encrypt and decrypt documents of many session users",
+        description = "Processes an ordered list of documents in one call. Each document has its own operation " +
+                     "(ENCRYPT or DECRYPT), session user ID, objectId and values, so a page of records of " +
+                     "different users needs one request instead of one per record. Documents of the same user " +
+                     "share the derivation of their initialization vector, and large batches are processed in " +
+                     "parallel. Like /decryptListWithStatus, values that do not decrypt are reported per document " +
+                     "and do not fail the batch."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "One result per document, in the order of the request",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = BatchResponseDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - Too many documents, or a document without operation or data",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = io.openleap.cvs.controller.dto.error.ErrorResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized - Invalid or missing authentication token"
+        )
+    })
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchResponseDto> batch(
+            @Parameter(
+                description = "Documents to encrypt or decrypt",
+                required = true,
+                schema = @Schema(implementation = BatchRequestDto.class)
+            )
+            @RequestBody BatchRequestDto batchRequestDto) throws GeneralSecurityException {
+        if (batchRequestDto.documents() == null) {
+            throw new IllegalArgumentException("Documents are required");
+        }
+        List<BatchResult> results = batchCryptoService.process(batchRequestDto.documents());
+        // Audited and metered per document, like the list calls the batch replaces
+        for (int i = 0; i < results.size(); i++) {
+            BatchDocument document = batchRequestDto.documents().get(i);
+            BatchResult result = results.get(i);
+            if (document.operation() == BatchOperation.ENCRYPT) {
+                record(AuditOperation.ENCRYPT_LIST, result.data().size(), UsageMeter.plaintextBytes(document.data()),
+                        document.objectId());
+            } else {
+                record(AuditOperation.DECRYPT_LIST, document.data().size(), UsageMeter.plaintextBytes(result.data()),
+                        document.objectId());
+            }
+        }
+        return new ResponseEntity<>(BatchResponseDto.of(results), HttpStatus.OK);
+    }
+
+    private void record(AuditOperation operation, int entryCount, long plaintextBytes, String objectId) {
+        String clientId = ClientIdResolver.currentClientId();
+        usageMeter.record(clientId, operation, entryCount, plaintextBytes);
+        if (auditLog.isRunning()) {
+            auditLog.record(operation, clientId, cryptoService.getKeyVersion(), entryCount, objectId);
+        }
+    }
+
+    /**
+     * Results of the byte-level list path already know their plaintext length; otherwise it is counted on
+     * the plaintext map.
+     */
+    private static long plaintextBytes(Map<String, String> result, Map<String, String> plaintext) {
+        return result instanceof EncodedEntries entries
+                ? entries.plaintextBytes()
+                : UsageMeter.plaintextBytes(plaintext);
+    }
+}
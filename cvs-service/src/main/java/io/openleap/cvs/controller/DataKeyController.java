@@ -0,0 +1,112 @@
+package io.openleap.cvs.controller;
+
+import io.openleap.cvs.audit.AuditLog;
+import io.openleap.cvs.audit.AuditOperation;
+import io.openleap.cvs.controller.dto.DataKeyResponseDto;
+import io.openleap.cvs.controller.dto.UnwrapDataKeyRequestDto;
+import io.openleap.cvs.controller.dto.error.ErrorResponse;
+import io.openleap.cvs.core.DataKey;
+import io.openleap.cvs.metering.UsageMeter;
+import io.openleap.cvs.service.CryptoService;
+import io.openleap.cvs.util.ClientIdResolver;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+@Tag(
+    name = "Data Keys",
+    description = "Envelope encryption: data keys for encrypting locally, sealed under the master key"
+)
+@SecurityRequirement(name = "LocalKeycloakOauth2")
+@RestController
+@RequestMapping("/api/cvs")
+public class DataKeyController {
+
+    @Autowired
+    private CryptoService cryptoService;
+    @Autowired
+    private AuditLog auditLog;
+    @Autowired
+    private UsageMeter usageMeter;
+
+    @Operation(
+        summary = "Generate a data key",
+        description = "Returns a fresh random AES-256 data key together with a copy of it sealed under the master " +
+                     "key. Clients encrypt locally with the plain key, store the wrapped key with the data and " +
+                     "open it again with /unwrapDataKey."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Data key generated",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = DataKeyResponseDto.class))
+        ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing authentication token")
+    })
+    @PostMapping(value = "/generateDataKey", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<DataKeyResponseDto> generateDataKey() throws GeneralSecurityException {
+        DataKey dataKey = cryptoService.generateDataKey();
+        audit(AuditOperation.GENERATE_DATA_KEY);
+        return new ResponseEntity<>(
+                new DataKeyResponseDto(Base64.getEncoder().encodeToString(dataKey.plaintextKey()), dataKey.wrappedKey()),
+                HttpStatus.OK);
+    }
+
+    @Operation(
+        summary = "Unwrap a data key",
+        description = "Opens a data key wrapped by /generateDataKey and returns the plain key."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Data key unwrapped",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = DataKeyResponseDto.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - Malformed wrapped key, sealed under another master key or tampered with",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing authentication token")
+    })
+    @PostMapping(value = "/unwrapDataKey", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<DataKeyResponseDto> unwrapDataKey(
+            @Parameter(
+                description = "Request containing the wrapped data key",
+                required = true,
+                schema = @Schema(implementation = UnwrapDataKeyRequestDto.class)
+            )
+            @RequestBody @Valid UnwrapDataKeyRequestDto unwrapDataKeyRequestDto) throws GeneralSecurityException {
+        byte[] plaintextKey = cryptoService.unwrapDataKey(unwrapDataKeyRequestDto.wrappedKey());
+        audit(AuditOperation.UNWRAP_DATA_KEY);
+        return new ResponseEntity<>(
+                new DataKeyResponseDto(Base64.getEncoder().encodeToString(plaintextKey),
+                        unwrapDataKeyRequestDto.wrappedKey()),
+                HttpStatus.OK);
+    }
+
+    private void audit(AuditOperation operation) {
+        String clientId = ClientIdResolver.currentClientId();
+        usageMeter.record(clientId, operation, 1, 0);
+        if (auditLog.isRunning()) {
+            auditLog.record(operation, clientId, cryptoService.getKeyVersion(), 1, null);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package io.openleap.cvs.controller;
+
+import io.openleap.cvs.audit.AuditLog;
+import io.openleap.cvs.audit.AuditOperation;
+import io.openleap.cvs.controller.dto.error.ErrorResponse;
+import io.openleap.cvs.document.DocumentCryptoService;
+import io.openleap.cvs.document.DocumentUsage;
+import io.openleap.cvs.document.FieldPolicy;
+import io.openleap.cvs.metering.UsageMeter;
+import io.openleap.cvs.service.CryptoService;
+import io.openleap.cvs.util.ClientIdResolver;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+@Tag(
+    name = "Document Encryption",
+    description = "Encrypts and decrypts selected fields of arbitrary JSON documents"
+)
+@SecurityRequirement(name = "LocalKeycloakOauth2")
+@RestController
+public class DocumentController {
+
+    public static final String ENCRYPT_PATH = "/api/cvs/encryptDocument";
+    public static final String DECRYPT_PATH = "/api/cvs/decryptDocument";
+
+    @Autowired
+    private DocumentCryptoService documentCryptoService;
+    @Autowired
+    private CryptoService cryptoService;
+    @Autowired
+    private AuditLog auditLog;
+    @Autowired
+    private UsageMeter usageMeter;
+
+    @Operation(
+        summary = "Encrypt selected fields of a JSON document",
+        description = "Encrypts every leaf of the request document that is matched by one of the selectors and " +
+                     "returns the document with its structure unchanged. Selectors use a JSONPath subset: $, .name, " +
+                     "['name'], [0], .*, [*] and ..name. A selected object or array is encrypted leaf by leaf. " +
+                     "Instead of selectors a policy configured under cvs.documents.policies can be named."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Document with the selected fields encrypted"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - Invalid selector, unknown policy, malformed JSON or a document larger " +
+                         "than cvs.documents.max-size",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing authentication token")
+    })
+    @PostMapping(value = ENCRYPT_PATH, consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public void encryptDocument(
+            @Parameter(description = "JSONPath selectors of the fields to encrypt", example = "$.customer.email")
+            @RequestParam(name = "select", required = false) List<String> selectors,
+            @Parameter(description = "Name of a configured selector policy", example = "customer")
+            @RequestParam(required = false) String policy,
+            @Parameter(description = "Session user ID used to generate the initialization vector", example = "user123")
+            @RequestParam(required = false) String iv,
+            InputStream body,
+            HttpServletResponse response) throws IOException {
+        FieldPolicy fieldPolicy = documentCryptoService.policy(policy, selectors);
+        // Only a complete document is sent, so a value that fails late still gets a clean error response
+        ByteArrayOutputStream document = new ByteArrayOutputStream();
+        DocumentUsage usage = documentCryptoService.encrypt(body, document, fieldPolicy, iv);
+        writeDocument(document, response);
+        audit(AuditOperation.ENCRYPT_LIST, usage);
+    }
+
+    @Operation(
+        summary = "Decrypt selected fields of a JSON document",
+        description = "Decrypts every string leaf of the request document that is matched by one of the selectors " +
+                     "and returns the document with its structure unchanged. Takes the same selectors as " +
+                     "/encryptDocument."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Document with the selected fields decrypted"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - Invalid selector, unknown policy, malformed JSON, a selected value " +
+                         "that cannot be decrypted or a document larger than cvs.documents.max-size",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing authentication token")
+    })
+    @PostMapping(value = DECRYPT_PATH, consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public void decryptDocument(
+            @Parameter(description = "JSONPath selectors of the fields to decrypt", example = "$.customer.email")
+            @RequestParam(name = "select", required = false) List<String> selectors,
+            @Parameter(description = "Name of a configured selector policy", example = "customer")
+            @RequestParam(required = false) String policy,
+            @Parameter(description = "Session user ID used to generate the initialization vector", example = "user123")
+            @RequestParam(required = false) String iv,
+            InputStream body,
+            HttpServletResponse response) throws IOException {
+        FieldPolicy fieldPolicy = documentCryptoService.policy(policy, selectors);
+        // Only a complete document is sent, so a value that fails late still gets a clean error response
+        ByteArrayOutputStream document = new ByteArrayOutputStream();
+        DocumentUsage usage = documentCryptoService.decrypt(body, document, fieldPolicy, iv);
+        writeDocument(document, response);
+        audit(AuditOperation.DECRYPT_LIST, usage);
+    }
+
+    private static void writeDocument(ByteArrayOutputStream document, HttpServletResponse response)
+            throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(document.size());
+        document.writeTo(response.getOutputStream());
+    }
+
+    private void audit(AuditOperation operation, DocumentUsage usage) {
+        String clientId = ClientIdResolver.currentClientId();
+        usageMeter.record(clientId, operation, usage.leaves(), usage.plaintextBytes());
+        if (auditLog.isRunning()) {
+            auditLog.record(operation, clientId, cryptoService.getKeyVersion(), usage.leaves(), null);
+        }
+    }
+}
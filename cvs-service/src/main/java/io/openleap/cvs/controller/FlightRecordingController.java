@@ -0,0 +1,143 @@
+package io.openleap.cvs.controller;
+
+import io.openleap.cvs.controller.dto.RecordingStatusDto;
+import io.openleap.cvs.controller.dto.error.ErrorResponse;
+import io.openleap.cvs.jfr.FlightRecordings;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jdk.jfr.Recording;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Tag(
+    name = "Administration",
+    description = "Usage of the service per client, for chargeback and finding expensive callers"
+)
+@SecurityRequirement(name = "LocalKeycloakOauth2")
+@RestController
+@RequestMapping(FlightRecordingController.PATH)
+public class FlightRecordingController {
+    public static final String PATH = UsageController.PATH + "/recording";
+
+    @Autowired
+    private FlightRecordings flightRecordings;
+
+    @Operation(
+        summary = "Start a Flight Recorder recording",
+        description = "Starts a JDK Flight Recorder recording with the events of every crypto phase, including " +
+                     "JWT validation, request parsing, cipher setup, cipher and cipher text encoding. It stops by " +
+                     "itself after the duration; download it with /recording/dump. Requires the cvs.admin role."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "201",
+            description = "Recording started",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = RecordingStatusDto.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - Duration out of range or unknown settings",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing authentication token"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - The token lacks the cvs.admin role"),
+        @ApiResponse(responseCode = "409", description = "A recording is already running")
+    })
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> start(
+            @Parameter(description = "How long to record, up to cvs.flight-recorder.max-duration", example = "PT60S")
+            @RequestParam(defaultValue = "PT60S") Duration duration,
+            @Parameter(description = "JDK settings: 'default' for low overhead, 'profile' for more detail",
+                    example = "profile")
+            @RequestParam(defaultValue = "profile") String settings) {
+        Recording recording;
+        try {
+            recording = flightRecordings.start(duration, settings);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(
+                    new ErrorResponse(e.getMessage(), e.getClass().getName(), LocalDateTime.now()),
+                    HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(
+                    new ErrorResponse(e.getMessage(), e.getClass().getName(), LocalDateTime.now()),
+                    HttpStatus.CONFLICT);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(RecordingStatusDto.of(recording));
+    }
+
+    @Operation(summary = "Get the state of the recording")
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Recording state",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = RecordingStatusDto.class))
+        ),
+        @ApiResponse(responseCode = "404", description = "No recording")
+    })
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<RecordingStatusDto> status() {
+        return flightRecordings.current()
+                .map(recording -> ResponseEntity.ok(RecordingStatusDto.of(recording)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(
+        summary = "Download the recording",
+        description = "Returns the data recorded so far as a .jfr file, for JDK Mission Control or the jfr tool. " +
+                     "The recording keeps running."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Recording file"),
+        @ApiResponse(responseCode = "404", description = "No recording")
+    })
+    @GetMapping(value = "/dump", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Resource> dump() throws IOException {
+        Path file = flightRecordings.dump().orElse(null);
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(Files.size(file))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                .body(new InputStreamResource(Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE)));
+    }
+
+    @Operation(summary = "Stop the recording and discard its data")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Recording closed"),
+        @ApiResponse(responseCode = "404", description = "No recording")
+    })
+    @DeleteMapping
+    public ResponseEntity<Void> close() {
+        return flightRecordings.close()
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
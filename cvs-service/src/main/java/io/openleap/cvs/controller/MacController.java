@@ -0,0 +1,238 @@
+package io.openleap.cvs.controller;
+
+import io.openleap.cvs.audit.AuditLog;
+import io.openleap.cvs.audit.AuditOperation;
+import io.openleap.cvs.controller.dto.MacSignRequestDto;
+import io.openleap.cvs.controller.dto.MacSignResponseDto;
+import io.openleap.cvs.controller.dto.MacVerifyRequestDto;
+import io.openleap.cvs.controller.dto.MacVerifyResponseDto;
+import io.openleap.cvs.controller.dto.error.ErrorResponse;
+import io.openleap.cvs.metering.UsageMeter;
+import io.openleap.cvs.service.CryptoService;
+import io.openleap.cvs.service.MacService;
+import io.openleap.cvs.util.ClientIdResolver;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.util.List;
+
+@Tag(
+    name = "Message Authentication",
+    description = "HMAC-SHA256 signatures with keys derived from the master key, for webhooks and record integrity"
+)
+@SecurityRequirement(name = "LocalKeycloakOauth2")
+@RestController
+@RequestMapping(MacController.PATH)
+public class MacController {
+    public static final String PATH = "/api/cvs/mac";
+
+    @Autowired
+    private MacService macService;
+    @Autowired
+    private CryptoService cryptoService;
+    @Autowired
+    private AuditLog auditLog;
+    @Autowired
+    private UsageMeter usageMeter;
+
+    @Operation(
+        summary = "Sign messages",
+        description = "Signs the UTF-8 bytes of every message with the HMAC-SHA256 key of the key ID. The key is " +
+                     "derived from the master key, so the same key ID always gives the same signatures. Only " +
+                     "the clients configured for the key ID in cvs.mac.signers may sign with it."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Messages signed",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = MacSignResponseDto.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - Missing key ID or messages",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing authentication token"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - The client may not sign with the key ID")
+    })
+    @PostMapping(value = "/sign", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<MacSignResponseDto> sign(
+            @Parameter(
+                description = "Request containing the key ID and the messages to sign",
+                required = true,
+                schema = @Schema(implementation = MacSignRequestDto.class)
+            )
+            @RequestBody @Valid MacSignRequestDto macSignRequestDto) throws GeneralSecurityException {
+        List<String> messages = requireList(macSignRequestDto.messages(), "messages");
+        List<String> signatures =
+                macService.sign(ClientIdResolver.currentClientId(), macSignRequestDto.keyId(), messages);
+        record(AuditOperation.SIGN, signatures.size(), utf8Length(messages));
+        return ResponseEntity.ok(new MacSignResponseDto(macSignRequestDto.keyId(), signatures));
+    }
+
+    @Operation(
+        summary = "Sign a binary message",
+        description = "Signs the request body as it is, for large or binary payloads that should not be Base64 " +
+                     "encoded into JSON. The body is streamed, not held in memory. Only the clients " +
+                     "configured for the key ID in cvs.mac.signers may sign with it."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Message signed",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = MacSignResponseDto.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - Missing key ID",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing authentication token"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - The client may not sign with the key ID")
+    })
+    @PostMapping(value = "/sign", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<MacSignResponseDto> signStream(
+            @Parameter(description = "ID of the key to sign with", required = true, example = "webhooks")
+            @RequestParam String keyId,
+            InputStream body) throws GeneralSecurityException, IOException {
+        CountingInputStream message = new CountingInputStream(body);
+        String signature = macService.sign(ClientIdResolver.currentClientId(), keyId, message);
+        record(AuditOperation.SIGN, 1, message.count);
+        return ResponseEntity.ok(new MacSignResponseDto(keyId, List.of(signature)));
+    }
+
+    @Operation(
+        summary = "Verify signatures",
+        description = "Checks the signature of every message in constant time. Signatures made with the previous " +
+                     "master key (cvs.previous-encryption-key-path) are accepted too."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Result per signature",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = MacVerifyResponseDto.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - Missing key ID, or not one signature per message",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing authentication token")
+    })
+    @PostMapping(value = "/verify", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<MacVerifyResponseDto> verify(
+            @Parameter(
+                description = "Request containing the key ID, the messages and their signatures",
+                required = true,
+                schema = @Schema(implementation = MacVerifyRequestDto.class)
+            )
+            @RequestBody @Valid MacVerifyRequestDto macVerifyRequestDto) throws GeneralSecurityException {
+        List<String> messages = requireList(macVerifyRequestDto.messages(), "messages");
+        List<Boolean> results = macService.verify(macVerifyRequestDto.keyId(), messages,
+                requireList(macVerifyRequestDto.signatures(), "signatures"));
+        record(AuditOperation.VERIFY, results.size(), utf8Length(messages));
+        return ResponseEntity.ok(MacVerifyResponseDto.of(results));
+    }
+
+    @Operation(
+        summary = "Verify the signature of a binary message",
+        description = "Checks the signature of the request body as it is, in constant time. The body is streamed, " +
+                     "not held in memory."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Result of the signature",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = MacVerifyResponseDto.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - Missing key ID or signature",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing authentication token")
+    })
+    @PostMapping(value = "/verify", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<MacVerifyResponseDto> verifyStream(
+            @Parameter(description = "ID of the key the message was signed with", required = true, example = "webhooks")
+            @RequestParam String keyId,
+            @Parameter(description = "Base64 signature of the body", required = true,
+                    example = "3q8Z5mWc0Yb1JtN7k2Xr9Qv4pLs6dHf8aGe0uTi2oKw=")
+            @RequestParam String signature,
+            InputStream body) throws GeneralSecurityException, IOException {
+        CountingInputStream message = new CountingInputStream(body);
+        boolean result = macService.verify(keyId, signature, message);
+        record(AuditOperation.VERIFY, 1, message.count);
+        return ResponseEntity.ok(MacVerifyResponseDto.of(List.of(result)));
+    }
+
+    private void record(AuditOperation operation, int entryCount, long plaintextBytes) {
+        String clientId = ClientIdResolver.currentClientId();
+        usageMeter.record(clientId, operation, entryCount, plaintextBytes);
+        if (auditLog.isRunning()) {
+            auditLog.record(operation, clientId, cryptoService.getKeyVersion(), entryCount, null);
+        }
+    }
+
+    private static long utf8Length(List<String> messages) {
+        long bytes = 0;
+        for (String message : messages) {
+            bytes += UsageMeter.utf8Length(message);
+        }
+        return bytes;
+    }
+
+    private static List<String> requireList(List<String> list, String name) {
+        if (list == null) {
+            throw new IllegalArgumentException("'" + name + "' is required");
+        }
+        return list;
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read != -1) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
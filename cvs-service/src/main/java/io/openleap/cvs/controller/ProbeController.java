@@ -0,0 +1,70 @@
+package io.openleap.cvs.controller;
+
+import io.openleap.cvs.controller.dto.ProbeStatusDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(
+    name = "Probes",
+    description = "Liveness and readiness probes for the orchestrator"
+)
+@RestController
+@RequestMapping(ProbeController.PATH)
+public class ProbeController {
+    public static final String PATH = "/health";
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @Operation(summary = "Liveness probe")
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "The application is live",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProbeStatusDto.class))
+        ),
+        @ApiResponse(responseCode = "503", description = "The application is broken")
+    })
+    @GetMapping(value = "/liveness", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProbeStatusDto> liveness() {
+        LivenessState state = applicationAvailability.getLivenessState();
+        return probe(state == LivenessState.CORRECT, state);
+    }
+
+    @Operation(
+        summary = "Readiness probe",
+        description = "Reports not ready until the application has started and warmed up."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "The application accepts traffic",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProbeStatusDto.class))
+        ),
+        @ApiResponse(responseCode = "503", description = "The application is starting or warming up")
+    })
+    @GetMapping(value = "/readiness", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProbeStatusDto> readiness() {
+        ReadinessState state = applicationAvailability.getReadinessState();
+        return probe(state == ReadinessState.ACCEPTING_TRAFFIC, state);
+    }
+
+    private static ResponseEntity<ProbeStatusDto> probe(boolean up, Enum<?> state) {
+        return ResponseEntity.status(up ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ProbeStatusDto(up ? "UP" : "OUT_OF_SERVICE", state.name()));
+    }
+}
@@ -0,0 +1,179 @@
+package io.openleap.cvs.controller;
+
+import io.openleap.cvs.audit.AuditLog;
+import io.openleap.cvs.audit.AuditOperation;
+import io.openleap.cvs.controller.dto.DetokenizeRequestDto;
+import io.openleap.cvs.controller.dto.DetokenizeResponseDto;
+import io.openleap.cvs.controller.dto.TokenizeRequestDto;
+import io.openleap.cvs.controller.dto.TokenizeResponseDto;
+import io.openleap.cvs.controller.dto.error.ErrorResponse;
+import io.openleap.cvs.metering.UsageMeter;
+import io.openleap.cvs.service.CryptoService;
+import io.openleap.cvs.token.TokenVault;
+import io.openleap.cvs.util.ClientIdResolver;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.List;
+
+@Tag(
+    name = "Tokenization",
+    description = "Random tokens that stand for sensitive values, which stay encrypted in the vault"
+)
+@SecurityRequirement(name = "LocalKeycloakOauth2")
+@RestController
+@RequestMapping(TokenController.PATH)
+public class TokenController {
+    public static final String PATH = "/api/cvs/tokens";
+
+    @Autowired
+    private TokenVault tokenVault;
+    @Autowired
+    private CryptoService cryptoService;
+    @Autowired
+    private AuditLog auditLog;
+    @Autowired
+    private UsageMeter usageMeter;
+
+    @Operation(
+        summary = "Replace values by tokens",
+        description = "Stores every value encrypted in the vault and returns a new random token for it. The token " +
+                     "has no relation to the value; only /tokens/detokenize turns it back."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Values stored",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = TokenizeResponseDto.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - Missing or null values, or more than cvs.tokens.max-batch-size",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing authentication token"),
+        @ApiResponse(responseCode = "503", description = "The token vault is disabled")
+    })
+    @PostMapping(value = "/tokenize", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TokenizeResponseDto> tokenize(
+            @Parameter(
+                description = "Request containing the values to tokenize",
+                required = true,
+                schema = @Schema(implementation = TokenizeRequestDto.class)
+            )
+            @RequestBody @Valid TokenizeRequestDto tokenizeRequestDto) throws GeneralSecurityException, IOException {
+        if (!tokenVault.isRunning()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        List<String> values = requireList(tokenizeRequestDto.values(), "values");
+        List<String> tokens = tokenVault.tokenize(values);
+        long plaintextBytes = 0;
+        for (String value : values) {
+            plaintextBytes += UsageMeter.utf8Length(value);
+        }
+        record(AuditOperation.TOKENIZE, tokens.size(), plaintextBytes);
+        return ResponseEntity.ok(new TokenizeResponseDto(tokens));
+    }
+
+    @Operation(
+        summary = "Look up the values of tokens",
+        description = "Returns the value of every token in the order of the request. Unknown and deleted tokens " +
+                     "get null instead of failing the whole request."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Values of the tokens",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = DetokenizeResponseDto.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Bad request - Missing tokens, or more than cvs.tokens.max-batch-size",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing authentication token"),
+        @ApiResponse(responseCode = "503", description = "The token vault is disabled")
+    })
+    @PostMapping(value = "/detokenize", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<DetokenizeResponseDto> detokenize(
+            @Parameter(
+                description = "Request containing the tokens to look up",
+                required = true,
+                schema = @Schema(implementation = DetokenizeRequestDto.class)
+            )
+            @RequestBody @Valid DetokenizeRequestDto detokenizeRequestDto) throws GeneralSecurityException {
+        if (!tokenVault.isRunning()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        List<String> values = tokenVault.detokenize(requireList(detokenizeRequestDto.tokens(), "tokens"));
+        int unknown = 0;
+        long plaintextBytes = 0;
+        for (String value : values) {
+            if (value == null) {
+                unknown++;
+            }
+            plaintextBytes += UsageMeter.utf8Length(value);
+        }
+        record(AuditOperation.DETOKENIZE, values.size(), plaintextBytes);
+        return ResponseEntity.ok(new DetokenizeResponseDto(values, unknown));
+    }
+
+    @Operation(
+        summary = "Delete a token",
+        description = "Deletes the token and its value, for example to erase personal data. The token cannot be " +
+                     "looked up anymore."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Token deleted"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing authentication token"),
+        @ApiResponse(responseCode = "404", description = "Unknown token"),
+        @ApiResponse(responseCode = "503", description = "The token vault is disabled")
+    })
+    @DeleteMapping("/{token}")
+    public ResponseEntity<Void> delete(
+            @Parameter(description = "Token to delete", example = "q8Xb2mJ0TzKc1vYw9RfL4A")
+            @PathVariable String token) throws IOException {
+        if (!tokenVault.isRunning()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        if (!tokenVault.delete(token)) {
+            return ResponseEntity.notFound().build();
+        }
+        record(AuditOperation.DELETE_TOKEN, 1, 0);
+        return ResponseEntity.noContent().build();
+    }
+
+    private void record(AuditOperation operation, int entryCount, long plaintextBytes) {
+        String clientId = ClientIdResolver.currentClientId();
+        usageMeter.record(clientId, operation, entryCount, plaintextBytes);
+        if (auditLog.isRunning()) {
+            auditLog.record(operation, clientId, cryptoService.getKeyVersion(), entryCount, null);
+        }
+    }
+
+    private static List<String> requireList(List<String> list, String name) {
+        if (list == null) {
+            throw new IllegalArgumentException("'" + name + "' is required");
+        }
+        return list;
+    }
+}
@@ -0,0 +1,50 @@
+package io.openleap.cvs.controller;
+
+import io.openleap.cvs.metering.UsageMeter;
+import io.openleap.cvs.metering.UsageSnapshot;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(
+    name = "Administration",
+    description = "Usage of the service per client, for chargeback and finding expensive callers"
+)
+@SecurityRequirement(name = "LocalKeycloakOauth2")
+@RestController
+@RequestMapping(UsageController.PATH)
+public class UsageController {
+    public static final String PATH = "/api/cvs/admin";
+
+    @Autowired
+    private UsageMeter usageMeter;
+
+    @Operation(
+        summary = "Get the usage per client",
+        description = "Returns requests per operation, entries, plaintext bytes and CPU time of every client since " +
+                     "metering started, the client with the most CPU time first. Requires the cvs.admin role."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Usage per client",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = UsageSnapshot.class))
+        ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing authentication token"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - The token lacks the cvs.admin role")
+    })
+    @GetMapping(value = "/usage", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UsageSnapshot> usage() {
+        return ResponseEntity.ok(usageMeter.snapshot());
+    }
+}
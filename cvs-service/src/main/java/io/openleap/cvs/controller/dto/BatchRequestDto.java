@@ -0,0 +1,20 @@
+package io.openleap.cvs.controller.dto;
+
+import io.openleap.cvs.batch.BatchDocument;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+    name = "BatchRequest",
+    description = "Documents of different session users to encrypt or decrypt in one call"
+)
+public record BatchRequestDto(
+    @Schema(
+        description = "Documents, each with its own operation, session user, objectId and values. " +
+                     "Encrypt and decrypt can be mixed.",
+        required = true
+    )
+    List<BatchDocument> documents
+) {
+}
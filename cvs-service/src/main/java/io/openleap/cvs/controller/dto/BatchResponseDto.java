@@ -0,0 +1,28 @@
+package io.openleap.cvs.controller.dto;
+
+import io.openleap.cvs.batch.BatchResult;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+    name = "BatchResponse",
+    description = "Results of a batch of documents"
+)
+public record BatchResponseDto(
+    @Schema(description = "One result per document, in the order of the request")
+    List<BatchResult> documents,
+
+    @Schema(description = "Number of values that could not be decrypted, over all documents", example = "0")
+    int failed
+) {
+    public static BatchResponseDto of(List<BatchResult> results) {
+        int failed = 0;
+        for (BatchResult result : results) {
+            if (result.errors() != null) {
+                failed += result.errors().size();
+            }
+        }
+        return new BatchResponseDto(results, failed);
+    }
+}
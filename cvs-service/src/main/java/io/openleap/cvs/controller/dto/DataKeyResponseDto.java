@@ -0,0 +1,22 @@
+package io.openleap.cvs.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(
+    name = "DataKeyResponse",
+    description = "A data key for local encryption and its copy sealed under the master key"
+)
+public record DataKeyResponseDto(
+    @Schema(
+        description = "The base64 encoded 256 bit AES key. Keep it in memory only.",
+        example = "q3v5n0zJ8cR2m7Yt1uWf0xk9Lh4sA6bD2eG5iJ8kM1o="
+    )
+    String plaintextKey,
+
+    @Schema(
+        description = "The data key sealed under the master key, URL-safe base64. Store it with the data.",
+        example = "AR0pQ2yV8M2bW1cQmXn4d6PZgk7Q0u3J0k1nG2t8Yb5c6Xv9JmQ2sL0pR4tK8wN1eA3oB7iD5fH9jU2xC6zV0yT4q"
+    )
+    String wrappedKey
+) {
+}
@@ -0,0 +1,24 @@
+package io.openleap.cvs.controller.dto;
+
+import io.openleap.cvs.core.DecryptResult;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Map;
+
+@Schema(
+    name = "DecryptListResponse",
+    description = "Per-entry results of decrypting multiple key-value pairs"
+)
+public record DecryptListResponseDto(
+    @Schema(
+        description = "Result for every key of the request. The 'objectId' field is returned as-is with status OK.",
+        example = "{\"field1\": {\"status\": \"OK\", \"value\": \"sensitive data 1\"}, \"objectId\": {\"status\": \"OK\", \"value\": \"12345\"}, \"field2\": {\"status\": \"AUTH_FAILURE\"}}"
+    )
+    Map<String, DecryptResult> data,
+
+    @Schema(
+        description = "Number of entries that could not be decrypted",
+        example = "1"
+    )
+    int failed
+) {
+}
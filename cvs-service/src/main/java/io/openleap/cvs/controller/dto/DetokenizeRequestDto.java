@@ -0,0 +1,19 @@
+package io.openleap.cvs.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+    name = "DetokenizeRequest",
+    description = "Request payload for looking up the values of tokens"
+)
+public record DetokenizeRequestDto(
+    @Schema(
+        description = "Tokens returned by /tokens/tokenize, up to cvs.tokens.max-batch-size",
+        example = "[\"q8Xb2mJ0TzKc1vYw9RfL4A\", \"Hn3pQe7sUa0xWd5kBy2GjQ\"]",
+        required = true
+    )
+    List<String> tokens
+) {
+}
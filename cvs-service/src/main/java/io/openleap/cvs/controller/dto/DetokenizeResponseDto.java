@@ -0,0 +1,24 @@
+package io.openleap.cvs.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+    name = "DetokenizeResponse",
+    description = "Values of the tokens of the request"
+)
+public record DetokenizeResponseDto(
+    @Schema(
+        description = "Value of every token in the order of the request, null for unknown or deleted tokens",
+        example = "[\"4111111111111111\", null]"
+    )
+    List<String> values,
+
+    @Schema(
+        description = "Number of tokens without a value",
+        example = "1"
+    )
+    int unknown
+) {
+}
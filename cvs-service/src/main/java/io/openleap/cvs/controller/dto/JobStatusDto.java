@@ -0,0 +1,52 @@
+package io.openleap.cvs.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.openleap.cvs.job.BulkJob;
+import io.openleap.cvs.job.JobFormat;
+import io.openleap.cvs.job.JobOperation;
+import io.openleap.cvs.job.JobStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+
+@Schema(
+    name = "JobStatus",
+    description = "Progress of a bulk encryption or decryption job"
+)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JobStatusDto(
+    @Schema(description = "Job ID", example = "6f1c2a4e-3b8d-4c55-9a8e-2f1d0c7b9e21")
+    String id,
+
+    @Schema(description = "Operation applied to every record", example = "ENCRYPT")
+    JobOperation operation,
+
+    @Schema(description = "Format of the input and the result", example = "NDJSON")
+    JobFormat format,
+
+    @Schema(description = "Current state of the job", example = "RUNNING")
+    JobStatus status,
+
+    @Schema(description = "Number of records in the input", example = "250000")
+    long records,
+
+    @Schema(description = "Number of chunks the input was split into", example = "250")
+    int totalChunks,
+
+    @Schema(description = "Number of chunks processed so far", example = "120")
+    int completedChunks,
+
+    @Schema(description = "Number of fields that could not be decrypted and are null in the result", example = "0")
+    long failedEntries,
+
+    @Schema(description = "Reason why the job failed", example = "Chunk 3, line 17: Unexpected character")
+    String error,
+
+    @Schema(description = "Time the job was created", example = "2024-01-15T10:30:45.123Z")
+    Instant createdAt
+) {
+    public static JobStatusDto of(BulkJob job) {
+        return new JobStatusDto(job.getId(), job.getOperation(), job.getFormat(), job.getStatus(), job.getRecords(),
+                job.getTotalChunks(), job.getCompletedChunks(), job.getFailedEntries(), job.getError(),
+                job.getCreatedAt());
+    }
+}
@@ -0,0 +1,26 @@
+package io.openleap.cvs.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+    name = "MacSignRequest",
+    description = "Request payload for signing messages with HMAC-SHA256"
+)
+public record MacSignRequestDto(
+    @Schema(
+        description = "ID of the key to sign with. Each key ID gets its own key, derived from the master key.",
+        example = "webhooks",
+        required = true
+    )
+    String keyId,
+
+    @Schema(
+        description = "Messages to sign; their UTF-8 bytes are signed",
+        example = "[\"{\\\"event\\\": \\\"order.created\\\", \\\"id\\\": 42}\"]",
+        required = true
+    )
+    List<String> messages
+) {
+}
@@ -0,0 +1,21 @@
+package io.openleap.cvs.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+    name = "MacSignResponse",
+    description = "HMAC-SHA256 signatures of the messages of the request"
+)
+public record MacSignResponseDto(
+    @Schema(description = "ID of the key the messages were signed with", example = "webhooks")
+    String keyId,
+
+    @Schema(
+        description = "Base64 signature of every message, in the order of the request",
+        example = "[\"3q8Z5mWc0Yb1JtN7k2Xr9Qv4pLs6dHf8aGe0uTi2oKw=\"]"
+    )
+    List<String> signatures
+) {
+}
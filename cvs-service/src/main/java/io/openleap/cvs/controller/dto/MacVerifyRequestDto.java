@@ -0,0 +1,29 @@
+package io.openleap.cvs.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+    name = "MacVerifyRequest",
+    description = "Request payload for checking HMAC-SHA256 signatures of messages"
+)
+public record MacVerifyRequestDto(
+    @Schema(description = "ID of the key the messages were signed with", example = "webhooks", required = true)
+    String keyId,
+
+    @Schema(
+        description = "Signed messages",
+        example = "[\"{\\\"event\\\": \\\"order.created\\\", \\\"id\\\": 42}\"]",
+        required = true
+    )
+    List<String> messages,
+
+    @Schema(
+        description = "Base64 signature of every message, in the same order",
+        example = "[\"3q8Z5mWc0Yb1JtN7k2Xr9Qv4pLs6dHf8aGe0uTi2oKw=\"]",
+        required = true
+    )
+    List<String> signatures
+) {
+}
@@ -0,0 +1,27 @@
+package io.openleap.cvs.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+    name = "MacVerifyResponse",
+    description = "Results of checking the signatures of the request"
+)
+public record MacVerifyResponseDto(
+    @Schema(description = "Whether each signature matches its message, in the order of the request", example = "[true]")
+    List<Boolean> results,
+
+    @Schema(description = "Number of signatures that do not match", example = "0")
+    int invalid
+) {
+    public static MacVerifyResponseDto of(List<Boolean> results) {
+        int invalid = 0;
+        for (boolean result : results) {
+            if (!result) {
+                invalid++;
+            }
+        }
+        return new MacVerifyResponseDto(results, invalid);
+    }
+}
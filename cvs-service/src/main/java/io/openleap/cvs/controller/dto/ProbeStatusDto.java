@@ -0,0 +1,16 @@
+package io.openleap.cvs.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(
+    name = "ProbeStatus",
+    description = "Result of a liveness or readiness probe"
+)
+public record ProbeStatusDto(
+    @Schema(description = "UP, or OUT_OF_SERVICE while the instance is not ready", example = "UP")
+    String status,
+
+    @Schema(description = "Spring Boot availability state", example = "ACCEPTING_TRAFFIC")
+    String state
+) {
+}
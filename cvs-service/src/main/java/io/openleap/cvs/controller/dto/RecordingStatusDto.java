@@ -0,0 +1,36 @@
+package io.openleap.cvs.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jdk.jfr.Recording;
+
+import java.time.Instant;
+
+@Schema(
+    name = "RecordingStatus",
+    description = "State of the on-demand Flight Recorder recording"
+)
+public record RecordingStatusDto(
+    @Schema(description = "Recording ID", example = "3")
+    long id,
+
+    @Schema(description = "Name, after the JDK settings used", example = "cvs-profile")
+    String name,
+
+    @Schema(description = "RUNNING, or STOPPED once the duration has elapsed", example = "RUNNING")
+    String state,
+
+    @Schema(description = "Time the recording started", example = "2024-01-15T10:30:45.123Z")
+    Instant startTime,
+
+    @Schema(description = "Duration after which the recording stops by itself, in seconds", example = "60")
+    long durationSeconds,
+
+    @Schema(description = "Bytes recorded so far", example = "1048576")
+    long size
+) {
+    public static RecordingStatusDto of(Recording recording) {
+        return new RecordingStatusDto(recording.getId(), recording.getName(), recording.getState().name(),
+                recording.getStartTime(), recording.getDuration() != null ? recording.getDuration().toSeconds() : 0,
+                recording.getSize());
+    }
+}
@@ -0,0 +1,19 @@
+package io.openleap.cvs.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+    name = "TokenizeRequest",
+    description = "Request payload for replacing values by tokens"
+)
+public record TokenizeRequestDto(
+    @Schema(
+        description = "Values to store in the vault, up to cvs.tokens.max-batch-size",
+        example = "[\"4111111111111111\", \"DE89370400440532013000\"]",
+        required = true
+    )
+    List<String> values
+) {
+}
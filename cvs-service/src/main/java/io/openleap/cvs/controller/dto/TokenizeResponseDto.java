@@ -0,0 +1,18 @@
+package io.openleap.cvs.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+    name = "TokenizeResponse",
+    description = "Tokens that stand for the values of the request"
+)
+public record TokenizeResponseDto(
+    @Schema(
+        description = "One new token per value, in the order of the request",
+        example = "[\"q8Xb2mJ0TzKc1vYw9RfL4A\", \"Hn3pQe7sUa0xWd5kBy2GjQ\"]"
+    )
+    List<String> tokens
+) {
+}
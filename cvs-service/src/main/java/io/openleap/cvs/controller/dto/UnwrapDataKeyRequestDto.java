@@ -0,0 +1,17 @@
+package io.openleap.cvs.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(
+    name = "UnwrapDataKeyRequest",
+    description = "Request payload for opening a wrapped data key"
+)
+public record UnwrapDataKeyRequestDto(
+    @Schema(
+        description = "The wrapped key returned by /generateDataKey",
+        example = "AR0pQ2yV8M2bW1cQmXn4d6PZgk7Q0u3J0k1nG2t8Yb5c6Xv9JmQ2sL0pR4tK8wN1eA3oB7iD5fH9jU2xC6zV0yT4q",
+        required = true
+    )
+    String wrappedKey
+) {
+}
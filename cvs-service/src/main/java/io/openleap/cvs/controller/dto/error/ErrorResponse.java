@@ -16,7 +16,7 @@ public record ErrorResponse(
     
     @Schema(
         description = "The fully qualified class name of the exception that occurred",
-        example = "io.openleap.cvs.exception.InvalidIvException"
+        example = "io.openleap.cvs.core.InvalidIvException"
     )
     String exceptionClassName,
     
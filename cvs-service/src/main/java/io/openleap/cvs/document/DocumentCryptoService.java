@@ -0,0 +1,217 @@
+package io.openleap.cvs.document;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openleap.cvs.config.DocumentProperties;
+import io.openleap.cvs.metering.UsageMeter;
+import io.openleap.cvs.service.CryptoService;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encrypts or decrypts the leaves of a JSON document that are selected by a {@link FieldPolicy}, in a single
+ * streaming pass without building a tree. Everything else, including the structure and the field order, is
+ * copied unchanged. Selected numbers and booleans are encrypted from their text and come back as strings.
+ * <p>
+ * A document whose result grows beyond {@link DocumentProperties#getMaxSize()} is rejected, so that callers
+ * can hold the result until it is complete and never send a partial document.
+ */
+@Service
+public class DocumentCryptoService {
+    private final CryptoService cryptoService;
+    private final JsonFactory jsonFactory;
+    private final DocumentProperties properties;
+    private final Map<List<String>, FieldPolicy> policyCache;
+
+    public DocumentCryptoService(CryptoService cryptoService, ObjectMapper objectMapper,
+                                 DocumentProperties properties) {
+        this.cryptoService = cryptoService;
+        this.jsonFactory = objectMapper.getFactory();
+        this.properties = properties;
+        int cacheSize = properties.getPolicyCacheSize();
+        this.policyCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<String>, FieldPolicy> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Returns the compiled policy for a configured policy name or an ad hoc list of selectors. Compiled
+     * policies are cached by their selectors.
+     *
+     * @throws IllegalArgumentException if the policy is unknown or a selector is invalid
+     */
+    public FieldPolicy policy(String name, List<String> selectors) {
+        List<String> expressions = selectors;
+        if (name != null) {
+            expressions = properties.getPolicies().get(name);
+            if (expressions == null) {
+                throw new IllegalArgumentException("Unknown policy " + name);
+            }
+        }
+        if (expressions == null || expressions.isEmpty()) {
+            throw new IllegalArgumentException("Either a policy or at least one selector is required");
+        }
+        List<String> key = List.copyOf(expressions);
+        FieldPolicy policy = policyCache.get(key);
+        if (policy == null) {
+            policy = FieldPolicy.compile(key);
+            policyCache.put(key, policy);
+        }
+        return policy;
+    }
+
+    /**
+     * Encrypts the selected leaves of {@code document} into {@code out}.
+     *
+     * @return the number of encrypted leaves and the UTF-8 length of their plaintext
+     */
+    public DocumentUsage encrypt(InputStream document, OutputStream out, FieldPolicy policy, String iv)
+            throws IOException {
+        return transform(document, out, policy, value -> cryptoService.encryptWithAesCbc(value, iv), false);
+    }
+
+    /**
+     * Decrypts the selected leaves of {@code document} into {@code out}.
+     *
+     * @return the number of decrypted leaves and the UTF-8 length of their plaintext
+     */
+    public DocumentUsage decrypt(InputStream document, OutputStream out, FieldPolicy policy, String iv)
+            throws IOException {
+        return transform(document, out, policy, value -> cryptoService.decryptWithAesCbc(value, iv), true);
+    }
+
+    private DocumentUsage transform(InputStream document, OutputStream out, FieldPolicy policy,
+                                    LeafTransform leafTransform, boolean stringsOnly) throws IOException {
+        int leaves = 0;
+        long plaintextBytes = 0;
+        try (JsonParser parser = jsonFactory.createParser(document);
+             JsonGenerator generator = jsonFactory.createGenerator(
+                     new LimitedOutputStream(out, properties.getMaxSize().toBytes()))
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)
+                     .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)) {
+            Deque<Container> containers = new ArrayDeque<>();
+            String fieldName = null;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME) {
+                    fieldName = parser.currentName();
+                    generator.writeFieldName(fieldName);
+                    continue;
+                }
+                if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                    containers.pop();
+                    generator.copyCurrentEvent(parser);
+                    continue;
+                }
+
+                // A value: advance the selector states from its parent
+                Container parent = containers.peek();
+                BitSet states;
+                boolean selected;
+                if (parent == null) {
+                    states = policy.initialStates();
+                    selected = policy.accepts(states);
+                } else if (parent.selected) {
+                    states = null;
+                    selected = true;
+                } else if (parent.states.isEmpty()) {
+                    // No selector can match below this container
+                    states = parent.states;
+                    selected = false;
+                } else {
+                    states = parent.isArray
+                            ? policy.step(parent.states, null, parent.nextIndex++)
+                            : policy.step(parent.states, fieldName, -1);
+                    selected = policy.accepts(states);
+                }
+
+                if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                    containers.push(new Container(token == JsonToken.START_ARRAY, states, selected));
+                    generator.copyCurrentEvent(parser);
+                } else if (selected && token != JsonToken.VALUE_NULL
+                        && (token == JsonToken.VALUE_STRING || !stringsOnly)) {
+                    String value = parser.getText();
+                    String transformed;
+                    try {
+                        transformed = leafTransform.apply(value);
+                    } catch (GeneralSecurityException e) {
+                        throw new IOException(e);
+                    }
+                    generator.writeString(transformed);
+                    leaves++;
+                    plaintextBytes += UsageMeter.utf8Length(stringsOnly ? transformed : value);
+                } else {
+                    generator.copyCurrentEvent(parser);
+                }
+            }
+        }
+        return new DocumentUsage(leaves, plaintextBytes);
+    }
+
+    @FunctionalInterface
+    private interface LeafTransform {
+        String apply(String value) throws GeneralSecurityException;
+    }
+
+    private static final class LimitedOutputStream extends FilterOutputStream {
+        private final long maxSize;
+        private long written;
+
+        private LimitedOutputStream(OutputStream out, long maxSize) {
+            super(out);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            count(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            count(len);
+            out.write(b, off, len);
+        }
+
+        private void count(int length) {
+            written += length;
+            if (written > maxSize) {
+                throw new IllegalArgumentException("Document exceeds the maximum size of " + maxSize
+                        + " bytes, use a bulk job instead");
+            }
+        }
+    }
+
+    private static final class Container {
+        private final boolean isArray;
+        private final BitSet states;
+        private final boolean selected;
+        private int nextIndex;
+
+        private Container(boolean isArray, BitSet states, boolean selected) {
+            this.isArray = isArray;
+            this.states = states;
+            this.selected = selected;
+        }
+    }
+}
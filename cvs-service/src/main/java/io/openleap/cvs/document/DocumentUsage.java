@@ -0,0 +1,10 @@
+package io.openleap.cvs.document;
+
+/**
+ * What encrypting or decrypting a document touched, for the audit log and usage metering.
+ *
+ * @param leaves         number of leaves that were encrypted or decrypted
+ * @param plaintextBytes UTF-8 length of their plaintext
+ */
+public record DocumentUsage(int leaves, long plaintextBytes) {
+}
@@ -0,0 +1,82 @@
+package io.openleap.cvs.document;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A set of selectors compiled into a state machine that is advanced one path element at a time while a
+ * document is streamed. A state is a position within one selector; a value is selected when any selector
+ * reaches its end. Selecting an object or array selects every leaf below it.
+ */
+public final class FieldPolicy {
+    private final List<FieldSelector> selectors;
+    private final int[] stateSelector;
+    private final int[] statePosition;
+    private final int[] selectorOffset;
+    private final BitSet initialStates;
+
+    private FieldPolicy(List<FieldSelector> selectors) {
+        this.selectors = selectors;
+        int stateCount = 0;
+        selectorOffset = new int[selectors.size()];
+        for (int i = 0; i < selectors.size(); i++) {
+            selectorOffset[i] = stateCount;
+            stateCount += selectors.get(i).length() + 1;
+        }
+        stateSelector = new int[stateCount];
+        statePosition = new int[stateCount];
+        initialStates = new BitSet(stateCount);
+        for (int i = 0; i < selectors.size(); i++) {
+            for (int position = 0; position <= selectors.get(i).length(); position++) {
+                stateSelector[selectorOffset[i] + position] = i;
+                statePosition[selectorOffset[i] + position] = position;
+            }
+            initialStates.set(selectorOffset[i]);
+        }
+    }
+
+    public static FieldPolicy compile(List<String> expressions) {
+        if (expressions == null || expressions.isEmpty()) {
+            throw new IllegalArgumentException("At least one selector is required");
+        }
+        return new FieldPolicy(expressions.stream().map(FieldSelector::compile).toList());
+    }
+
+    BitSet initialStates() {
+        return initialStates;
+    }
+
+    /**
+     * Advances the states to a child of the current value.
+     *
+     * @param name  the field name of the child, or {@code null} for an array element
+     * @param index the array index of the child
+     */
+    BitSet step(BitSet states, String name, int index) {
+        BitSet next = new BitSet(stateSelector.length);
+        for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+            FieldSelector selector = selectors.get(stateSelector[state]);
+            int position = statePosition[state];
+            if (position == selector.length()) {
+                continue;
+            }
+            FieldSelector.Segment segment = selector.segment(position);
+            if (segment.recursive()) {
+                next.set(state);
+            }
+            if (segment.matches(name, index)) {
+                next.set(state + 1);
+            }
+        }
+        return next;
+    }
+
+    boolean accepts(BitSet states) {
+        for (int i = 0; i < selectors.size(); i++) {
+            if (states.get(selectorOffset[i] + selectors.get(i).length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,150 @@
+package io.openleap.cvs.document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compiled JSONPath-style selector. Supported syntax: the root {@code $}, child fields {@code .name} and
+ * {@code ['name']}, array indexes {@code [0]}, wildcards {@code .*} and {@code [*]}, and recursive descent
+ * {@code ..name}. Filters, slices and unions are not supported.
+ */
+final class FieldSelector {
+    private final String expression;
+    private final List<Segment> segments;
+
+    private FieldSelector(String expression, List<Segment> segments) {
+        this.expression = expression;
+        this.segments = segments;
+    }
+
+    String expression() {
+        return expression;
+    }
+
+    int length() {
+        return segments.size();
+    }
+
+    Segment segment(int position) {
+        return segments.get(position);
+    }
+
+    static FieldSelector compile(String expression) {
+        String trimmed = expression.trim();
+        if (!trimmed.startsWith("$")) {
+            throw invalid(expression, "must start with $");
+        }
+        List<Segment> segments = new ArrayList<>();
+        int i = 1;
+        while (i < trimmed.length()) {
+            boolean recursive = false;
+            char c = trimmed.charAt(i);
+            if (c == '.') {
+                if (i + 1 < trimmed.length() && trimmed.charAt(i + 1) == '.') {
+                    recursive = true;
+                    i++;
+                }
+                i++;
+                if (i < trimmed.length() && trimmed.charAt(i) == '[') {
+                    if (!recursive) {
+                        throw invalid(expression, "unexpected [ after .");
+                    }
+                    c = '[';
+                } else {
+                    int end = i;
+                    while (end < trimmed.length() && trimmed.charAt(end) != '.' && trimmed.charAt(end) != '[') {
+                        end++;
+                    }
+                    String name = trimmed.substring(i, end);
+                    if (name.isEmpty()) {
+                        throw invalid(expression, "empty field name at " + i);
+                    }
+                    segments.add("*".equals(name) ? Segment.wildcard(recursive) : Segment.field(name, recursive));
+                    i = end;
+                    continue;
+                }
+            }
+            if (c != '[') {
+                throw invalid(expression, "unexpected '" + c + "' at " + i);
+            }
+            int close = findClosingBracket(trimmed, i);
+            if (close < 0) {
+                throw invalid(expression, "unterminated [ at " + i);
+            }
+            segments.add(bracketSegment(expression, trimmed.substring(i + 1, close).trim(), recursive));
+            i = close + 1;
+        }
+        return new FieldSelector(expression, List.copyOf(segments));
+    }
+
+    private static Segment bracketSegment(String expression, String content, boolean recursive) {
+        if ("*".equals(content)) {
+            return Segment.wildcard(recursive);
+        }
+        if (content.length() >= 2 && (content.charAt(0) == '\'' || content.charAt(0) == '"')
+                && content.charAt(content.length() - 1) == content.charAt(0)) {
+            return Segment.field(content.substring(1, content.length() - 1), recursive);
+        }
+        try {
+            int index = Integer.parseInt(content);
+            if (index < 0) {
+                throw invalid(expression, "negative index " + index);
+            }
+            return Segment.index(index, recursive);
+        } catch (NumberFormatException e) {
+            throw invalid(expression, "unsupported bracket expression [" + content + "]");
+        }
+    }
+
+    private static int findClosingBracket(String expression, int open) {
+        char quote = 0;
+        for (int i = open + 1; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == ']') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static IllegalArgumentException invalid(String expression, String reason) {
+        return new IllegalArgumentException("Invalid selector '" + expression + "': " + reason);
+    }
+
+    /**
+     * One step of a selector. A recursive segment matches at any depth below the current position.
+     */
+    record Segment(String field, int index, boolean recursive) {
+        private static final int ANY_INDEX = -1;
+        private static final int NO_INDEX = -2;
+
+        static Segment field(String name, boolean recursive) {
+            return new Segment(name, NO_INDEX, recursive);
+        }
+
+        static Segment index(int index, boolean recursive) {
+            return new Segment(null, index, recursive);
+        }
+
+        static Segment wildcard(boolean recursive) {
+            return new Segment(null, ANY_INDEX, recursive);
+        }
+
+        /**
+         * @param name  the field name of the child, or {@code null} for an array element
+         * @param index the array index of the child, ignored for object fields
+         */
+        boolean matches(String name, int index) {
+            if (this.index == ANY_INDEX) {
+                return true;
+            }
+            return name != null ? name.equals(field) : this.index == index;
+        }
+    }
+}
@@ -1,13 +1,22 @@
 package io.openleap.cvs.exception;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import io.openleap.cvs.controller.dto.error.ErrorResponse;
+import io.openleap.cvs.core.InvalidDataKeyException;
+import io.openleap.cvs.core.InvalidIvException;
+import io.openleap.cvs.web.RequestBodyTooLargeException;
 import io.swagger.v3.oas.annotations.Hidden;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import java.security.InvalidAlgorithmParameterException;
@@ -51,6 +60,47 @@ public class ControlServerExceptionHandler extends ResponseEntityExceptionHandle
     return new ResponseEntity<>(createErrorResponse(ex, errorMessage), HttpStatus.BAD_REQUEST);
   }
 
+  @ExceptionHandler(InvalidIvException.class)
+  public ResponseEntity<ErrorResponse> handleInvalidIvException(InvalidIvException ex) {
+    return new ResponseEntity<>(
+        createErrorResponse(ex, "Invalid initialization vector"), HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(InvalidDataKeyException.class)
+  public ResponseEntity<ErrorResponse> handleInvalidDataKeyException(InvalidDataKeyException ex) {
+    return new ResponseEntity<>(createErrorResponse(ex), HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
+    return new ResponseEntity<>(createErrorResponse(ex), HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(AccessDeniedException.class)
+  public ResponseEntity<ErrorResponse> handleAccessDeniedException(AccessDeniedException ex) {
+    return new ResponseEntity<>(createErrorResponse(ex), HttpStatus.FORBIDDEN);
+  }
+
+  @ExceptionHandler(JsonProcessingException.class)
+  public ResponseEntity<ErrorResponse> handleJsonProcessingException(JsonProcessingException ex) {
+    return new ResponseEntity<>(
+        createErrorResponse(ex, "Malformed JSON: " + ex.getOriginalMessage()), HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(RequestBodyTooLargeException.class)
+  public ResponseEntity<ErrorResponse> handleRequestBodyTooLargeException(RequestBodyTooLargeException ex) {
+    return new ResponseEntity<>(createErrorResponse(ex), HttpStatus.PAYLOAD_TOO_LARGE);
+  }
+
+  @Override
+  protected ResponseEntity<Object> handleHttpMessageNotReadable(
+      HttpMessageNotReadableException ex, HttpHeaders headers, HttpStatusCode status, WebRequest request) {
+    if (ex.getCause() instanceof RequestBodyTooLargeException tooLarge) {
+      return new ResponseEntity<>(createErrorResponse(tooLarge), HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+    return super.handleHttpMessageNotReadable(ex, headers, status, request);
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ErrorResponse> handleException(Exception ex) {
     return new ResponseEntity<>(
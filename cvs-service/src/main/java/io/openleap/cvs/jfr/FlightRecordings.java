@@ -0,0 +1,117 @@
+package io.openleap.cvs.jfr;
+
+import io.openleap.cvs.config.FlightRecorderProperties;
+import io.openleap.cvs.core.jfr.CryptoEvents;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Manages one on-demand Flight Recorder recording, so a running instance can be profiled without a restart.
+ * Besides the JDK events of the chosen settings, the recording takes all events of the service, including
+ * the per-value phases that are disabled by default.
+ */
+@Component
+public class FlightRecordings implements DisposableBean {
+    public static final List<Class<? extends Event>> EVENT_TYPES;
+
+    static {
+        List<Class<? extends Event>> types = new ArrayList<>(CryptoEvents.TYPES);
+        types.add(JwtValidationEvent.class);
+        types.add(RequestParseEvent.class);
+        EVENT_TYPES = List.copyOf(types);
+    }
+
+    private final FlightRecorderProperties properties;
+    private Recording recording;
+
+    public FlightRecordings(FlightRecorderProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Starts a recording that stops by itself after {@code duration}. The data is kept until the next
+     * recording is started or {@link #close()} is called.
+     *
+     * @param settings name of the JDK settings, {@code default} or {@code profile}
+     * @throws IllegalArgumentException if the duration is out of range or the settings are unknown
+     * @throws IllegalStateException    if a recording is already running
+     */
+    public synchronized Recording start(Duration duration, String settings) {
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(properties.getMaxDuration()) > 0) {
+            throw new IllegalArgumentException("Duration must be positive and at most " + properties.getMaxDuration());
+        }
+        if (recording != null && (recording.getState() == RecordingState.RUNNING
+                || recording.getState() == RecordingState.DELAYED)) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown recording settings " + settings);
+        }
+        close();
+        Recording newRecording = new Recording(configuration);
+        newRecording.setName("cvs-" + settings);
+        newRecording.setToDisk(true);
+        newRecording.setDuration(duration);
+        newRecording.setMaxSize(properties.getMaxSize().toBytes());
+        EVENT_TYPES.forEach(type -> newRecording.enable(type).withoutThreshold());
+        newRecording.start();
+        recording = newRecording;
+        return recording;
+    }
+
+    public synchronized Optional<Recording> current() {
+        return Optional.ofNullable(recording);
+    }
+
+    /**
+     * Writes the data recorded so far to a temporary file, which the caller has to delete.
+     */
+    public synchronized Optional<Path> dump() throws IOException {
+        if (recording == null || recording.getState() == RecordingState.NEW) {
+            return Optional.empty();
+        }
+        Path file = Files.createTempFile("cvs-recording-" + recording.getId() + "-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return Optional.of(file);
+    }
+
+    /**
+     * Stops the recording and discards its data.
+     *
+     * @return false if there was no recording
+     */
+    public synchronized boolean close() {
+        if (recording == null) {
+            return false;
+        }
+        recording.close();
+        recording = null;
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+        close();
+    }
+}
@@ -0,0 +1,18 @@
+package io.openleap.cvs.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("io.openleap.cvs.JwtValidation")
+@Label("JWT Validation")
+@Category({"Crypto Vault", "Phases"})
+@Description("Decoding and validating the access token of a request")
+@StackTrace(false)
+public class JwtValidationEvent extends Event {
+    @Label("Valid")
+    public boolean valid;
+}
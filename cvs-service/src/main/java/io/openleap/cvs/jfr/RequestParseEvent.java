@@ -0,0 +1,27 @@
+package io.openleap.cvs.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("io.openleap.cvs.RequestParse")
+@Label("Request Parsing")
+@Category({"Crypto Vault", "Phases"})
+@Description("Reading and parsing the JSON or CBOR body of a list request")
+@StackTrace(false)
+public class RequestParseEvent extends Event {
+    @Label("Body Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Entries")
+    public int entries;
+
+    @Label("Fast Path")
+    @Description("Whether the body was scanned as bytes instead of being read by Jackson")
+    public boolean fastPath;
+}
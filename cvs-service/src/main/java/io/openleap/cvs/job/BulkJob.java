@@ -0,0 +1,278 @@
+package io.openleap.cvs.job;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * State of a bulk job and the layout of its directory: the uploaded input, the byte offsets at which its
+ * chunks start, the output file of every completed chunk, the journal of completed chunks and the job
+ * metadata.
+ */
+public final class BulkJob {
+    static final String METADATA_FILE = "job.properties";
+    static final String INPUT_FILE = "input.data";
+    static final String CHUNK_INDEX_FILE = "chunks.idx";
+    static final String JOURNAL_FILE = "journal";
+
+    private final String id;
+    private final Path directory;
+    private final String owner;
+    private final JobOperation operation;
+    private final JobFormat format;
+    private final String iv;
+    private final String header;
+    private final long[] chunkOffsets;
+    private final long records;
+    private final Instant createdAt;
+    private final AtomicInteger completedChunks = new AtomicInteger();
+    private final LongAdder failedEntries = new LongAdder();
+    private final LongAdder plaintextBytes = new LongAdder();
+    private volatile JobStatus status;
+    private volatile String error;
+    private JobJournal journal;
+
+    BulkJob(String id, Path directory, String owner, JobOperation operation, JobFormat format, String iv, String header,
+            long[] chunkOffsets, long records, Instant createdAt, JobStatus status, String error) {
+        this.id = id;
+        this.directory = directory;
+        this.owner = owner;
+        this.operation = operation;
+        this.format = format;
+        this.iv = iv;
+        this.header = header;
+        this.chunkOffsets = chunkOffsets;
+        this.records = records;
+        this.createdAt = createdAt;
+        this.status = status;
+        this.error = error;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * The client that created the job, the only one that can see it. Null for jobs stored before owners
+     * were recorded, which no client can see.
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    public boolean isOwnedBy(String clientId) {
+        return owner != null && owner.equals(clientId);
+    }
+
+    public JobOperation getOperation() {
+        return operation;
+    }
+
+    public JobFormat getFormat() {
+        return format;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getTotalChunks() {
+        return chunkOffsets.length - 1;
+    }
+
+    public int getCompletedChunks() {
+        return completedChunks.get();
+    }
+
+    public long getFailedEntries() {
+        return failedEntries.sum();
+    }
+
+    /**
+     * UTF-8 bytes of plaintext encrypted or decrypted by the completed chunks; re-encryption never sees it.
+     */
+    public long getPlaintextBytes() {
+        return plaintextBytes.sum();
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    String getIv() {
+        return iv;
+    }
+
+    String getHeader() {
+        return header;
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    Path chunkOutput(int chunk) {
+        return directory.resolve(String.format("chunk-%08d.out", chunk));
+    }
+
+    BufferedReader openChunk(int chunk) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(INPUT_FILE));
+        channel.position(chunkOffsets[chunk]);
+        InputStream in = Channels.newInputStream(channel);
+        return new BufferedReader(new InputStreamReader(
+                new BoundedInputStream(in, chunkOffsets[chunk + 1] - chunkOffsets[chunk]), StandardCharsets.UTF_8));
+    }
+
+    synchronized void openJournal() throws IOException {
+        if (journal == null) {
+            journal = new JobJournal(directory.resolve(JOURNAL_FILE));
+        }
+    }
+
+    synchronized void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    void restoreChunk(JobJournal.Chunk chunk) {
+        completedChunks.incrementAndGet();
+        failedEntries.add(chunk.failedEntries());
+        plaintextBytes.add(chunk.plaintextBytes());
+    }
+
+    /**
+     * Journals a completed chunk.
+     *
+     * @return {@code true} if this was the last outstanding chunk of the job
+     */
+    boolean completeChunk(int chunk, long failed, long plaintext) throws IOException {
+        journal.append(chunk, failed, plaintext);
+        failedEntries.add(failed);
+        plaintextBytes.add(plaintext);
+        return completedChunks.incrementAndGet() == getTotalChunks();
+    }
+
+    /**
+     * Ends a running job.
+     *
+     * @return {@code false} if the job had already ended
+     */
+    synchronized boolean finish(JobStatus finalStatus, String finalError) throws IOException {
+        if (status != JobStatus.RUNNING) {
+            return false;
+        }
+        status = finalStatus;
+        error = finalError;
+        save();
+        closeJournal();
+        return true;
+    }
+
+    synchronized void save() throws IOException {
+        Properties properties = new Properties();
+        if (owner != null) {
+            properties.setProperty("owner", owner);
+        }
+        properties.setProperty("operation", operation.name());
+        properties.setProperty("format", format.name());
+        if (iv != null) {
+            properties.setProperty("iv", iv);
+        }
+        if (header != null) {
+            properties.setProperty("header", header);
+        }
+        properties.setProperty("records", Long.toString(records));
+        properties.setProperty("createdAt", createdAt.toString());
+        properties.setProperty("status", status.name());
+        if (error != null) {
+            properties.setProperty("error", error);
+        }
+        Path temp = directory.resolve(METADATA_FILE + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+        Files.move(temp, directory.resolve(METADATA_FILE),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static BulkJob load(Path directory) throws IOException {
+        Properties properties = new Properties();
+        try (var reader = Files.newBufferedReader(directory.resolve(METADATA_FILE), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return new BulkJob(
+                directory.getFileName().toString(),
+                directory,
+                properties.getProperty("owner"),
+                JobOperation.valueOf(properties.getProperty("operation")),
+                JobFormat.valueOf(properties.getProperty("format")),
+                properties.getProperty("iv"),
+                properties.getProperty("header"),
+                ChunkIndex.read(directory.resolve(CHUNK_INDEX_FILE)),
+                Long.parseLong(properties.getProperty("records")),
+                Instant.parse(properties.getProperty("createdAt")),
+                JobStatus.valueOf(properties.getProperty("status")),
+                properties.getProperty("error"));
+    }
+
+    private static final class BoundedInputStream extends InputStream {
+        private final InputStream delegate;
+        private long remaining;
+
+        BoundedInputStream(InputStream delegate, long limit) {
+            this.delegate = delegate;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int value = delegate.read();
+            if (value >= 0) {
+                remaining--;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = delegate.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
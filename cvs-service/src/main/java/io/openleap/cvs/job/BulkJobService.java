@@ -0,0 +1,428 @@
+package io.openleap.cvs.job;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openleap.cvs.config.JobProperties;
+import io.openleap.cvs.core.DecryptResult;
+import io.openleap.cvs.core.DecryptStatus;
+import io.openleap.cvs.metering.UsageMeter;
+import io.openleap.cvs.service.CryptoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Runs bulk encryption, decryption and re-encryption jobs in the background. An uploaded input is stored on
+ * disk and split into chunks that a small, low priority worker pool processes in parallel, so jobs do not
+ * compete with interactive requests for all cores; {@link JobProperties#getMaxRecordsPerSecond()} limits
+ * them further. Every completed chunk is journaled; jobs that were running when the service stopped are
+ * resumed from the journal on the next start. A job is metered for its owner once it has ended, with the
+ * plaintext of the chunks that completed.
+ */
+@Service
+public class BulkJobService implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkJobService.class);
+    private static final String OBJECT_ID = "objectId";
+    private static final String CIPHERTEXT = "ciphertext";
+    private static final String IV = "iv";
+    private static final TypeReference<LinkedHashMap<String, String>> FIELDS_TYPE = new TypeReference<>() {
+    };
+
+    private final CryptoService cryptoService;
+    private final ObjectMapper objectMapper;
+    private final JobProperties properties;
+    private final Path directory;
+    private final Map<String, BulkJob> jobs = new ConcurrentHashMap<>();
+    private final UsageMeter usageMeter;
+    private final RecordRateLimiter rateLimiter;
+    private volatile ExecutorService workers;
+
+    public BulkJobService(CryptoService cryptoService, ObjectMapper objectMapper, JobProperties properties,
+                          UsageMeter usageMeter) {
+        this.cryptoService = cryptoService;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.usageMeter = usageMeter;
+        this.directory = Paths.get(properties.getDirectory());
+        this.rateLimiter = new RecordRateLimiter(properties.getMaxRecordsPerSecond());
+    }
+
+    /**
+     * Stores the input and schedules its chunks. For {@link JobOperation#REENCRYPT} the {@code iv} is the
+     * session user ID the values are encrypted with again; without it every record keeps its own.
+     *
+     * @param owner the client creating the job, the only one that can find it afterwards
+     * @throws IllegalArgumentException if a CSV header is invalid
+     */
+    public BulkJob create(String owner, JobOperation operation, JobFormat format, String iv, InputStream input)
+            throws IOException {
+        if (!isRunning()) {
+            throw new IllegalStateException("Bulk job service is not running");
+        }
+        String id = UUID.randomUUID().toString();
+        Path jobDirectory = directory.resolve(id);
+        Files.createDirectories(jobDirectory);
+        BulkJob job;
+        try {
+            ChunkIndex index = ChunkIndex.copy(input, jobDirectory.resolve(BulkJob.INPUT_FILE),
+                    format == JobFormat.CSV, properties.getChunkSize(), properties.getMaxInputSize().toBytes());
+            if (format == JobFormat.CSV) {
+                validateHeader(operation, index.header());
+            }
+            ChunkIndex.write(jobDirectory.resolve(BulkJob.CHUNK_INDEX_FILE), index.offsets());
+            job = new BulkJob(id, jobDirectory, owner, operation, format, iv, index.header(), index.offsets(),
+                    index.records(), Instant.now(), JobStatus.RUNNING, null);
+            // The job exists once its metadata is written, a directory without it is a failed upload
+            job.save();
+        } catch (IOException | RuntimeException e) {
+            FileSystemUtils.deleteRecursively(jobDirectory);
+            throw e;
+        }
+        jobs.put(id, job);
+        schedule(job, Collections.emptySet());
+        return job;
+    }
+
+    /**
+     * Finds a job of {@code owner}; jobs of other clients are not found.
+     */
+    public Optional<BulkJob> find(String id, String owner) {
+        return Optional.ofNullable(jobs.get(id)).filter(job -> job.isOwnedBy(owner));
+    }
+
+    public List<BulkJob> list(String owner) {
+        return jobs.values().stream().filter(job -> job.isOwnedBy(owner)).toList();
+    }
+
+    /**
+     * Opens the result of a completed job. The chunk outputs are concatenated while the stream is read.
+     */
+    public InputStream openResult(BulkJob job) throws IOException {
+        if (job.getStatus() != JobStatus.COMPLETED) {
+            throw new IllegalStateException("Job " + job.getId() + " is " + job.getStatus());
+        }
+        return new ChunkOutputStream(job);
+    }
+
+    /**
+     * Deletes a job that is no longer running, together with its files.
+     *
+     * @return {@code false} if the job is still running
+     */
+    public boolean delete(BulkJob job) throws IOException {
+        if (job.getStatus() == JobStatus.RUNNING) {
+            return false;
+        }
+        jobs.remove(job.getId());
+        FileSystemUtils.deleteRecursively(job.getDirectory());
+        return true;
+    }
+
+    @Override
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                properties.getWorkerThreads(), properties.getWorkerThreads(), 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "bulk-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        workers = executor;
+        try {
+            resumeJobs();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to resume bulk jobs from " + directory, e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        ExecutorService executor = workers;
+        if (executor == null) {
+            return;
+        }
+        workers = null;
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (BulkJob job : jobs.values()) {
+            try {
+                job.closeJournal();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to close journal of job {}", job.getId(), e);
+            }
+        }
+        jobs.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return workers != null;
+    }
+
+    private void resumeJobs() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> entries = Files.list(directory)) {
+            for (Path jobDirectory : entries.filter(Files::isDirectory).toList()) {
+                if (!Files.exists(jobDirectory.resolve(BulkJob.METADATA_FILE))) {
+                    FileSystemUtils.deleteRecursively(jobDirectory);
+                    continue;
+                }
+                BulkJob job = BulkJob.load(jobDirectory);
+                jobs.put(job.getId(), job);
+                if (job.getStatus() == JobStatus.RUNNING) {
+                    Map<Integer, JobJournal.Chunk> completed =
+                            JobJournal.read(jobDirectory.resolve(BulkJob.JOURNAL_FILE));
+                    completed.values().forEach(job::restoreChunk);
+                    LOGGER.info("Resuming bulk job {} at chunk {} of {}",
+                            job.getId(), completed.size(), job.getTotalChunks());
+                    schedule(job, completed.keySet());
+                }
+            }
+        }
+    }
+
+    private void schedule(BulkJob job, Set<Integer> completedChunks) throws IOException {
+        if (job.getCompletedChunks() == job.getTotalChunks()) {
+            finish(job, JobStatus.COMPLETED, null);
+            return;
+        }
+        job.openJournal();
+        ExecutorService executor = workers;
+        for (int chunk = 0; chunk < job.getTotalChunks(); chunk++) {
+            if (!completedChunks.contains(chunk)) {
+                int current = chunk;
+                executor.execute(() -> processChunk(job, current));
+            }
+        }
+    }
+
+    private void processChunk(BulkJob job, int chunk) {
+        if (job.getStatus() != JobStatus.RUNNING || Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        Path output = job.chunkOutput(chunk);
+        Path temp = output.resolveSibling(output.getFileName() + ".tmp");
+        ChunkCounts counts = new ChunkCounts();
+        int lineNumber = 0;
+        try {
+            try (BufferedReader reader = job.openChunk(chunk);
+                 Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                List<String> header = job.getHeader() == null ? null : CsvCodec.parse(job.getHeader());
+                StringBuilder line = new StringBuilder();
+                String input;
+                while ((input = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (input.isBlank()) {
+                        continue;
+                    }
+                    rateLimiter.acquire();
+                    line.setLength(0);
+                    processLine(job, header, ChunkIndex.stripCarriageReturn(input), line, counts);
+                    writer.append(line);
+                }
+            }
+            Files.move(temp, output, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (job.completeChunk(chunk, counts.failed, counts.plaintextBytes)) {
+                finish(job, JobStatus.COMPLETED, null);
+                LOGGER.info("Bulk job {} completed", job.getId());
+            }
+        } catch (Exception e) {
+            if (e instanceof InterruptedException || Thread.currentThread().isInterrupted()) {
+                // Shutdown, the chunk is processed again when the job is resumed
+                return;
+            }
+            // Parser messages quote the input, which must not end up in the logs
+            String reason = e instanceof JsonProcessingException ? "Invalid JSON record" : e.getMessage();
+            String message = "Chunk " + chunk + ", line " + lineNumber + ": " + reason;
+            LOGGER.warn("Bulk job {} failed: {}", job.getId(), message);
+            try {
+                finish(job, JobStatus.FAILED, message);
+            } catch (IOException ioException) {
+                LOGGER.error("Failed to record failure of bulk job {}", job.getId(), ioException);
+            }
+        }
+    }
+
+    private void finish(BulkJob job, JobStatus status, String error) throws IOException {
+        if (job.finish(status, error) && job.getOwner() != null) {
+            int records = (int) Math.min(job.getRecords(), Integer.MAX_VALUE);
+            usageMeter.record(job.getOwner(), job.getOperation().auditOperation(), records, job.getPlaintextBytes());
+        }
+    }
+
+    /**
+     * Processes one record, appends the output line and adds the fields that could not be decrypted and the
+     * plaintext bytes to {@code counts}.
+     */
+    private void processLine(BulkJob job, List<String> header, String line, StringBuilder out, ChunkCounts counts)
+            throws Exception {
+        Map<String, String> fields;
+        if (header == null) {
+            fields = objectMapper.readValue(line, FIELDS_TYPE);
+        } else {
+            List<String> values = CsvCodec.parse(line);
+            if (values.size() != header.size()) {
+                throw new IllegalArgumentException(
+                        "Expected " + header.size() + " fields but found " + values.size());
+            }
+            fields = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                fields.put(header.get(i), values.get(i));
+            }
+        }
+
+        Map<String, String> result = new LinkedHashMap<>();
+        if (job.getOperation() == JobOperation.ENCRYPT) {
+            for (Map.Entry<String, String> field : fields.entrySet()) {
+                String value = field.getValue();
+                result.put(field.getKey(), value == null || OBJECT_ID.equals(field.getKey())
+                        ? value
+                        : cryptoService.encryptWithAesCbc(value, job.getIv()));
+            }
+            counts.plaintextBytes += UsageMeter.plaintextBytes(fields);
+        } else if (job.getOperation() == JobOperation.REENCRYPT) {
+            if (!fields.containsKey(CIPHERTEXT)) {
+                throw new IllegalArgumentException("Record has no " + CIPHERTEXT + " field");
+            }
+            String iv = fields.get(IV);
+            String targetIv = job.getIv() != null ? job.getIv() : iv;
+            for (Map.Entry<String, String> field : fields.entrySet()) {
+                result.put(field.getKey(), field.getKey().equals(IV) ? targetIv : field.getValue());
+            }
+            String cipherText = fields.get(CIPHERTEXT);
+            if (cipherText != null) {
+                String reencrypted = cryptoService.reencrypt(cipherText, iv, targetIv);
+                result.put(CIPHERTEXT, reencrypted);
+                if (reencrypted == null) {
+                    counts.failed++;
+                }
+            }
+        } else {
+            Map<String, DecryptResult> decrypted = cryptoService.decryptEntries(fields, job.getIv());
+            for (Map.Entry<String, String> field : fields.entrySet()) {
+                DecryptResult entry = decrypted.get(field.getKey());
+                if (field.getValue() == null) {
+                    result.put(field.getKey(), null);
+                } else if (entry.status() == DecryptStatus.OK) {
+                    result.put(field.getKey(), entry.value());
+                } else {
+                    result.put(field.getKey(), null);
+                    counts.failed++;
+                }
+            }
+            counts.plaintextBytes += UsageMeter.plaintextBytes(result);
+        }
+
+        if (header == null) {
+            out.append(objectMapper.writeValueAsString(result)).append('\n');
+        } else {
+            CsvCodec.write(new ArrayList<>(result.values()), out);
+        }
+    }
+
+    private static void validateHeader(JobOperation operation, String header) {
+        if (header == null || header.isBlank()) {
+            throw new IllegalArgumentException("CSV input has no header line");
+        }
+        List<String> names = CsvCodec.parse(header);
+        if (new HashSet<>(names).size() != names.size()) {
+            throw new IllegalArgumentException("CSV header contains duplicate field names");
+        }
+        if (operation == JobOperation.REENCRYPT && !names.contains(CIPHERTEXT)) {
+            throw new IllegalArgumentException("CSV header has no " + CIPHERTEXT + " field");
+        }
+    }
+
+    private static final class ChunkCounts {
+        private long failed;
+        private long plaintextBytes;
+    }
+
+    private static final class ChunkOutputStream extends InputStream {
+        private final BulkJob job;
+        private int nextChunk;
+        private InputStream current;
+
+        ChunkOutputStream(BulkJob job) {
+            this.job = job;
+            if (job.getHeader() != null) {
+                current = new ByteArrayInputStream((job.getHeader() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            while (true) {
+                if (current == null && !advance()) {
+                    return -1;
+                }
+                int read = current.read(buffer, offset, length);
+                if (read >= 0) {
+                    return read;
+                }
+                current.close();
+                current = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (current != null) {
+                current.close();
+            }
+        }
+
+        private boolean advance() throws IOException {
+            if (nextChunk < job.getTotalChunks()) {
+                current = Files.newInputStream(job.chunkOutput(nextChunk++));
+            }
+            return current != null;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package io.openleap.cvs.job;
+
+import io.openleap.cvs.web.RequestBodyTooLargeException;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Copies an uploaded job input to disk and records the byte offsets at which its chunks start, so that
+ * chunks can be read independently and in parallel. The last offset is the end of the input.
+ */
+final class ChunkIndex {
+    private static final int MAX_HEADER_LENGTH = 64 * 1024;
+
+    private final String header;
+    private final long[] offsets;
+    private final long records;
+
+    private ChunkIndex(String header, long[] offsets, long records) {
+        this.header = header;
+        this.offsets = offsets;
+        this.records = records;
+    }
+
+    String header() {
+        return header;
+    }
+
+    long[] offsets() {
+        return offsets;
+    }
+
+    long records() {
+        return records;
+    }
+
+    /**
+     * Streams the input into {@code target}. For CSV the first line is kept as the header and excluded from
+     * the chunks.
+     */
+    static ChunkIndex copy(InputStream input, Path target, boolean withHeader, int chunkSize, long maxSize)
+            throws IOException {
+        long[] offsets = new long[16];
+        int offsetCount = 0;
+        ByteArrayOutputStream header = withHeader ? new ByteArrayOutputStream() : null;
+        boolean inHeader = withHeader;
+        long position = 0;
+        long lines = 0;
+        long records = 0;
+        boolean lineHasContent = false;
+
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = new BufferedInputStream(input, buffer.length);
+             OutputStream out = Files.newOutputStream(target)) {
+            if (!inHeader) {
+                offsets[offsetCount++] = 0;
+            }
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                if (position + read > maxSize) {
+                    throw new RequestBodyTooLargeException(maxSize);
+                }
+                out.write(buffer, 0, read);
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (inHeader) {
+                        if (b == '\n') {
+                            inHeader = false;
+                            offsets[offsetCount++] = position + i + 1;
+                        } else if (header.size() < MAX_HEADER_LENGTH) {
+                            header.write(b);
+                        } else {
+                            throw new IllegalArgumentException("CSV header exceeds " + MAX_HEADER_LENGTH + " bytes");
+                        }
+                    } else if (b == '\n') {
+                        if (lineHasContent) {
+                            records++;
+                        }
+                        lineHasContent = false;
+                        if (++lines % chunkSize == 0) {
+                            if (offsetCount == offsets.length) {
+                                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                            }
+                            offsets[offsetCount++] = position + i + 1;
+                        }
+                    } else if (b != '\r' && b != ' ' && b != '\t') {
+                        lineHasContent = true;
+                    }
+                }
+                position += read;
+            }
+        }
+        if (lineHasContent) {
+            records++;
+        }
+        if (inHeader) {
+            // Header only, without a line break
+            offsets[offsetCount++] = position;
+        }
+        if (offsets[offsetCount - 1] != position) {
+            if (offsetCount == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length + 1);
+            }
+            offsets[offsetCount++] = position;
+        }
+        String headerLine = header == null ? null : stripCarriageReturn(header.toString(StandardCharsets.UTF_8));
+        return new ChunkIndex(headerLine, Arrays.copyOf(offsets, offsetCount), records);
+    }
+
+    static void write(Path file, long[] offsets) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(offsets.length);
+            for (long offset : offsets) {
+                out.writeLong(offset);
+            }
+        }
+    }
+
+    static long[] read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            long[] offsets = new long[in.readInt()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = in.readLong();
+            }
+            return offsets;
+        }
+    }
+
+    static String stripCarriageReturn(String line) {
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+}
@@ -0,0 +1,32 @@
+package io.openleap.cvs.job;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Input and output format of a bulk job. NDJSON jobs contain one JSON object of string fields per line; CSV
+ * jobs start with a header line naming the fields. In both formats the {@code objectId} field is passed
+ * through unchanged, like in the list endpoints.
+ */
+public enum JobFormat {
+    NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+    CSV(MediaType.parseMediaType("text/csv"));
+
+    private final MediaType mediaType;
+
+    JobFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static JobFormat fromMediaType(MediaType mediaType) {
+        for (JobFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(mediaType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,65 @@
+package io.openleap.cvs.job;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of the completed chunks of a job. A chunk is journaled only after its output file is in
+ * place, so every chunk in the journal can be skipped when the job is resumed. Each line holds the chunk
+ * index, the number of entries of the chunk that could not be processed and the UTF-8 bytes of plaintext it
+ * encrypted or decrypted; journals written before the plaintext was counted lack the last column.
+ */
+final class JobJournal implements Closeable {
+    private final FileChannel channel;
+
+    JobJournal(Path file) throws IOException {
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    synchronized void append(int chunk, long failedEntries, long plaintextBytes) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap((chunk + " " + failedEntries + " " + plaintextBytes + "\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads the completed chunks and their counts. A line torn by a crash is ignored, its chunk is processed
+     * again.
+     */
+    static Map<Integer, Chunk> read(Path file) throws IOException {
+        Map<Integer, Chunk> completed = new HashMap<>();
+        if (!Files.exists(file)) {
+            return completed;
+        }
+        String content = Files.readString(file, StandardCharsets.US_ASCII);
+        List<String> lines = content.lines().toList();
+        int complete = content.endsWith("\n") ? lines.size() : lines.size() - 1;
+        for (int i = 0; i < complete; i++) {
+            String[] parts = lines.get(i).split(" ");
+            long plaintextBytes = parts.length > 2 ? Long.parseLong(parts[2]) : 0;
+            completed.put(Integer.parseInt(parts[0]), new Chunk(Long.parseLong(parts[1]), plaintextBytes));
+        }
+        return completed;
+    }
+
+    record Chunk(long failedEntries, long plaintextBytes) {
+    }
+}
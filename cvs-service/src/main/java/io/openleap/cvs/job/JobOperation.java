@@ -0,0 +1,24 @@
+package io.openleap.cvs.job;
+
+import io.openleap.cvs.audit.AuditOperation;
+
+public enum JobOperation {
+    ENCRYPT,
+    DECRYPT,
+    /**
+     * Decrypts the {@code ciphertext} field of every record with the previous master key and the record's
+     * {@code iv}, and encrypts it again with the current key.
+     */
+    REENCRYPT;
+
+    /**
+     * The operation a job is audited and metered as.
+     */
+    public AuditOperation auditOperation() {
+        return switch (this) {
+            case ENCRYPT -> AuditOperation.ENCRYPT_LIST;
+            case DECRYPT -> AuditOperation.DECRYPT_LIST;
+            case REENCRYPT -> AuditOperation.REENCRYPT_LIST;
+        };
+    }
+}
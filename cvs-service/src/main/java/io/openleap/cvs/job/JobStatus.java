@@ -0,0 +1,7 @@
+package io.openleap.cvs.job;
+
+public enum JobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,40 @@
+package io.openleap.cvs.job;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces records evenly at a maximum rate shared by all worker threads. Unused capacity is not saved up, so
+ * an idle period is not followed by a burst.
+ */
+final class RecordRateLimiter {
+    private final long intervalNanos;
+    private long next = System.nanoTime();
+
+    /**
+     * @param recordsPerSecond the maximum rate, or 0 for no limit
+     */
+    RecordRateLimiter(int recordsPerSecond) {
+        this.intervalNanos = recordsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / recordsPerSecond : 0;
+    }
+
+    /**
+     * Waits until the next record may be processed.
+     */
+    void acquire() throws InterruptedException {
+        if (intervalNanos == 0) {
+            return;
+        }
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (next - now < 0) {
+                next = now;
+            }
+            wait = next - now;
+            next += intervalNanos;
+        }
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+}
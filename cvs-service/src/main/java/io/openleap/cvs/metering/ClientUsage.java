@@ -0,0 +1,60 @@
+package io.openleap.cvs.metering;
+
+import io.openleap.cvs.audit.AuditOperation;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Usage counters of one client. {@link LongAdder} spreads concurrent updates over striped cells, so request
+ * threads of the same client do not contend on a single counter.
+ */
+final class ClientUsage {
+    private static final AuditOperation[] OPERATIONS = AuditOperation.values();
+
+    private final LongAdder[] operations = new LongAdder[OPERATIONS.length];
+    private final LongAdder entries = new LongAdder();
+    private final LongAdder plaintextBytes = new LongAdder();
+    private final LongAdder cpuTimeNanos = new LongAdder();
+
+    ClientUsage() {
+        for (int i = 0; i < operations.length; i++) {
+            operations[i] = new LongAdder();
+        }
+    }
+
+    void add(AuditOperation operation, int entryCount, long plaintextByteCount) {
+        operations[operation.ordinal()].increment();
+        entries.add(entryCount);
+        plaintextBytes.add(plaintextByteCount);
+    }
+
+    void addCpuTime(long nanos) {
+        cpuTimeNanos.add(nanos);
+    }
+
+    /**
+     * Adds the totals of a previous snapshot, so counting continues across restarts.
+     */
+    void restore(ClientUsageSnapshot snapshot) {
+        if (snapshot.operations() != null) {
+            snapshot.operations().forEach((operation, count) -> operations[operation.ordinal()].add(count));
+        }
+        entries.add(snapshot.entries());
+        plaintextBytes.add(snapshot.plaintextBytes());
+        cpuTimeNanos.add(snapshot.cpuTimeNanos());
+    }
+
+    ClientUsageSnapshot snapshot(String clientId) {
+        Map<AuditOperation, Long> operationCounts = new EnumMap<>(AuditOperation.class);
+        for (AuditOperation operation : OPERATIONS) {
+            long count = operations[operation.ordinal()].sum();
+            if (count > 0) {
+                operationCounts.put(operation, count);
+            }
+        }
+        return new ClientUsageSnapshot(clientId, operationCounts, entries.sum(), plaintextBytes.sum(),
+                cpuTimeNanos.sum());
+    }
+}
@@ -0,0 +1,21 @@
+package io.openleap.cvs.metering;
+
+import io.openleap.cvs.audit.AuditOperation;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+@Schema(description = "Usage of one client since metering started")
+public record ClientUsageSnapshot(
+        @Schema(description = "Client id from the access token, or unix:<user> for sidecar connections",
+                example = "billing-service")
+        String clientId,
+        @Schema(description = "Number of requests per operation", example = "{\"ENCRYPT_LIST\": 1200}")
+        Map<AuditOperation, Long> operations,
+        @Schema(description = "Number of entries processed", example = "24000")
+        long entries,
+        @Schema(description = "UTF-8 bytes of plaintext encrypted or decrypted", example = "1048576")
+        long plaintextBytes,
+        @Schema(description = "CPU time of the client's requests in nanoseconds", example = "2500000000")
+        long cpuTimeNanos) {
+}
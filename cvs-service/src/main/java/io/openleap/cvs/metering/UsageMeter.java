@@ -0,0 +1,206 @@
+package io.openleap.cvs.metering;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openleap.cvs.audit.AuditOperation;
+import io.openleap.cvs.config.MeteringProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters the usage of every client: requests per operation, entries, plaintext bytes and CPU time. Request
+ * threads only add to striped counters; a background thread writes a snapshot of the totals to
+ * {@link MeteringProperties#getSnapshotFile()} every {@link MeteringProperties#getSnapshotInterval() interval}
+ * and on shutdown. The last snapshot is restored on start, so the totals survive restarts.
+ */
+@Component
+public class UsageMeter implements SmartLifecycle {
+    public static final String OTHER_CLIENTS = "other";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UsageMeter.class);
+    private static final String OBJECT_ID = "objectId";
+
+    private final MeteringProperties properties;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final boolean cpuTimeEnabled;
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final Map<String, ClientUsage> clients = new ConcurrentHashMap<>();
+    private volatile Instant since = Instant.now();
+    private ScheduledExecutorService snapshotWriter;
+    private volatile boolean running;
+
+    public UsageMeter(MeteringProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.enabled = properties.isEnabled();
+        this.cpuTimeEnabled = enabled && threadMXBean.isCurrentThreadCpuTimeSupported()
+                && threadMXBean.isThreadCpuTimeEnabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(String clientId, AuditOperation operation, int entryCount, long plaintextBytes) {
+        if (enabled) {
+            usage(clientId).add(operation, entryCount, plaintextBytes);
+        }
+    }
+
+    /**
+     * Returns the CPU time of the current thread in nanoseconds, or -1 if it is not measured.
+     */
+    public long currentThreadCpuTime() {
+        return cpuTimeEnabled ? threadMXBean.getCurrentThreadCpuTime() : -1;
+    }
+
+    /**
+     * Adds the CPU time the current thread spent since {@code startCpuTime} to the client.
+     */
+    public void recordCpuTime(String clientId, long startCpuTime) {
+        if (startCpuTime >= 0) {
+            usage(clientId).addCpuTime(threadMXBean.getCurrentThreadCpuTime() - startCpuTime);
+        }
+    }
+
+    public UsageSnapshot snapshot() {
+        List<ClientUsageSnapshot> snapshots = new ArrayList<>(clients.size());
+        clients.forEach((clientId, usage) -> snapshots.add(usage.snapshot(clientId)));
+        snapshots.sort(Comparator.comparingLong(ClientUsageSnapshot::cpuTimeNanos).reversed()
+                .thenComparing(Comparator.comparingLong(ClientUsageSnapshot::entries).reversed()));
+        return new UsageSnapshot(since, Instant.now(), snapshots);
+    }
+
+    /**
+     * Returns the UTF-8 length of all values except {@code objectId} without encoding them.
+     */
+    public static long plaintextBytes(Map<String, String> values) {
+        long bytes = 0;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (!OBJECT_ID.equals(entry.getKey())) {
+                bytes += utf8Length(entry.getValue());
+            }
+        }
+        return bytes;
+    }
+
+    public static long utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+        long length = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                // Surrogate pairs are four bytes for two chars
+                length += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        restore();
+        snapshotWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "usage-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getSnapshotInterval().toMillis();
+        snapshotWriter.scheduleWithFixedDelay(this::writeSnapshot, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        snapshotWriter.shutdown();
+        try {
+            snapshotWriter.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeSnapshot();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server so that in-flight requests are still counted
+        return 0;
+    }
+
+    private ClientUsage usage(String clientId) {
+        ClientUsage usage = clients.get(clientId);
+        if (usage != null) {
+            return usage;
+        }
+        if (clients.size() >= properties.getMaxClients()) {
+            return clients.computeIfAbsent(OTHER_CLIENTS, id -> new ClientUsage());
+        }
+        return clients.computeIfAbsent(clientId, id -> new ClientUsage());
+    }
+
+    private void restore() {
+        Path file = Paths.get(properties.getSnapshotFile());
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            UsageSnapshot snapshot = objectMapper.readValue(file.toFile(), UsageSnapshot.class);
+            if (snapshot.since() != null) {
+                since = snapshot.since();
+            }
+            if (snapshot.clients() != null) {
+                snapshot.clients().forEach(client -> usage(client.clientId()).restore(client));
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to restore usage from {}, counting starts from zero", file, e);
+        }
+    }
+
+    void writeSnapshot() {
+        Path file = Paths.get(properties.getSnapshotFile()).toAbsolutePath();
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            objectMapper.writeValue(temporaryFile.toFile(), snapshot());
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Failed to write usage snapshot to {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package io.openleap.cvs.metering;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.List;
+
+@Schema(description = "Usage of all clients, the most expensive first")
+public record UsageSnapshot(
+        @Schema(description = "When metering started; totals are kept across restarts")
+        Instant since,
+        @Schema(description = "When the snapshot was taken")
+        Instant takenAt,
+        List<ClientUsageSnapshot> clients) {
+}
@@ -0,0 +1,323 @@
+package io.openleap.cvs.service;
+
+
+import io.openleap.cvs.config.CompressionProperties;
+import io.openleap.cvs.config.CvsConfig;
+import io.openleap.cvs.core.CryptoEngine;
+import io.openleap.cvs.core.DataKey;
+import io.openleap.cvs.core.DecryptResult;
+import io.openleap.cvs.core.DecryptStatus;
+import io.openleap.cvs.core.EntryCipher;
+import io.openleap.cvs.core.HmacKey;
+import io.openleap.cvs.core.ValueCompression;
+import io.openleap.cvs.core.jfr.CryptoEvents;
+import io.openleap.cvs.core.jfr.CryptoOperationEvent;
+import io.openleap.cvs.metering.UsageMeter;
+import io.openleap.cvs.web.EncodedEntries;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Map;
+
+/**
+ * Encrypts and decrypts values with the master key read from {@link CvsConfig#getEncryptionKeyPath()}.
+ * The work is done by the {@link CryptoEngine} of {@code cvs-core}.
+ * <p>
+ * The key material is overwritten when the lifecycle is stopped, including the derived HMAC keys, and the
+ * HMAC keys that worker threads keep initialized are dropped; it is read again from disk when it is started.
+ * This keeps the key out of CRaC checkpoints, which stop all lifecycle beans before the checkpoint and
+ * restart them after the restore.
+ * <p>
+ * Large values are compressed before they are encrypted if {@link CompressionProperties} enables it.
+ * Compressed values are inflated on decrypt in any case.
+ * <p>
+ * With {@link CvsConfig#getPreviousEncryptionKeyPath()} set after a key rotation, values, data keys and
+ * tokens that do not decrypt with the current key are decrypted with the previous one until they are
+ * migrated. New values are always encrypted with the current key.
+ * <p>
+ * Every encrypt and decrypt call emits a {@link CryptoOperationEvent} to the Flight Recorder. Its fields are
+ * only computed when a recording takes the event.
+ */
+@Component
+public class CryptoService implements SmartLifecycle {
+    private static final String REENCRYPTED_VALUE = "value";
+
+    private final Path secretKeyPath;
+    private final Path previousKeyPath;
+    private final String aesInitializationVector;
+    private final ValueCompression compression;
+    private volatile CryptoEngine engine;
+    private volatile CryptoEngine previousEngine;
+    // The previous key first, as re-encryption mostly reads values that have not been migrated yet
+    private volatile CryptoEngine reencryptionSource;
+
+    public CryptoService(CvsConfig cvsConfig)
+            throws NoSuchAlgorithmException, InvalidKeySpecException, InvalidAlgorithmParameterException,
+            IOException {
+        this(cvsConfig, new CompressionProperties());
+    }
+
+    @Autowired
+    public CryptoService(CvsConfig cvsConfig, CompressionProperties compressionProperties)
+            throws NoSuchAlgorithmException, InvalidKeySpecException, InvalidAlgorithmParameterException,
+            IOException {
+        secretKeyPath = Paths.get(cvsConfig.getEncryptionKeyPath());
+        previousKeyPath = cvsConfig.getPreviousEncryptionKeyPath() != null
+                ? Paths.get(cvsConfig.getPreviousEncryptionKeyPath())
+                : null;
+        aesInitializationVector = cvsConfig.getAesInitializationVector();
+        String dictionaryPath = compressionProperties.getDictionaryPath();
+        compression = new ValueCompression(compressionProperties.isEnabled(),
+                (int) compressionProperties.getMinSize().toBytes(), compressionProperties.getLevel(),
+                dictionaryPath != null ? Files.readAllBytes(Paths.get(dictionaryPath)) : null);
+        loadEngines();
+    }
+
+    @Override
+    public void start() {
+        if (engine == null) {
+            try {
+                loadEngines();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read encryption key", e);
+            } catch (InvalidAlgorithmParameterException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private void loadEngines() throws IOException, InvalidAlgorithmParameterException {
+        CryptoEngine current =
+                CryptoEngine.fromKeyFile(secretKeyPath, aesInitializationVector).withCompression(compression);
+        if (previousKeyPath == null) {
+            previousEngine = null;
+            reencryptionSource = current;
+            engine = current;
+            return;
+        }
+        CryptoEngine previous =
+                CryptoEngine.fromKeyFile(previousKeyPath, aesInitializationVector).withCompression(compression);
+        previousEngine = previous;
+        reencryptionSource = previous.withDecryptionFallback(current);
+        engine = current.withDecryptionFallback(previous);
+    }
+
+    @Override
+    public void stop() {
+        CryptoEngine current = engine;
+        CryptoEngine previous = previousEngine;
+        CryptoEngine source = reencryptionSource;
+        engine = null;
+        previousEngine = null;
+        reencryptionSource = null;
+        HmacKey.clearThreadMacs();
+        for (CryptoEngine stopped : new CryptoEngine[]{current, previous, source}) {
+            if (stopped != null) {
+                stopped.destroy();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return engine != null;
+    }
+
+    @Override
+    public int getPhase() {
+        // Start before and stop after the web server, so requests never see an unloaded key
+        return 0;
+    }
+
+    /**
+     * Returns a fingerprint of the master key, the first four bytes of its SHA-256 hash. It identifies the
+     * key in audit records without revealing anything about it.
+     */
+    public int getKeyVersion() {
+        return engine().getKeyVersion();
+    }
+
+    private CryptoEngine engine() {
+        CryptoEngine current = engine;
+        if (current == null) {
+            throw new IllegalStateException("Encryption key is not loaded");
+        }
+        return current;
+    }
+
+    public DataKey generateDataKey() throws GeneralSecurityException {
+        return engine().generateDataKey();
+    }
+
+    public byte[] unwrapDataKey(String wrappedKey) throws GeneralSecurityException {
+        return engine().unwrapDataKey(wrappedKey);
+    }
+
+    public HmacKey hmacKey(String keyId) throws GeneralSecurityException {
+        return engine().hmacKey(keyId);
+    }
+
+    /**
+     * Returns the HMAC key of the previous master key, or {@code null} if no previous key is configured, so
+     * signatures made before a key rotation still verify.
+     */
+    public HmacKey previousHmacKey(String keyId) throws GeneralSecurityException {
+        CryptoEngine previous = previousEngine;
+        return previous != null ? previous.hmacKey(keyId) : null;
+    }
+
+    public GCMParameterSpec generateIvFromSessionUser(String sessionUserId) throws NoSuchAlgorithmException {
+        return engine().generateIvFromSessionUser(sessionUserId);
+    }
+
+    /**
+     * Returns a cipher for the values of one session user, for callers that encrypt and decrypt on raw bytes.
+     * The initialization vector is derived once, here. An instance is not thread-safe.
+     */
+    public EntryCipher entryCipher(String iv) throws NoSuchAlgorithmException {
+        return engine().entryCipher(iv);
+    }
+
+    public String encryptWithAesCbc(String clearTextInput, String iv)
+            throws NoSuchAlgorithmException, InvalidAlgorithmParameterException, NoSuchPaddingException,
+            IllegalBlockSizeException, BadPaddingException, InvalidKeyException {
+        CryptoOperationEvent event = new CryptoOperationEvent();
+        event.begin();
+        CryptoEngine current = engine();
+        String result = current.encrypt(clearTextInput, iv);
+        event.end();
+        if (event.shouldCommit()) {
+            commit(event, CryptoEvents.ENCRYPT, 1, UsageMeter.utf8Length(clearTextInput), current);
+        }
+        return result;
+    }
+
+    public String decryptWithAesCbc(String cipherInput, String iv)
+            throws NoSuchAlgorithmException, InvalidAlgorithmParameterException,
+            InvalidKeyException {
+        CryptoOperationEvent event = new CryptoOperationEvent();
+        event.begin();
+        CryptoEngine current = engine();
+        String result = current.decrypt(cipherInput, iv);
+        event.end();
+        if (event.shouldCommit()) {
+            commit(event, CryptoEvents.DECRYPT, 1, UsageMeter.utf8Length(result), current);
+        }
+        return result;
+    }
+
+    public Map<String, String> decryptWithAesCbc(Map<String, String> cipherInputList, String iv) {
+        CryptoOperationEvent event = new CryptoOperationEvent();
+        event.begin();
+        CryptoEngine current = engine();
+        Map<String, String> result;
+        if (cipherInputList instanceof EncodedEntries entries) {
+            try {
+                result = entries.decrypt(current.entryCipher(iv));
+            } catch (GeneralSecurityException e) {
+                throw new RuntimeException(e);
+            }
+        } else {
+            result = current.decrypt(cipherInputList, iv);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            commit(event, CryptoEvents.DECRYPT, result.size(), plaintextBytes(result, result), current);
+        }
+        return result;
+    }
+
+    public Map<String, DecryptResult> decryptEntries(Map<String, String> cipherInputList, String iv)
+            throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidAlgorithmParameterException,
+            InvalidKeyException {
+        CryptoOperationEvent event = new CryptoOperationEvent();
+        event.begin();
+        CryptoEngine current = engine();
+        Map<String, DecryptResult> results = current.decryptEntries(cipherInputList, iv);
+        event.end();
+        if (event.shouldCommit()) {
+            long bytes = 0;
+            for (DecryptResult result : results.values()) {
+                if (result.status() == DecryptStatus.OK) {
+                    bytes += UsageMeter.utf8Length(result.value());
+                }
+            }
+            commit(event, CryptoEvents.DECRYPT, results.size(), bytes, current);
+        }
+        return results;
+    }
+
+    public Map<String, String> encryptWithAesCbc(Map<String, String> cipherInputList, String iv) {
+        CryptoOperationEvent event = new CryptoOperationEvent();
+        event.begin();
+        CryptoEngine current = engine();
+        Map<String, String> result;
+        if (cipherInputList instanceof EncodedEntries entries) {
+            try {
+                result = entries.encrypt(current.entryCipher(iv));
+            } catch (GeneralSecurityException e) {
+                throw new RuntimeException(e);
+            }
+        } else {
+            result = current.encrypt(cipherInputList, iv);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            commit(event, CryptoEvents.ENCRYPT, result.size(), plaintextBytes(result, cipherInputList), current);
+        }
+        return result;
+    }
+
+    /**
+     * Decrypts a value with the previous master key and, if that fails or no previous key is configured, the
+     * current one, so records that are already migrated pass a repeated run, and encrypts it again with the current key and the initialization vector of {@code targetIv}. The
+     * plaintext does not leave this method.
+     *
+     * @return the new cipher text, or {@code null} if the value does not decrypt
+     */
+    public String reencrypt(String cipherInput, String iv, String targetIv) throws GeneralSecurityException {
+        CryptoOperationEvent event = new CryptoOperationEvent();
+        event.begin();
+        CryptoEngine current = engine();
+        CryptoEngine source = reencryptionSource;
+        DecryptResult decrypted = source.decryptEntries(Map.of(REENCRYPTED_VALUE, cipherInput), iv)
+                .get(REENCRYPTED_VALUE);
+        String result = decrypted.status() == DecryptStatus.OK ? current.encrypt(decrypted.value(), targetIv) : null;
+        event.end();
+        if (event.shouldCommit()) {
+            commit(event, CryptoEvents.REENCRYPT, 1,
+                    result != null ? UsageMeter.utf8Length(decrypted.value()) : 0, current);
+        }
+        return result;
+    }
+
+    private static long plaintextBytes(Map<String, String> result, Map<String, String> plaintext) {
+        return result instanceof EncodedEntries entries
+                ? entries.plaintextBytes()
+                : UsageMeter.plaintextBytes(plaintext);
+    }
+
+    private static void commit(CryptoOperationEvent event, String operation, int batchSize, long bytes,
+                               CryptoEngine engine) {
+        event.operation = operation;
+        event.batchSize = batchSize;
+        event.bytes = bytes;
+        event.keyVersion = engine.getKeyVersion();
+        event.commit();
+    }
+}
@@ -0,0 +1,145 @@
+package io.openleap.cvs.service;
+
+import io.openleap.cvs.config.MacProperties;
+import io.openleap.cvs.core.HmacKey;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Signs and verifies messages with HMAC-SHA256 keys derived from the master key per key ID. Signatures are
+ * Base64. Verification also accepts signatures of the previous master key, so they survive a key rotation.
+ * <p>
+ * Only the clients listed for a key ID in {@link MacProperties#getSigners()} may sign with it, so a client
+ * cannot forge messages of another consumer; every client may verify.
+ */
+@Service
+public class MacService {
+    private static final int MAX_KEY_ID_LENGTH = 128;
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final CryptoService cryptoService;
+    private final Map<String, List<String>> signers;
+
+    public MacService(CryptoService cryptoService, MacProperties properties) {
+        this.cryptoService = cryptoService;
+        this.signers = Map.copyOf(properties.getSigners());
+    }
+
+    /**
+     * Signs the UTF-8 bytes of every message, in the same order.
+     *
+     * @throws AccessDeniedException if the client may not sign with the key ID
+     */
+    public List<String> sign(String clientId, String keyId, List<String> messages) throws GeneralSecurityException {
+        HmacKey key = cryptoService.hmacKey(checkSigner(clientId, keyId));
+        List<String> signatures = new ArrayList<>(messages.size());
+        for (String message : messages) {
+            signatures.add(encode(key.sign(bytes(message))));
+        }
+        return signatures;
+    }
+
+    /**
+     * Signs a message read from the stream in parts, without holding it in memory.
+     *
+     * @throws AccessDeniedException if the client may not sign with the key ID
+     */
+    public String sign(String clientId, String keyId, InputStream message)
+            throws GeneralSecurityException, IOException {
+        Mac mac = cryptoService.hmacKey(checkSigner(clientId, keyId)).mac();
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        for (int read; (read = message.read(buffer)) != -1; ) {
+            mac.update(buffer, 0, read);
+        }
+        return encode(mac.doFinal());
+    }
+
+    /**
+     * Checks the signature of every message, in the same order. Signatures that are not Base64 do not match.
+     */
+    public List<Boolean> verify(String keyId, List<String> messages, List<String> signatures)
+            throws GeneralSecurityException {
+        if (messages.size() != signatures.size()) {
+            throw new IllegalArgumentException(
+                    messages.size() + " messages but " + signatures.size() + " signatures");
+        }
+        HmacKey key = cryptoService.hmacKey(checkKeyId(keyId));
+        HmacKey previousKey = cryptoService.previousHmacKey(keyId);
+        List<Boolean> results = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            byte[] message = bytes(messages.get(i));
+            byte[] signature = decode(signatures.get(i));
+            results.add(key.verify(message, signature) || previousKey != null && previousKey.verify(message, signature));
+        }
+        return results;
+    }
+
+    /**
+     * Checks the signature of a message read from the stream in parts, without holding it in memory.
+     */
+    public boolean verify(String keyId, String signature, InputStream message)
+            throws GeneralSecurityException, IOException {
+        HmacKey key = cryptoService.hmacKey(checkKeyId(keyId));
+        HmacKey previousKey = cryptoService.previousHmacKey(keyId);
+        Mac mac = key.mac();
+        Mac previousMac = previousKey != null ? previousKey.newMac() : null;
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        for (int read; (read = message.read(buffer)) != -1; ) {
+            mac.update(buffer, 0, read);
+            if (previousMac != null) {
+                previousMac.update(buffer, 0, read);
+            }
+        }
+        byte[] decoded = decode(signature);
+        return HmacKey.matches(mac.doFinal(), decoded)
+                || previousMac != null && HmacKey.matches(previousMac.doFinal(), decoded);
+    }
+
+    private String checkSigner(String clientId, String keyId) {
+        checkKeyId(keyId);
+        List<String> clients = signers.get(keyId);
+        if (clients == null || !clients.contains(clientId)) {
+            throw new AccessDeniedException("Client may not sign with key ID " + keyId);
+        }
+        return keyId;
+    }
+
+    private static String checkKeyId(String keyId) {
+        if (keyId == null || keyId.isBlank() || keyId.length() > MAX_KEY_ID_LENGTH) {
+            throw new IllegalArgumentException("Key ID must have 1 to " + MAX_KEY_ID_LENGTH + " characters");
+        }
+        return keyId;
+    }
+
+    private static byte[] bytes(String message) {
+        if (message == null) {
+            throw new IllegalArgumentException("Messages must not be null");
+        }
+        return message.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String encode(byte[] signature) {
+        return Base64.getEncoder().encodeToString(signature);
+    }
+
+    private static byte[] decode(String signature) {
+        if (signature == null) {
+            return null;
+        }
+        try {
+            return Base64.getDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
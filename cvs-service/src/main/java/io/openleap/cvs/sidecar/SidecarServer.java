@@ -0,0 +1,306 @@
+package io.openleap.cvs.sidecar;
+
+import io.openleap.cvs.audit.AuditLog;
+import io.openleap.cvs.audit.AuditOperation;
+import io.openleap.cvs.config.SidecarProperties;
+import io.openleap.cvs.core.DecryptResult;
+import io.openleap.cvs.core.DecryptStatus;
+import io.openleap.cvs.core.InvalidIvException;
+import io.openleap.cvs.core.sidecar.FrameReader;
+import io.openleap.cvs.core.sidecar.FrameWriter;
+import io.openleap.cvs.core.sidecar.MalformedFrameException;
+import io.openleap.cvs.core.sidecar.SidecarProtocol;
+import io.openleap.cvs.metering.UsageMeter;
+import io.openleap.cvs.service.CryptoService;
+import jdk.net.ExtendedSocketOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional listener on a Unix domain socket for an application running next to the service, e.g. in the
+ * same pod. It speaks the length-prefixed {@link SidecarProtocol} instead of HTTP and JSON and dispatches
+ * into {@link CryptoService}.
+ * <p>
+ * There are no tokens: whoever may open the socket file may use it. The socket is bound in a new directory
+ * that only the service's user may enter and gets {@link SidecarProperties#getSocketPermissions()} there,
+ * before it is moved to its path, so no other user can connect while its permissions are still those of the
+ * umask. Audit records name the peer's operating system user.
+ */
+@Component
+public class SidecarServer implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SidecarServer.class);
+    private static final String OBJECT_ID = "objectId";
+    // Key and value length of a list entry
+    private static final int MIN_ENTRY_SIZE = 8;
+
+    private final CryptoService cryptoService;
+    private final AuditLog auditLog;
+    private final UsageMeter usageMeter;
+    private final SidecarProperties properties;
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+    private volatile ServerSocketChannel serverChannel;
+    private Path socketPath;
+    private ThreadPoolExecutor workers;
+    private Thread acceptThread;
+
+    public SidecarServer(CryptoService cryptoService, AuditLog auditLog, UsageMeter usageMeter,
+                         SidecarProperties properties) {
+        this.cryptoService = cryptoService;
+        this.auditLog = auditLog;
+        this.usageMeter = usageMeter;
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || serverChannel != null) {
+            return;
+        }
+        socketPath = Paths.get(properties.getSocketPath()).toAbsolutePath();
+        try {
+            Files.createDirectories(socketPath.getParent());
+            // A socket file left behind by a previous process would fail the move
+            Files.deleteIfExists(socketPath);
+            // The socket is bound with the umask, so bind it where only this user can reach it
+            Path bindDirectory = Files.createTempDirectory(socketPath.getParent(), ".cvs",
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            Path bindPath = bindDirectory.resolve(socketPath.getFileName());
+            ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            try {
+                channel.bind(UnixDomainSocketAddress.of(bindPath));
+                Files.setPosixFilePermissions(bindPath,
+                        PosixFilePermissions.fromString(properties.getSocketPermissions()));
+                Files.move(bindPath, socketPath, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                channel.close();
+                Files.deleteIfExists(bindPath);
+                throw e;
+            } finally {
+                Files.deleteIfExists(bindDirectory);
+            }
+            serverChannel = channel;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open sidecar socket " + socketPath, e);
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = new ThreadPoolExecutor(0, properties.getMaxConnections(), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "sidecar-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        acceptThread = new Thread(this::acceptLoop, "sidecar-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        LOGGER.info("Sidecar listening on {}", socketPath);
+    }
+
+    @Override
+    public void stop() {
+        ServerSocketChannel channel = serverChannel;
+        if (channel == null) {
+            return;
+        }
+        serverChannel = null;
+        try {
+            channel.close();
+            for (SocketChannel connection : connections) {
+                connection.close();
+            }
+            Files.deleteIfExists(socketPath);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close sidecar socket {}", socketPath, e);
+        }
+        workers.shutdown();
+        try {
+            acceptThread.join(TimeUnit.SECONDS.toMillis(5));
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return serverChannel != null;
+    }
+
+    @Override
+    public int getPhase() {
+        // Like the web server: start after and stop before the crypto service and the audit log
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    /**
+     * Returns the path of the socket, or null while the listener is not running.
+     */
+    public Path getSocketPath() {
+        return isRunning() ? socketPath : null;
+    }
+
+    private void acceptLoop() {
+        ServerSocketChannel channel;
+        while ((channel = serverChannel) != null) {
+            SocketChannel connection;
+            try {
+                connection = channel.accept();
+            } catch (AsynchronousCloseException e) {
+                return;
+            } catch (IOException e) {
+                LOGGER.error("Sidecar accept failed", e);
+                return;
+            }
+            connections.add(connection);
+            try {
+                workers.execute(() -> serve(connection));
+            } catch (RejectedExecutionException e) {
+                LOGGER.warn("Sidecar connection refused, {} connections are open", properties.getMaxConnections());
+                close(connection);
+            }
+        }
+    }
+
+    private void serve(SocketChannel connection) {
+        String clientId = peerUser(connection);
+        FrameReader reader = new FrameReader((int) properties.getMaxFrameSize().toBytes());
+        FrameWriter writer = new FrameWriter();
+        try {
+            int type;
+            while ((type = reader.next(connection)) >= 0) {
+                long startCpuTime = usageMeter.currentThreadCpuTime();
+                handle(type, reader, writer, clientId);
+                writer.writeTo(connection);
+                usageMeter.recordCpuTime(clientId, startCpuTime);
+            }
+        } catch (MalformedFrameException e) {
+            // The stream cannot be resynchronized after a bad frame length
+            LOGGER.debug("Closing sidecar connection of {}: {}", clientId, e.getMessage());
+        } catch (AsynchronousCloseException e) {
+            // Closed by stop()
+        } catch (IOException e) {
+            LOGGER.debug("Sidecar connection of {} failed", clientId, e);
+        } finally {
+            close(connection);
+        }
+    }
+
+    private void handle(int type, FrameReader reader, FrameWriter writer, String clientId) {
+        try {
+            switch (type) {
+                case SidecarProtocol.ENCRYPT -> {
+                    String iv = reader.readString();
+                    String value = requireValue(reader.readString());
+                    writer.begin(SidecarProtocol.OK).writeString(cryptoService.encryptWithAesCbc(value, iv));
+                    record(AuditOperation.ENCRYPT, clientId, 1, UsageMeter.utf8Length(value), null);
+                }
+                case SidecarProtocol.DECRYPT -> {
+                    String iv = reader.readString();
+                    String value = requireValue(reader.readString());
+                    String plaintext = cryptoService.decryptWithAesCbc(value, iv);
+                    writer.begin(SidecarProtocol.OK).writeString(plaintext);
+                    record(AuditOperation.DECRYPT, clientId, 1, UsageMeter.utf8Length(plaintext), null);
+                }
+                case SidecarProtocol.ENCRYPT_LIST -> {
+                    String iv = reader.readString();
+                    Map<String, String> data = readEntries(reader);
+                    Map<String, String> result = cryptoService.encryptWithAesCbc(data, iv);
+                    writer.begin(SidecarProtocol.OK).writeInt(result.size());
+                    result.forEach((key, value) -> writer.writeString(key).writeString(value));
+                    record(AuditOperation.ENCRYPT_LIST, clientId, result.size(), UsageMeter.plaintextBytes(data),
+                            data.get(OBJECT_ID));
+                }
+                case SidecarProtocol.DECRYPT_LIST -> {
+                    String iv = reader.readString();
+                    Map<String, String> data = readEntries(reader);
+                    Map<String, DecryptResult> results = cryptoService.decryptEntries(data, iv);
+                    writer.begin(SidecarProtocol.OK).writeInt(results.size());
+                    long plaintextBytes = 0;
+                    for (Map.Entry<String, DecryptResult> entry : results.entrySet()) {
+                        DecryptResult result = entry.getValue();
+                        writer.writeString(entry.getKey()).writeByte(SidecarProtocol.entryStatus(result.status()))
+                                .writeString(result.value());
+                        if (result.status() == DecryptStatus.OK && !OBJECT_ID.equals(entry.getKey())) {
+                            plaintextBytes += UsageMeter.utf8Length(result.value());
+                        }
+                    }
+                    record(AuditOperation.DECRYPT_LIST, clientId, results.size(), plaintextBytes, data.get(OBJECT_ID));
+                }
+                default -> writer.begin(SidecarProtocol.BAD_REQUEST).writeString("Unknown operation " + type);
+            }
+        } catch (InvalidIvException e) {
+            writer.begin(SidecarProtocol.BAD_REQUEST).writeString("Invalid initialization vector");
+        } catch (MalformedFrameException | IllegalArgumentException e) {
+            writer.begin(SidecarProtocol.BAD_REQUEST).writeString(e.getMessage());
+        } catch (GeneralSecurityException | RuntimeException e) {
+            LOGGER.error("Sidecar operation {} failed", type, e);
+            writer.begin(SidecarProtocol.ERROR).writeString(e.getClass().getName());
+        }
+    }
+
+    private static Map<String, String> readEntries(FrameReader reader) {
+        int count = reader.readCount(MIN_ENTRY_SIZE);
+        Map<String, String> data = new LinkedHashMap<>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            data.put(requireValue(reader.readString()), requireValue(reader.readString()));
+        }
+        return data;
+    }
+
+    private static String requireValue(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value must not be null");
+        }
+        return value;
+    }
+
+    private void record(AuditOperation operation, String clientId, int entryCount, long plaintextBytes,
+                        String objectId) {
+        usageMeter.record(clientId, operation, entryCount, plaintextBytes);
+        if (auditLog.isRunning()) {
+            auditLog.record(operation, clientId, cryptoService.getKeyVersion(), entryCount, objectId);
+        }
+    }
+
+    private static String peerUser(SocketChannel connection) {
+        try {
+            return "unix:" + connection.getOption(ExtendedSocketOptions.SO_PEERCRED).user().getName();
+        } catch (IOException | UnsupportedOperationException e) {
+            return "unix";
+        }
+    }
+
+    private void close(SocketChannel connection) {
+        connections.remove(connection);
+        try {
+            connection.close();
+        } catch (IOException e) {
+            LOGGER.debug("Failed to close sidecar connection", e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package io.openleap.cvs.token;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Open-addressing hash table from 16 byte tokens to record locations, kept in a direct buffer outside the
+ * heap so millions of tokens add nothing to garbage collection. Each slot holds the two halves of the
+ * token and the location; location 0 marks a free slot. Collisions are resolved by linear probing and
+ * removals shift the following entries back, so there are no tombstones. Not thread-safe.
+ */
+final class TokenIndex {
+    static final int MAX_CAPACITY = 1 << 26;
+
+    private static final int SLOT_SIZE = 3 * Long.BYTES;
+    private static final double MAX_LOAD = 0.75;
+
+    private ByteBuffer slots;
+    private int mask;
+    private int size;
+
+    TokenIndex(int initialCapacity) {
+        allocate(Integer.highestOneBit((Math.max(16, Math.min(initialCapacity, MAX_CAPACITY)) - 1) << 1));
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the location of the token, or 0 if it is unknown.
+     */
+    long get(long high, long low) {
+        for (int slot = slot(high, low); ; slot = (slot + 1) & mask) {
+            long location = location(slot);
+            if (location == 0) {
+                return 0;
+            }
+            if (high(slot) == high && low(slot) == low) {
+                return location;
+            }
+        }
+    }
+
+    /**
+     * Sets the location of the token and returns the previous one, or 0 if it was not present.
+     */
+    long put(long high, long low, long location) {
+        if (size + 1 > MAX_LOAD * capacity()) {
+            grow();
+        }
+        for (int slot = slot(high, low); ; slot = (slot + 1) & mask) {
+            long previous = location(slot);
+            if (previous == 0) {
+                write(slot, high, low, location);
+                size++;
+                return 0;
+            }
+            if (high(slot) == high && low(slot) == low) {
+                slots.putLong(slot * SLOT_SIZE + 2 * Long.BYTES, location);
+                return previous;
+            }
+        }
+    }
+
+    /**
+     * Removes the token and returns its location, or 0 if it was not present.
+     */
+    long remove(long high, long low) {
+        int slot = slot(high, low);
+        long location;
+        while (true) {
+            location = location(slot);
+            if (location == 0) {
+                return 0;
+            }
+            if (high(slot) == high && low(slot) == low) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Move later entries of the probe sequence into the gap, unless their home slot lies after it
+        int gap = slot;
+        for (int next = (gap + 1) & mask; location(next) != 0; next = (next + 1) & mask) {
+            int home = slot(high(next), low(next));
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                write(gap, high(next), low(next), location(next));
+                gap = next;
+            }
+        }
+        write(gap, 0, 0, 0);
+        size--;
+        return location;
+    }
+
+    private void grow() {
+        if (capacity() >= MAX_CAPACITY) {
+            throw new IllegalStateException("Token index is full with " + size + " tokens");
+        }
+        ByteBuffer previous = slots;
+        int previousCapacity = capacity();
+        allocate(previousCapacity << 1);
+        size = 0;
+        for (int slot = 0; slot < previousCapacity; slot++) {
+            long location = previous.getLong(slot * SLOT_SIZE + 2 * Long.BYTES);
+            if (location != 0) {
+                put(previous.getLong(slot * SLOT_SIZE), previous.getLong(slot * SLOT_SIZE + Long.BYTES), location);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+        mask = capacity - 1;
+    }
+
+    private int slot(long high, long low) {
+        // Tokens are random, but mix anyway so tokens from a weak generator still spread
+        long hash = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private long high(int slot) {
+        return slots.getLong(slot * SLOT_SIZE);
+    }
+
+    private long low(int slot) {
+        return slots.getLong(slot * SLOT_SIZE + Long.BYTES);
+    }
+
+    private long location(int slot) {
+        return slots.getLong(slot * SLOT_SIZE + 2 * Long.BYTES);
+    }
+
+    private void write(int slot, long high, long low, long location) {
+        int offset = slot * SLOT_SIZE;
+        slots.putLong(offset, high);
+        slots.putLong(offset + Long.BYTES, low);
+        slots.putLong(offset + 2 * Long.BYTES, location);
+    }
+}
@@ -0,0 +1,478 @@
+package io.openleap.cvs.token;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only store of token records in memory-mapped segment files of a fixed size, with an off-heap
+ * {@link TokenIndex} from token to record. Each record is stored as its length, a CRC32C checksum, the
+ * record type, the 16 byte token and the value; the zero-filled remainder of a segment marks its end.
+ * Removing a token appends a delete record that names the segment of the removed record; it is needed
+ * only as long as that segment exists.
+ * <p>
+ * On open, all segments are replayed in order to rebuild the index. Replay of a segment stops at the first
+ * record with a wrong checksum, which is where a crash interrupted the last write; the rest of the last
+ * segment is zeroed and overwritten by the next writes. {@link #compact(double)} copies the live records of
+ * the segment with the most garbage to the end of the log and deletes it.
+ * <p>
+ * Lookups share a read lock and writes take the write lock, so lookups scale with the request threads.
+ * Only one thread at a time may compact.
+ */
+final class TokenStore implements Closeable {
+    static final int MAGIC = 0x4356544B;
+    static final int VERSION = 1;
+    static final int TOKEN_SIZE = 2 * Long.BYTES;
+    static final int SEGMENT_HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES + 1 + TOKEN_SIZE;
+    static final String SEGMENT_PREFIX = "tokens-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    // Compaction releases the write lock after copying this many bytes, so it does not stall requests
+    private static final int COMPACTION_CHUNK_SIZE = 1024 * 1024;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean syncWrites;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final TokenIndex index;
+    private final CRC32C crc = new CRC32C();
+    private Segment current;
+    private boolean closed;
+
+    TokenStore(Path directory, int segmentSize, int initialCapacity, boolean syncWrites) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncWrites = syncWrites;
+        this.index = new TokenIndex(initialCapacity);
+        Files.createDirectories(directory);
+        for (long segmentIndex : segmentIndexes(directory)) {
+            Segment segment = Segment.open(segmentPath(segmentIndex), segmentIndex);
+            if (segment == null) {
+                continue;
+            }
+            segments.put(segmentIndex, segment);
+            replay(segment);
+        }
+        if (segments.isEmpty()) {
+            current = createSegment(0);
+        } else {
+            current = segments.lastEntry().getValue();
+            current.zeroTail();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int segmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the largest value that fits into a segment.
+     */
+    int maxValueSize() {
+        return segmentSize - SEGMENT_HEADER_SIZE - RECORD_HEADER_SIZE;
+    }
+
+    /**
+     * Returns the value of the token, or {@code null} if it is unknown.
+     */
+    byte[] get(byte[] token) {
+        ByteBuffer halves = ByteBuffer.wrap(token);
+        long high = halves.getLong();
+        long low = halves.getLong();
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            long location = index.get(high, low);
+            if (location == 0) {
+                return null;
+            }
+            MappedByteBuffer buffer = segments.get(location >>> 32).buffer;
+            int position = (int) location;
+            byte[] value = new byte[buffer.getInt(position) - 1 - TOKEN_SIZE];
+            buffer.get(position + RECORD_HEADER_SIZE, value);
+            return value;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores the values under new tokens with a single flush to disk.
+     *
+     * @throws IllegalStateException if a token is already present; nothing is stored then
+     */
+    void put(List<byte[]> tokens, List<byte[]> values) throws IOException {
+        for (byte[] value : values) {
+            if (value.length > maxValueSize()) {
+                throw new IllegalArgumentException("Value of " + value.length + " bytes does not fit into a segment");
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            for (byte[] token : tokens) {
+                ByteBuffer halves = ByteBuffer.wrap(token);
+                if (index.get(halves.getLong(), halves.getLong()) != 0) {
+                    throw new IllegalStateException("Token is already present");
+                }
+            }
+            for (int i = 0; i < tokens.size(); i++) {
+                ByteBuffer halves = ByteBuffer.wrap(tokens.get(i));
+                long high = halves.getLong();
+                long low = halves.getLong();
+                long location = append(PUT, high, low, values.get(i));
+                index.put(high, low, location);
+                current.liveBytes += recordSize(location);
+            }
+            if (syncWrites) {
+                current.force();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the token, so its value cannot be looked up anymore.
+     *
+     * @return {@code false} if the token is unknown
+     */
+    boolean delete(byte[] token) throws IOException {
+        ByteBuffer halves = ByteBuffer.wrap(token);
+        long high = halves.getLong();
+        long low = halves.getLong();
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            long location = index.remove(high, low);
+            if (location == 0) {
+                return false;
+            }
+            segments.get(location >>> 32).liveBytes -= recordSize(location);
+            appendDelete(high, low, location >>> 32);
+            if (syncWrites) {
+                current.force();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compacts the full segment with the largest share of garbage, if that share is at least
+     * {@code minGarbageRatio}: its live records are appended to the log again and the segment is deleted.
+     *
+     * @return {@code true} if a segment was compacted
+     */
+    boolean compact(double minGarbageRatio) throws IOException {
+        Segment victim;
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            victim = mostGarbage(minGarbageRatio);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (victim == null) {
+            return false;
+        }
+        int position = SEGMENT_HEADER_SIZE;
+        while (position < victim.end) {
+            lock.writeLock().lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                int chunkEnd = position + COMPACTION_CHUNK_SIZE;
+                while (position < victim.end && position < chunkEnd) {
+                    position = copyIfLive(victim, position);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            // The copies must be on disk before the originals are gone
+            current.force();
+            segments.remove(victim.index);
+            for (Segment segment : segments.values()) {
+                Long deleteBytes = segment.deleteBytes.remove(victim.index);
+                if (deleteBytes != null) {
+                    segment.liveBytes -= deleteBytes;
+                }
+            }
+            victim.close();
+            Files.delete(segmentPath(victim.index));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            current.force();
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Segment mostGarbage(double minGarbageRatio) {
+        Segment victim = null;
+        double victimRatio = 0;
+        for (Segment segment : segments.values()) {
+            int used = segment.end - SEGMENT_HEADER_SIZE;
+            if (segment == current || used == 0) {
+                continue;
+            }
+            double garbageRatio = 1 - (double) segment.liveBytes / used;
+            // On a tie the older segment wins, its delete records may make others obsolete
+            if (garbageRatio >= minGarbageRatio && (victim == null || garbageRatio > victimRatio)) {
+                victim = segment;
+                victimRatio = garbageRatio;
+            }
+        }
+        return victim;
+    }
+
+    private int copyIfLive(Segment victim, int position) throws IOException {
+        MappedByteBuffer buffer = victim.buffer;
+        int length = buffer.getInt(position);
+        byte type = buffer.get(position + 2 * Integer.BYTES);
+        long high = buffer.getLong(position + 2 * Integer.BYTES + 1);
+        long low = buffer.getLong(position + 2 * Integer.BYTES + 1 + Long.BYTES);
+        long location = index.get(high, low);
+        if (type == PUT && location == location(victim.index, position)) {
+            byte[] value = new byte[length - 1 - TOKEN_SIZE];
+            buffer.get(position + RECORD_HEADER_SIZE, value);
+            long moved = append(PUT, high, low, value);
+            index.put(high, low, moved);
+            current.liveBytes += recordSize(moved);
+        } else if (type == DELETE && location == 0) {
+            long deletedSegment = buffer.getLong(position + RECORD_HEADER_SIZE);
+            if (deletedSegment != victim.index && segments.containsKey(deletedSegment)) {
+                appendDelete(high, low, deletedSegment);
+            }
+        }
+        return position + 2 * Integer.BYTES + length;
+    }
+
+    private void appendDelete(long high, long low, long deletedSegment) throws IOException {
+        long location = append(DELETE, high, low, ByteBuffer.allocate(Long.BYTES).putLong(deletedSegment).array());
+        if (deletedSegment != current.index) {
+            int size = recordSize(location);
+            current.liveBytes += size;
+            current.deleteBytes.merge(deletedSegment, (long) size, Long::sum);
+        }
+    }
+
+    private long append(byte type, long high, long low, byte[] value) throws IOException {
+        int length = 1 + TOKEN_SIZE + value.length;
+        if (current.end + 2 * Integer.BYTES + length > current.buffer.capacity()) {
+            current.force();
+            current = createSegment(current.index + 1);
+        }
+        MappedByteBuffer buffer = current.buffer;
+        int position = current.end;
+        int payload = position + 2 * Integer.BYTES;
+        buffer.put(payload, type);
+        buffer.putLong(payload + 1, high);
+        buffer.putLong(payload + 1 + Long.BYTES, low);
+        buffer.put(payload + 1 + TOKEN_SIZE, value);
+        crc.reset();
+        crc.update(buffer.slice(payload, length));
+        buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+        // The length goes last, a record without it is not there
+        buffer.putInt(position, length);
+        current.end = payload + length;
+        return location(current.index, position);
+    }
+
+    private void replay(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        CRC32C checksum = new CRC32C();
+        int position = SEGMENT_HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            int payload = position + 2 * Integer.BYTES;
+            if (length < 1 + TOKEN_SIZE || length > buffer.capacity() - payload) {
+                break;
+            }
+            checksum.reset();
+            checksum.update(buffer.slice(payload, length));
+            if ((int) checksum.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                break;
+            }
+            long high = buffer.getLong(payload + 1);
+            long low = buffer.getLong(payload + 1 + Long.BYTES);
+            long previous = buffer.get(payload) == PUT
+                    ? index.put(high, low, location(segment.index, position))
+                    : index.remove(high, low);
+            if (previous != 0) {
+                segments.get(previous >>> 32).liveBytes -= recordSize(previous);
+            }
+            if (buffer.get(payload) == PUT) {
+                segment.liveBytes += 2 * Integer.BYTES + length;
+            } else {
+                long deletedSegment = buffer.getLong(payload + 1 + TOKEN_SIZE);
+                if (deletedSegment != segment.index && segments.containsKey(deletedSegment)) {
+                    segment.liveBytes += 2 * Integer.BYTES + length;
+                    segment.deleteBytes.merge(deletedSegment, (long) (2 * Integer.BYTES + length), Long::sum);
+                }
+            }
+            position = payload + length;
+        }
+        segment.end = position;
+        segment.forced = position;
+    }
+
+    private int recordSize(long location) {
+        return 2 * Integer.BYTES + segments.get(location >>> 32).buffer.getInt((int) location);
+    }
+
+    private Segment createSegment(long segmentIndex) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(segmentIndex),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.putInt(0, MAGIC).putInt(Integer.BYTES, VERSION);
+        Segment segment = new Segment(segmentIndex, channel, buffer);
+        segment.end = SEGMENT_HEADER_SIZE;
+        segments.put(segmentIndex, segment);
+        return segment;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Token store is closed");
+        }
+    }
+
+    private Path segmentPath(long segmentIndex) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX));
+    }
+
+    private static long location(long segmentIndex, int position) {
+        return segmentIndex << 32 | position;
+    }
+
+    private static List<Long> segmentIndexes(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(
+                            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static final class Segment {
+        private final long index;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        // Bytes of the needed delete records by the segment of the record they delete
+        private final Map<Long, Long> deleteBytes = new HashMap<>();
+        private int end;
+        private int forced;
+        // Bytes of records that are still referenced by the index, and of delete records that are still needed
+        private long liveBytes;
+
+        private Segment(long index, FileChannel channel, MappedByteBuffer buffer) {
+            this.index = index;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Opens an existing segment, or returns {@code null} and deletes it if a crash interrupted its creation.
+         */
+        static Segment open(Path path, long index) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            MappedByteBuffer buffer = size >= SEGMENT_HEADER_SIZE
+                    ? channel.map(FileChannel.MapMode.READ_WRITE, 0, size)
+                    : null;
+            if (buffer == null || buffer.getInt(0) == 0) {
+                channel.close();
+                Files.delete(path);
+                return null;
+            }
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+                channel.close();
+                throw new IOException("Not a token segment: " + path);
+            }
+            return new Segment(index, channel, buffer);
+        }
+
+        /**
+         * Zeroes what a torn write left behind the last record, so it cannot be mistaken for records later.
+         */
+        void zeroTail() {
+            int last = buffer.capacity() - 1;
+            while (last >= end && buffer.get(last) == 0) {
+                last--;
+            }
+            for (int position = end; position <= last; position++) {
+                buffer.put(position, (byte) 0);
+            }
+            forced = end;
+            buffer.force();
+        }
+
+        void force() {
+            if (end > forced) {
+                buffer.force(forced, end - forced);
+                forced = end;
+            }
+        }
+
+        void close() throws IOException {
+            force();
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package io.openleap.cvs.token;
+
+import io.openleap.cvs.config.TokenProperties;
+import io.openleap.cvs.core.InvalidIvException;
+import io.openleap.cvs.service.CryptoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaces sensitive values by random tokens, so systems that only pass values along can hold the token
+ * instead. A token is 16 random bytes in URL-safe Base64 and says nothing about its value. The value is
+ * encrypted with the master key and the token as session user ID, so no two values share an initialization
+ * vector, and kept in a {@link TokenStore} under {@link TokenProperties#getDirectory()}. A background thread
+ * compacts the store every {@link TokenProperties#getCompactionInterval() interval}.
+ */
+@Component
+public class TokenVault implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenVault.class);
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    // 16 bytes in Base64 without padding
+    private static final int TOKEN_LENGTH = 22;
+
+    private final TokenProperties properties;
+    private final CryptoService cryptoService;
+    private final SecureRandom random = new SecureRandom();
+    private volatile TokenStore store;
+    private ScheduledExecutorService compactor;
+
+    public TokenVault(TokenProperties properties, CryptoService cryptoService) {
+        this.properties = properties;
+        this.cryptoService = cryptoService;
+    }
+
+    /**
+     * Stores the values and returns a new token for each, in the same order.
+     */
+    public List<String> tokenize(List<String> values) throws GeneralSecurityException, IOException {
+        checkBatchSize(values.size());
+        List<byte[]> tokens = new ArrayList<>(values.size());
+        List<byte[]> cipherTexts = new ArrayList<>(values.size());
+        List<String> result = new ArrayList<>(values.size());
+        for (String value : values) {
+            if (value == null) {
+                throw new IllegalArgumentException("Values must not be null");
+            }
+            byte[] token = new byte[TokenStore.TOKEN_SIZE];
+            random.nextBytes(token);
+            String encodedToken = ENCODER.encodeToString(token);
+            tokens.add(token);
+            cipherTexts.add(cryptoService.encryptWithAesCbc(value, encodedToken).getBytes(StandardCharsets.ISO_8859_1));
+            result.add(encodedToken);
+        }
+        store().put(tokens, cipherTexts);
+        return result;
+    }
+
+    /**
+     * Returns the value of each token, in the same order, or {@code null} for tokens that are unknown,
+     * deleted or not tokens at all.
+     */
+    public List<String> detokenize(List<String> tokens) throws GeneralSecurityException {
+        checkBatchSize(tokens.size());
+        TokenStore current = store();
+        List<String> values = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            byte[] decoded = decode(token);
+            byte[] cipherText = decoded != null ? current.get(decoded) : null;
+            values.add(cipherText != null ? decrypt(cipherText, token) : null);
+        }
+        return values;
+    }
+
+    /**
+     * Deletes the token and its value for good.
+     *
+     * @return {@code false} if the token is unknown
+     */
+    public boolean delete(String token) throws IOException {
+        byte[] decoded = decode(token);
+        return decoded != null && store().delete(decoded);
+    }
+
+    public int size() {
+        return store().size();
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || store != null) {
+            return;
+        }
+        Path directory = Path.of(properties.getDirectory());
+        try {
+            store = new TokenStore(directory, (int) properties.getSegmentSize().toBytes(),
+                    properties.getInitialCapacity(), properties.isSyncWrites());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the token store in " + directory, e);
+        }
+        LOGGER.info("Token vault opened with {} tokens in {} segments", store.size(), store.segmentCount());
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getCompactionInterval().toMillis();
+        compactor.scheduleWithFixedDelay(this::compact, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        TokenStore current = store;
+        if (current == null) {
+            return;
+        }
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        store = null;
+        try {
+            current.close();
+        } catch (IOException e) {
+            LOGGER.error("Failed to close the token store", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return store != null;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server so that in-flight requests still reach the store
+        return 0;
+    }
+
+    void compact() {
+        TokenStore current = store;
+        try {
+            while (current != null && current.compact(properties.getCompactionGarbageRatio())) {
+                LOGGER.info("Compacted a token segment, {} segments left", current.segmentCount());
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Token compaction failed", e);
+        }
+    }
+
+    private String decrypt(byte[] cipherText, String token) throws GeneralSecurityException {
+        try {
+            return cryptoService.decryptWithAesCbc(new String(cipherText, StandardCharsets.ISO_8859_1), token);
+        } catch (InvalidIvException e) {
+            // Encrypted with another master key
+            return null;
+        }
+    }
+
+    TokenStore store() {
+        TokenStore current = store;
+        if (current == null) {
+            throw new IllegalStateException("Token vault is not running");
+        }
+        return current;
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > properties.getMaxBatchSize()) {
+            throw new IllegalArgumentException(
+                    "Batch of " + size + " exceeds the maximum of " + properties.getMaxBatchSize());
+        }
+    }
+
+    private static byte[] decode(String token) {
+        if (token == null || token.length() != TOKEN_LENGTH) {
+            return null;
+        }
+        try {
+            return DECODER.decode(token);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.openleap.cvs.util;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+public class ClientIdResolver {
+    public static final String ANONYMOUS = "anonymous";
+
+    private ClientIdResolver() {
+    }
+
+    /**
+     * Resolves the calling client from the current security context: the {@code client_id} or {@code azp}
+     * claim of a JWT, otherwise the authentication name.
+     */
+    public static String currentClientId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return ANONYMOUS;
+        }
+        if (authentication.getPrincipal() instanceof Jwt jwt) {
+            String clientId = jwt.getClaimAsString("client_id");
+            if (clientId == null) {
+                clientId = jwt.getClaimAsString("azp");
+            }
+            return clientId != null ? clientId : jwt.getSubject();
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,84 @@
+package io.openleap.cvs.warmup;
+
+import io.openleap.cvs.service.CryptoService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.GeneralSecurityException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Generates encrypt/decrypt traffic with throwaway values, both in-process through {@link CryptoService}
+ * and over HTTP against the service's own endpoints, so that the classes and code paths of a real request
+ * are loaded and compiled.
+ * <p>
+ * HTTP responses are not checked: behind the keycloak security chain the requests are rejected, which
+ * still exercises the embedded server, the filter chain and the JSON error path. Without a base URI, e.g.
+ * when no web server is running, only the in-process traffic is generated.
+ */
+public class SyntheticTraffic {
+    private static final String SESSION_USER_ID = "warmup-user";
+
+    private final CryptoService cryptoService;
+    private final HttpClient httpClient;
+    private final URI baseUri;
+
+    public SyntheticTraffic(CryptoService cryptoService, HttpClient httpClient, URI baseUri) {
+        this.cryptoService = cryptoService;
+        this.httpClient = httpClient;
+        this.baseUri = baseUri;
+    }
+
+    /**
+     * Runs one round of synthetic requests.
+     *
+     * @param round the round number, used to vary the values
+     * @return the number of operations performed
+     */
+    public int runRound(int round) throws GeneralSecurityException, IOException, InterruptedException {
+        String value = "warmup value " + round;
+        Map<String, String> data = new LinkedHashMap<>();
+        data.put("objectId", Integer.toString(round));
+        for (int i = 0; i < 8; i++) {
+            data.put("field" + i, value + " " + i);
+        }
+
+        String encrypted = cryptoService.encryptWithAesCbc(value, SESSION_USER_ID);
+        cryptoService.decryptWithAesCbc(encrypted, SESSION_USER_ID);
+        Map<String, String> encryptedData = cryptoService.encryptWithAesCbc(data, SESSION_USER_ID);
+        cryptoService.decryptWithAesCbc(encryptedData, SESSION_USER_ID);
+
+        post("/api/cvs/encrypt", "{\"value\":\"" + value + "\",\"iv\":\"" + SESSION_USER_ID + "\"}");
+        post("/api/cvs/decrypt", "{\"value\":\"" + encrypted + "\",\"iv\":\"" + SESSION_USER_ID + "\"}");
+        post("/api/cvs/encryptList", "{\"data\":" + toJson(data) + ",\"iv\":\"" + SESSION_USER_ID + "\"}");
+        post("/api/cvs/decryptList", "{\"data\":" + toJson(encryptedData) + ",\"iv\":\"" + SESSION_USER_ID + "\"}");
+
+        return 8;
+    }
+
+    private void post(String path, String body) throws IOException, InterruptedException {
+        if (baseUri == null) {
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static String toJson(Map<String, String> data) {
+        StringBuilder json = new StringBuilder("{");
+        data.forEach((key, value) -> {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"').append(key).append("\":\"").append(value).append('"');
+        });
+        return json.append('}').toString();
+    }
+}
@@ -0,0 +1,68 @@
+package io.openleap.cvs.warmup;
+
+import io.openleap.cvs.config.TrainingProperties;
+import io.openleap.cvs.service.CryptoService;
+import org.crac.Core;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+
+/**
+ * Training run used when packaging the service: drives synthetic traffic through the started application,
+ * then either exits (so {@code -XX:ArchiveClassesAtExit} can dump an AppCDS archive) or takes a CRaC
+ * checkpoint of the warmed-up process.
+ */
+@Component
+@ConditionalOnProperty(prefix = "cvs.training", name = "enabled", havingValue = "true")
+public class TrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrainingRun.class);
+
+    private final CryptoService cryptoService;
+    private final TrainingProperties trainingProperties;
+
+    public TrainingRun(CryptoService cryptoService, TrainingProperties trainingProperties) {
+        this.cryptoService = cryptoService;
+        this.trainingProperties = trainingProperties;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        String port = event.getApplicationContext().getEnvironment().getProperty("local.server.port", "8080");
+        long start = System.nanoTime();
+        int operations = 0;
+        SyntheticTraffic traffic = new SyntheticTraffic(
+                cryptoService, HttpClient.newHttpClient(), URI.create("http://localhost:" + port));
+        try {
+            for (int round = 0; round < trainingProperties.getIterations(); round++) {
+                operations += traffic.runRound(round);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Training run aborted after {} operations: {}", operations, e.getMessage());
+        }
+        LOGGER.info("Training run finished {} operations in {} ms", operations, (System.nanoTime() - start) / 1_000_000);
+
+        if (trainingProperties.getMode() == TrainingProperties.Mode.CHECKPOINT) {
+            checkpoint();
+        } else {
+            System.exit(SpringApplication.exit(event.getApplicationContext(), () -> 0));
+        }
+    }
+
+    private void checkpoint() {
+        try {
+            // Lifecycle beans, including CryptoService and its key material, are stopped before the
+            // checkpoint and started again after the restore
+            Core.checkpointRestore();
+            LOGGER.info("Restored from CRaC checkpoint");
+        } catch (Exception e) {
+            LOGGER.warn("CRaC checkpoint failed, continuing without checkpoint: {}", e.getMessage());
+        }
+    }
+}
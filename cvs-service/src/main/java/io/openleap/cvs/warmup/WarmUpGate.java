@@ -0,0 +1,109 @@
+package io.openleap.cvs.warmup;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import io.openleap.cvs.config.WarmUpProperties;
+import io.openleap.cvs.service.CryptoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps a fresh instance out of rotation until its hot paths are compiled. Synthetic traffic runs through
+ * {@link CryptoService} and the HTTP stack until the throughput of consecutive windows stabilizes, then the
+ * Eureka status, registered as {@code STARTING}, is set to {@code UP}.
+ * <p>
+ * The warm-up runs while the {@link ApplicationReadyEvent} is delivered, before Spring Boot switches the
+ * readiness state to {@code ACCEPTING_TRAFFIC}, so the readiness probe reports not ready until it is done.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WarmUpGate implements ApplicationListener<ApplicationReadyEvent> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WarmUpGate.class);
+
+    private final CryptoService cryptoService;
+    private final WarmUpProperties properties;
+    private final ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+
+    public WarmUpGate(CryptoService cryptoService, WarmUpProperties properties,
+                      ObjectProvider<ApplicationInfoManager> applicationInfoManager) {
+        this.cryptoService = cryptoService;
+        this.properties = properties;
+        this.applicationInfoManager = applicationInfoManager;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (properties.isEnabled()) {
+            String port = event.getApplicationContext().getEnvironment().getProperty("local.server.port");
+            HttpClient httpClient = HttpClient.newHttpClient();
+            SyntheticTraffic traffic = new SyntheticTraffic(
+                    cryptoService, httpClient, port != null ? URI.create("http://localhost:" + port) : null);
+            WarmUpResult result = warmUp(traffic::runRound);
+            LOGGER.info("Warm-up finished {} operations in {} ms at {} operations/s, {}", result.operations(),
+                    result.millis(), Math.round(result.throughput()), result.stable() ? "stable" : "not stable");
+        }
+        applicationInfoManager.ifAvailable(manager -> manager.setInstanceStatus(InstanceInfo.InstanceStatus.UP));
+    }
+
+    WarmUpResult warmUp(Round traffic) {
+        long start = System.nanoTime();
+        long deadline = start + properties.getMaxDuration().toNanos();
+        long window = properties.getWindow().toNanos();
+        List<Double> throughputs = new ArrayList<>();
+        long operations = 0;
+        int round = 0;
+        try {
+            while (System.nanoTime() - deadline < 0
+                    && !isStable(throughputs, properties.getStableWindows(), properties.getTolerance())) {
+                long windowStart = System.nanoTime();
+                int windowOperations = 0;
+                do {
+                    windowOperations += traffic.run(round++);
+                } while (System.nanoTime() - windowStart < window);
+                throughputs.add(windowOperations * 1e9 / (System.nanoTime() - windowStart));
+                operations += windowOperations;
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Warm-up aborted after {} operations: {}", operations, e.getMessage());
+        }
+        return new WarmUpResult(operations, (System.nanoTime() - start) / 1_000_000,
+                throughputs.isEmpty() ? 0 : throughputs.get(throughputs.size() - 1),
+                isStable(throughputs, properties.getStableWindows(), properties.getTolerance()));
+    }
+
+    /**
+     * Whether each of the last {@code stableWindows} throughputs is within {@code tolerance} of the one
+     * before it.
+     */
+    static boolean isStable(List<Double> throughputs, int stableWindows, double tolerance) {
+        if (throughputs.size() <= stableWindows) {
+            return false;
+        }
+        for (int i = throughputs.size() - stableWindows; i < throughputs.size(); i++) {
+            double previous = throughputs.get(i - 1);
+            if (Math.abs(throughputs.get(i) - previous) > tolerance * previous) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    interface Round {
+        int run(int round) throws Exception;
+    }
+
+    record WarmUpResult(long operations, long millis, double throughput, boolean stable) {
+    }
+}
@@ -0,0 +1,301 @@
+package io.openleap.cvs.web;
+
+import io.openleap.cvs.core.AESUtil;
+import io.openleap.cvs.core.DecryptStatus;
+import io.openleap.cvs.core.EntryCipher;
+import io.openleap.cvs.core.InvalidIvException;
+import io.openleap.cvs.core.OutputBuffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A CBOR map of string fields kept as the bytes it was read from or written to, the binary counterpart of
+ * {@link JsonEntries}. Encrypted values are CBOR byte strings holding the raw cipher text, without the Base64
+ * and URL encoding of JSON; decryption also accepts the transport-encoded text of the JSON endpoints.
+ * <p>
+ * The {@link Map} view, which is read-only, shows byte strings in their transport encoding, so results can be
+ * handled like those of every other path.
+ */
+public final class CborEntries extends AbstractMap<String, String> implements EncodedEntries {
+    private static final String OBJECT_ID = "objectId";
+    private static final byte[] OBJECT_ID_BYTES = OBJECT_ID.getBytes(StandardCharsets.US_ASCII);
+    // Key start, key end, value start, value end and the major type of the value
+    private static final int SLOT_SIZE = 5;
+
+    private final byte[] cbor;
+    private final int start;
+    private final int end;
+    private final int[] slots;
+    private final int size;
+    private final OutputBuffer buffer;
+    private final long plaintextBytes;
+
+    private CborEntries(byte[] cbor, int start, int end, int[] slots, int size, OutputBuffer buffer,
+                        long plaintextBytes) {
+        this.cbor = cbor;
+        this.start = start;
+        this.end = end;
+        this.slots = slots;
+        this.size = size;
+        this.buffer = buffer;
+        this.plaintextBytes = plaintextBytes;
+    }
+
+    /**
+     * Reads a map of text keys and string values at the scanner's position.
+     *
+     * @param binaryValues whether values may be byte strings, which only cipher texts are
+     * @return null if the map contains anything else or duplicate keys
+     */
+    static CborEntries scan(CborScanner scanner, boolean binaryValues) {
+        int mapStart = scanner.position();
+        int entries = scanner.scanMap();
+        if (entries < 0) {
+            return null;
+        }
+        int[] slots = new int[entries * SLOT_SIZE];
+        for (int i = 0; i < entries; i++) {
+            if (!scanner.scanString() || scanner.stringType() != CborScanner.TEXT) {
+                return null;
+            }
+            int slot = i * SLOT_SIZE;
+            slots[slot] = scanner.stringStart();
+            slots[slot + 1] = scanner.stringEnd();
+            if (!scanner.scanString() || !binaryValues && scanner.stringType() == CborScanner.BYTES) {
+                return null;
+            }
+            slots[slot + 2] = scanner.stringStart();
+            slots[slot + 3] = scanner.stringEnd();
+            slots[slot + 4] = scanner.stringType();
+        }
+        CborEntries result = new CborEntries(scanner.cbor(), mapStart, scanner.position(), slots, entries, null, -1);
+        return result.hasDuplicateKeys() ? null : result;
+    }
+
+    @Override
+    public CborEntries encrypt(EntryCipher cipher) throws GeneralSecurityException {
+        OutputBuffer out = OutputBuffer.acquire();
+        OutputBuffer cipherText = OutputBuffer.acquire();
+        try {
+            int[] resultSlots = new int[size * SLOT_SIZE];
+            long plaintextLength = 0;
+            CborScanner.appendHeader(out, CborScanner.MAP, size);
+            for (int i = 0; i < size; i++) {
+                int slot = i * SLOT_SIZE;
+                appendKey(out, slot, resultSlots);
+                int length = slots[slot + 3] - slots[slot + 2];
+                if (isObjectId(slot)) {
+                    CborScanner.appendHeader(out, slots[slot + 4], length);
+                    resultSlots[slot + 2] = out.length();
+                    out.append(cbor, slots[slot + 2], length);
+                    resultSlots[slot + 4] = slots[slot + 4];
+                } else {
+                    cipherText.reset();
+                    cipher.encryptRaw(cbor, slots[slot + 2], length, cipherText);
+                    plaintextLength += length;
+                    CborScanner.appendHeader(out, CborScanner.BYTES, cipherText.length());
+                    resultSlots[slot + 2] = out.length();
+                    out.append(cipherText.array(), 0, cipherText.length());
+                    resultSlots[slot + 4] = CborScanner.BYTES;
+                }
+                resultSlots[slot + 3] = out.length();
+            }
+            return new CborEntries(out.array(), 0, out.length(), resultSlots, size, out, plaintextLength);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            out.release();
+            throw e;
+        } finally {
+            cipherText.release();
+        }
+    }
+
+    @Override
+    public CborEntries decrypt(EntryCipher cipher) throws GeneralSecurityException {
+        OutputBuffer out = OutputBuffer.acquire();
+        OutputBuffer plaintext = OutputBuffer.acquire();
+        try {
+            int[] resultSlots = new int[size * SLOT_SIZE];
+            long plaintextLength = 0;
+            CborScanner.appendHeader(out, CborScanner.MAP, size);
+            for (int i = 0; i < size; i++) {
+                int slot = i * SLOT_SIZE;
+                appendKey(out, slot, resultSlots);
+                int length = slots[slot + 3] - slots[slot + 2];
+                if (isObjectId(slot)) {
+                    CborScanner.appendHeader(out, slots[slot + 4], length);
+                    resultSlots[slot + 2] = out.length();
+                    out.append(cbor, slots[slot + 2], length);
+                    resultSlots[slot + 4] = slots[slot + 4];
+                } else {
+                    plaintext.reset();
+                    DecryptStatus status = slots[slot + 4] == CborScanner.BYTES
+                            ? cipher.decryptRaw(cbor, slots[slot + 2], length, plaintext)
+                            : cipher.decrypt(cbor, slots[slot + 2], length, plaintext);
+                    if (status != DecryptStatus.OK) {
+                        throw new InvalidIvException(status == DecryptStatus.AUTH_FAILURE
+                                ? "Tag mismatch" : "Malformed cipher text");
+                    }
+                    plaintextLength += plaintext.length();
+                    CborScanner.appendHeader(out, CborScanner.TEXT, plaintext.length());
+                    resultSlots[slot + 2] = out.length();
+                    out.append(plaintext.array(), 0, plaintext.length());
+                    resultSlots[slot + 4] = CborScanner.TEXT;
+                }
+                resultSlots[slot + 3] = out.length();
+            }
+            return new CborEntries(out.array(), 0, out.length(), resultSlots, size, out, plaintextLength);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            out.release();
+            throw e;
+        } finally {
+            plaintext.release();
+        }
+    }
+
+    /**
+     * Writes the map as CBOR and, for results, returns the buffer to the pool.
+     */
+    void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(cbor, start, end - start);
+        if (buffer != null) {
+            buffer.release();
+        }
+    }
+
+    int contentLength() {
+        return end - start;
+    }
+
+    @Override
+    public long plaintextBytes() {
+        return plaintextBytes;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String get(Object key) {
+        int slot = slotOf(key);
+        return slot < 0 ? null : value(slot);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return slotOf(key) >= 0;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < size;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (index >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        int slot = index++ * SLOT_SIZE;
+                        return new SimpleImmutableEntry<>(key(slot), value(slot));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void appendKey(OutputBuffer out, int slot, int[] resultSlots) {
+        CborScanner.appendHeader(out, CborScanner.TEXT, slots[slot + 1] - slots[slot]);
+        resultSlots[slot] = out.length();
+        out.append(cbor, slots[slot], slots[slot + 1] - slots[slot]);
+        resultSlots[slot + 1] = out.length();
+    }
+
+    private boolean isObjectId(int slot) {
+        return Arrays.equals(cbor, slots[slot], slots[slot + 1], OBJECT_ID_BYTES, 0, OBJECT_ID_BYTES.length);
+    }
+
+    private boolean hasDuplicateKeys() {
+        if (size < 2) {
+            return false;
+        }
+        int[] table = new int[Integer.highestOneBit(size * 2 - 1) << 1];
+        int mask = table.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = i * SLOT_SIZE;
+            int bucket = keyHash(slot) & mask;
+            while (table[bucket] != 0) {
+                int other = (table[bucket] - 1) * SLOT_SIZE;
+                if (Arrays.equals(cbor, slots[slot], slots[slot + 1], cbor, slots[other], slots[other + 1])) {
+                    return true;
+                }
+                bucket = (bucket + 1) & mask;
+            }
+            table[bucket] = i + 1;
+        }
+        return false;
+    }
+
+    private int keyHash(int slot) {
+        int hash = 1;
+        for (int i = slots[slot]; i < slots[slot + 1]; i++) {
+            hash = 31 * hash + cbor[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private int slotOf(Object key) {
+        if (!(key instanceof String name)) {
+            return -1;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        for (int slot = 0; slot < size * SLOT_SIZE; slot += SLOT_SIZE) {
+            if (Arrays.equals(cbor, slots[slot], slots[slot + 1], bytes, 0, bytes.length)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private String key(int slot) {
+        return new String(cbor, slots[slot], slots[slot + 1] - slots[slot], StandardCharsets.UTF_8);
+    }
+
+    private String value(int slot) {
+        int length = slots[slot + 3] - slots[slot + 2];
+        if (slots[slot + 4] == CborScanner.TEXT) {
+            return new String(cbor, slots[slot + 2], length, StandardCharsets.UTF_8);
+        }
+        OutputBuffer encoded = OutputBuffer.acquire();
+        try {
+            AESUtil.appendCipherText(cbor, slots[slot + 2], length, encoded);
+            return new String(encoded.array(), 0, encoded.length(), StandardCharsets.US_ASCII);
+        } finally {
+            encoded.release();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package io.openleap.cvs.web;
+
+import io.openleap.cvs.controller.dto.DecryptListRequestDto;
+import io.openleap.cvs.controller.dto.EncryptListRequestDto;
+import io.openleap.cvs.controller.dto.error.ErrorResponse;
+import io.openleap.cvs.core.OutputBuffer;
+import io.openleap.cvs.jfr.RequestParseEvent;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads {@code /encryptList} and {@code /decryptList} requests sent as {@code application/cbor} and writes
+ * their {@link CborEntries} results, so binary callers exchange cipher texts as raw bytes. A request is a CBOR
+ * map with the fields {@code data}, a map of text values (or byte strings holding cipher texts to decrypt),
+ * and {@code iv}, a text or null. Anything else is rejected, since there is no general CBOR reader to hand it
+ * to. Error responses are written as CBOR too, for clients that accept nothing else.
+ * <p>
+ * It is registered after Jackson by {@link io.openleap.cvs.config.MessageConverterConfig}, so clients that
+ * accept any type keep getting JSON.
+ */
+public class CborListConverter extends AbstractHttpMessageConverter<Object> {
+    private static final byte[] DATA = "data".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IV = "iv".getBytes(StandardCharsets.US_ASCII);
+
+    // The engine encodes strings with the platform charset, CBOR text is always UTF-8
+    private final boolean enabled = StandardCharsets.UTF_8.equals(Charset.defaultCharset());
+
+    public CborListConverter() {
+        super(MediaType.APPLICATION_CBOR);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == EncryptListRequestDto.class || clazz == DecryptListRequestDto.class
+                || clazz == CborEntries.class || clazz == ErrorResponse.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return enabled && (clazz == EncryptListRequestDto.class || clazz == DecryptListRequestDto.class)
+                && super.canRead(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return (clazz == CborEntries.class || clazz == ErrorResponse.class) && super.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        RequestParseEvent event = new RequestParseEvent();
+        event.begin();
+        byte[] body = ListRequestConverter.readBody(inputMessage.getBody(),
+                inputMessage.getHeaders().getContentLength());
+        Object request = scan(clazz, body);
+        if (request == null) {
+            throw new HttpMessageNotReadableException(
+                    "CBOR list request must be a map of data, with UTF-8 text values, and iv", inputMessage);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.bytes = body.length;
+            event.entries = clazz == EncryptListRequestDto.class
+                    ? ((EncryptListRequestDto) request).data().size()
+                    : ((DecryptListRequestDto) request).data().size();
+            event.fastPath = true;
+            event.commit();
+        }
+        return request;
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        if (value instanceof CborEntries entries) {
+            entries.writeTo(outputMessage.getBody());
+            return;
+        }
+        ErrorResponse error = (ErrorResponse) value;
+        OutputBuffer out = OutputBuffer.acquire();
+        try {
+            CborScanner.appendHeader(out, CborScanner.MAP, 3);
+            CborScanner.appendText(out, "message");
+            CborScanner.appendText(out, error.message());
+            CborScanner.appendText(out, "exceptionClassName");
+            CborScanner.appendText(out, error.exceptionClassName());
+            CborScanner.appendText(out, "exceptionTime");
+            CborScanner.appendText(out, error.exceptionTime() != null ? error.exceptionTime().toString() : null);
+            out.writeTo(outputMessage.getBody());
+        } finally {
+            out.release();
+        }
+    }
+
+    @Override
+    protected Long getContentLength(Object value, MediaType contentType) {
+        return value instanceof CborEntries entries ? (long) entries.contentLength() : null;
+    }
+
+    /**
+     * @return the request, or null if it is not a valid list request
+     */
+    private static Object scan(Class<?> clazz, byte[] body) {
+        CborScanner scanner = new CborScanner(body, 0, body.length);
+        scanner.skipSelfDescribeTag();
+        int fields = scanner.scanMap();
+        CborEntries data = null;
+        String iv = null;
+        boolean ivSeen = false;
+        for (int i = 0; i < fields; i++) {
+            if (!scanner.scanString() || scanner.stringType() != CborScanner.TEXT) {
+                return null;
+            }
+            if (isField(scanner, DATA) && data == null) {
+                data = CborEntries.scan(scanner, clazz == DecryptListRequestDto.class);
+                if (data == null) {
+                    return null;
+                }
+            } else if (isField(scanner, IV) && !ivSeen) {
+                ivSeen = true;
+                if (!scanner.consumeNull()) {
+                    if (!scanner.scanString() || scanner.stringType() != CborScanner.TEXT) {
+                        return null;
+                    }
+                    iv = new String(body, scanner.stringStart(), scanner.stringEnd() - scanner.stringStart(),
+                            StandardCharsets.UTF_8);
+                }
+            } else {
+                return null;
+            }
+        }
+        if (data == null || !scanner.atEnd()) {
+            return null;
+        }
+        return clazz == EncryptListRequestDto.class
+                ? new EncryptListRequestDto(data, iv)
+                : new DecryptListRequestDto(data, iv);
+    }
+
+    private static boolean isField(CborScanner scanner, byte[] name) {
+        return Arrays.equals(scanner.cbor(), scanner.stringStart(), scanner.stringEnd(), name, 0, name.length);
+    }
+}
@@ -0,0 +1,188 @@
+package io.openleap.cvs.web;
+
+import io.openleap.cvs.core.OutputBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads and writes the few CBOR (RFC 8949) items list requests consist of: maps, text and byte strings and null,
+ * all of definite length. Like {@link JsonScanner} it only marks where strings lie and never copies them.
+ */
+final class CborScanner {
+    static final int BYTES = 2;
+    static final int TEXT = 3;
+    static final int MAP = 5;
+    private static final int NULL = 0xf6;
+    // Tag 55799, which a sender may put in front to mark the body as CBOR
+    private static final int SELF_DESCRIBE_TAG = 0xd9d9f7;
+
+    private final byte[] cbor;
+    private final int end;
+    private int position;
+    private int stringType;
+    private int stringStart;
+    private int stringEnd;
+
+    CborScanner(byte[] cbor, int start, int end) {
+        this.cbor = cbor;
+        this.position = start;
+        this.end = end;
+    }
+
+    byte[] cbor() {
+        return cbor;
+    }
+
+    int position() {
+        return position;
+    }
+
+    boolean atEnd() {
+        return position == end;
+    }
+
+    void skipSelfDescribeTag() {
+        if (end - position >= 3 && ((cbor[position] & 0xff) << 16 | (cbor[position + 1] & 0xff) << 8
+                | (cbor[position + 2] & 0xff)) == SELF_DESCRIBE_TAG) {
+            position += 3;
+        }
+    }
+
+    boolean consumeNull() {
+        if (position < end && (cbor[position] & 0xff) == NULL) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads the header of a map.
+     *
+     * @return the number of entries, or -1 if there is no map of definite length
+     */
+    int scanMap() {
+        if (position >= end || (cbor[position] & 0xff) >> 5 != MAP) {
+            return -1;
+        }
+        int start = position;
+        long entries = argument();
+        // Every entry takes at least two bytes, which also bounds what a caller allocates for the entries
+        if (entries < 0 || entries > (end - position) / 2) {
+            position = start;
+            return -1;
+        }
+        return (int) entries;
+    }
+
+    /**
+     * Reads a text or byte string of definite length. Text strings must be well-formed UTF-8 (RFC 8949,
+     * section 3.1), as {@link JsonScanner} requires of JSON strings.
+     */
+    boolean scanString() {
+        if (position >= end) {
+            return false;
+        }
+        int type = (cbor[position] & 0xff) >> 5;
+        if (type != TEXT && type != BYTES) {
+            return false;
+        }
+        int start = position;
+        long length = argument();
+        if (length < 0 || length > end - position
+                || type == TEXT && !isUtf8(cbor, position, position + (int) length)) {
+            position = start;
+            return false;
+        }
+        stringType = type;
+        stringStart = position;
+        stringEnd = position + (int) length;
+        position = stringEnd;
+        return true;
+    }
+
+    int stringType() {
+        return stringType;
+    }
+
+    int stringStart() {
+        return stringStart;
+    }
+
+    int stringEnd() {
+        return stringEnd;
+    }
+
+    /**
+     * Appends the header of a string or map of {@code length} bytes or entries.
+     */
+    static void appendHeader(OutputBuffer out, int majorType, int length) {
+        int type = majorType << 5;
+        if (length < 24) {
+            out.append((byte) (type | length));
+        } else if (length < 0x100) {
+            out.append((byte) (type | 24));
+            out.append((byte) length);
+        } else if (length < 0x10000) {
+            out.append((byte) (type | 25));
+            out.append((byte) (length >> 8));
+            out.append((byte) length);
+        } else {
+            out.append((byte) (type | 26));
+            out.append((byte) (length >> 24));
+            out.append((byte) (length >> 16));
+            out.append((byte) (length >> 8));
+            out.append((byte) length);
+        }
+    }
+
+    /**
+     * Appends a text string, or null.
+     */
+    static void appendText(OutputBuffer out, String text) {
+        if (text == null) {
+            out.append((byte) NULL);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        appendHeader(out, TEXT, bytes.length);
+        out.append(bytes, 0, bytes.length);
+    }
+
+    private static boolean isUtf8(byte[] bytes, int start, int end) {
+        int i = start;
+        while (i < end) {
+            if (bytes[i] >= 0) {
+                i++;
+            } else {
+                int length = JsonScanner.utf8Length(bytes, i, end);
+                if (length < 0) {
+                    return false;
+                }
+                i += length;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the initial byte and the argument that follows it.
+     *
+     * @return the argument, or -1 if it is indefinite, reserved, truncated or does not fit an int
+     */
+    private long argument() {
+        int info = cbor[position++] & 0x1f;
+        if (info < 24) {
+            return info;
+        }
+        int bytes = info == 24 ? 1 : info == 25 ? 2 : info == 26 ? 4 : info == 27 ? 8 : 0;
+        if (bytes == 0 || end - position < bytes) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = value << 8 | (cbor[position++] & 0xff);
+        }
+        return value >= 0 && value <= Integer.MAX_VALUE ? value : -1;
+    }
+}
@@ -0,0 +1,46 @@
+package io.openleap.cvs.web;
+
+import io.openleap.cvs.controller.BulkJobController;
+import io.openleap.cvs.controller.CryptoVaultController;
+import io.openleap.cvs.controller.DocumentController;
+import io.openleap.cvs.controller.FlightRecordingController;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Buffers the API responses so they are sent with a {@code Content-Length}. Tomcat compresses every response
+ * of unknown length, so without it {@code server.compression.min-response-size} would not apply and small
+ * responses would be gzipped at a loss. List responses and documents set their length themselves, bulk job
+ * results and recordings are streamed; all of them are left alone.
+ */
+@Component
+public class ContentLengthFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !uri.startsWith("/api/") || uri.startsWith(BulkJobController.PATH)
+                || uri.startsWith(FlightRecordingController.PATH) || uri.equals(DocumentController.ENCRYPT_PATH)
+                || uri.equals(DocumentController.DECRYPT_PATH)
+                || uri.equals(CryptoVaultController.PATH + CryptoVaultController.ENCRYPT_LIST_PATH)
+                || uri.equals(CryptoVaultController.PATH + CryptoVaultController.DECRYPT_LIST_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, responseWrapper);
+        } finally {
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+}
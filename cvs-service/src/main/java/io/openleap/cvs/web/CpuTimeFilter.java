@@ -0,0 +1,43 @@
+package io.openleap.cvs.web;
+
+import io.openleap.cvs.metering.UsageMeter;
+import io.openleap.cvs.util.ClientIdResolver;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Charges the CPU time of every API request, including reading the body and writing the response, to the
+ * calling client. The security filter chains add it before authentication, so validating the credentials and
+ * rejected requests are charged as well, and the client is known when the request ends. It is not registered
+ * with the servlet container on its own.
+ */
+@Component
+public class CpuTimeFilter extends OncePerRequestFilter {
+    private final UsageMeter usageMeter;
+
+    public CpuTimeFilter(UsageMeter usageMeter) {
+        this.usageMeter = usageMeter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !usageMeter.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long startCpuTime = usageMeter.currentThreadCpuTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            usageMeter.recordCpuTime(ClientIdResolver.currentClientId(), startCpuTime);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package io.openleap.cvs.web;
+
+import io.openleap.cvs.core.EntryCipher;
+
+import java.security.GeneralSecurityException;
+import java.util.Map;
+
+/**
+ * The {@code data} of a list request kept in the encoding it was read in, so it can be encrypted or decrypted
+ * entry by entry into a result of the same encoding without building strings for the values. The {@link Map}
+ * view is read-only.
+ */
+public interface EncodedEntries extends Map<String, String> {
+
+    /**
+     * Encrypts every value except {@code objectId}, which is passed through.
+     */
+    EncodedEntries encrypt(EntryCipher cipher) throws GeneralSecurityException;
+
+    /**
+     * Decrypts every value except {@code objectId}, which is passed through. Fails as a whole if any value
+     * does not decrypt.
+     *
+     * @throws io.openleap.cvs.core.InvalidIvException if a value is malformed or does not match the key and IV
+     */
+    EncodedEntries decrypt(EntryCipher cipher) throws GeneralSecurityException;
+
+    /**
+     * Returns the UTF-8 length of the plaintext values that were encrypted or decrypted into this result, or
+     * -1 if it was not produced by {@link #encrypt} or {@link #decrypt}.
+     */
+    long plaintextBytes();
+}
@@ -0,0 +1,342 @@
+package io.openleap.cvs.web;
+
+import io.openleap.cvs.core.DecryptStatus;
+import io.openleap.cvs.core.EntryCipher;
+import io.openleap.cvs.core.InvalidIvException;
+import io.openleap.cvs.core.OutputBuffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A JSON object of string fields kept as the bytes it was read from or written to. Keys and values are only
+ * turned into strings when they are accessed through the {@link Map} view, which is read-only.
+ * <p>
+ * {@link ListRequestConverter} reads the {@code data} of list requests into this form, {@link #encrypt} and
+ * {@link #decrypt} process it entry by entry into a pooled {@link OutputBuffer}, and the converter writes
+ * the resulting bytes as the response. Keys are echoed without being decoded.
+ */
+public final class JsonEntries extends AbstractMap<String, String> implements EncodedEntries {
+    private static final String OBJECT_ID = "objectId";
+    private static final byte[] OBJECT_ID_BYTES = OBJECT_ID.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    // Key start, key end, value start, value end and whether the value is escaped
+    private static final int SLOT_SIZE = 5;
+
+    private final byte[] json;
+    private final int start;
+    private final int end;
+    private final int[] slots;
+    private final int size;
+    private final OutputBuffer buffer;
+    private final long plaintextBytes;
+
+    private JsonEntries(byte[] json, int start, int end, int[] slots, int size, OutputBuffer buffer,
+                        long plaintextBytes) {
+        this.json = json;
+        this.start = start;
+        this.end = end;
+        this.slots = slots;
+        this.size = size;
+        this.buffer = buffer;
+        this.plaintextBytes = plaintextBytes;
+    }
+
+    /**
+     * Reads an object of string fields at the scanner's position.
+     *
+     * @return null if the object contains anything else, escaped or duplicate keys
+     */
+    static JsonEntries scan(JsonScanner scanner) {
+        int objectStart = scanner.position();
+        if (!scanner.consume('{')) {
+            return null;
+        }
+        int[] slots = new int[16 * SLOT_SIZE];
+        int size = 0;
+        if (!scanner.consume('}')) {
+            do {
+                if (!scanner.scanString() || scanner.stringEscaped()) {
+                    return null;
+                }
+                int keyStart = scanner.stringStart();
+                int keyEnd = scanner.stringEnd();
+                if (!scanner.consume(':') || !scanner.scanString()) {
+                    return null;
+                }
+                if ((size + 1) * SLOT_SIZE > slots.length) {
+                    slots = Arrays.copyOf(slots, slots.length * 2);
+                }
+                int slot = size++ * SLOT_SIZE;
+                slots[slot] = keyStart;
+                slots[slot + 1] = keyEnd;
+                slots[slot + 2] = scanner.stringStart();
+                slots[slot + 3] = scanner.stringEnd();
+                slots[slot + 4] = scanner.stringEscaped() ? 1 : 0;
+            } while (scanner.consume(','));
+            if (!scanner.consume('}')) {
+                return null;
+            }
+        }
+        JsonEntries entries = new JsonEntries(scanner.json(), objectStart, scanner.position(), slots, size, null, -1);
+        // A map keeps only the last of duplicate keys, leave that to Jackson
+        return entries.hasDuplicateKeys() ? null : entries;
+    }
+
+    @Override
+    public JsonEntries encrypt(EntryCipher cipher) throws GeneralSecurityException {
+        OutputBuffer out = OutputBuffer.acquire();
+        try {
+            int[] resultSlots = new int[size * SLOT_SIZE];
+            long plaintextLength = 0;
+            out.append((byte) '{');
+            for (int i = 0; i < size; i++) {
+                int slot = i * SLOT_SIZE;
+                int valueStart = appendKey(out, slot, i, resultSlots);
+                if (isObjectId(slot)) {
+                    out.append(json, slots[slot + 2], slots[slot + 3] - slots[slot + 2]);
+                    resultSlots[slot + 4] = slots[slot + 4];
+                } else if (slots[slot + 4] == 0) {
+                    cipher.encrypt(json, slots[slot + 2], slots[slot + 3] - slots[slot + 2], out);
+                    plaintextLength += slots[slot + 3] - slots[slot + 2];
+                } else {
+                    byte[] value = value(slot).getBytes(StandardCharsets.UTF_8);
+                    cipher.encrypt(value, 0, value.length, out);
+                    plaintextLength += value.length;
+                }
+                resultSlots[slot + 2] = valueStart;
+                resultSlots[slot + 3] = out.length();
+                out.append((byte) '"');
+            }
+            out.append((byte) '}');
+            return new JsonEntries(out.array(), 0, out.length(), resultSlots, size, out, plaintextLength);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            out.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public JsonEntries decrypt(EntryCipher cipher) throws GeneralSecurityException {
+        OutputBuffer out = OutputBuffer.acquire();
+        OutputBuffer plaintext = OutputBuffer.acquire();
+        try {
+            int[] resultSlots = new int[size * SLOT_SIZE];
+            long plaintextLength = 0;
+            out.append((byte) '{');
+            for (int i = 0; i < size; i++) {
+                int slot = i * SLOT_SIZE;
+                int valueStart = appendKey(out, slot, i, resultSlots);
+                if (isObjectId(slot)) {
+                    out.append(json, slots[slot + 2], slots[slot + 3] - slots[slot + 2]);
+                    resultSlots[slot + 4] = slots[slot + 4];
+                } else {
+                    plaintext.reset();
+                    DecryptStatus status;
+                    if (slots[slot + 4] == 0) {
+                        status = cipher.decrypt(json, slots[slot + 2], slots[slot + 3] - slots[slot + 2], plaintext);
+                    } else {
+                        byte[] value = value(slot).getBytes(StandardCharsets.UTF_8);
+                        status = cipher.decrypt(value, 0, value.length, plaintext);
+                    }
+                    if (status != DecryptStatus.OK) {
+                        throw new InvalidIvException(status == DecryptStatus.AUTH_FAILURE
+                                ? "Tag mismatch" : "Malformed cipher text");
+                    }
+                    resultSlots[slot + 4] = appendEscaped(out, plaintext.array(), plaintext.length()) ? 1 : 0;
+                    plaintextLength += plaintext.length();
+                }
+                resultSlots[slot + 2] = valueStart;
+                resultSlots[slot + 3] = out.length();
+                out.append((byte) '"');
+            }
+            out.append((byte) '}');
+            return new JsonEntries(out.array(), 0, out.length(), resultSlots, size, out, plaintextLength);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            out.release();
+            throw e;
+        } finally {
+            plaintext.release();
+        }
+    }
+
+    /**
+     * Writes the object as JSON and, for results, returns the buffer to the pool.
+     */
+    void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(json, start, end - start);
+        if (buffer != null) {
+            buffer.release();
+        }
+    }
+
+    int contentLength() {
+        return end - start;
+    }
+
+    @Override
+    public long plaintextBytes() {
+        return plaintextBytes;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String get(Object key) {
+        int slot = slotOf(key);
+        return slot < 0 ? null : value(slot);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return slotOf(key) >= 0;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < size;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (index >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        int slot = index++ * SLOT_SIZE;
+                        return new SimpleImmutableEntry<>(key(slot), value(slot));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int appendKey(OutputBuffer out, int slot, int index, int[] resultSlots) {
+        if (index > 0) {
+            out.append((byte) ',');
+        }
+        out.append((byte) '"');
+        resultSlots[slot] = out.length();
+        out.append(json, slots[slot], slots[slot + 1] - slots[slot]);
+        resultSlots[slot + 1] = out.length();
+        out.append((byte) '"');
+        out.append((byte) ':');
+        out.append((byte) '"');
+        return out.length();
+    }
+
+    /**
+     * Appends UTF-8 text as the content of a JSON string, escaped the way Jackson escapes it.
+     *
+     * @return whether anything had to be escaped
+     */
+    private static boolean appendEscaped(OutputBuffer out, byte[] text, int length) {
+        boolean escaped = false;
+        int runStart = 0;
+        for (int i = 0; i < length; i++) {
+            int c = text[i];
+            if (c >= 0x20 && c != '"' && c != '\\' || c < 0) {
+                continue;
+            }
+            escaped = true;
+            out.append(text, runStart, i - runStart);
+            out.append((byte) '\\');
+            switch (c) {
+                case '"', '\\' -> out.append((byte) c);
+                case '\b' -> out.append((byte) 'b');
+                case '\f' -> out.append((byte) 'f');
+                case '\n' -> out.append((byte) 'n');
+                case '\r' -> out.append((byte) 'r');
+                case '\t' -> out.append((byte) 't');
+                default -> {
+                    out.append((byte) 'u');
+                    out.append((byte) '0');
+                    out.append((byte) '0');
+                    out.append(HEX[c >> 4]);
+                    out.append(HEX[c & 0xf]);
+                }
+            }
+            runStart = i + 1;
+        }
+        out.append(text, runStart, length - runStart);
+        return escaped;
+    }
+
+    private boolean isObjectId(int slot) {
+        return Arrays.equals(json, slots[slot], slots[slot + 1], OBJECT_ID_BYTES, 0, OBJECT_ID_BYTES.length);
+    }
+
+    private boolean hasDuplicateKeys() {
+        if (size < 2) {
+            return false;
+        }
+        int[] table = new int[Integer.highestOneBit(size * 2 - 1) << 1];
+        int mask = table.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = i * SLOT_SIZE;
+            int bucket = keyHash(slot) & mask;
+            while (table[bucket] != 0) {
+                int other = (table[bucket] - 1) * SLOT_SIZE;
+                if (Arrays.equals(json, slots[slot], slots[slot + 1], json, slots[other], slots[other + 1])) {
+                    return true;
+                }
+                bucket = (bucket + 1) & mask;
+            }
+            table[bucket] = i + 1;
+        }
+        return false;
+    }
+
+    private int keyHash(int slot) {
+        int hash = 1;
+        for (int i = slots[slot]; i < slots[slot + 1]; i++) {
+            hash = 31 * hash + json[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private int slotOf(Object key) {
+        if (!(key instanceof String name)) {
+            return -1;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        for (int slot = 0; slot < size * SLOT_SIZE; slot += SLOT_SIZE) {
+            if (Arrays.equals(json, slots[slot], slots[slot + 1], bytes, 0, bytes.length)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private String key(int slot) {
+        return new String(json, slots[slot], slots[slot + 1] - slots[slot], StandardCharsets.UTF_8);
+    }
+
+    private String value(int slot) {
+        return JsonScanner.decode(json, slots[slot + 2], slots[slot + 3], slots[slot + 4] != 0);
+    }
+}
@@ -0,0 +1,225 @@
+package io.openleap.cvs.web;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal JSON tokenizer over a byte array for the request shapes of the list endpoints. It only recognizes
+ * what these requests normally contain: objects, strings and {@code null}. Anything else, including invalid
+ * JSON, makes it return {@code false} so the caller can fall back to Jackson, which then decides how to read
+ * or reject the input.
+ */
+class JsonScanner {
+    private final byte[] json;
+    private final int end;
+    private int position;
+    private int stringStart;
+    private int stringEnd;
+    private boolean stringEscaped;
+
+    JsonScanner(byte[] json, int offset, int length) {
+        this.json = json;
+        this.position = offset;
+        this.end = offset + length;
+    }
+
+    byte[] json() {
+        return json;
+    }
+
+    int position() {
+        return position;
+    }
+
+    /**
+     * Skips whitespace and returns the next byte without consuming it, or -1 at the end of the input.
+     */
+    int peek() {
+        while (position < end) {
+            byte c = json[position];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+            position++;
+        }
+        return -1;
+    }
+
+    boolean consume(char expected) {
+        if (peek() != expected) {
+            return false;
+        }
+        position++;
+        return true;
+    }
+
+    boolean consumeNull() {
+        if (peek() != 'n' || position + 4 > end || json[position + 1] != 'u' || json[position + 2] != 'l'
+                || json[position + 3] != 'l') {
+            return false;
+        }
+        position += 4;
+        return true;
+    }
+
+    /**
+     * Scans a string. Its content without the quotes is then available through {@link #stringStart()} and
+     * {@link #stringEnd()}; {@link #stringEscaped()} tells whether it contains escape sequences.
+     *
+     * @return false if there is no valid string at the current position
+     */
+    boolean scanString() {
+        if (peek() != '"') {
+            return false;
+        }
+        int i = position + 1;
+        boolean escaped = false;
+        while (i < end) {
+            int c = json[i];
+            if (c == '"') {
+                stringStart = position + 1;
+                stringEnd = i;
+                stringEscaped = escaped;
+                position = i + 1;
+                return true;
+            }
+            if (c == '\\') {
+                escaped = true;
+                int length = escapeLength(i);
+                if (length < 0) {
+                    return false;
+                }
+                i += length;
+            } else if (c >= 0 && c < 0x20) {
+                return false;
+            } else if (c < 0) {
+                int length = utf8Length(json, i, end);
+                if (length < 0) {
+                    return false;
+                }
+                i += length;
+            } else {
+                i++;
+            }
+        }
+        return false;
+    }
+
+    int stringStart() {
+        return stringStart;
+    }
+
+    int stringEnd() {
+        return stringEnd;
+    }
+
+    boolean stringEscaped() {
+        return stringEscaped;
+    }
+
+    /**
+     * Returns the last scanned string, unescaped.
+     */
+    String string() {
+        return decode(json, stringStart, stringEnd, stringEscaped);
+    }
+
+    boolean atEnd() {
+        return peek() < 0;
+    }
+
+    private int escapeLength(int i) {
+        if (i + 1 >= end) {
+            return -1;
+        }
+        switch (json[i + 1]) {
+            case '"', '\\', '/', 'b', 'f', 'n', 'r', 't' -> {
+                return 2;
+            }
+            case 'u' -> {
+                if (i + 6 > end) {
+                    return -1;
+                }
+                for (int k = i + 2; k < i + 6; k++) {
+                    if (Character.digit(json[k], 16) < 0) {
+                        return -1;
+                    }
+                }
+                return 6;
+            }
+            default -> {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the well-formed UTF-8 sequence starting with a non-ASCII byte at {@code i}, or
+     * -1 if it is not well-formed.
+     */
+    static int utf8Length(byte[] bytes, int i, int end) {
+        int lead = bytes[i] & 0xff;
+        int length;
+        int min;
+        int max = 0xbf;
+        if (lead >= 0xc2 && lead <= 0xdf) {
+            return i + 1 < end && (bytes[i + 1] & 0xc0) == 0x80 ? 2 : -1;
+        } else if (lead >= 0xe0 && lead <= 0xef) {
+            length = 3;
+            // No overlong encodings and no surrogates
+            min = lead == 0xe0 ? 0xa0 : 0x80;
+            max = lead == 0xed ? 0x9f : 0xbf;
+        } else if (lead >= 0xf0 && lead <= 0xf4) {
+            length = 4;
+            min = lead == 0xf0 ? 0x90 : 0x80;
+            max = lead == 0xf4 ? 0x8f : 0xbf;
+        } else {
+            return -1;
+        }
+        if (i + length > end) {
+            return -1;
+        }
+        int second = bytes[i + 1] & 0xff;
+        if (second < min || second > max) {
+            return -1;
+        }
+        for (int k = i + 2; k < i + length; k++) {
+            if ((bytes[k] & 0xc0) != 0x80) {
+                return -1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Decodes the content of a scanned string.
+     */
+    static String decode(byte[] json, int start, int end, boolean escaped) {
+        if (!escaped) {
+            return new String(json, start, end - start, StandardCharsets.UTF_8);
+        }
+        StringBuilder value = new StringBuilder(end - start);
+        int runStart = start;
+        for (int i = start; i < end; i++) {
+            if (json[i] != '\\') {
+                continue;
+            }
+            value.append(new String(json, runStart, i - runStart, StandardCharsets.UTF_8));
+            byte c = json[++i];
+            switch (c) {
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'u' -> {
+                    value.append((char) Integer.parseInt(new String(json, i + 1, 4, StandardCharsets.US_ASCII), 16));
+                    i += 4;
+                }
+                default -> value.append((char) c);
+            }
+            runStart = i + 1;
+        }
+        value.append(new String(json, runStart, end - runStart, StandardCharsets.UTF_8));
+        return value.toString();
+    }
+}
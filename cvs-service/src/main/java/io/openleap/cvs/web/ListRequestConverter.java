@@ -0,0 +1,170 @@
+package io.openleap.cvs.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openleap.cvs.controller.dto.DecryptListRequestDto;
+import io.openleap.cvs.controller.dto.EncryptListRequestDto;
+import io.openleap.cvs.jfr.RequestParseEvent;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Reads the bodies of {@code /encryptList} and {@code /decryptList} without building strings for the
+ * entries, and writes their {@link JsonEntries} results straight from the pooled output buffer.
+ * <p>
+ * Only plain requests take this path: UTF-8, the fields {@code data} and {@code iv}, and string values.
+ * Anything else is handed to Jackson unchanged, so unusual or invalid input is read or rejected exactly as
+ * before. The engine encodes strings with the platform charset, so the fast path is only used where that
+ * is UTF-8 and the results stay byte-identical.
+ */
+@Component
+public class ListRequestConverter extends AbstractHttpMessageConverter<Object> {
+    private static final byte[] DATA = "data".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IV = "iv".getBytes(StandardCharsets.US_ASCII);
+
+    private final MappingJackson2HttpMessageConverter jackson;
+    private final boolean enabled = StandardCharsets.UTF_8.equals(Charset.defaultCharset());
+
+    public ListRequestConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.jackson = new MappingJackson2HttpMessageConverter(objectMapper);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == EncryptListRequestDto.class || clazz == DecryptListRequestDto.class
+                || clazz == JsonEntries.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return enabled && clazz != JsonEntries.class && super.canRead(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return clazz == JsonEntries.class && super.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        RequestParseEvent event = new RequestParseEvent();
+        event.begin();
+        HttpHeaders headers = inputMessage.getHeaders();
+        byte[] body = readBody(inputMessage.getBody(), headers.getContentLength());
+        Charset charset = headers.getContentType() != null ? headers.getContentType().getCharset() : null;
+        Object request = charset == null || StandardCharsets.UTF_8.equals(charset) ? scan(clazz, body) : null;
+        boolean fastPath = request != null;
+        if (request == null) {
+            request = readWithJackson(clazz, headers, body);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.bytes = body.length;
+            event.entries = entryCount(request);
+            event.fastPath = fastPath;
+            event.commit();
+        }
+        return request;
+    }
+
+    private Object readWithJackson(Class<?> clazz, HttpHeaders headers, byte[] body) throws IOException {
+        return jackson.read(clazz, new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(body);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        });
+    }
+
+    @Override
+    protected void writeInternal(Object entries, HttpOutputMessage outputMessage) throws IOException {
+        ((JsonEntries) entries).writeTo(outputMessage.getBody());
+    }
+
+    @Override
+    protected Long getContentLength(Object entries, MediaType contentType) {
+        return (long) ((JsonEntries) entries).contentLength();
+    }
+
+    static byte[] readBody(InputStream body, long contentLength) throws IOException {
+        if (contentLength < 0 || contentLength > Integer.MAX_VALUE - 8) {
+            return body.readAllBytes();
+        }
+        byte[] bytes = new byte[(int) contentLength];
+        int read = body.readNBytes(bytes, 0, bytes.length);
+        return read == bytes.length ? bytes : Arrays.copyOf(bytes, read);
+    }
+
+    /**
+     * @return the request, or null if it has to be read by Jackson
+     */
+    private static Object scan(Class<?> clazz, byte[] body) {
+        JsonScanner scanner = new JsonScanner(body, 0, body.length);
+        JsonEntries data = null;
+        String iv = null;
+        boolean ivSeen = false;
+        if (!scanner.consume('{')) {
+            return null;
+        }
+        if (!scanner.consume('}')) {
+            do {
+                if (!scanner.scanString() || scanner.stringEscaped() || !scanner.consume(':')) {
+                    return null;
+                }
+                if (isField(scanner, DATA) && data == null) {
+                    data = JsonEntries.scan(scanner);
+                    if (data == null) {
+                        return null;
+                    }
+                } else if (isField(scanner, IV) && !ivSeen) {
+                    ivSeen = true;
+                    if (!scanner.consumeNull()) {
+                        if (!scanner.scanString()) {
+                            return null;
+                        }
+                        iv = scanner.string();
+                    }
+                } else {
+                    return null;
+                }
+            } while (scanner.consume(','));
+            if (!scanner.consume('}')) {
+                return null;
+            }
+        }
+        if (data == null || !scanner.atEnd()) {
+            return null;
+        }
+        return clazz == EncryptListRequestDto.class
+                ? new EncryptListRequestDto(data, iv)
+                : new DecryptListRequestDto(data, iv);
+    }
+
+    private static int entryCount(Object request) {
+        Map<String, String> data = request instanceof EncryptListRequestDto encryptRequest ? encryptRequest.data()
+                : request instanceof DecryptListRequestDto decryptRequest ? decryptRequest.data() : null;
+        return data != null ? data.size() : 0;
+    }
+
+    private static boolean isField(JsonScanner scanner, byte[] name) {
+        return Arrays.equals(scanner.json(), scanner.stringStart(), scanner.stringEnd(), name, 0, name.length);
+    }
+}
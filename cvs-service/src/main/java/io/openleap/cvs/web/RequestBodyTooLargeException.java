@@ -0,0 +1,9 @@
+package io.openleap.cvs.web;
+
+import java.io.IOException;
+
+public class RequestBodyTooLargeException extends IOException {
+    public RequestBodyTooLargeException(long maxSize) {
+        super("Decompressed request body exceeds " + maxSize + " bytes");
+    }
+}
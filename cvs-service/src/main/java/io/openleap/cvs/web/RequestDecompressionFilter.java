@@ -0,0 +1,215 @@
+package io.openleap.cvs.web;
+
+import io.openleap.cvs.config.RequestDecompressionProperties;
+import io.openleap.cvs.controller.BulkJobController;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Accepts request bodies sent with {@code Content-Encoding: gzip} or {@code deflate}. The body is inflated
+ * while the controller reads it, so a compressed batch is never held in memory twice. The inflated size is
+ * limited by {@link RequestDecompressionProperties#getMaxSize()} to guard against decompression bombs.
+ */
+@Component
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final RequestDecompressionProperties properties;
+
+    public RequestDecompressionFilter(RequestDecompressionProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        return !properties.isEnabled() || encoding == null || "identity".equalsIgnoreCase(encoding.trim());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING).trim().toLowerCase(Locale.ROOT);
+        InputStream decompressed;
+        switch (encoding) {
+            case "gzip", "x-gzip" -> {
+                try {
+                    decompressed = new GZIPInputStream(request.getInputStream(), BUFFER_SIZE);
+                } catch (IOException e) {
+                    response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Request body is not in gzip format");
+                    return;
+                }
+            }
+            case "deflate" -> decompressed = new InflaterInputStream(request.getInputStream());
+            default -> {
+                response.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+                response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE,
+                        "Unsupported content encoding " + encoding);
+                return;
+            }
+        }
+        // Bulk job uploads are limited by cvs.jobs.max-input-size when they are stored
+        long maxSize = request.getRequestURI().startsWith(BulkJobController.PATH)
+                ? Long.MAX_VALUE
+                : properties.getMaxSize().toBytes();
+        chain.doFilter(new DecompressedRequest(request, decompressed, maxSize), response);
+    }
+
+    private static final class DecompressedRequest extends HttpServletRequestWrapper {
+        private final ServletInputStream inputStream;
+        private BufferedReader reader;
+
+        DecompressedRequest(HttpServletRequest request, InputStream decompressed, long maxSize) {
+            super(request);
+            this.inputStream = new BoundedServletInputStream(request, decompressed, maxSize);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            if (reader == null) {
+                String encoding = getCharacterEncoding();
+                Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+                reader = new BufferedReader(new InputStreamReader(inputStream, charset));
+            }
+            return reader;
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isHiddenHeader(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isHiddenHeader(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = Collections.list(super.getHeaderNames());
+            names.removeIf(DecompressedRequest::isHiddenHeader);
+            return Collections.enumeration(names);
+        }
+
+        private static boolean isHiddenHeader(String name) {
+            // The body seen by the application is no longer encoded and its length is unknown
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                    || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    private static final class BoundedServletInputStream extends ServletInputStream {
+        private final HttpServletRequest request;
+        private final InputStream delegate;
+        private final long maxSize;
+        private long bytesRead;
+        private boolean finished;
+
+        BoundedServletInputStream(HttpServletRequest request, InputStream delegate, long maxSize) {
+            this.request = request;
+            this.delegate = delegate;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = delegate.read();
+            count(value < 0 ? -1 : 1);
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = delegate.read(buffer, offset, length);
+            count(read);
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        /**
+         * The inflater reads the compressed body with blocking reads, so the inflated body is always ready:
+         * the listener is called once on a container thread to read all of it, like an asynchronous read of
+         * a body that has fully arrived.
+         */
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            if (readListener == null) {
+                throw new NullPointerException("readListener");
+            }
+            if (!request.isAsyncStarted()) {
+                throw new IllegalStateException("Asynchronous reads require an asynchronous request");
+            }
+            request.getAsyncContext().start(() -> {
+                try {
+                    readListener.onDataAvailable();
+                    if (finished) {
+                        readListener.onAllDataRead();
+                    }
+                } catch (Throwable e) {
+                    readListener.onError(e);
+                }
+            });
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        private void count(int read) throws RequestBodyTooLargeException {
+            if (read < 0) {
+                finished = true;
+                return;
+            }
+            bytesRead += read;
+            if (bytesRead > maxSize) {
+                throw new RequestBodyTooLargeException(maxSize);
+            }
+        }
+    }
+}
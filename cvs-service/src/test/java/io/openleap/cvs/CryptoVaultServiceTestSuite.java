@@ -0,0 +1,69 @@
+package io.openleap.cvs;
+
+import io.openleap.cvs.audit.AuditLogTest;
+import io.openleap.cvs.batch.BatchCryptoServiceTest;
+import io.openleap.cvs.config.CvsRuntimeHintsTest;
+import io.openleap.cvs.config.MtlsAuthenticationFilterTest;
+import io.openleap.cvs.config.MtlsAuthenticationTest;
+import io.openleap.cvs.config.RefreshAheadJwkSourceTest;
+import io.openleap.cvs.controller.CryptoVaultControllerTest;
+import io.openleap.cvs.document.DocumentCryptoServiceTest;
+import io.openleap.cvs.job.BulkJobServiceTest;
+import io.openleap.cvs.jfr.FlightRecordingsTest;
+import io.openleap.cvs.metering.UsageMeterTest;
+import io.openleap.cvs.service.CryptoKnownAnswerTest;
+import io.openleap.cvs.service.CryptoServiceTest;
+import io.openleap.cvs.service.MacServiceTest;
+import io.openleap.cvs.sidecar.SidecarServerTest;
+import io.openleap.cvs.token.TokenStoreTest;
+import io.openleap.cvs.token.TokenVaultTest;
+import io.openleap.cvs.warmup.WarmUpGateTest;
+import io.openleap.cvs.web.CborListConverterTest;
+import io.openleap.cvs.web.HttpTransportTest;
+import io.openleap.cvs.web.ListRequestConverterTest;
+import io.openleap.cvs.web.RequestDecompressionFilterTest;
+import org.junit.platform.suite.api.SelectClasses;
+import org.junit.platform.suite.api.Suite;
+import org.junit.platform.suite.api.SuiteDisplayName;
+
+/**
+ * Comprehensive test suite for the Crypto Vault Service
+ * 
+ * This suite includes:
+ * - Unit tests for CryptoService
+ * - Unit tests for CryptoVaultController
+ * - Integration tests for CryptoVaultController endpoints
+ * - Functional tests for end-to-end encryption/decryption flows
+ */
+@Suite
+@SuiteDisplayName("Crypto Vault Service Test Suite")
+@SelectClasses({
+    CryptoServiceTest.class,
+    CryptoKnownAnswerTest.class,
+    CryptoVaultControllerTest.class,
+    RefreshAheadJwkSourceTest.class,
+    CvsRuntimeHintsTest.class,
+    AuditLogTest.class,
+    RequestDecompressionFilterTest.class,
+    HttpTransportTest.class,
+    BulkJobServiceTest.class,
+    DocumentCryptoServiceTest.class,
+    EmbeddedEngineTest.class,
+    SidecarServerTest.class,
+    ListRequestConverterTest.class,
+    UsageMeterTest.class,
+    FlightRecordingsTest.class,
+    WarmUpGateTest.class,
+    TokenStoreTest.class,
+    TokenVaultTest.class,
+    MacServiceTest.class,
+    CryptoVaultStressTest.class,
+    BatchCryptoServiceTest.class,
+    MtlsAuthenticationFilterTest.class,
+    MtlsAuthenticationTest.class,
+    CborListConverterTest.class
+})
+public class CryptoVaultServiceTestSuite {
+    // This class serves as a test suite container
+    // All test classes are selected via @SelectClasses annotation
+}
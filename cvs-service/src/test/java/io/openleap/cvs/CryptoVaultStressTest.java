@@ -0,0 +1,439 @@
+package io.openleap.cvs;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openleap.cvs.audit.AuditLog;
+import io.openleap.cvs.config.AuditProperties;
+import io.openleap.cvs.config.CompressionProperties;
+import io.openleap.cvs.config.CvsConfig;
+import io.openleap.cvs.config.MeteringProperties;
+import io.openleap.cvs.controller.CryptoVaultController;
+import io.openleap.cvs.controller.dto.DecryptListRequestDto;
+import io.openleap.cvs.controller.dto.DecryptListResponseDto;
+import io.openleap.cvs.controller.dto.DecryptRequestDto;
+import io.openleap.cvs.controller.dto.EncryptListRequestDto;
+import io.openleap.cvs.controller.dto.EncryptRequestDto;
+import io.openleap.cvs.core.DecryptResult;
+import io.openleap.cvs.core.InvalidIvException;
+import io.openleap.cvs.metering.UsageMeter;
+import io.openleap.cvs.service.CryptoService;
+import io.openleap.cvs.web.ListRequestConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers one {@link CryptoService} and {@link CryptoVaultController} from many threads with a mix of users,
+ * batch sizes, request paths and invalid input, and checks every result against the results a second,
+ * single-threaded service computed up front. Every plaintext carries the number of its case, so a result
+ * holding the plaintext of another request is reported as a leak rather than as a wrong result.
+ * <p>
+ * With {@code -Dcvs.soak.duration=PT30M} (see {@code scripts/soak}) it also runs as a soak test that prints
+ * heap after GC and latency percentiles per window, and fails if either grows past its limit.
+ */
+@DisplayName("Crypto Vault Stress Tests")
+public class CryptoVaultStressTest {
+    private static final TypeReference<Map<String, String>> STRING_MAP = new TypeReference<>() {
+    };
+    private static final String OBJECT_ID = "objectId";
+    private static final int[] ALPHABET =
+            "abcdefghijklmnopqrstuvwxyz ABCDEFGHIJKLMNOPQRSTUVWXYZ 0123456789 \"\\/\n\t\u0001ümlaut€😀"
+                    .codePoints().toArray();
+    private static final Pattern MARKER = Pattern.compile("«(\\d+)/");
+
+    private static final int THREADS = Integer.getInteger("cvs.stress.threads",
+            Math.max(8, 2 * Runtime.getRuntime().availableProcessors()));
+    private static final Duration STRESS_DURATION =
+            Duration.parse(System.getProperty("cvs.stress.duration", "PT3S"));
+    private static final int USERS = 24;
+    private static final int CASES = 256;
+
+    @TempDir
+    Path tempDir;
+
+    // Configured like the ObjectMapper of Spring Boot
+    private final ObjectMapper objectMapper =
+            new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final ListRequestConverter converter = new ListRequestConverter(objectMapper);
+    private CryptoService oracle;
+    private CryptoService cryptoService;
+    private CryptoVaultController controller;
+    private List<StressCase> cases;
+
+    private enum Op {
+        ENCRYPT, DECRYPT, ENCRYPT_MAP, DECRYPT_MAP, JSON_ENCRYPT, JSON_DECRYPT, DECRYPT_WITH_STATUS,
+        WRONG_USER, BROKEN_BATCH
+    }
+
+    private record StressCase(int id, String iv, String otherIv, Map<String, String> plain,
+                              Map<String, String> cipher, Map<String, String> damaged,
+                              Map<String, DecryptResult> damagedResults, byte[] encryptBody,
+                              byte[] decryptBody, byte[] brokenBody) {
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path secretKeyFile = tempDir.resolve("secret.key");
+        Files.writeString(secretKeyFile, "ThisIsATestSecretKeyForAESEncryption123456789012345678901234567890");
+        CvsConfig cvsConfig = new CvsConfig();
+        cvsConfig.setEncryptionKeyPath(secretKeyFile.toString());
+        cvsConfig.setAesInitializationVector("ThisIsATestInitializationVector123456789012345678901234567890");
+        // Compress large values too, so the compressed path is part of the mix
+        CompressionProperties compressionProperties = new CompressionProperties();
+        compressionProperties.setEnabled(true);
+        compressionProperties.setMinSize(DataSize.ofBytes(256));
+
+        oracle = new CryptoService(cvsConfig, compressionProperties);
+        cryptoService = new CryptoService(cvsConfig, compressionProperties);
+        controller = new CryptoVaultController();
+        ReflectionTestUtils.setField(controller, "cryptoService", cryptoService);
+        // Not started, so it drops the records like a disabled audit log
+        ReflectionTestUtils.setField(controller, "auditLog", new AuditLog(new AuditProperties()));
+        ReflectionTestUtils.setField(controller, "usageMeter", new UsageMeter(new MeteringProperties(), objectMapper));
+        cases = createCases(new Random(42));
+    }
+
+    @Test
+    @DisplayName("Should return the results of a single-threaded service under concurrent load")
+    void shouldMatchOracleUnderConcurrentLoad() throws Exception {
+        // Given
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        Map<Op, LongAdder> counts = new EnumMap<>(Op.class);
+        for (Op op : Op.values()) {
+            counts.put(op, new LongAdder());
+        }
+
+        // When
+        run(STRESS_DURATION, failures, counts, new AtomicReference<>(new LatencyHistogram()), null,
+                STRESS_DURATION);
+
+        // Then
+        assertTrue(failures.isEmpty(), () -> failures.size() + " failures, first: " + failures.peek());
+        counts.forEach((op, count) -> assertTrue(count.sum() > 0, op + " never ran"));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "cvs.soak.duration", matches = "P.+")
+    @DisplayName("Should keep heap and latency flat over a long run")
+    void shouldKeepHeapAndLatencyFlatWhenSoaked() throws Exception {
+        // Given
+        Duration duration = Duration.parse(System.getProperty("cvs.soak.duration"));
+        Duration window = Duration.parse(System.getProperty("cvs.soak.window", "PT1M"));
+        long maxHeapGrowth = DataSize.parse(System.getProperty("cvs.soak.max-heap-growth", "32MB")).toBytes();
+        double maxLatencyDrift = Double.parseDouble(System.getProperty("cvs.soak.max-latency-drift", "2"));
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        Map<Op, LongAdder> counts = new EnumMap<>(Op.class);
+        for (Op op : Op.values()) {
+            counts.put(op, new LongAdder());
+        }
+        AtomicReference<LatencyHistogram> histogram = new AtomicReference<>(new LatencyHistogram());
+        List<long[]> samples = new ArrayList<>();
+
+        // When
+        run(duration, failures, counts, histogram, () -> {
+            LatencyHistogram finished = histogram.getAndSet(new LatencyHistogram());
+            long heap = usedHeapAfterGc();
+            long[] sample = {heap, finished.percentile(0.5), finished.percentile(0.99), finished.count()};
+            samples.add(sample);
+            System.out.printf("window %3d: %,12d ops, heap %,8d KB, p50 %,8d ns, p99 %,10d ns, %d failures%n",
+                    samples.size(), sample[3], heap / 1024, sample[1], sample[2], failures.size());
+        }, window);
+
+        // Then
+        assertTrue(failures.isEmpty(), () -> failures.size() + " failures, first: " + failures.peek());
+        assertTrue(samples.size() >= 3, "The soak needs at least three windows, the first is warm-up");
+        // The first window includes class loading and JIT compilation, so the second is the baseline
+        long[] baseline = samples.get(1);
+        long[] last = samples.get(samples.size() - 1);
+        assertTrue(last[0] - baseline[0] <= maxHeapGrowth,
+                "Heap grew from " + baseline[0] + " to " + last[0] + " bytes");
+        assertTrue(last[1] <= baseline[1] * maxLatencyDrift,
+                "Median latency drifted from " + baseline[1] + " to " + last[1] + " ns");
+    }
+
+    /**
+     * Runs the mix on {@link #THREADS} threads for the duration, calling {@code onWindow}, if any, after
+     * every window.
+     */
+    private void run(Duration duration, Queue<String> failures, Map<Op, LongAdder> counts,
+                     AtomicReference<LatencyHistogram> histogram, Runnable onWindow, Duration window)
+            throws Exception {
+        Op[] ops = Op.values();
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                Random random = new Random(thread);
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    while (System.nanoTime() < deadline) {
+                        StressCase stressCase = cases.get(random.nextInt(cases.size()));
+                        Op op = ops[random.nextInt(ops.length)];
+                        long begin = System.nanoTime();
+                        String failure;
+                        try {
+                            failure = execute(op, stressCase);
+                        } catch (Exception e) {
+                            failure = "threw " + e;
+                        }
+                        histogram.get().record(System.nanoTime() - begin);
+                        counts.get(op).increment();
+                        // Keep the first few, a broken service fails millions of times
+                        if (failure != null && failures.size() < 100) {
+                            failures.add(op + " of case " + stressCase.id() + ": " + failure);
+                        }
+                    }
+                });
+            }
+            start.countDown();
+            while (onWindow != null && System.nanoTime() < deadline) {
+                TimeUnit.NANOSECONDS.sleep(Math.min(window.toNanos(), deadline - System.nanoTime()));
+                onWindow.run();
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Runs the operation on the shared service or controller and returns what went wrong, or {@code null}.
+     */
+    private String execute(Op op, StressCase stressCase) throws Exception {
+        String iv = stressCase.iv();
+        switch (op) {
+            case ENCRYPT -> {
+                for (Map.Entry<String, String> entry : stressCase.plain().entrySet()) {
+                    if (!OBJECT_ID.equals(entry.getKey())) {
+                        String cipherText = entry.getKey().hashCode() % 2 == 0
+                                ? cryptoService.encryptWithAesCbc(entry.getValue(), iv)
+                                : controller.encrypt(new EncryptRequestDto(entry.getValue(), iv)).getBody();
+                        String failure = compare(stressCase.cipher().get(entry.getKey()), cipherText, stressCase);
+                        if (failure != null) {
+                            return failure;
+                        }
+                    }
+                }
+            }
+            case DECRYPT -> {
+                for (Map.Entry<String, String> entry : stressCase.cipher().entrySet()) {
+                    if (!OBJECT_ID.equals(entry.getKey())) {
+                        String failure = compare(stressCase.plain().get(entry.getKey()),
+                                controller.decrypt(new DecryptRequestDto(entry.getValue(), iv)).getBody(), stressCase);
+                        if (failure != null) {
+                            return failure;
+                        }
+                    }
+                }
+            }
+            case ENCRYPT_MAP -> {
+                return compare(stressCase.cipher(),
+                        cryptoService.encryptWithAesCbc(new HashMap<>(stressCase.plain()), iv), stressCase);
+            }
+            case DECRYPT_MAP -> {
+                return compare(stressCase.plain(),
+                        cryptoService.decryptWithAesCbc(new HashMap<>(stressCase.cipher()), iv), stressCase);
+            }
+            case JSON_ENCRYPT -> {
+                EncryptListRequestDto request =
+                        (EncryptListRequestDto) read(EncryptListRequestDto.class, stressCase.encryptBody());
+                return compare(stressCase.cipher(), write(controller.encryptMap(request)), stressCase);
+            }
+            case JSON_DECRYPT -> {
+                DecryptListRequestDto request =
+                        (DecryptListRequestDto) read(DecryptListRequestDto.class, stressCase.decryptBody());
+                return compare(stressCase.plain(), write(controller.decryptMap(request)), stressCase);
+            }
+            case DECRYPT_WITH_STATUS -> {
+                DecryptListResponseDto response = controller.decryptMapWithStatus(
+                        new DecryptListRequestDto(stressCase.damaged(), iv)).getBody();
+                return compare(stressCase.damagedResults(), response.data(), stressCase);
+            }
+            case WRONG_USER -> {
+                ResponseEntity<String> response = controller.decrypt(
+                        new DecryptRequestDto(stressCase.cipher().get("field0"), stressCase.otherIv()));
+                return response.getStatusCode() == HttpStatus.BAD_REQUEST
+                        ? null : "decrypted with the key of another user to " + response.getBody();
+            }
+            case BROKEN_BATCH -> {
+                DecryptListRequestDto request =
+                        (DecryptListRequestDto) read(DecryptListRequestDto.class, stressCase.brokenBody());
+                try {
+                    return "decrypted a batch with a broken value to " + write(controller.decryptMap(request));
+                } catch (InvalidIvException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private String compare(Object expected, Object actual, StressCase stressCase) {
+        if (expected.equals(actual)) {
+            return null;
+        }
+        Matcher matcher = MARKER.matcher(String.valueOf(actual));
+        while (matcher.find()) {
+            if (Integer.parseInt(matcher.group(1)) != stressCase.id()) {
+                return "leaked plaintext of case " + matcher.group(1) + ": " + actual;
+            }
+        }
+        return "expected " + expected + " but got " + actual;
+    }
+
+    private List<StressCase> createCases(Random random) throws Exception {
+        List<StressCase> created = new ArrayList<>(CASES);
+        for (int id = 0; id < CASES; id++) {
+            String iv = "user-" + random.nextInt(USERS);
+            String otherIv = "other-" + random.nextInt(USERS);
+            // Mostly small batches, some large ones
+            int size = random.nextInt(8) == 0 ? 32 + random.nextInt(200) : 1 + random.nextInt(4);
+            Map<String, String> plain = new LinkedHashMap<>();
+            plain.put(OBJECT_ID, "object-" + id);
+            for (int key = 0; key < size; key++) {
+                plain.put("field" + key, value(random, id, key));
+            }
+            Map<String, String> cipher = oracle.encryptWithAesCbc(new LinkedHashMap<>(plain), iv);
+            Map<String, String> damaged = new LinkedHashMap<>(cipher);
+            damaged.put("field0", oracle.encryptWithAesCbc(plain.get("field0"), otherIv));
+            damaged.put("broken", "not base64!");
+            Map<String, String> broken = new LinkedHashMap<>(cipher);
+            broken.put("broken", "AAAA");
+            created.add(new StressCase(id, iv, otherIv, plain, cipher, damaged,
+                    oracle.decryptEntries(damaged, iv), body(plain, iv), body(cipher, iv), body(broken, iv)));
+        }
+        return created;
+    }
+
+    private static String value(Random random, int id, int key) {
+        if (random.nextInt(16) == 0) {
+            return "";
+        }
+        // Mostly short values, some above the compression threshold
+        int length = random.nextInt(8) == 0 ? 256 + random.nextInt(2048) : random.nextInt(64);
+        StringBuilder value = new StringBuilder("«" + id + "/" + key + "»");
+        while (value.length() < length) {
+            value.appendCodePoint(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return value.toString();
+    }
+
+    private byte[] body(Map<String, String> data, String iv) throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("data", data);
+        body.put("iv", iv);
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    private Object read(Class<?> clazz, byte[] body) throws Exception {
+        MockHttpInputMessage input = new MockHttpInputMessage(body);
+        input.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return converter.read(clazz, input);
+    }
+
+    private Map<String, String> write(ResponseEntity<Map<String, String>> response) throws Exception {
+        Map<String, String> result = response.getBody();
+        if (!converter.canWrite(result.getClass(), MediaType.APPLICATION_JSON)) {
+            return result;
+        }
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(result, MediaType.APPLICATION_JSON, output);
+        return objectMapper.readValue(output.getBodyAsString(StandardCharsets.UTF_8), STRING_MAP);
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        // Usage after the collection, as the workers keep allocating while this thread reads it
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null) {
+                used += pool.getCollectionUsage().getUsed();
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Counts latencies in buckets of a quarter power of two, so percentiles are within 25%.
+     */
+    private static final class LatencyHistogram {
+        private final LongAdder[] buckets = new LongAdder[64 * 4];
+
+        LatencyHistogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            long value = Math.max(4, nanos);
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            buckets[exponent * 4 + (int) ((value >>> (exponent - 2)) & 3)].increment();
+        }
+
+        long count() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        /**
+         * Returns the upper bound of the bucket holding the percentile.
+         */
+        long percentile(double percentile) {
+            long rank = (long) Math.ceil(percentile * count());
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= rank && seen > 0) {
+                    return (long) (4 + (i & 3) + 1) << (i / 4 - 2);
+                }
+            }
+            return 0;
+        }
+    }
+}
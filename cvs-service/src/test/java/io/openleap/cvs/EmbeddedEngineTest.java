@@ -0,0 +1,125 @@
+package io.openleap.cvs;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openleap.cvs.config.CvsConfig;
+import io.openleap.cvs.core.CryptoEngine;
+import io.openleap.cvs.core.DataKey;
+import io.openleap.cvs.core.DecryptResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the same operations through an embedded {@link CryptoEngine} and through the REST API of the
+ * service and expects byte-identical results.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"logger"})
+@DisplayName("Embedded engine Integration Tests")
+public class EmbeddedEngineTest {
+
+    private static final String SESSION_USER_ID = "user123";
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private CvsConfig cvsConfig;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private CryptoEngine engine;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        engine = CryptoEngine.fromKeyFile(Path.of(cvsConfig.getEncryptionKeyPath()),
+                cvsConfig.getAesInitializationVector());
+    }
+
+    @Test
+    @DisplayName("Should encrypt a single value byte-identically")
+    void shouldEncryptSingleValueIdentically() throws Exception {
+        // Given
+        String value = "sensitive data with ümlauts / slashes + pluses";
+
+        // When
+        String remote = post("/api/cvs/encrypt", Map.of("value", value, "iv", SESSION_USER_ID));
+        String embedded = engine.encrypt(value, SESSION_USER_ID);
+
+        // Then
+        assertEquals(remote, embedded);
+        assertEquals(value, engine.decrypt(remote, SESSION_USER_ID));
+    }
+
+    @Test
+    @DisplayName("Should encrypt and decrypt batches byte-identically")
+    void shouldProcessBatchesIdentically() throws Exception {
+        // Given
+        Map<String, String> data = new LinkedHashMap<>();
+        data.put("objectId", "12345");
+        for (int i = 0; i < 20; i++) {
+            data.put("field" + i, "value " + i);
+        }
+
+        // When
+        Map<String, String> remote = objectMapper.readValue(
+                post("/api/cvs/encryptList", Map.of("data", data, "iv", SESSION_USER_ID)), new TypeReference<>() {
+                });
+        Map<String, String> embedded = engine.encrypt(data, SESSION_USER_ID);
+        embedded.put("broken", "AAAA");
+        JsonNode remoteResults = objectMapper.readTree(
+                post("/api/cvs/decryptListWithStatus", Map.of("data", embedded, "iv", SESSION_USER_ID)));
+        Map<String, DecryptResult> embeddedResults = engine.decryptEntries(embedded, SESSION_USER_ID);
+
+        // Then
+        embedded.remove("broken");
+        assertEquals(remote, embedded);
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(embeddedResults)),
+                remoteResults.get("data"));
+        assertEquals(1, remoteResults.get("failed").asInt());
+    }
+
+    @Test
+    @DisplayName("Should exchange wrapped data keys between the service and an embedded engine")
+    void shouldShareDataKeys() throws Exception {
+        // Given
+        JsonNode remoteKey = objectMapper.readTree(post("/api/cvs/generateDataKey", Map.of()));
+        DataKey embeddedKey = engine.generateDataKey();
+
+        // When
+        byte[] unwrappedEmbedded = engine.unwrapDataKey(remoteKey.get("wrappedKey").asText());
+        JsonNode unwrappedRemote = objectMapper.readTree(
+                post("/api/cvs/unwrapDataKey", Map.of("wrappedKey", embeddedKey.wrappedKey())));
+
+        // Then
+        assertArrayEquals(Base64.getDecoder().decode(remoteKey.get("plaintextKey").asText()), unwrappedEmbedded);
+        assertArrayEquals(embeddedKey.plaintextKey(),
+                Base64.getDecoder().decode(unwrappedRemote.get("plaintextKey").asText()));
+    }
+
+    private String post(String path, Object body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return response.body();
+    }
+}
@@ -0,0 +1,122 @@
+package io.openleap.cvs.audit;
+
+import io.openleap.cvs.config.AuditProperties;
+import io.openleap.cvs.config.CvsConfig;
+import io.openleap.cvs.service.CryptoService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Measures the list encryption behind {@code /encryptList} per second with and without an audit record per
+ * call, the way the controller writes it, and the rate of bare records the log takes. The log writes to a
+ * temporary directory with the default buffer, segment size and fsync interval. Run it with
+ * {@code scripts/measure_audit}.
+ * <p>
+ * Arguments: threads (default: available processors), seconds per measurement (default 3).
+ */
+public class AuditLogBenchmark {
+    private static final String IV = "1abc7969-6c7d-4395-9aa3-b1c7d169aa37";
+    private static final int[] ENTRY_COUNTS = {1, 10, 100};
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : 3;
+
+        Path directory = Files.createTempDirectory("audit-benchmark");
+        Path secretKeyFile = directory.resolve("secret.key");
+        Files.writeString(secretKeyFile, "ThisIsABenchmarkSecretKeyForAESEncryption1234567890");
+        CvsConfig cvsConfig = new CvsConfig();
+        cvsConfig.setEncryptionKeyPath(secretKeyFile.toString());
+        cvsConfig.setAesInitializationVector("ThisIsATestInitializationVector123456789012345678901234567890");
+        CryptoService cryptoService = new CryptoService(cvsConfig);
+        int keyVersion = cryptoService.getKeyVersion();
+        AuditProperties properties = new AuditProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.resolve("audit").toString());
+        AuditLog auditLog = new AuditLog(properties);
+        auditLog.start();
+        try {
+            // The first round only warms up both paths for every shape, so neither is measured colder
+            for (int round = 0; round < 2; round++) {
+                if (round == 1) {
+                    System.out.printf("%7s | %12s %12s %8s%n", "entries", "plain ops/s", "audited/s", "overhead");
+                }
+                for (int entryCount : ENTRY_COUNTS) {
+                    Map<String, String> data = new LinkedHashMap<>();
+                    data.put("objectId", "12345");
+                    for (int i = 0; i < entryCount; i++) {
+                        data.put("field" + i, "sensitive data " + i);
+                    }
+                    double plain = measure(threads, seconds, () -> cryptoService.encryptWithAesCbc(data, IV));
+                    double audited = measure(threads, seconds, () -> {
+                        Map<String, String> encrypted = cryptoService.encryptWithAesCbc(data, IV);
+                        auditLog.record(AuditOperation.ENCRYPT_LIST, "benchmark", keyVersion, entryCount, "12345");
+                        return encrypted;
+                    });
+                    if (round == 1) {
+                        System.out.printf("%7d | %12.0f %12.0f %7.1f%%%n",
+                                entryCount, plain, audited, (plain - audited) / plain * 100);
+                    }
+                }
+            }
+
+            double records = measure(threads, seconds, () -> {
+                auditLog.record(AuditOperation.ENCRYPT_LIST, "benchmark", keyVersion, 1, "12345");
+                return null;
+            });
+            System.out.printf("records %12.0f/s (%d threads), %d lost%n", records, threads, auditLog.getLostRecords());
+        } finally {
+            auditLog.stop();
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static double measure(int threads, long seconds, Operation operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // Warm up, then measure
+            for (int pass = 0; pass < 2; pass++) {
+                long end = System.nanoTime() + seconds * 1_000_000_000L;
+                long start = System.nanoTime();
+                List<Future<Long>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    futures.add(executor.submit(() -> {
+                        long count = 0;
+                        while (System.nanoTime() < end) {
+                            operation.run();
+                            count++;
+                        }
+                        return count;
+                    }));
+                }
+                long total = 0;
+                for (Future<Long> future : futures) {
+                    total += future.get();
+                }
+                if (pass == 1) {
+                    return total / ((System.nanoTime() - start) / 1e9);
+                }
+            }
+            throw new IllegalStateException();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        Object run() throws Exception;
+    }
+}
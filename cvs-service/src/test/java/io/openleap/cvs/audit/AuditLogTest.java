@@ -0,0 +1,227 @@
+package io.openleap.cvs.audit;
+
+import io.openleap.cvs.config.AuditProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AuditLog Unit Tests")
+public class AuditLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AuditLog auditLog;
+
+    @AfterEach
+    void tearDown() {
+        if (auditLog != null) {
+            auditLog.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should write records that the reader can read back")
+    void shouldWriteAndReadRecords() throws Exception {
+        // Given
+        auditLog = createAuditLog(1024, DataSize.ofMegabytes(1));
+        auditLog.start();
+
+        // When
+        auditLog.record(AuditOperation.ENCRYPT, "cvs", 0x1234abcd, 1, null);
+        auditLog.record(AuditOperation.DECRYPT_LIST, "client äöü 🚀", -1, 17, "object-42");
+        auditLog.stop();
+
+        // Then
+        List<AuditRecord> records = readAll();
+        assertEquals(2, records.size());
+        assertEquals(AuditOperation.ENCRYPT, records.get(0).operation());
+        assertEquals("cvs", records.get(0).clientId());
+        assertEquals(0x1234abcd, records.get(0).keyVersion());
+        assertNull(records.get(0).objectId());
+        assertEquals(AuditOperation.DECRYPT_LIST, records.get(1).operation());
+        assertEquals("client äöü 🚀", records.get(1).clientId());
+        assertEquals(17, records.get(1).entryCount());
+        assertEquals("object-42", records.get(1).objectId());
+        assertTrue(records.get(1).timestampMillis() > 0);
+    }
+
+    @Test
+    @DisplayName("Should truncate long identifiers to the slot size")
+    void shouldTruncateLongIdentifiers() throws Exception {
+        // Given
+        auditLog = createAuditLog(16, DataSize.ofMegabytes(1));
+        auditLog.start();
+
+        // When
+        auditLog.record(AuditOperation.ENCRYPT, "c".repeat(500), 1, 1, "o".repeat(500));
+        auditLog.stop();
+
+        // Then
+        AuditRecord record = readAll().get(0);
+        assertEquals(AuditRingBuffer.MAX_CLIENT_ID_BYTES, record.clientId().length());
+        assertEquals(AuditRingBuffer.MAX_OBJECT_ID_BYTES, record.objectId().length());
+    }
+
+    @Test
+    @DisplayName("Should keep every record from concurrent producers across segment rotations")
+    void shouldKeepRecordsFromConcurrentProducers() throws Exception {
+        // Given
+        auditLog = createAuditLog(64, DataSize.ofKilobytes(64));
+        auditLog.start();
+        int numberOfThreads = 8;
+        int recordsPerThread = 5000;
+
+        // When
+        Thread[] threads = new Thread[numberOfThreads];
+        for (int i = 0; i < numberOfThreads; i++) {
+            String clientId = "client-" + i;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < recordsPerThread; j++) {
+                    auditLog.record(AuditOperation.ENCRYPT_LIST, clientId, 1, j, "object-" + j);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        auditLog.stop();
+
+        // Then
+        assertTrue(AuditLogReader.segments(tempDir).size() > 1);
+        List<AuditRecord> records = readAll();
+        assertEquals(numberOfThreads * recordsPerThread, records.size());
+        Map<String, Integer> nextEntryCount = new HashMap<>();
+        for (AuditRecord record : records) {
+            int expected = nextEntryCount.getOrDefault(record.clientId(), 0);
+            assertEquals(expected, record.entryCount());
+            assertEquals("object-" + expected, record.objectId());
+            nextEntryCount.put(record.clientId(), expected + 1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should start a new segment after a restart")
+    void shouldStartNewSegmentAfterRestart() throws Exception {
+        // Given
+        auditLog = createAuditLog(16, DataSize.ofMegabytes(1));
+        auditLog.start();
+        auditLog.record(AuditOperation.ENCRYPT, "cvs", 1, 1, null);
+        auditLog.stop();
+
+        // When
+        auditLog.start();
+        auditLog.record(AuditOperation.DECRYPT, "cvs", 1, 1, null);
+        auditLog.stop();
+
+        // Then
+        assertEquals(2, AuditLogReader.segments(tempDir).size());
+        List<AuditRecord> records = readAll();
+        assertEquals(AuditOperation.ENCRYPT, records.get(0).operation());
+        assertEquals(AuditOperation.DECRYPT, records.get(1).operation());
+    }
+
+    @Test
+    @DisplayName("Should not block producers when the writer dies while the buffer is full")
+    void shouldNotBlockWhenWriterDies() throws Exception {
+        // Given
+        auditLog = createAuditLog(2, DataSize.ofKilobytes(1));
+        auditLog.start();
+        // The next segment cannot be created, so the writer fails once the first one is full
+        FileSystemUtils.deleteRecursively(tempDir);
+
+        // When
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    auditLog.record(AuditOperation.ENCRYPT, "cvs", 1, j, "object-" + j);
+                }
+            });
+            threads[i].start();
+        }
+
+        // Then
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+            assertFalse(thread.isAlive());
+        }
+        assertFalse(auditLog.isRunning());
+    }
+
+    @Test
+    @DisplayName("Should drop a record when the full buffer is closed or stays full for the maximum wait")
+    void shouldDropRecordWhenBufferStaysFull() throws Exception {
+        // Given
+        AuditRingBuffer buffer = new AuditRingBuffer(2, TimeUnit.MINUTES.toNanos(1));
+        assertTrue(buffer.publish(1, AuditOperation.ENCRYPT, 1, 1, "cvs", null));
+        assertTrue(buffer.publish(2, AuditOperation.ENCRYPT, 1, 1, "cvs", null));
+        AtomicBoolean published = new AtomicBoolean(true);
+        Thread producer = new Thread(
+                () -> published.set(buffer.publish(3, AuditOperation.ENCRYPT, 1, 1, "cvs", null)));
+        producer.start();
+        while (producer.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+
+        // When
+        buffer.close();
+        producer.join(TimeUnit.SECONDS.toMillis(10));
+
+        // Then
+        assertFalse(producer.isAlive());
+        assertFalse(published.get());
+        AuditRingBuffer waiting = new AuditRingBuffer(1, TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(waiting.publish(1, AuditOperation.ENCRYPT, 1, 1, "cvs", null));
+        assertFalse(waiting.publish(2, AuditOperation.ENCRYPT, 1, 1, "cvs", null));
+    }
+
+    @Test
+    @DisplayName("Should not write anything when disabled")
+    void shouldNotWriteWhenDisabled() throws Exception {
+        // Given
+        AuditProperties properties = new AuditProperties();
+        properties.setDirectory(tempDir.resolve("disabled").toString());
+        auditLog = new AuditLog(properties);
+
+        // When
+        auditLog.start();
+        auditLog.record(AuditOperation.ENCRYPT, "cvs", 1, 1, null);
+
+        // Then
+        assertFalse(auditLog.isRunning());
+        assertFalse(Files.exists(tempDir.resolve("disabled")));
+    }
+
+    private AuditLog createAuditLog(int bufferCapacity, DataSize segmentSize) {
+        AuditProperties properties = new AuditProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(tempDir.toString());
+        properties.setBufferCapacity(bufferCapacity);
+        properties.setSegmentSize(segmentSize);
+        return new AuditLog(properties);
+    }
+
+    private List<AuditRecord> readAll() throws Exception {
+        List<AuditRecord> records = new ArrayList<>();
+        for (Path segment : AuditLogReader.segments(tempDir)) {
+            AuditLogReader.read(segment, records::add);
+        }
+        return records;
+    }
+}
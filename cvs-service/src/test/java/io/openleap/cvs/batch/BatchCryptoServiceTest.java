@@ -0,0 +1,134 @@
+package io.openleap.cvs.batch;
+
+import io.openleap.cvs.config.BatchProperties;
+import io.openleap.cvs.config.CvsConfig;
+import io.openleap.cvs.core.DecryptStatus;
+import io.openleap.cvs.service.CryptoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BatchCryptoService Unit Tests")
+public class BatchCryptoServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private CryptoService cryptoService;
+    private BatchProperties properties;
+    private BatchCryptoService batchCryptoService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path secretKeyFile = tempDir.resolve("secret.key");
+        Files.writeString(secretKeyFile, "ThisIsATestSecretKeyForAESEncryption123456789012345678901234567890");
+        CvsConfig cvsConfig = new CvsConfig();
+        cvsConfig.setEncryptionKeyPath(secretKeyFile.toString());
+        cvsConfig.setAesInitializationVector("ThisIsATestInitializationVector123456789012345678901234567890");
+        cryptoService = new CryptoService(cvsConfig);
+
+        properties = new BatchProperties();
+        properties.setWorkerThreads(3);
+        // Split even small batches, so the tests run in parallel
+        properties.setMinValuesPerTask(1);
+        properties.setMaxDocuments(100);
+        batchCryptoService = new BatchCryptoService(cryptoService, properties);
+        batchCryptoService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchCryptoService.stop();
+    }
+
+    @Test
+    @DisplayName("Should process mixed documents of many users like the list calls, in request order")
+    void shouldMatchListCallsForManyUsers() throws Exception {
+        // Given
+        List<BatchDocument> documents = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            String iv = i % 7 == 0 ? null : "user" + (i % 11);
+            Map<String, String> plaintext = new LinkedHashMap<>();
+            plaintext.put("name", "customer " + i);
+            plaintext.put("email", "customer" + i + "@example.com ümlaut");
+            BatchOperation operation = i % 2 == 0 ? BatchOperation.ENCRYPT : BatchOperation.DECRYPT;
+            documents.add(new BatchDocument(operation, iv, "object-" + i, operation == BatchOperation.ENCRYPT
+                    ? plaintext
+                    : cryptoService.encryptWithAesCbc(plaintext, iv)));
+        }
+
+        // When
+        List<BatchResult> parallel = batchCryptoService.process(documents);
+        batchCryptoService.stop();
+        List<BatchResult> sequential = batchCryptoService.process(documents);
+
+        // Then
+        assertEquals(documents.size(), parallel.size());
+        for (int i = 0; i < documents.size(); i++) {
+            BatchDocument document = documents.get(i);
+            Map<String, String> expected = document.operation() == BatchOperation.ENCRYPT
+                    ? cryptoService.encryptWithAesCbc(document.data(), document.iv())
+                    : cryptoService.decryptWithAesCbc(document.data(), document.iv());
+            assertEquals("object-" + i, parallel.get(i).objectId());
+            assertEquals(expected, parallel.get(i).data());
+            assertNull(parallel.get(i).errors());
+        }
+        assertEquals(parallel, sequential);
+    }
+
+    @Test
+    @DisplayName("Should report values that do not decrypt in their document without failing the batch")
+    void shouldReportFailedValuesPerDocument() throws Exception {
+        // Given
+        Map<String, String> damaged = new LinkedHashMap<>();
+        damaged.put("objectId", "42");
+        damaged.put("valid", cryptoService.encryptWithAesCbc("sensitive data", "user1"));
+        damaged.put("otherUser", cryptoService.encryptWithAesCbc("sensitive data", "user2"));
+        damaged.put("malformed", "not base64!");
+        List<BatchDocument> documents = List.of(
+                new BatchDocument(BatchOperation.DECRYPT, "user1", "1", damaged),
+                new BatchDocument(BatchOperation.ENCRYPT, "user2", "2", Map.of("field", "")));
+
+        // When
+        List<BatchResult> results = batchCryptoService.process(documents);
+
+        // Then
+        assertEquals(Map.of("objectId", "42", "valid", "sensitive data"), results.get(0).data());
+        assertEquals(Map.of("otherUser", DecryptStatus.AUTH_FAILURE, "malformed", DecryptStatus.MALFORMED),
+                results.get(0).errors());
+        assertEquals(cryptoService.encryptWithAesCbc("", "user2"), results.get(1).data().get("field"));
+        assertNull(results.get(1).errors());
+    }
+
+    @Test
+    @DisplayName("Should reject batches that are too large and documents without operation or data")
+    void shouldRejectInvalidBatches() throws Exception {
+        // Given
+        BatchDocument document = new BatchDocument(BatchOperation.ENCRYPT, "user1", "1", Map.of("field", "value"));
+        Map<String, String> nullValue = new LinkedHashMap<>();
+        nullValue.put("field", null);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> batchCryptoService.process(Collections.nCopies(101, document)));
+        assertThrows(IllegalArgumentException.class, () -> batchCryptoService.process(
+                List.of(document, new BatchDocument(null, "user1", "2", Map.of("field", "value")))));
+        assertThrows(IllegalArgumentException.class, () -> batchCryptoService.process(
+                List.of(new BatchDocument(BatchOperation.DECRYPT, "user1", "3", null))));
+        assertThrows(IllegalArgumentException.class, () -> batchCryptoService.process(
+                List.of(new BatchDocument(BatchOperation.ENCRYPT, "user1", "4", nullValue))));
+        assertTrue(batchCryptoService.process(List.of()).isEmpty());
+    }
+}
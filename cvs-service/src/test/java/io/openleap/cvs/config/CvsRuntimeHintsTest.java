@@ -0,0 +1,56 @@
+package io.openleap.cvs.config;
+
+import io.openleap.cvs.controller.dto.EncryptListRequestDto;
+import io.openleap.cvs.controller.dto.EncryptRequestDto;
+import io.swagger.v3.oas.annotations.Operation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CvsRuntimeHints Unit Tests")
+public class CvsRuntimeHintsTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new CvsRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("Should register binding hints for request payloads")
+    void shouldRegisterPayloadHints() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(EncryptRequestDto.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(EncryptListRequestDto.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(EncryptRequestDto.class, "value").test(hints));
+    }
+
+    @Test
+    @DisplayName("Should register reflection hints for configuration properties")
+    void shouldRegisterConfigurationHints() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(CvsConfig.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints));
+    }
+
+    @Test
+    @DisplayName("Should register springdoc annotations and JCE providers")
+    void shouldRegisterAnnotationAndJceHints() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Operation.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of("com.sun.crypto.provider.GaloisCounterMode$AESGCM")).test(hints));
+    }
+
+    @Test
+    @DisplayName("Should register static resources")
+    void shouldRegisterResources() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("static/swagger-initializer.js").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("logback.xml").test(hints));
+    }
+}
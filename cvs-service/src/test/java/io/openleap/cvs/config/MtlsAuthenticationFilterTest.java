@@ -0,0 +1,109 @@
+package io.openleap.cvs.config;
+
+import io.openleap.cvs.util.ClientIdResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.InputStream;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MtlsAuthenticationFilter Unit Tests")
+public class MtlsAuthenticationFilterTest {
+
+    private MtlsAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        MtlsProperties.Client client = new MtlsProperties.Client();
+        // Differs from the certificate in spacing and case only
+        client.setSubject("cn=orders-service, o=Crypto Vault Test");
+        client.setRoles(List.of("cvs.read"));
+        MtlsProperties properties = new MtlsProperties();
+        properties.setClients(List.of(client));
+        properties.setSessionCacheSize(2);
+        filter = new MtlsAuthenticationFilter(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should map the certificate subject to its roles and name the client after the common name")
+    void shouldAuthenticateConfiguredSubject() throws Exception {
+        // Given
+        MockHttpServletRequest request = request("reader", "session-1");
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertTrue(authentication.isAuthenticated());
+        assertEquals(List.of("ROLE_cvs.read"), AuthorityUtils.authorityListToSet(authentication.getAuthorities())
+                .stream().toList());
+        assertEquals("orders-service", ClientIdResolver.currentClientId());
+    }
+
+    @Test
+    @DisplayName("Should reuse the principal of a TLS session only for the certificate it was authenticated with")
+    void shouldCachePrincipalPerSession() throws Exception {
+        // When
+        Authentication first = filter.authenticate(request("reader", "session-1"));
+        Authentication second = filter.authenticate(request("reader", "session-1"));
+        Authentication otherSession = filter.authenticate(request("reader", "session-2"));
+        Authentication otherCertificate = filter.authenticate(request("unmapped", "session-1"));
+        Authentication withoutSessionId = filter.authenticate(request("reader", null));
+
+        // Then
+        assertSame(first, second);
+        assertNotSame(first, otherSession);
+        assertEquals(first.getName(), otherSession.getName());
+        assertNull(otherCertificate);
+        assertNotNull(withoutSessionId);
+    }
+
+    @Test
+    @DisplayName("Should not authenticate unknown subjects or requests without a client certificate")
+    void shouldNotAuthenticateUnknownCallers() throws Exception {
+        // Given
+        MockHttpServletRequest unmapped = request("unmapped", "session-1");
+        MockHttpServletRequest withoutCertificate = new MockHttpServletRequest("POST", "/api/cvs/encrypt");
+
+        // When & Then
+        filter.doFilter(unmapped, new MockHttpServletResponse(), new MockFilterChain());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        filter.doFilter(withoutCertificate, new MockHttpServletResponse(), new MockFilterChain());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private static MockHttpServletRequest request(String client, String sessionId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/cvs/encrypt");
+        request.setAttribute(MtlsAuthenticationFilter.CERTIFICATES_ATTRIBUTE,
+                new X509Certificate[]{certificate(client)});
+        if (sessionId != null) {
+            request.setAttribute(MtlsAuthenticationFilter.SESSION_ID_ATTRIBUTE, sessionId);
+        }
+        return request;
+    }
+
+    private static X509Certificate certificate(String client) throws Exception {
+        try (InputStream in = MtlsAuthenticationFilterTest.class.getResourceAsStream("/mtls/" + client + ".crt")) {
+            return (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(in);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package io.openleap.cvs.config;
+
+import io.openleap.cvs.metering.ClientUsageSnapshot;
+import io.openleap.cvs.metering.UsageMeter;
+import io.openleap.cvs.util.ClientIdResolver;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ssl.SslBundle;
+import org.springframework.boot.ssl.pem.PemSslStoreBundle;
+import org.springframework.boot.ssl.pem.PemSslStoreDetails;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "cvs.encryption-key-path=src/main/resources/encryption.key",
+        "cvs.aes-initialization-vector=ThisIsATestInitializationVector123456789012345678901234567890",
+        "spring.ssl.bundle.pem.mtls.keystore.certificate=classpath:mtls/server.crt",
+        "spring.ssl.bundle.pem.mtls.keystore.private-key=classpath:mtls/server.key",
+        "spring.ssl.bundle.pem.mtls.truststore.certificate=classpath:mtls/clients.crt",
+        "cvs.mtls.clients[0].subject=CN=orders-service,O=Crypto Vault Test",
+        "cvs.mtls.clients[0].roles=cvs.read"
+})
+@ActiveProfiles({"mtls"})
+@DisplayName("mTLS authentication Integration Tests")
+public class MtlsAuthenticationTest {
+
+    private static final String BODY = "{\"data\": {\"field\": \"sensitive data\"}, \"iv\": \"user123\"}";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UsageMeter usageMeter;
+
+    @Test
+    @DisplayName("Should authorize a configured client certificate for its roles on every request of a session")
+    void shouldAuthorizeConfiguredClient() throws Exception {
+        // Given
+        HttpClient httpClient = client("reader");
+
+        // When
+        HttpResponse<String> first = httpClient.send(encryptList(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> second = httpClient.send(encryptList(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> admin = httpClient.send(HttpRequest.newBuilder(uri("/api/cvs/admin/usage")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(200, first.statusCode());
+        assertTrue(first.body().contains("\"field\""));
+        assertEquals(200, second.statusCode());
+        assertEquals(403, admin.statusCode());
+    }
+
+    @Test
+    @DisplayName("Should forbid a trusted client certificate whose subject has no roles")
+    void shouldForbidUnmappedClient() throws Exception {
+        // When
+        HttpResponse<String> response = client("unmapped").send(encryptList(), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(403, response.statusCode());
+    }
+
+    @Test
+    @DisplayName("Should charge the CPU time of a rejected request")
+    void shouldMeterRejectedRequest() throws Exception {
+        // Given
+        long before = cpuTimeNanos(ClientIdResolver.ANONYMOUS);
+
+        // When
+        HttpResponse<String> response = client("unmapped").send(encryptList(), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(403, response.statusCode());
+        assertTrue(cpuTimeNanos(ClientIdResolver.ANONYMOUS) > before);
+    }
+
+    @Test
+    @DisplayName("Should reject the handshake of an untrusted certificate with a configured subject")
+    void shouldRejectUntrustedClient() {
+        // When & Then
+        assertThrows(IOException.class,
+                () -> client("untrusted").send(encryptList(), HttpResponse.BodyHandlers.ofString()));
+    }
+
+    private long cpuTimeNanos(String clientId) {
+        return usageMeter.snapshot().clients().stream()
+                .filter(client -> client.clientId().equals(clientId))
+                .mapToLong(ClientUsageSnapshot::cpuTimeNanos)
+                .sum();
+    }
+
+    private HttpRequest encryptList() {
+        return HttpRequest.newBuilder(uri("/api/cvs/encryptList"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(BODY))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("https://localhost:" + port + path);
+    }
+
+    private static HttpClient client(String name) {
+        PemSslStoreDetails keyStore = PemSslStoreDetails.forCertificate("classpath:mtls/" + name + ".crt")
+                .withPrivateKey("classpath:mtls/" + name + ".key");
+        PemSslStoreDetails trustStore = PemSslStoreDetails.forCertificate("classpath:mtls/server.crt");
+        SslBundle bundle = SslBundle.of(new PemSslStoreBundle(keyStore, trustStore));
+        return HttpClient.newBuilder().sslContext(bundle.createSslContext()).build();
+    }
+}
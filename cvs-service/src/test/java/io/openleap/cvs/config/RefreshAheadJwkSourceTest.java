@@ -0,0 +1,227 @@
+package io.openleap.cvs.config;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RefreshAheadJwkSource Integration Tests")
+public class RefreshAheadJwkSourceTest {
+
+    private HttpServer server;
+    private final AtomicInteger fetchCount = new AtomicInteger();
+    private volatile String jwkSetBody;
+    private volatile int statusCode = 200;
+    private volatile long responseDelayMillis;
+    private RefreshAheadJwkSource jwkSource;
+    private RSAKey firstKey;
+    private RSAKey rotatedKey;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        firstKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        rotatedKey = new RSAKeyGenerator(2048).keyID("key-2").generate();
+        jwkSetBody = new JWKSet(firstKey.toPublicJWK()).toString();
+
+        // Local stand-in for the Keycloak certs endpoint
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/certs", exchange -> {
+            fetchCount.incrementAndGet();
+            sleep(responseDelayMillis);
+            byte[] body = jwkSetBody.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(statusCode, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (jwkSource != null) {
+            jwkSource.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should fetch the JWK set eagerly on start")
+    void shouldPrefetchJwkSetOnStart() throws Exception {
+        // Given
+        jwkSource = createJwkSource(Duration.ofSeconds(10));
+
+        // When
+        jwkSource.start();
+
+        // Then
+        assertEquals(1, fetchCount.get());
+        assertNotNull(jwkSource.getJwkSet().getKeyByKeyId("key-1"));
+        assertEquals(1, jwkSource.get(selectorFor("key-1"), null).size());
+        assertEquals(1, fetchCount.get());
+    }
+
+    @Test
+    @DisplayName("Should decode a token without contacting the JWKS endpoint again")
+    void shouldDecodeTokenWithPrefetchedKeys() throws Exception {
+        // Given
+        jwkSource = createJwkSource(Duration.ofSeconds(10));
+        jwkSource.start();
+        JwtDecoder jwtDecoder = new SecurityKeycloakConfig().jwtDecoder(jwkSource);
+
+        // When
+        Jwt jwt = jwtDecoder.decode(sign(firstKey, "cvs"));
+
+        // Then
+        assertEquals("cvs", jwt.getClaimAsString("client_id"));
+        assertEquals(1, fetchCount.get());
+    }
+
+    @Test
+    @DisplayName("Should share one refresh between concurrent requests with an unknown kid")
+    void shouldShareRefreshForUnknownKid() throws Exception {
+        // Given
+        jwkSource = createJwkSource(Duration.ZERO);
+        jwkSource.start();
+        jwkSetBody = new JWKSet(List.of(firstKey.toPublicJWK(), rotatedKey.toPublicJWK())).toString();
+        responseDelayMillis = 300;
+        JwtDecoder jwtDecoder = new SecurityKeycloakConfig().jwtDecoder(jwkSource);
+        String token = sign(rotatedKey, "cvs");
+        int numberOfThreads = 16;
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+
+        // When
+        List<Future<Jwt>> results = new ArrayList<>();
+        for (int i = 0; i < numberOfThreads; i++) {
+            results.add(executor.submit(() -> {
+                startSignal.await();
+                return jwtDecoder.decode(token);
+            }));
+        }
+        startSignal.countDown();
+
+        // Then
+        for (Future<Jwt> result : results) {
+            assertEquals("cvs", result.get().getClaimAsString("client_id"));
+        }
+        executor.shutdown();
+        assertEquals(2, fetchCount.get());
+    }
+
+    @Test
+    @DisplayName("Should rate limit refreshes triggered by unknown kids")
+    void shouldRateLimitUnknownKidRefreshes() throws Exception {
+        // Given
+        jwkSource = createJwkSource(Duration.ofMinutes(1));
+        jwkSource.start();
+
+        // When
+        List<?> firstLookup = jwkSource.get(selectorFor("unknown"), null);
+        List<?> secondLookup = jwkSource.get(selectorFor("unknown"), null);
+
+        // Then
+        assertTrue(firstLookup.isEmpty());
+        assertTrue(secondLookup.isEmpty());
+        assertEquals(1, fetchCount.get());
+    }
+
+    @Test
+    @DisplayName("Should keep the last good JWK set when the endpoint fails")
+    void shouldKeepLastGoodJwkSetDuringOutage() throws Exception {
+        // Given
+        jwkSource = createJwkSource(Duration.ZERO);
+        jwkSource.start();
+        statusCode = 503;
+        JwtDecoder jwtDecoder = new SecurityKeycloakConfig().jwtDecoder(jwkSource);
+
+        // When
+        assertTrue(jwkSource.get(selectorFor("unknown"), null).isEmpty());
+        Jwt jwt = jwtDecoder.decode(sign(firstKey, "cvs"));
+
+        // Then
+        assertEquals(2, fetchCount.get());
+        assertEquals("cvs", jwt.getClaimAsString("client_id"));
+        assertNotNull(jwkSource.getJwkSet().getKeyByKeyId("key-1"));
+    }
+
+    @Test
+    @DisplayName("Should start without keys and recover once the endpoint is reachable")
+    void shouldRecoverWhenInitialFetchFails() throws Exception {
+        // Given
+        statusCode = 500;
+        jwkSource = createJwkSource(Duration.ZERO);
+
+        // When
+        jwkSource.start();
+        statusCode = 200;
+
+        // Then
+        assertNull(jwkSource.getJwkSet());
+        assertEquals(1, jwkSource.get(selectorFor("key-1"), null).size());
+    }
+
+    private RefreshAheadJwkSource createJwkSource(Duration minRefreshInterval) {
+        JwksProperties properties = new JwksProperties();
+        properties.setMinRefreshInterval(minRefreshInterval);
+        properties.setFetchTimeout(Duration.ofSeconds(5));
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/certs");
+        return new RefreshAheadJwkSource(uri, properties);
+    }
+
+    private static JWKSelector selectorFor(String keyId) {
+        return new JWKSelector(new JWKMatcher.Builder().keyID(keyId).build());
+    }
+
+    private static String sign(RSAKey key, String clientId) throws JOSEException {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .claim("client_id", clientId)
+                .issueTime(java.util.Date.from(Instant.now()))
+                .expirationTime(java.util.Date.from(Instant.now().plusSeconds(300)))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package io.openleap.cvs.controller;
 
+import io.openleap.cvs.audit.AuditLog;
+import io.openleap.cvs.audit.AuditOperation;
 import io.openleap.cvs.controller.dto.DecryptListRequestDto;
+import io.openleap.cvs.controller.dto.DecryptListResponseDto;
 import io.openleap.cvs.controller.dto.DecryptRequestDto;
 import io.openleap.cvs.controller.dto.EncryptListRequestDto;
 import io.openleap.cvs.controller.dto.EncryptRequestDto;
-import io.openleap.cvs.exception.InvalidIvException;
+import io.openleap.cvs.core.DecryptResult;
+import io.openleap.cvs.core.InvalidIvException;
+import io.openleap.cvs.metering.UsageMeter;
 import io.openleap.cvs.service.CryptoService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -21,6 +26,7 @@ import org.springframework.http.ResponseEntity;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,6 +42,12 @@ public class CryptoVaultControllerTest {
     @Mock
     private CryptoService cryptoService;
 
+    @Mock
+    private AuditLog auditLog;
+
+    @Mock
+    private UsageMeter usageMeter;
+
     @InjectMocks
     private CryptoVaultController cryptoVaultController;
 
@@ -129,6 +141,72 @@ public class CryptoVaultControllerTest {
         verify(cryptoService).encryptWithAesCbc(data, "user123");
     }
 
+    @Test
+    @DisplayName("Should return per-entry results and count the failures")
+    void shouldReturnPerEntryResultsWhenDecryptingWithStatus() throws Exception {
+        // Given
+        Map<String, String> data = new LinkedHashMap<>();
+        data.put("field1", "encrypted_field1");
+        data.put("field2", "tampered_field2");
+        data.put("objectId", "12345");
+
+        Map<String, DecryptResult> results = new LinkedHashMap<>();
+        results.put("field1", DecryptResult.ok("sensitive data 1"));
+        results.put("field2", DecryptResult.authFailure());
+        results.put("objectId", DecryptResult.ok("12345"));
+
+        when(cryptoService.decryptEntries(data, "user123")).thenReturn(results);
+
+        // When
+        ResponseEntity<DecryptListResponseDto> response =
+                cryptoVaultController.decryptMapWithStatus(new DecryptListRequestDto(data, "user123"));
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody().data());
+        assertEquals(1, response.getBody().failed());
+    }
+
+    @Test
+    @DisplayName("Should record an audit entry without values when audit log is running")
+    void shouldRecordAuditEntryForMultipleValues() throws Exception {
+        // Given
+        Map<String, String> data = new HashMap<>();
+        data.put("field1", "sensitive data 1");
+        data.put("objectId", "12345");
+
+        Map<String, String> expectedEncrypted = new HashMap<>();
+        expectedEncrypted.put("field1", "encrypted_field1");
+        expectedEncrypted.put("objectId", "12345");
+
+        when(cryptoService.encryptWithAesCbc(any(Map.class), anyString())).thenReturn(expectedEncrypted);
+        when(cryptoService.getKeyVersion()).thenReturn(42);
+        when(auditLog.isRunning()).thenReturn(true);
+
+        // When
+        cryptoVaultController.encryptMap(new EncryptListRequestDto(data, "user123"));
+
+        // Then
+        verify(auditLog).record(AuditOperation.ENCRYPT_LIST, "anonymous", 42, 2, "12345");
+    }
+
+    @Test
+    @DisplayName("Should meter the plaintext bytes of multiple values without the objectId")
+    void shouldMeterMultipleValues() throws Exception {
+        // Given
+        Map<String, String> data = new HashMap<>();
+        data.put("field1", "ümlaut");
+        data.put("objectId", "12345");
+
+        when(cryptoService.encryptWithAesCbc(any(Map.class), anyString())).thenReturn(Map.of("field1", "x"));
+
+        // When
+        cryptoVaultController.encryptMap(new EncryptListRequestDto(data, "user123"));
+
+        // Then
+        verify(usageMeter).record("anonymous", AuditOperation.ENCRYPT_LIST, 1, 7);
+    }
+
     @Test
     @DisplayName("Should successfully decrypt multiple values")
     void shouldSuccessfullyDecryptMultipleValues() throws Exception {
@@ -0,0 +1,205 @@
+package io.openleap.cvs.document;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openleap.cvs.config.CvsConfig;
+import io.openleap.cvs.config.DocumentProperties;
+import io.openleap.cvs.core.InvalidIvException;
+import io.openleap.cvs.service.CryptoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DocumentCryptoService Unit Tests")
+public class DocumentCryptoServiceTest {
+    private static final String DOCUMENT = """
+            {
+              "objectId": "12345",
+              "customer": {"name": "Jane Doe", "email": "jane@example.com", "age": 42, "vip": true},
+              "addresses": [
+                {"street": "Main St 1", "city": "Berlin", "notes": null},
+                {"street": "Side St 2", "city": "Hamburg"}
+              ],
+              "orders": [{"card": {"number": "4111", "expiry": "12/30"}}]
+            }
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CryptoService cryptoService;
+    private DocumentProperties properties;
+    private DocumentCryptoService documentCryptoService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path secretKeyFile = tempDir.resolve("secret.key");
+        Files.writeString(secretKeyFile, "ThisIsATestSecretKeyForAESEncryption123456789012345678901234567890");
+        CvsConfig cvsConfig = new CvsConfig();
+        cvsConfig.setEncryptionKeyPath(secretKeyFile.toString());
+        cvsConfig.setAesInitializationVector("ThisIsATestInitializationVector123456789012345678901234567890");
+        cryptoService = new CryptoService(cvsConfig);
+        properties = new DocumentProperties();
+        properties.setPolicies(Map.of("customer", List.of("$.customer.email", "$..street")));
+        documentCryptoService = new DocumentCryptoService(cryptoService, objectMapper, properties);
+    }
+
+    @Test
+    @DisplayName("Should encrypt only the selected leaves and keep the structure")
+    void shouldEncryptSelectedLeaves() throws Exception {
+        // Given
+        FieldPolicy policy = documentCryptoService.policy(null, List.of("$.customer.name", "$.addresses[*].street"));
+
+        // When
+        JsonNode encrypted = objectMapper.readTree(encrypt(DOCUMENT, policy));
+
+        // Then
+        JsonNode original = objectMapper.readTree(DOCUMENT);
+        assertEquals("Jane Doe", decrypt(encrypted.at("/customer/name")));
+        assertEquals("Main St 1", decrypt(encrypted.at("/addresses/0/street")));
+        assertEquals("Side St 2", decrypt(encrypted.at("/addresses/1/street")));
+        assertEquals(original.at("/customer/email"), encrypted.at("/customer/email"));
+        assertEquals(original.at("/addresses/0/city"), encrypted.at("/addresses/0/city"));
+        assertEquals(original.get("orders"), encrypted.get("orders"));
+        assertTrue(encrypted.at("/addresses/0/notes").isNull());
+        assertEquals(List.of("objectId", "customer", "addresses", "orders"), fieldNames(encrypted));
+    }
+
+    @Test
+    @DisplayName("Should encrypt every leaf below a selected container and by recursive descent")
+    void shouldEncryptSubtreesAndRecursiveMatches() throws Exception {
+        // Given
+        FieldPolicy policy = documentCryptoService.policy(null, List.of("$..card", "$['customer'].*"));
+
+        // When
+        JsonNode encrypted = objectMapper.readTree(encrypt(DOCUMENT, policy));
+
+        // Then
+        assertEquals("4111", decrypt(encrypted.at("/orders/0/card/number")));
+        assertEquals("12/30", decrypt(encrypted.at("/orders/0/card/expiry")));
+        assertEquals("42", decrypt(encrypted.at("/customer/age")));
+        assertEquals("true", decrypt(encrypted.at("/customer/vip")));
+        assertEquals("12345", encrypted.get("objectId").asText());
+    }
+
+    @Test
+    @DisplayName("Should restore the document when decrypting with the same policy")
+    void shouldRoundTripWithNamedPolicy() throws Exception {
+        // Given
+        FieldPolicy policy = documentCryptoService.policy("customer", null);
+        String encrypted = encrypt(DOCUMENT, policy);
+
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        documentCryptoService.decrypt(stream(encrypted), out, policy, "user123");
+
+        // Then
+        assertNotEquals(objectMapper.readTree(DOCUMENT), objectMapper.readTree(encrypted));
+        assertEquals(objectMapper.readTree(DOCUMENT), objectMapper.readTree(out.toByteArray()));
+    }
+
+    @Test
+    @DisplayName("Should report the leaves and plaintext bytes it encrypted and decrypted")
+    void shouldReportLeavesAndPlaintextBytes() throws Exception {
+        // Given
+        FieldPolicy policy = documentCryptoService.policy(null, List.of("$..street", "$.customer.age"));
+        ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+
+        // When
+        DocumentUsage encryptUsage = documentCryptoService.encrypt(stream(DOCUMENT), encrypted, policy, "user123");
+        DocumentUsage decryptUsage = documentCryptoService.decrypt(
+                stream(encrypted.toString(StandardCharsets.UTF_8)), new ByteArrayOutputStream(), policy, "user123");
+
+        // Then
+        long plaintextBytes = "Main St 1".length() + "Side St 2".length() + "42".length();
+        assertEquals(new DocumentUsage(3, plaintextBytes), encryptUsage);
+        assertEquals(new DocumentUsage(3, plaintextBytes), decryptUsage);
+    }
+
+    @Test
+    @DisplayName("Should reuse the compiled policy for the same selectors")
+    void shouldCacheCompiledPolicies() {
+        // When
+        FieldPolicy first = documentCryptoService.policy(null, List.of("$.a", "$.b"));
+        FieldPolicy second = documentCryptoService.policy(null, List.of("$.a", "$.b"));
+
+        // Then
+        assertSame(first, second);
+        assertNotSame(first, documentCryptoService.policy(null, List.of("$.b", "$.a")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"customer.name", "$.", "$[", "$.a[?(@.b)]", "$.a[-1]", "$.a.[0]"})
+    @DisplayName("Should reject unsupported selectors")
+    void shouldRejectInvalidSelectors(String selector) {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> documentCryptoService.policy(null, List.of(selector)));
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown policy name")
+    void shouldRejectUnknownPolicy() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> documentCryptoService.policy("unknown", null));
+    }
+
+    @Test
+    @DisplayName("Should throw InvalidIvException when a selected value is not encrypted")
+    void shouldThrowWhenDecryptingPlainValue() {
+        // Given
+        FieldPolicy policy = documentCryptoService.policy(null, List.of("$.customer.name"));
+
+        // When & Then
+        assertThrows(InvalidIvException.class, () -> documentCryptoService.decrypt(
+                stream(DOCUMENT), new ByteArrayOutputStream(), policy, "user123"));
+    }
+
+    @Test
+    @DisplayName("Should reject a document whose result exceeds the maximum size")
+    void shouldRejectDocumentLargerThanMaximum() {
+        // Given
+        properties.setMaxSize(DataSize.ofBytes(DOCUMENT.length() / 2));
+        FieldPolicy policy = documentCryptoService.policy(null, List.of("$.customer.name"));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> documentCryptoService.encrypt(
+                stream(DOCUMENT), new ByteArrayOutputStream(), policy, "user123"));
+    }
+
+    private String encrypt(String document, FieldPolicy policy) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        documentCryptoService.encrypt(stream(document), out, policy, "user123");
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private String decrypt(JsonNode value) throws Exception {
+        assertTrue(value.isTextual(), "expected an encrypted string but got " + value);
+        return cryptoService.decryptWithAesCbc(value.asText(), "user123");
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private static ByteArrayInputStream stream(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
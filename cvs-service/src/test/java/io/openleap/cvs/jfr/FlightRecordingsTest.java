@@ -0,0 +1,109 @@
+package io.openleap.cvs.jfr;
+
+import io.openleap.cvs.config.CvsConfig;
+import io.openleap.cvs.config.FlightRecorderProperties;
+import io.openleap.cvs.core.jfr.CryptoEvents;
+import io.openleap.cvs.service.CryptoService;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FlightRecordings Unit Tests")
+public class FlightRecordingsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private CryptoService cryptoService;
+    private FlightRecordings flightRecordings;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path secretKeyFile = tempDir.resolve("secret.key");
+        Files.writeString(secretKeyFile, "ThisIsATestSecretKeyForAESEncryption123456789012345678901234567890");
+        CvsConfig cvsConfig = new CvsConfig();
+        cvsConfig.setEncryptionKeyPath(secretKeyFile.toString());
+        cvsConfig.setAesInitializationVector("ThisIsATestInitializationVector123456789012345678901234567890");
+        cryptoService = new CryptoService(cvsConfig);
+        flightRecordings = new FlightRecordings(new FlightRecorderProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        flightRecordings.close();
+    }
+
+    @Test
+    @DisplayName("Should record an event for the operation and for every phase")
+    void shouldRecordCryptoPhases() throws Exception {
+        // Given
+        flightRecordings.start(Duration.ofMinutes(1), "default");
+
+        // When
+        Map<String, String> encrypted = cryptoService.encryptWithAesCbc(
+                Map.of("objectId", "42", "name", "Jane", "city", "Köln"), "user123");
+        cryptoService.decryptWithAesCbc(encrypted, "user123");
+        Path file = flightRecordings.dump().orElseThrow();
+        List<RecordedEvent> events;
+        try {
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+
+        // Then
+        List<RecordedEvent> operations = events(events, "io.openleap.cvs.CryptoOperation");
+        assertEquals(2, operations.size());
+        RecordedEvent encrypt = operations.stream()
+                .filter(event -> CryptoEvents.ENCRYPT.equals(event.getString("operation")))
+                .findFirst().orElseThrow();
+        assertEquals(3, encrypt.getInt("batchSize"));
+        assertEquals(9, encrypt.getLong("bytes"));
+        assertEquals(cryptoService.getKeyVersion(), encrypt.getInt("keyVersion"));
+        assertFalse(events(events, "io.openleap.cvs.CipherSetup").isEmpty());
+        assertEquals(4, events(events, "io.openleap.cvs.Cipher").size());
+        assertFalse(events(events, "io.openleap.cvs.Encoding").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject a second recording while one is running")
+    void shouldRejectSecondRecording() {
+        // Given
+        Recording recording = flightRecordings.start(Duration.ofMinutes(1), "default");
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> flightRecordings.start(Duration.ofMinutes(1), "default"));
+        assertEquals(RecordingState.RUNNING, recording.getState());
+        assertTrue(flightRecordings.close());
+        assertTrue(flightRecordings.current().isEmpty());
+        assertFalse(flightRecordings.close());
+    }
+
+    @Test
+    @DisplayName("Should reject a duration above the maximum and unknown settings")
+    void shouldRejectInvalidArguments() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> flightRecordings.start(Duration.ofHours(1), "default"));
+        assertThrows(IllegalArgumentException.class, () -> flightRecordings.start(Duration.ZERO, "default"));
+        assertThrows(IllegalArgumentException.class, () -> flightRecordings.start(Duration.ofMinutes(1), "unknown"));
+        assertTrue(flightRecordings.current().isEmpty());
+    }
+
+    private static List<RecordedEvent> events(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> name.equals(event.getEventType().getName())).toList();
+    }
+}
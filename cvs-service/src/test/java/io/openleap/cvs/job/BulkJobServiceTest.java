@@ -0,0 +1,341 @@
+package io.openleap.cvs.job;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openleap.cvs.audit.AuditOperation;
+import io.openleap.cvs.config.CvsConfig;
+import io.openleap.cvs.config.JobProperties;
+import io.openleap.cvs.config.MeteringProperties;
+import io.openleap.cvs.metering.ClientUsageSnapshot;
+import io.openleap.cvs.metering.UsageMeter;
+import io.openleap.cvs.service.CryptoService;
+import io.openleap.cvs.web.RequestBodyTooLargeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BulkJobService Unit Tests")
+public class BulkJobServiceTest {
+    private static final String OWNER = "client-a";
+
+    @TempDir
+    Path tempDir;
+
+    private CryptoService cryptoService;
+    private JobProperties properties;
+    private UsageMeter usageMeter;
+    private BulkJobService bulkJobService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path secretKeyFile = tempDir.resolve("secret.key");
+        Files.writeString(secretKeyFile, "ThisIsATestSecretKeyForAESEncryption123456789012345678901234567890");
+        CvsConfig cvsConfig = new CvsConfig();
+        cvsConfig.setEncryptionKeyPath(secretKeyFile.toString());
+        cvsConfig.setAesInitializationVector("ThisIsATestInitializationVector123456789012345678901234567890");
+        cryptoService = new CryptoService(cvsConfig);
+
+        MeteringProperties meteringProperties = new MeteringProperties();
+        meteringProperties.setSnapshotFile(tempDir.resolve("metering/usage.json").toString());
+        usageMeter = new UsageMeter(meteringProperties, objectMapper);
+
+        properties = new JobProperties();
+        properties.setDirectory(tempDir.resolve("jobs").toString());
+        properties.setChunkSize(3);
+        properties.setWorkerThreads(2);
+        bulkJobService = createService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkJobService.stop();
+    }
+
+    @Test
+    @DisplayName("Should encrypt an NDJSON input in chunks and keep the record order")
+    void shouldEncryptNdjsonInput() throws Exception {
+        // Given
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            input.append("{\"objectId\": \"").append(i).append("\", \"name\": \"value ").append(i).append("\"}\n");
+        }
+
+        // When
+        BulkJob job = awaitCompletion(bulkJobService.create(OWNER, JobOperation.ENCRYPT, JobFormat.NDJSON, "user123",
+                stream(input.toString())));
+
+        // Then
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertEquals(10, job.getRecords());
+        assertEquals(4, job.getTotalChunks());
+        List<String> lines = result(job).lines().toList();
+        assertEquals(10, lines.size());
+        for (int i = 0; i < 10; i++) {
+            Map<?, ?> record = objectMapper.readValue(lines.get(i), Map.class);
+            assertEquals(String.valueOf(i), record.get("objectId"));
+            assertEquals("value " + i, cryptoService.decryptWithAesCbc((String) record.get("name"), "user123"));
+        }
+        ClientUsageSnapshot usage = awaitUsage(OWNER);
+        assertEquals(Map.of(AuditOperation.ENCRYPT_LIST, 1L), usage.operations());
+        assertEquals(10, usage.entries());
+        assertEquals(10 * "value 0".length(), usage.plaintextBytes());
+    }
+
+    @Test
+    @DisplayName("Should decrypt a CSV input and count the fields that fail")
+    void shouldDecryptCsvInput() throws Exception {
+        // Given
+        String first = cryptoService.encryptWithAesCbc("Doe, John", "user123");
+        String second = cryptoService.encryptWithAesCbc("say \"hi\"", "user123");
+        String input = "objectId,name,note\r\n"
+                + "1," + first + "," + second + "\r\n"
+                + "2,corrupted," + first + "\r\n";
+
+        // When
+        BulkJob job = awaitCompletion(bulkJobService.create(OWNER, JobOperation.DECRYPT, JobFormat.CSV, "user123",
+                stream(input)));
+
+        // Then
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertEquals(1, job.getFailedEntries());
+        assertEquals("Doe, John".length() * 2 + "say \"hi\"".length(), job.getPlaintextBytes());
+        assertEquals("objectId,name,note\n"
+                + "1,\"Doe, John\",\"say \"\"hi\"\"\"\n"
+                + "2,,\"Doe, John\"\n", result(job));
+    }
+
+    @Test
+    @DisplayName("Should re-encrypt values from the previous key to the current key without writing plaintext")
+    void shouldReencryptWithCurrentKey() throws Exception {
+        // Given
+        Path previousKeyFile = tempDir.resolve("previous.key");
+        Files.writeString(previousKeyFile, "ThisIsThePreviousSecretKeyForAESEncryption1234567890123456789012");
+        CvsConfig previousConfig = new CvsConfig();
+        previousConfig.setEncryptionKeyPath(previousKeyFile.toString());
+        previousConfig.setAesInitializationVector("ThisIsATestInitializationVector123456789012345678901234567890");
+        CryptoService previousService = new CryptoService(previousConfig);
+        CvsConfig migrationConfig = new CvsConfig();
+        migrationConfig.setEncryptionKeyPath(tempDir.resolve("secret.key").toString());
+        migrationConfig.setPreviousEncryptionKeyPath(previousKeyFile.toString());
+        migrationConfig.setAesInitializationVector(previousConfig.getAesInitializationVector());
+        bulkJobService.stop();
+        cryptoService = new CryptoService(migrationConfig);
+        bulkJobService = createService();
+        String input = "objectId,field,ciphertext,iv\n"
+                + "1,name," + previousService.encryptWithAesCbc("Jane Doe", "user-1") + ",user-1\n"
+                + "2,name," + previousService.encryptWithAesCbc("John Doe", "user-2") + ",user-2\n"
+                + "3,name,corrupted,user-3\n";
+
+        // When
+        BulkJob job = awaitCompletion(bulkJobService.create(OWNER, JobOperation.REENCRYPT, JobFormat.CSV, "tenant",
+                stream(input)));
+
+        // Then
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertEquals(1, job.getFailedEntries());
+        List<String> lines = result(job).lines().toList();
+        assertEquals("objectId,field,ciphertext,iv", lines.get(0));
+        assertFalse(lines.get(1).contains("Jane"));
+        List<String> first = List.of(lines.get(1).split(","));
+        assertEquals("tenant", first.get(3));
+        assertEquals("Jane Doe", cryptoService.decryptWithAesCbc(first.get(2), "tenant"));
+        assertEquals("John Doe", cryptoService.decryptWithAesCbc(lines.get(2).split(",")[2], "tenant"));
+        assertEquals("3,name,,tenant", lines.get(3));
+    }
+
+    @Test
+    @DisplayName("Should keep the IV of every record when re-encrypting without a target IV")
+    void shouldReencryptWithRecordIv() throws Exception {
+        // Given
+        String input = "{\"objectId\": \"1\", \"ciphertext\": \""
+                + cryptoService.encryptWithAesCbc("value", "user-1") + "\", \"iv\": \"user-1\"}\n"
+                + "{\"objectId\": \"2\", \"ciphertext\": null, \"iv\": \"user-2\"}\n";
+
+        // When
+        BulkJob job = awaitCompletion(bulkJobService.create(OWNER, JobOperation.REENCRYPT, JobFormat.NDJSON, null,
+                stream(input)));
+
+        // Then
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertEquals(0, job.getFailedEntries());
+        List<String> lines = result(job).lines().toList();
+        Map<?, ?> record = objectMapper.readValue(lines.get(0), Map.class);
+        assertEquals("user-1", record.get("iv"));
+        assertEquals("value", cryptoService.decryptWithAesCbc((String) record.get("ciphertext"), "user-1"));
+        assertEquals("{\"objectId\":\"2\",\"ciphertext\":null,\"iv\":\"user-2\"}", lines.get(1));
+    }
+
+    @Test
+    @DisplayName("Should reject a re-encryption CSV input without a ciphertext field")
+    void shouldRejectReencryptionWithoutCiphertext() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> bulkJobService.create(OWNER,
+                JobOperation.REENCRYPT, JobFormat.CSV, null, stream("objectId,value,iv\n1,a,b\n")));
+    }
+
+    @Test
+    @DisplayName("Should process no more records per second than configured")
+    void shouldLimitRecordsPerSecond() throws Exception {
+        // Given
+        bulkJobService.stop();
+        properties.setMaxRecordsPerSecond(50);
+        bulkJobService = createService();
+        String input = "{\"name\": \"value\"}\n".repeat(20);
+
+        // When
+        long start = System.nanoTime();
+        BulkJob job = awaitCompletion(bulkJobService.create(OWNER, JobOperation.ENCRYPT, JobFormat.NDJSON, "user123",
+                stream(input)));
+
+        // Then
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertTrue(System.nanoTime() - start >= 350_000_000L);
+    }
+
+    @Test
+    @DisplayName("Should resume a job from its journal after a restart")
+    void shouldResumeJobAfterRestart() throws Exception {
+        // Given
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 9; i++) {
+            input.append("{\"name\": \"value ").append(i).append("\"}\n");
+        }
+        BulkJob job = awaitCompletion(bulkJobService.create(OWNER, JobOperation.ENCRYPT, JobFormat.NDJSON, "user123",
+                stream(input.toString())));
+        bulkJobService.stop();
+
+        // Simulate a crash after the first chunk: only chunk 0 is journaled
+        Path directory = job.getDirectory();
+        Files.writeString(directory.resolve(BulkJob.JOURNAL_FILE), "0 0\n1 0");
+        Files.writeString(job.chunkOutput(0), "{\"name\":\"kept\"}\n");
+        Files.delete(job.chunkOutput(1));
+        Files.delete(job.chunkOutput(2));
+        Path metadata = directory.resolve(BulkJob.METADATA_FILE);
+        Files.writeString(metadata, Files.readString(metadata).replace("status=COMPLETED", "status=RUNNING"));
+
+        // When
+        bulkJobService = createService();
+        BulkJob resumed = awaitCompletion(bulkJobService.find(job.getId(), OWNER).orElseThrow());
+
+        // Then
+        assertEquals(JobStatus.COMPLETED, resumed.getStatus());
+        assertEquals(3, resumed.getCompletedChunks());
+        List<String> lines = result(resumed).lines().toList();
+        assertEquals(7, lines.size());
+        assertEquals("{\"name\":\"kept\"}", lines.get(0));
+        Map<?, ?> last = objectMapper.readValue(lines.get(6), Map.class);
+        assertEquals("value 8", cryptoService.decryptWithAesCbc((String) last.get("name"), "user123"));
+    }
+
+    @Test
+    @DisplayName("Should fail the job with the position of an invalid record")
+    void shouldFailJobOnInvalidRecord() throws Exception {
+        // Given
+        String input = "{\"name\": \"value\"}\n{\"name\": \"value\"}\n\n{\"name\": \n";
+
+        // When
+        BulkJob job = awaitCompletion(bulkJobService.create(OWNER, JobOperation.ENCRYPT, JobFormat.NDJSON, "user123",
+                stream(input)));
+
+        // Then
+        assertEquals(JobStatus.FAILED, job.getStatus());
+        assertTrue(job.getError().startsWith("Chunk 1, line 1:"), job.getError());
+        assertThrows(IllegalStateException.class, () -> bulkJobService.openResult(job));
+    }
+
+    @Test
+    @DisplayName("Should show a job only to the client that created it, also after a restart")
+    void shouldScopeJobsToOwner() throws Exception {
+        // Given
+        BulkJob job = awaitCompletion(bulkJobService.create(OWNER, JobOperation.ENCRYPT, JobFormat.NDJSON, "user123",
+                stream("{\"name\": \"value\"}\n")));
+        BulkJob other = awaitCompletion(bulkJobService.create("client-b", JobOperation.ENCRYPT, JobFormat.NDJSON,
+                "user123", stream("{\"name\": \"value\"}\n")));
+
+        // When
+        bulkJobService.stop();
+        bulkJobService = createService();
+
+        // Then
+        assertTrue(bulkJobService.find(job.getId(), OWNER).isPresent());
+        assertTrue(bulkJobService.find(job.getId(), "client-b").isEmpty());
+        assertTrue(bulkJobService.find(other.getId(), OWNER).isEmpty());
+        assertEquals(List.of(job.getId()), bulkJobService.list(OWNER).stream().map(BulkJob::getId).toList());
+        assertEquals(List.of(other.getId()), bulkJobService.list("client-b").stream().map(BulkJob::getId).toList());
+        assertTrue(bulkJobService.list(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject a CSV input with duplicate field names")
+    void shouldRejectCsvWithDuplicateHeader() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> bulkJobService.create(OWNER,
+                JobOperation.ENCRYPT, JobFormat.CSV, "user123", stream("name,name\na,b\n")));
+    }
+
+    @Test
+    @DisplayName("Should reject an input larger than the limit and remove its files")
+    void shouldRejectInputLargerThanLimit() throws Exception {
+        // Given
+        properties.setMaxInputSize(DataSize.ofBytes(100));
+
+        // When & Then
+        assertThrows(RequestBodyTooLargeException.class, () -> bulkJobService.create(OWNER,
+                JobOperation.ENCRYPT, JobFormat.NDJSON, "user123", stream("{\"name\": \"value\"}\n".repeat(200))));
+        try (var entries = Files.list(tempDir.resolve("jobs"))) {
+            assertEquals(0, entries.count());
+        }
+    }
+
+    private BulkJobService createService() {
+        BulkJobService service = new BulkJobService(cryptoService, objectMapper, properties, usageMeter);
+        service.start();
+        return service;
+    }
+
+    private ClientUsageSnapshot awaitUsage(String clientId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            Optional<ClientUsageSnapshot> usage = usageMeter.snapshot().clients().stream()
+                    .filter(client -> client.clientId().equals(clientId))
+                    .findFirst();
+            if (usage.isPresent()) {
+                return usage.get();
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("No usage of " + clientId);
+    }
+
+    private static BulkJob awaitCompletion(BulkJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (job.getStatus() == JobStatus.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return job;
+    }
+
+    private String result(BulkJob job) throws Exception {
+        try (InputStream in = bulkJobService.openResult(job)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static InputStream stream(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,147 @@
+package io.openleap.cvs.metering;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openleap.cvs.audit.AuditOperation;
+import io.openleap.cvs.config.MeteringProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DisplayName("UsageMeter Unit Tests")
+public class UsageMeterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    @DisplayName("Should count every record from concurrent request threads")
+    void shouldCountConcurrentRecords() throws Exception {
+        // Given
+        UsageMeter usageMeter = new UsageMeter(properties(), objectMapper);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            String clientId = "client-" + (t % 2);
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    usageMeter.record(clientId, AuditOperation.ENCRYPT_LIST, 3, 10);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        List<ClientUsageSnapshot> clients = usageMeter.snapshot().clients();
+        assertEquals(2, clients.size());
+        for (ClientUsageSnapshot client : clients) {
+            assertEquals(Map.of(AuditOperation.ENCRYPT_LIST, 40000L), client.operations());
+            assertEquals(120000, client.entries());
+            assertEquals(400000, client.plaintextBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Should charge the CPU time of the current thread")
+    void shouldChargeCpuTime() {
+        // Given
+        UsageMeter usageMeter = new UsageMeter(properties(), objectMapper);
+        long startCpuTime = usageMeter.currentThreadCpuTime();
+        assumeTrue(startCpuTime >= 0, "Thread CPU time is not supported");
+
+        // When
+        long result = 0;
+        for (int i = 0; i < 5_000_000; i++) {
+            result += Long.hashCode(result + i);
+        }
+        usageMeter.recordCpuTime("client", startCpuTime);
+
+        // Then
+        assertNotEquals(42, result);
+        assertTrue(usageMeter.snapshot().clients().get(0).cpuTimeNanos() > 0);
+    }
+
+    @Test
+    @DisplayName("Should write a snapshot on stop and continue from it after a restart")
+    void shouldRestoreSnapshot() throws Exception {
+        // Given
+        MeteringProperties properties = properties();
+        UsageMeter usageMeter = new UsageMeter(properties, objectMapper);
+        usageMeter.start();
+        usageMeter.record("client äöü", AuditOperation.DECRYPT, 1, 5);
+
+        // When
+        usageMeter.stop();
+        UsageMeter restarted = new UsageMeter(properties, objectMapper);
+        restarted.start();
+        restarted.record("client äöü", AuditOperation.DECRYPT, 1, 5);
+        UsageSnapshot snapshot = restarted.snapshot();
+        restarted.stop();
+
+        // Then
+        assertTrue(Files.exists(Path.of(properties.getSnapshotFile())));
+        assertEquals(usageMeter.snapshot().since(), snapshot.since());
+        ClientUsageSnapshot client = snapshot.clients().get(0);
+        assertEquals("client äöü", client.clientId());
+        assertEquals(Map.of(AuditOperation.DECRYPT, 2L), client.operations());
+        assertEquals(10, client.plaintextBytes());
+    }
+
+    @Test
+    @DisplayName("Should count clients beyond the limit together")
+    void shouldLimitClients() {
+        // Given
+        MeteringProperties properties = properties();
+        properties.setMaxClients(2);
+        UsageMeter usageMeter = new UsageMeter(properties, objectMapper);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            usageMeter.record("client-" + i, AuditOperation.ENCRYPT, 1, 1);
+        }
+
+        // Then
+        List<ClientUsageSnapshot> clients = usageMeter.snapshot().clients();
+        assertEquals(3, clients.size());
+        assertEquals(3, clients.stream()
+                .filter(client -> UsageMeter.OTHER_CLIENTS.equals(client.clientId()))
+                .findFirst().orElseThrow().entries());
+    }
+
+    @Test
+    @DisplayName("Should count plaintext bytes like UTF-8 encoding")
+    void shouldCountUtf8Bytes() {
+        // Given
+        String value = "ascii ümlaut € 😀 \u0000";
+
+        // When & Then
+        assertEquals(value.getBytes(StandardCharsets.UTF_8).length, UsageMeter.utf8Length(value));
+        assertEquals(0, UsageMeter.utf8Length(null));
+        assertEquals(3, UsageMeter.plaintextBytes(Map.of("objectId", "12345", "field", "äb")));
+    }
+
+    private MeteringProperties properties() {
+        MeteringProperties properties = new MeteringProperties();
+        properties.setSnapshotFile(tempDir.resolve("metering/usage.json").toString());
+        return properties;
+    }
+}
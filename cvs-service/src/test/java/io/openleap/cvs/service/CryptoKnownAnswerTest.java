@@ -0,0 +1,97 @@
+package io.openleap.cvs.service;
+
+import io.openleap.cvs.config.CvsConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Known-answer tests pinning the exact ciphertexts produced by the JVM build. They run unchanged inside
+ * the native image ({@code mvn -PnativeTest test}), so a native binary that encrypts or decrypts
+ * different bytes than the JVM build fails here.
+ */
+@DisplayName("CryptoService Known Answer Tests")
+public class CryptoKnownAnswerTest {
+
+    private static final String SESSION_USER_ID = "1abc7969-6c7d-4395-9aa3-b1c7d169aa37:e4aa2cf0-efe3-420f-a28a-20f3d409c27b";
+
+    @TempDir
+    Path tempDir;
+
+    private CryptoService cryptoService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path secretKeyFile = tempDir.resolve("secret.key");
+        Files.writeString(secretKeyFile, "ThisIsATestSecretKeyForAESEncryption123456789012345678901234567890");
+
+        CvsConfig cvsConfig = new CvsConfig();
+        cvsConfig.setEncryptionKeyPath(secretKeyFile.toString());
+        cvsConfig.setAesInitializationVector("ThisIsATestInitializationVector123456789012345678901234567890");
+
+        cryptoService = new CryptoService(cvsConfig);
+    }
+
+    @Test
+    @DisplayName("Should produce the known ciphertext with the default IV")
+    void shouldMatchKnownCiphertextWithDefaultIv() throws Exception {
+        assertKnownAnswer("Hello, World!", null, "A91H1PvRtwFfxaQK9%2B_01%2BtOdvZAEPU6dayH7kiCCwo%3D");
+    }
+
+    @Test
+    @DisplayName("Should produce the known ciphertext with a session user IV")
+    void shouldMatchKnownCiphertextWithSessionUserIv() throws Exception {
+        assertKnownAnswer("Hello, World!", "user123", "F0tYngXFWxZoJ%2BRxjmKq%2BOV9EmCgMmDToksgTl8%3D");
+    }
+
+    @Test
+    @DisplayName("Should produce the known ciphertext for an empty string")
+    void shouldMatchKnownCiphertextForEmptyString() throws Exception {
+        assertKnownAnswer("", "user123", "7c6q4YqpKI2d0fFVBorlhw%3D%3D");
+    }
+
+    @Test
+    @DisplayName("Should produce the known ciphertext for unicode text")
+    void shouldMatchKnownCiphertextForUnicode() throws Exception {
+        assertKnownAnswer("Unicode: 你好世界 🌍 émojis 🚀", SESSION_USER_ID,
+                "dRrR1zKedruM9T%2B_01%2BzNVr3rk%2B_01%2BCfv%2BfbwXiHv0LTt20lS66T6bxBhp7tHADHxj8N92vkzNgPmok%2B_01%2Bw%3D%3D");
+    }
+
+    @Test
+    @DisplayName("Should produce the known ciphertext for text with slashes")
+    void shouldMatchKnownCiphertextForSlashes() throws Exception {
+        assertKnownAnswer("Text with backslashes \\ and forward slashes /", "user@example.com",
+                "7Gb2QtEcBc%2B89KxSPoCrFecr%2B_01%2BXMSFYFK5BOMsbIWLH3I58aJRurzvb3nMGYIdPqyDFwBdKK8um8q85G6Jw%3D%3D");
+    }
+
+    @Test
+    @DisplayName("Should produce the known ciphertexts for a map")
+    void shouldMatchKnownCiphertextsForMap() {
+        // Given
+        Map<String, String> data = new HashMap<>();
+        data.put("field1", "Hello, World!");
+        data.put("objectId", "12345");
+
+        // When
+        Map<String, String> encrypted = cryptoService.encryptWithAesCbc(data, "user123");
+        Map<String, String> decrypted = cryptoService.decryptWithAesCbc(encrypted, "user123");
+
+        // Then
+        assertEquals("F0tYngXFWxZoJ%2BRxjmKq%2BOV9EmCgMmDToksgTl8%3D", encrypted.get("field1"));
+        assertEquals("12345", encrypted.get("objectId"));
+        assertEquals(data, decrypted);
+    }
+
+    private void assertKnownAnswer(String plainText, String sessionUserId, String expectedCipherText) throws Exception {
+        assertEquals(expectedCipherText, cryptoService.encryptWithAesCbc(plainText, sessionUserId));
+        assertEquals(plainText, cryptoService.decryptWithAesCbc(expectedCipherText, sessionUserId));
+    }
+}
@@ -1,7 +1,13 @@
 package io.openleap.cvs.service;
 
+import io.openleap.cvs.config.CompressionProperties;
 import io.openleap.cvs.config.CvsConfig;
-import io.openleap.cvs.exception.InvalidIvException;
+import io.openleap.cvs.core.DataKey;
+import io.openleap.cvs.core.DecryptResult;
+import io.openleap.cvs.core.DecryptStatus;
+import io.openleap.cvs.core.HmacKey;
+import io.openleap.cvs.core.InvalidDataKeyException;
+import io.openleap.cvs.core.InvalidIvException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,13 +16,17 @@ import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
 
 import javax.crypto.spec.GCMParameterSpec;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.InvalidAlgorithmParameterException;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -257,6 +267,21 @@ public class CryptoServiceTest {
         assertEquals("12345", decrypted.get("objectId"));
     }
 
+    @Test
+    @DisplayName("Should skip objectId keys that are not the interned literal")
+    void shouldSkipObjectIdComparedByValue() {
+        // Given
+        Map<String, String> originalData = new HashMap<>();
+        originalData.put(new String("objectId"), "12345");
+        String sessionUserId = "user123";
+
+        // When
+        Map<String, String> encrypted = cryptoService.encryptWithAesCbc(originalData, sessionUserId);
+
+        // Then
+        assertEquals("12345", encrypted.get("objectId"));
+    }
+
     @Test
     @DisplayName("Should handle map with multiple objectId fields")
     void shouldHandleMapWithMultipleObjectIdFields() {
@@ -487,4 +512,226 @@ public class CryptoServiceTest {
             cryptoService.encryptWithAesCbc(originalData, sessionUserId);
         });
     }
+
+    @Test
+    @DisplayName("Should drop and overwrite the key material when stopped")
+    void shouldDropKeyMaterialWhenStopped() throws Exception {
+        // Given
+        HmacKey hmacKey = cryptoService.hmacKey("webhooks");
+
+        // When
+        cryptoService.stop();
+
+        // Then
+        assertFalse(cryptoService.isRunning());
+        assertThrows(IllegalStateException.class, () -> cryptoService.encryptWithAesCbc("data", "user123"));
+        assertEquals("Key has been destroyed", assertThrows(IllegalStateException.class, hmacKey::newMac).getMessage());
+    }
+
+    @Test
+    @DisplayName("Should read the key material again when restarted")
+    void shouldReadKeyMaterialAgainWhenRestarted() throws Exception {
+        // Given
+        String encryptedBeforeRestart = cryptoService.encryptWithAesCbc("data", "user123");
+        cryptoService.stop();
+        Files.writeString(secretKeyFile, "AnotherTestSecretKeyForAESEncryption12345678901234567890123456789");
+
+        // When
+        cryptoService.start();
+        String encryptedAfterRestart = cryptoService.encryptWithAesCbc("data", "user123");
+
+        // Then
+        assertTrue(cryptoService.isRunning());
+        assertNotEquals(encryptedBeforeRestart, encryptedAfterRestart);
+        assertEquals("data", cryptoService.decryptWithAesCbc(encryptedAfterRestart, "user123"));
+    }
+
+    @Test
+    @DisplayName("Should return a status per entry when decrypting a batch")
+    void shouldReturnStatusPerEntryWhenDecryptingBatch() throws Exception {
+        // Given
+        String sessionUserId = "user123";
+        Map<String, String> input = new LinkedHashMap<>();
+        input.put("valid", cryptoService.encryptWithAesCbc("sensitive data", sessionUserId));
+        input.put("otherUser", cryptoService.encryptWithAesCbc("sensitive data", "user456"));
+        input.put("notBase64", "ThisIsNotValidEncryptedData!");
+        input.put("tooShort", "AAAA");
+        input.put("badEscape", "%G1AAAA");
+        input.put("missing", null);
+        input.put("objectId", "12345");
+
+        // When
+        Map<String, DecryptResult> results = cryptoService.decryptEntries(input, sessionUserId);
+
+        // Then
+        assertEquals(DecryptResult.ok("sensitive data"), results.get("valid"));
+        assertEquals(DecryptStatus.AUTH_FAILURE, results.get("otherUser").status());
+        assertNull(results.get("otherUser").value());
+        assertEquals(DecryptStatus.MALFORMED, results.get("notBase64").status());
+        assertEquals(DecryptStatus.MALFORMED, results.get("tooShort").status());
+        assertEquals(DecryptStatus.MALFORMED, results.get("badEscape").status());
+        assertEquals(DecryptStatus.MALFORMED, results.get("missing").status());
+        assertEquals(DecryptResult.ok("12345"), results.get("objectId"));
+        assertEquals(input.keySet(), results.keySet());
+    }
+
+    @Test
+    @DisplayName("Should report a tampered value as authentication failure")
+    void shouldReportTamperedValueAsAuthFailure() throws Exception {
+        // Given
+        String encrypted = cryptoService.encryptWithAesCbc("sensitive data", "user123");
+        // Flip a character that is not part of a %XX escape, so the value stays well formed
+        int position = 0;
+        while (encrypted.charAt(position) == '%') {
+            position += 3;
+        }
+        char replacement = encrypted.charAt(position) == 'A' ? 'B' : 'A';
+        String tampered = encrypted.substring(0, position) + replacement + encrypted.substring(position + 1);
+
+        // When
+        Map<String, DecryptResult> results = cryptoService.decryptEntries(Map.of("field", tampered), "user123");
+
+        // Then
+        assertEquals(DecryptResult.authFailure(), results.get("field"));
+    }
+
+    @Test
+    @DisplayName("Should unwrap a generated data key to the same key")
+    void shouldGenerateAndUnwrapDataKey() throws Exception {
+        // When
+        DataKey dataKey = cryptoService.generateDataKey();
+        byte[] unwrapped = cryptoService.unwrapDataKey(dataKey.wrappedKey());
+
+        // Then
+        assertEquals(32, dataKey.plaintextKey().length);
+        assertArrayEquals(dataKey.plaintextKey(), unwrapped);
+    }
+
+    @Test
+    @DisplayName("Should generate a different data key and wrapping on every call")
+    void shouldGenerateDistinctDataKeys() throws Exception {
+        // When
+        DataKey first = cryptoService.generateDataKey();
+        DataKey second = cryptoService.generateDataKey();
+
+        // Then
+        assertFalse(Arrays.equals(first.plaintextKey(), second.plaintextKey()));
+        assertNotEquals(first.wrappedKey(), second.wrappedKey());
+    }
+
+    @Test
+    @DisplayName("Should reject a tampered wrapped data key")
+    void shouldRejectTamperedDataKey() throws Exception {
+        // Given
+        byte[] wrapped = Base64.getUrlDecoder().decode(cryptoService.generateDataKey().wrappedKey());
+        wrapped[wrapped.length - 1] ^= 1;
+        String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(wrapped);
+
+        // When & Then
+        InvalidDataKeyException exception =
+                assertThrows(InvalidDataKeyException.class, () -> cryptoService.unwrapDataKey(tampered));
+        assertEquals("Data key failed authentication", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should reject a data key wrapped under another master key")
+    void shouldRejectDataKeyOfOtherMasterKey() throws Exception {
+        // Given
+        String wrappedKey = cryptoService.generateDataKey().wrappedKey();
+        Files.writeString(secretKeyFile, "AnotherTestSecretKeyForAESEncryption12345678901234567890123456789");
+        cryptoService.stop();
+        cryptoService.start();
+
+        // When & Then
+        InvalidDataKeyException exception =
+                assertThrows(InvalidDataKeyException.class, () -> cryptoService.unwrapDataKey(wrappedKey));
+        assertEquals("Data key was wrapped under a different master key", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should decrypt values and data keys of the previous master key after a rotation")
+    void shouldDecryptWithPreviousKeyAfterRotation() throws Exception {
+        // Given
+        String previousValue = cryptoService.encryptWithAesCbc("old value", "user123");
+        String previousDataKey = cryptoService.generateDataKey().wrappedKey();
+        CryptoService rotated = rotatedService();
+        String currentValue = rotated.encryptWithAesCbc("new value", "user123");
+        Map<String, String> batch = new LinkedHashMap<>();
+        batch.put("objectId", "12345");
+        batch.put("old", previousValue);
+        batch.put("new", currentValue);
+
+        // When
+        Map<String, String> decrypted = rotated.decryptWithAesCbc(batch, "user123");
+        Map<String, DecryptResult> results = rotated.decryptEntries(batch, "user123");
+
+        // Then
+        assertEquals("old value", rotated.decryptWithAesCbc(previousValue, "user123"));
+        assertEquals(Map.of("objectId", "12345", "old", "old value", "new", "new value"), decrypted);
+        assertEquals(DecryptResult.ok("old value"), results.get("old"));
+        assertEquals(DecryptResult.ok("new value"), results.get("new"));
+        assertNotNull(rotated.unwrapDataKey(previousDataKey));
+        assertThrows(InvalidIvException.class, () -> cryptoService.decryptWithAesCbc(currentValue, "user123"));
+    }
+
+    @Test
+    @DisplayName("Should re-encrypt values of the previous and the current key, so a migration can be repeated")
+    void shouldReencryptValuesOfEitherKey() throws Exception {
+        // Given
+        String previousValue = cryptoService.encryptWithAesCbc("value", "user123");
+        CryptoService rotated = rotatedService();
+
+        // When
+        String migrated = rotated.reencrypt(previousValue, "user123", "user123");
+        String migratedAgain = rotated.reencrypt(migrated, "user123", "user123");
+
+        // Then
+        assertEquals(rotated.encryptWithAesCbc("value", "user123"), migrated);
+        assertEquals(migrated, migratedAgain);
+        assertNull(rotated.reencrypt(previousValue, "user456", "user456"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "not base64!", "AQID"})
+    @DisplayName("Should reject malformed wrapped data keys")
+    void shouldRejectMalformedDataKey(String wrappedKey) {
+        // When & Then
+        InvalidDataKeyException exception =
+                assertThrows(InvalidDataKeyException.class, () -> cryptoService.unwrapDataKey(wrappedKey));
+        assertEquals("Malformed data key", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should compress large values with the configured dictionary and keep reading older values")
+    void shouldCompressWithDictionary() throws Exception {
+        // Given
+        Path dictionaryFile = tempDir.resolve("dictionary.txt");
+        Files.writeString(dictionaryFile, "<customer><name></name><address><street></street><city></city></address></customer>");
+        CompressionProperties compressionProperties = new CompressionProperties();
+        compressionProperties.setEnabled(true);
+        compressionProperties.setMinSize(DataSize.ofBytes(64));
+        compressionProperties.setDictionaryPath(dictionaryFile.toString());
+        CryptoService compressingService = new CryptoService(cvsConfig, compressionProperties);
+        String value = "<customer><name>Jane Doe</name><address><street>Main Street 1</street>"
+                + "<city>Springfield</city></address></customer>";
+        String olderValue = cryptoService.encryptWithAesCbc(value, "user123");
+
+        // When
+        String encrypted = compressingService.encryptWithAesCbc(value, "user123");
+
+        // Then
+        assertTrue(encrypted.length() < olderValue.length());
+        assertEquals(value, compressingService.decryptWithAesCbc(encrypted, "user123"));
+        assertEquals(value, compressingService.decryptWithAesCbc(olderValue, "user123"));
+    }
+
+    private CryptoService rotatedService() throws Exception {
+        Path newKeyFile = tempDir.resolve("new.key");
+        Files.writeString(newKeyFile, "AnotherTestSecretKeyForAESEncryption12345678901234567890123456789");
+        CvsConfig rotatedConfig = new CvsConfig();
+        rotatedConfig.setEncryptionKeyPath(newKeyFile.toString());
+        rotatedConfig.setPreviousEncryptionKeyPath(secretKeyFile.toString());
+        rotatedConfig.setAesInitializationVector(cvsConfig.getAesInitializationVector());
+        return new CryptoService(rotatedConfig);
+    }
 }
@@ -0,0 +1,116 @@
+package io.openleap.cvs.service;
+
+import io.openleap.cvs.config.CvsConfig;
+import io.openleap.cvs.config.MacProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MacService Unit Tests")
+public class MacServiceTest {
+
+    private static final String AES_INITIALIZATION_VECTOR =
+            "ThisIsATestInitializationVector123456789012345678901234567890";
+    private static final String SIGNER = "webhook-producer";
+
+    @TempDir
+    Path tempDir;
+
+    private Path keyFile;
+    private final MacProperties macProperties = new MacProperties();
+    private MacService macService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keyFile = tempDir.resolve("secret.key");
+        Files.writeString(keyFile, "ThisIsATestSecretKeyForAESEncryption123456789012345678901234567890");
+        CvsConfig cvsConfig = new CvsConfig();
+        cvsConfig.setEncryptionKeyPath(keyFile.toString());
+        cvsConfig.setAesInitializationVector(AES_INITIALIZATION_VECTOR);
+        macProperties.setSigners(Map.of("webhooks", List.of(SIGNER), "records", List.of(SIGNER, "exporter")));
+        macService = new MacService(new CryptoService(cvsConfig), macProperties);
+    }
+
+    @Test
+    @DisplayName("Should verify signed messages and reject tampered ones")
+    void shouldSignAndVerifyBatch() throws Exception {
+        // Given
+        List<String> messages = List.of("{\"event\": \"order.created\"}", "äöü", "");
+        List<String> signatures = macService.sign(SIGNER, "webhooks", messages);
+
+        // When
+        List<Boolean> results = macService.verify("webhooks", List.of("{\"event\": \"order.created\"}", "aou", "", ""),
+                List.of(signatures.get(0), signatures.get(1), "not base64!", signatures.get(0)));
+
+        // Then
+        assertEquals(3, signatures.size());
+        assertEquals(List.of(true, false, false, false), results);
+        assertNotEquals(signatures, macService.sign(SIGNER, "records", messages));
+        assertThrows(IllegalArgumentException.class,
+                () -> macService.verify("webhooks", messages, signatures.subList(0, 1)));
+        assertThrows(IllegalArgumentException.class, () -> macService.sign(SIGNER, " ", messages));
+    }
+
+    @Test
+    @DisplayName("Should sign a streamed body like the same bytes in a batch")
+    void shouldSignStreamLikeBatch() throws Exception {
+        // Given
+        String message = "payload ".repeat(10000);
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+
+        // When
+        String signature = macService.sign(SIGNER, "webhooks", new ByteArrayInputStream(body));
+
+        // Then
+        assertEquals(macService.sign(SIGNER, "webhooks", List.of(message)).get(0), signature);
+        assertTrue(macService.verify("webhooks", signature, new ByteArrayInputStream(body)));
+        assertFalse(macService.verify("webhooks", signature, new ByteArrayInputStream(new byte[10])));
+    }
+
+    @Test
+    @DisplayName("Should sign only for the clients configured for the key ID and verify for every client")
+    void shouldSignOnlyForConfiguredClients() throws Exception {
+        // Given
+        byte[] body = "{\"event\": \"order.created\"}".getBytes(StandardCharsets.UTF_8);
+        List<String> signatures = macService.sign(SIGNER, "webhooks", List.of("message"));
+
+        // When & Then
+        assertThrows(AccessDeniedException.class, () -> macService.sign("exporter", "webhooks", List.of("message")));
+        assertThrows(AccessDeniedException.class,
+                () -> macService.sign("exporter", "webhooks", new ByteArrayInputStream(body)));
+        assertThrows(AccessDeniedException.class, () -> macService.sign(SIGNER, "unknown", List.of("message")));
+        assertNotNull(macService.sign("exporter", "records", List.of("message")));
+        assertEquals(List.of(true), macService.verify("webhooks", List.of("message"), signatures));
+    }
+
+    @Test
+    @DisplayName("Should accept signatures of the previous master key after a rotation")
+    void shouldVerifyWithPreviousKey() throws Exception {
+        // Given
+        byte[] body = "record".getBytes(StandardCharsets.UTF_8);
+        List<String> signatures = macService.sign(SIGNER, "records", List.of("record"));
+        Path newKeyFile = tempDir.resolve("new.key");
+        Files.writeString(newKeyFile, "AnotherTestSecretKeyForAESEncryption12345678901234567890123456789");
+        CvsConfig cvsConfig = new CvsConfig();
+        cvsConfig.setEncryptionKeyPath(newKeyFile.toString());
+        cvsConfig.setPreviousEncryptionKeyPath(keyFile.toString());
+        cvsConfig.setAesInitializationVector(AES_INITIALIZATION_VECTOR);
+        MacService rotated = new MacService(new CryptoService(cvsConfig), macProperties);
+
+        // When & Then
+        assertNotEquals(signatures, rotated.sign(SIGNER, "records", List.of("record")));
+        assertEquals(List.of(true), rotated.verify("records", List.of("record"), signatures));
+        assertTrue(rotated.verify("records", signatures.get(0), new ByteArrayInputStream(body)));
+    }
+}
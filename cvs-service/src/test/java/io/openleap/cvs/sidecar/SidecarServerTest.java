@@ -0,0 +1,167 @@
+package io.openleap.cvs.sidecar;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openleap.cvs.audit.AuditLog;
+import io.openleap.cvs.audit.AuditOperation;
+import io.openleap.cvs.client.CvsClientException;
+import io.openleap.cvs.client.SidecarClient;
+import io.openleap.cvs.config.AuditProperties;
+import io.openleap.cvs.config.CvsConfig;
+import io.openleap.cvs.config.MeteringProperties;
+import io.openleap.cvs.config.SidecarProperties;
+import io.openleap.cvs.core.DecryptResult;
+import io.openleap.cvs.core.DecryptStatus;
+import io.openleap.cvs.metering.ClientUsageSnapshot;
+import io.openleap.cvs.metering.UsageMeter;
+import io.openleap.cvs.service.CryptoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SidecarServer Unit Tests")
+public class SidecarServerTest {
+
+    private static final String SESSION_USER_ID = "user123";
+
+    @TempDir
+    Path tempDir;
+
+    private CryptoService cryptoService;
+    private SidecarServer server;
+    private SidecarClient client;
+    private Path socketPath;
+    private UsageMeter usageMeter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path secretKeyFile = tempDir.resolve("secret.key");
+        Files.writeString(secretKeyFile, "ThisIsATestSecretKeyForAESEncryption123456789012345678901234567890");
+        CvsConfig cvsConfig = new CvsConfig();
+        cvsConfig.setEncryptionKeyPath(secretKeyFile.toString());
+        cvsConfig.setAesInitializationVector("ThisIsATestInitializationVector123456789012345678901234567890");
+        cryptoService = new CryptoService(cvsConfig);
+
+        AuditProperties auditProperties = new AuditProperties();
+        auditProperties.setEnabled(false);
+        socketPath = tempDir.resolve("run/cvs.sock");
+        SidecarProperties properties = new SidecarProperties();
+        properties.setEnabled(true);
+        properties.setSocketPath(socketPath.toString());
+        usageMeter = new UsageMeter(new MeteringProperties(), new ObjectMapper());
+        server = new SidecarServer(cryptoService, new AuditLog(auditProperties), usageMeter, properties);
+        server.start();
+        client = new SidecarClient(socketPath);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    @Test
+    @DisplayName("Should encrypt and decrypt single values like the crypto service")
+    void shouldEncryptAndDecryptSingleValues() throws Exception {
+        // Given
+        String value = "sensitive data with ümlauts";
+
+        // When
+        String encrypted = client.encrypt(value, SESSION_USER_ID);
+
+        // Then
+        assertEquals(cryptoService.encryptWithAesCbc(value, SESSION_USER_ID), encrypted);
+        assertEquals(value, client.decrypt(encrypted, SESSION_USER_ID));
+        assertEquals(value, client.decrypt(client.encrypt(value, null), null));
+    }
+
+    @Test
+    @DisplayName("Should process batches and report failed entries with their status")
+    void shouldProcessBatches() {
+        // Given
+        Map<String, String> data = new LinkedHashMap<>();
+        data.put("objectId", "12345");
+        data.put("field1", "value 1");
+        data.put("field2", "value 2");
+
+        // When
+        Map<String, String> encrypted = client.encryptList(data, SESSION_USER_ID);
+        Map<String, String> withBrokenEntry = new LinkedHashMap<>(encrypted);
+        withBrokenEntry.put("broken", "AAAA");
+        withBrokenEntry.put("otherUser", client.encrypt("value 3", "user456"));
+        Map<String, DecryptResult> results = client.decryptList(withBrokenEntry, SESSION_USER_ID);
+
+        // Then
+        assertEquals(cryptoService.encryptWithAesCbc(data, SESSION_USER_ID), encrypted);
+        assertEquals(DecryptResult.ok("12345"), results.get("objectId"));
+        assertEquals(DecryptResult.ok("value 1"), results.get("field1"));
+        assertEquals(DecryptStatus.MALFORMED, results.get("broken").status());
+        assertEquals(new DecryptResult(DecryptStatus.AUTH_FAILURE, null), results.get("otherUser"));
+        ClientUsageSnapshot usage = usageMeter.snapshot().clients().get(0);
+        assertTrue(usage.clientId().startsWith("unix"));
+        assertEquals(Map.of(AuditOperation.ENCRYPT, 1L, AuditOperation.ENCRYPT_LIST, 1L,
+                AuditOperation.DECRYPT_LIST, 1L), usage.operations());
+        assertEquals(9, usage.entries());
+        assertEquals(28 + "value 3".length(), usage.plaintextBytes());
+    }
+
+    @Test
+    @DisplayName("Should reject a value that does not decrypt and keep the connection usable")
+    void shouldRejectInvalidValue() {
+        // When
+        CvsClientException exception =
+                assertThrows(CvsClientException.class, () -> client.decrypt("bm90IGVuY3J5cHRlZA==", SESSION_USER_ID));
+
+        // Then
+        assertEquals(400, exception.getStatusCode());
+        assertEquals("value", client.decrypt(client.encrypt("value", SESSION_USER_ID), SESSION_USER_ID));
+    }
+
+    @Test
+    @DisplayName("Should close a connection that sends an oversized frame")
+    void shouldCloseConnectionOnOversizedFrame() throws Exception {
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            // Given
+            channel.connect(UnixDomainSocketAddress.of(socketPath));
+
+            // When
+            channel.write(ByteBuffer.allocate(4).putInt(Integer.MAX_VALUE).flip());
+
+            // Then
+            assertEquals(-1, channel.read(ByteBuffer.allocate(16)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should create the socket with restricted permissions and remove it on stop")
+    void shouldRestrictAndRemoveSocket() throws Exception {
+        // Then
+        assertEquals(PosixFilePermissions.fromString("rw-rw----"), Files.getPosixFilePermissions(socketPath));
+        try (Stream<Path> files = Files.list(socketPath.getParent())) {
+            // The directory the socket was bound in is gone
+            assertEquals(List.of(socketPath), files.toList());
+        }
+
+        // When
+        server.stop();
+
+        // Then
+        assertFalse(Files.exists(socketPath));
+        assertThrows(CvsClientException.class, () -> client.encrypt("value", SESSION_USER_ID));
+    }
+}
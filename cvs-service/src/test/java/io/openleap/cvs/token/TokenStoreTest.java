@@ -0,0 +1,178 @@
+package io.openleap.cvs.token;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TokenStore Unit Tests")
+public class TokenStoreTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should find every value again after a restart")
+    void shouldReplayAfterRestart() throws Exception {
+        // Given
+        List<byte[]> tokens = tokens(0, 500);
+        try (TokenStore store = new TokenStore(tempDir, SEGMENT_SIZE, 16, true)) {
+            store.put(tokens, values(0, 500));
+            assertTrue(store.delete(tokens.get(7)));
+            assertFalse(store.delete(tokens.get(7)));
+        }
+
+        // When
+        try (TokenStore store = new TokenStore(tempDir, SEGMENT_SIZE, 16, true)) {
+
+            // Then
+            assertEquals(499, store.size());
+            assertTrue(store.segmentCount() > 1);
+            assertNull(store.get(tokens.get(7)));
+            assertNull(store.get(token(1000)));
+            for (int i = 0; i < 500; i++) {
+                if (i != 7) {
+                    assertEquals("value " + i, new String(store.get(tokens.get(i)), StandardCharsets.UTF_8));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop a torn last record and append after the last intact one")
+    void shouldRecoverFromTornWrite() throws Exception {
+        // Given
+        try (TokenStore store = new TokenStore(tempDir, SEGMENT_SIZE, 16, true)) {
+            store.put(tokens(0, 3), values(0, 3));
+        }
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // The second half of the third record did not reach the disk
+            int thirdRecordEnd = TokenStore.SEGMENT_HEADER_SIZE + 3 * (TokenStore.RECORD_HEADER_SIZE + 7);
+            channel.write(ByteBuffer.allocate(4), thirdRecordEnd - 4);
+        }
+
+        // When
+        try (TokenStore store = new TokenStore(tempDir, SEGMENT_SIZE, 16, true)) {
+            store.put(List.of(token(10)), List.of("value 10".getBytes(StandardCharsets.UTF_8)));
+        }
+        try (TokenStore store = new TokenStore(tempDir, SEGMENT_SIZE, 16, true)) {
+
+            // Then
+            assertEquals(3, store.size());
+            assertNotNull(store.get(token(1)));
+            assertNull(store.get(token(2)));
+            assertEquals("value 10", new String(store.get(token(10)), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("Should compact segments of deleted records and keep the live ones")
+    void shouldCompactDeletedRecords() throws Exception {
+        // Given
+        List<byte[]> tokens = tokens(0, 300);
+        try (TokenStore store = new TokenStore(tempDir, SEGMENT_SIZE, 16, true)) {
+            store.put(tokens, values(0, 300));
+            for (int i = 0; i < 300; i++) {
+                if (i % 10 != 0) {
+                    store.delete(tokens.get(i));
+                }
+            }
+            int segmentsBefore = store.segmentCount();
+
+            // When
+            int compacted = 0;
+            while (store.compact(0.5)) {
+                compacted++;
+            }
+
+            // Then
+            assertTrue(compacted > 0);
+            assertTrue(store.segmentCount() < segmentsBefore);
+        }
+        try (TokenStore store = new TokenStore(tempDir, SEGMENT_SIZE, 16, true)) {
+            assertEquals(30, store.size());
+            for (int i = 0; i < 300; i++) {
+                byte[] value = store.get(tokens.get(i));
+                if (i % 10 == 0) {
+                    assertEquals("value " + i, new String(value, StandardCharsets.UTF_8));
+                } else {
+                    assertNull(value);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep lookups correct while the index grows and shrinks")
+    void shouldGrowAndShrinkIndex() {
+        // Given
+        TokenIndex index = new TokenIndex(16);
+
+        // When
+        for (long i = 1; i <= 10000; i++) {
+            index.put(i * 31, i, i);
+        }
+        for (long i = 1; i <= 10000; i += 2) {
+            assertEquals(i, index.remove(i * 31, i));
+        }
+
+        // Then
+        assertEquals(5000, index.size());
+        assertTrue(index.capacity() >= 8192);
+        for (long i = 1; i <= 10000; i++) {
+            assertEquals(i % 2 == 0 ? i : 0, index.get(i * 31, i));
+        }
+        assertEquals(0, index.remove(31, 1));
+    }
+
+    @Test
+    @DisplayName("Should reject values larger than a segment")
+    void shouldRejectOversizedValue() throws Exception {
+        try (TokenStore store = new TokenStore(tempDir, SEGMENT_SIZE, 16, true)) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> store.put(List.of(token(1)), List.of(new byte[SEGMENT_SIZE])));
+            assertEquals(0, store.size());
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static List<byte[]> tokens(int from, int to) {
+        List<byte[]> tokens = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            tokens.add(token(i));
+        }
+        return tokens;
+    }
+
+    private static List<byte[]> values(int from, int to) {
+        List<byte[]> values = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            values.add(("value " + i).getBytes(StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    private static byte[] token(int i) {
+        return ByteBuffer.allocate(TokenStore.TOKEN_SIZE).putLong(0x5EED_0000L + i).putLong(i * 0x9E3779B97F4A7C15L).array();
+    }
+}
@@ -0,0 +1,119 @@
+package io.openleap.cvs.token;
+
+import io.openleap.cvs.config.CvsConfig;
+import io.openleap.cvs.config.TokenProperties;
+import io.openleap.cvs.service.CryptoService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Fills a vault in a temporary directory with tokens of card-number-sized values and measures lookups
+ * per second of the store alone and of detokenize, which also decrypts. Run it with
+ * {@code scripts/measure_tokens}.
+ * <p>
+ * Arguments: tokens (default 1000000), threads (default: available processors), seconds per measurement
+ * (default 5), tokens per detokenize batch (default 100).
+ */
+public class TokenVaultBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int tokenCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seconds = args.length > 2 ? Long.parseLong(args[2]) : 5;
+        int batchSize = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+
+        Path directory = Files.createTempDirectory("token-benchmark");
+        Path secretKeyFile = directory.resolve("secret.key");
+        Files.writeString(secretKeyFile, "ThisIsABenchmarkSecretKeyForAESEncryption1234567890");
+        CvsConfig cvsConfig = new CvsConfig();
+        cvsConfig.setEncryptionKeyPath(secretKeyFile.toString());
+        cvsConfig.setAesInitializationVector("ThisIsATestInitializationVector123456789012345678901234567890");
+        TokenProperties properties = new TokenProperties();
+        properties.setDirectory(directory.resolve("tokens").toString());
+        properties.setInitialCapacity(tokenCount);
+        TokenVault vault = new TokenVault(properties, new CryptoService(cvsConfig));
+        vault.start();
+        try {
+            long start = System.nanoTime();
+            List<String> tokens = new ArrayList<>(tokenCount);
+            List<String> batch = new ArrayList<>(properties.getMaxBatchSize());
+            for (int i = 0; i < tokenCount; i++) {
+                batch.add(String.format("4%015d", i));
+                if (batch.size() == properties.getMaxBatchSize() || i == tokenCount - 1) {
+                    tokens.addAll(vault.tokenize(batch));
+                    batch.clear();
+                }
+            }
+            System.out.printf("tokenize    %10.0f tokens/s (1 thread, batches of %d)%n",
+                    tokenCount / ((System.nanoTime() - start) / 1e9), properties.getMaxBatchSize());
+
+            TokenStore store = vault.store();
+            List<byte[]> decoded = tokens.stream().map(Base64.getUrlDecoder()::decode).toList();
+            double lookups = measure(threads, seconds, () -> {
+                store.get(decoded.get(ThreadLocalRandom.current().nextInt(decoded.size())));
+                return 1;
+            });
+            System.out.printf("store get   %10.0f lookups/s (%d threads)%n", lookups, threads);
+
+            double detokenized = measure(threads, seconds, () -> {
+                List<String> request = new ArrayList<>(batchSize);
+                for (int i = 0; i < batchSize; i++) {
+                    request.add(tokens.get(ThreadLocalRandom.current().nextInt(tokens.size())));
+                }
+                return vault.detokenize(request).size();
+            });
+            System.out.printf("detokenize  %10.0f lookups/s (%d threads, batches of %d)%n", detokenized, threads, batchSize);
+        } finally {
+            vault.stop();
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static double measure(int threads, long seconds, Lookup lookup) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // Warm up, then measure
+            for (int pass = 0; pass < 2; pass++) {
+                long end = System.nanoTime() + seconds * 1_000_000_000L;
+                long start = System.nanoTime();
+                List<Future<Long>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    futures.add(executor.submit(() -> {
+                        long count = 0;
+                        while (System.nanoTime() < end) {
+                            count += lookup.run();
+                        }
+                        return count;
+                    }));
+                }
+                long total = 0;
+                for (Future<Long> future : futures) {
+                    total += future.get();
+                }
+                if (pass == 1) {
+                    return total / ((System.nanoTime() - start) / 1e9);
+                }
+            }
+            throw new IllegalStateException();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        int run() throws Exception;
+    }
+}
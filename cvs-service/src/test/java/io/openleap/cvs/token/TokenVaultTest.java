@@ -0,0 +1,169 @@
+package io.openleap.cvs.token;
+
+import io.openleap.cvs.config.CvsConfig;
+import io.openleap.cvs.config.TokenProperties;
+import io.openleap.cvs.service.CryptoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TokenVault Unit Tests")
+public class TokenVaultTest {
+
+    @TempDir
+    Path tempDir;
+
+    private CryptoService cryptoService;
+    private TokenProperties properties;
+    private TokenVault tokenVault;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path secretKeyFile = tempDir.resolve("secret.key");
+        Files.writeString(secretKeyFile, "ThisIsATestSecretKeyForAESEncryption123456789012345678901234567890");
+        CvsConfig cvsConfig = new CvsConfig();
+        cvsConfig.setEncryptionKeyPath(secretKeyFile.toString());
+        cvsConfig.setAesInitializationVector("ThisIsATestInitializationVector123456789012345678901234567890");
+        cryptoService = new CryptoService(cvsConfig);
+
+        properties = new TokenProperties();
+        properties.setDirectory(tempDir.resolve("tokens").toString());
+        properties.setSegmentSize(DataSize.ofKilobytes(64));
+        properties.setMaxBatchSize(100);
+        tokenVault = new TokenVault(properties, cryptoService);
+        tokenVault.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tokenVault.stop();
+    }
+
+    @Test
+    @DisplayName("Should turn tokens back into their values after a restart")
+    void shouldDetokenizeAfterRestart() throws Exception {
+        // Given
+        List<String> values = List.of("4111111111111111", "DE89370400440532013000", "4111111111111111", "");
+        List<String> tokens = tokenVault.tokenize(values);
+
+        // When
+        tokenVault.stop();
+        tokenVault = new TokenVault(properties, cryptoService);
+        tokenVault.start();
+        List<String> result = tokenVault.detokenize(tokens);
+
+        // Then
+        assertEquals(values, result);
+        assertEquals(4, tokens.stream().distinct().count());
+        for (String token : tokens) {
+            assertTrue(token.matches("[A-Za-z0-9_-]{22}"), token);
+        }
+        // The values are stored encrypted
+        for (Path segment : segments()) {
+            String content = new String(Files.readAllBytes(segment), StandardCharsets.ISO_8859_1);
+            assertFalse(content.contains("4111111111111111"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should detokenize values of the previous master key after a rotation")
+    void shouldDetokenizeWithPreviousKey() throws Exception {
+        // Given
+        List<String> tokens = tokenVault.tokenize(List.of("4111111111111111"));
+        tokenVault.stop();
+        Path newKeyFile = tempDir.resolve("new.key");
+        Files.writeString(newKeyFile, "AnotherTestSecretKeyForAESEncryption12345678901234567890123456789");
+        CvsConfig rotatedConfig = new CvsConfig();
+        rotatedConfig.setEncryptionKeyPath(newKeyFile.toString());
+        rotatedConfig.setPreviousEncryptionKeyPath(tempDir.resolve("secret.key").toString());
+        rotatedConfig.setAesInitializationVector("ThisIsATestInitializationVector123456789012345678901234567890");
+
+        // When
+        tokenVault = new TokenVault(properties, new CryptoService(rotatedConfig));
+        tokenVault.start();
+        List<String> newTokens = tokenVault.tokenize(List.of("DE89370400440532013000"));
+
+        // Then
+        assertEquals(List.of("4111111111111111", "DE89370400440532013000"),
+                tokenVault.detokenize(List.of(tokens.get(0), newTokens.get(0))));
+    }
+
+    @Test
+    @DisplayName("Should return null for deleted, unknown and malformed tokens")
+    void shouldReturnNullForUnknownTokens() throws Exception {
+        // Given
+        List<String> tokens = tokenVault.tokenize(List.of("value 1", "value 2"));
+
+        // When
+        assertTrue(tokenVault.delete(tokens.get(0)));
+        assertFalse(tokenVault.delete(tokens.get(0)));
+        assertFalse(tokenVault.delete("not a token"));
+        List<String> result = tokenVault.detokenize(
+                Arrays.asList(tokens.get(0), tokens.get(1), "AAAAAAAAAAAAAAAAAAAAAA", "not a token", null));
+
+        // Then
+        assertEquals(Arrays.asList(null, "value 2", null, null, null), result);
+        assertEquals(1, tokenVault.size());
+    }
+
+    @Test
+    @DisplayName("Should reject batches over the limit and null values")
+    void shouldRejectInvalidBatches() {
+        // Given
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i <= properties.getMaxBatchSize(); i++) {
+            values.add("value " + i);
+        }
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> tokenVault.tokenize(values));
+        assertThrows(IllegalArgumentException.class, () -> tokenVault.detokenize(values));
+        assertThrows(IllegalArgumentException.class, () -> tokenVault.tokenize(Arrays.asList("value", null)));
+        assertEquals(0, tokenVault.size());
+    }
+
+    @Test
+    @DisplayName("Should compact deleted tokens in the background without losing live ones")
+    void shouldCompactInBackground() throws Exception {
+        // Given
+        List<String> kept = new ArrayList<>();
+        for (int batch = 0; batch < 30; batch++) {
+            List<String> tokens = tokenVault.tokenize(Collections.nCopies(100, "value " + batch));
+            kept.add(tokens.get(0));
+            for (String token : tokens.subList(1, tokens.size())) {
+                tokenVault.delete(token);
+            }
+        }
+        int segmentsBefore = segments().size();
+
+        // When
+        tokenVault.compact();
+
+        // Then
+        assertTrue(segments().size() < segmentsBefore);
+        List<String> values = tokenVault.detokenize(kept);
+        for (int batch = 0; batch < 30; batch++) {
+            assertEquals("value " + batch, values.get(batch));
+        }
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(Path.of(properties.getDirectory()))) {
+            return files.toList();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.openleap.cvs.warmup;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import io.openleap.cvs.config.WarmUpProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("WarmUpGate Unit Tests")
+public class WarmUpGateTest {
+
+    @Test
+    @DisplayName("Should consider throughput stable when the last windows are within the tolerance")
+    void shouldDetectStableThroughput() {
+        // When & Then
+        assertFalse(WarmUpGate.isStable(List.of(), 3, 0.1));
+        assertFalse(WarmUpGate.isStable(List.of(100.0, 105.0, 110.0), 3, 0.1));
+        assertTrue(WarmUpGate.isStable(List.of(100.0, 105.0, 110.0, 100.0), 3, 0.1));
+        assertFalse(WarmUpGate.isStable(List.of(100.0, 105.0, 110.0, 130.0), 3, 0.1));
+        assertTrue(WarmUpGate.isStable(List.of(10.0, 50.0, 100.0, 105.0, 110.0, 100.0), 3, 0.1));
+    }
+
+    @Test
+    @DisplayName("Should stop the warm-up as soon as the throughput is stable")
+    void shouldStopWhenStable() {
+        // Given
+        WarmUpProperties properties = properties(Duration.ofSeconds(30));
+        properties.setTolerance(0.5);
+        WarmUpGate gate = new WarmUpGate(null, properties, new DefaultListableBeanFactory()
+                .getBeanProvider(ApplicationInfoManager.class));
+
+        // When
+        WarmUpGate.WarmUpResult result = gate.warmUp(round -> {
+            Thread.sleep(1);
+            return 1;
+        });
+
+        // Then
+        assertTrue(result.stable());
+        assertTrue(result.operations() > 0);
+        assertTrue(result.millis() < 10_000);
+    }
+
+    @Test
+    @DisplayName("Should give up after the maximum duration when the throughput keeps changing")
+    void shouldStopAfterMaxDuration() {
+        // Given
+        WarmUpGate gate = new WarmUpGate(null, properties(Duration.ofMillis(100)), new DefaultListableBeanFactory()
+                .getBeanProvider(ApplicationInfoManager.class));
+
+        // When
+        WarmUpGate.WarmUpResult result = gate.warmUp(round -> {
+            Thread.sleep(1);
+            return round + 1;
+        });
+
+        // Then
+        assertFalse(result.stable());
+        assertTrue(result.millis() >= 100);
+    }
+
+    @Test
+    @DisplayName("Should set the Eureka status to UP after the warm-up")
+    void shouldSetEurekaStatusUp() {
+        // Given
+        WarmUpProperties properties = properties(Duration.ofSeconds(1));
+        properties.setEnabled(false);
+        ApplicationInfoManager applicationInfoManager = mock(ApplicationInfoManager.class);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("applicationInfoManager", applicationInfoManager);
+        WarmUpGate gate = new WarmUpGate(null, properties, beanFactory.getBeanProvider(ApplicationInfoManager.class));
+
+        // When
+        gate.onApplicationEvent(mock(ApplicationReadyEvent.class));
+
+        // Then
+        verify(applicationInfoManager).setInstanceStatus(InstanceInfo.InstanceStatus.UP);
+    }
+
+    private static WarmUpProperties properties(Duration maxDuration) {
+        WarmUpProperties properties = new WarmUpProperties();
+        properties.setWindow(Duration.ofMillis(20));
+        properties.setMaxDuration(maxDuration);
+        return properties;
+    }
+}
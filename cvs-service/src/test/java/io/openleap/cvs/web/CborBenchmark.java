@@ -0,0 +1,145 @@
+package io.openleap.cvs.web;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openleap.cvs.config.CvsConfig;
+import io.openleap.cvs.controller.dto.DecryptListRequestDto;
+import io.openleap.cvs.controller.dto.EncryptListRequestDto;
+import io.openleap.cvs.service.CryptoService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares list requests in JSON and CBOR: the size of encrypt requests and responses, the time to parse an
+ * encrypt request, and the time to parse and decrypt a decrypt request and write its response, where JSON
+ * pays for the Base64 and URL decoding of every cipher text. JSON is parsed by Jackson and by the byte-level
+ * path of {@link ListRequestConverter}. Run it with {@code scripts/measure_cbor}.
+ * <p>
+ * Arguments: milliseconds per measurement (default 500).
+ */
+public class CborBenchmark {
+    private static final String IV = "1abc7969-6c7d-4395-9aa3-b1c7d169aa37";
+    private static final int[][] SHAPES = {{10, 16}, {100, 16}, {1000, 16}, {100, 1000}};
+
+    public static void main(String[] args) throws Exception {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 500;
+        Path directory = Files.createTempDirectory("cbor-benchmark");
+        Path secretKeyFile = directory.resolve("secret.key");
+        Files.writeString(secretKeyFile, "ThisIsABenchmarkSecretKeyForAESEncryption1234567890");
+        CvsConfig cvsConfig = new CvsConfig();
+        cvsConfig.setEncryptionKeyPath(secretKeyFile.toString());
+        cvsConfig.setAesInitializationVector("ThisIsATestInitializationVector123456789012345678901234567890");
+        CryptoService cryptoService = new CryptoService(cvsConfig);
+        ObjectMapper objectMapper =
+                new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        ListRequestConverter json = new ListRequestConverter(objectMapper);
+        CborListConverter cbor = new CborListConverter();
+
+        System.out.printf("%7s %6s | %17s | %17s | %26s | %17s%n", "entries", "value",
+                "request JSON/CBOR", "response JSON/CBOR", "parse Jackson/JSON/CBOR us", "decrypt JSON/CBOR us");
+        for (int[] shape : SHAPES) {
+            Map<String, String> data = new LinkedHashMap<>();
+            data.put("objectId", "12345");
+            for (int i = 0; i < shape[0]; i++) {
+                data.put("field" + i, ("sensitive data " + i + " ").repeat(shape[1]).substring(0, shape[1]));
+            }
+            byte[] jsonRequest = objectMapper.writeValueAsBytes(Map.of("data", data, "iv", IV));
+            byte[] cborRequest = CborListConverterTest.cbor(Map.of("data", data, "iv", IV));
+            byte[] jsonResponse = encrypt(json, MediaType.APPLICATION_JSON, jsonRequest, cryptoService);
+            byte[] cborResponse = encrypt(cbor, MediaType.APPLICATION_CBOR, cborRequest, cryptoService);
+            byte[] jsonDecrypt = objectMapper.writeValueAsBytes(Map.of("data",
+                    objectMapper.readValue(jsonResponse, new TypeReference<Map<String, String>>() {
+                    }), "iv", IV));
+            byte[] cborDecrypt = CborListConverterTest.cbor(Map.of("data",
+                    CborListConverterTest.parse(cborResponse), "iv", IV));
+
+            double jackson = measure(millis, () -> objectMapper.readValue(jsonRequest, EncryptListRequestDto.class));
+            double jsonParse = measure(millis, () -> read(json, MediaType.APPLICATION_JSON, jsonRequest,
+                    EncryptListRequestDto.class));
+            double cborParse = measure(millis, () -> read(cbor, MediaType.APPLICATION_CBOR, cborRequest,
+                    EncryptListRequestDto.class));
+            double jsonDecryptTime = measure(millis,
+                    () -> decrypt(json, MediaType.APPLICATION_JSON, jsonDecrypt, cryptoService));
+            double cborDecryptTime = measure(millis,
+                    () -> decrypt(cbor, MediaType.APPLICATION_CBOR, cborDecrypt, cryptoService));
+            System.out.printf("%7d %6d | %8d %8d | %8d %8d | %8.1f %8.1f %8.1f | %8.1f %8.1f%n",
+                    shape[0], shape[1], jsonRequest.length, cborRequest.length, jsonResponse.length,
+                    cborResponse.length, jackson, jsonParse, cborParse, jsonDecryptTime, cborDecryptTime);
+        }
+        Files.delete(secretKeyFile);
+        Files.delete(directory);
+    }
+
+    private static Object read(AbstractHttpMessageConverter<Object> converter, MediaType mediaType, byte[] body,
+                               Class<?> clazz) throws Exception {
+        MockHttpInputMessage input = new MockHttpInputMessage(body);
+        input.getHeaders().setContentType(mediaType);
+        return converter.read(clazz, input);
+    }
+
+    private static byte[] encrypt(AbstractHttpMessageConverter<Object> converter, MediaType mediaType,
+                                  byte[] body, CryptoService cryptoService) throws Exception {
+        EncryptListRequestDto request = (EncryptListRequestDto) read(converter, mediaType, body,
+                EncryptListRequestDto.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        converter.write(cryptoService.encryptWithAesCbc(request.data(), request.iv()), mediaType, output(out));
+        return out.toByteArray();
+    }
+
+    private static Object decrypt(AbstractHttpMessageConverter<Object> converter, MediaType mediaType,
+                                  byte[] body, CryptoService cryptoService) throws Exception {
+        DecryptListRequestDto request = (DecryptListRequestDto) read(converter, mediaType, body,
+                DecryptListRequestDto.class);
+        Map<String, String> result = cryptoService.decryptWithAesCbc(request.data(), request.iv());
+        converter.write(result, mediaType, output(OutputStream.nullOutputStream()));
+        return result;
+    }
+
+    private static HttpOutputMessage output(OutputStream body) {
+        HttpHeaders headers = new HttpHeaders();
+        return new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    private static double measure(long millis, Operation operation) throws Exception {
+        // Warm up, then measure
+        for (int pass = 0; pass < 2; pass++) {
+            long end = System.nanoTime() + millis * 1_000_000;
+            long start = System.nanoTime();
+            int count = 0;
+            while (System.nanoTime() < end) {
+                operation.run();
+                count++;
+            }
+            if (pass == 1) {
+                return (System.nanoTime() - start) / 1000.0 / count;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        Object run() throws Exception;
+    }
+}
@@ -0,0 +1,277 @@
+package io.openleap.cvs.web;
+
+import io.openleap.cvs.config.CvsConfig;
+import io.openleap.cvs.controller.dto.DecryptListRequestDto;
+import io.openleap.cvs.controller.dto.EncryptListRequestDto;
+import io.openleap.cvs.core.AESUtil;
+import io.openleap.cvs.core.InvalidIvException;
+import io.openleap.cvs.service.CryptoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CborListConverter Unit Tests")
+public class CborListConverterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final CborListConverter converter = new CborListConverter();
+    private CryptoService cryptoService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path secretKeyFile = tempDir.resolve("secret.key");
+        Files.writeString(secretKeyFile, "ThisIsATestSecretKeyForAESEncryption123456789012345678901234567890");
+        CvsConfig cvsConfig = new CvsConfig();
+        cvsConfig.setEncryptionKeyPath(secretKeyFile.toString());
+        cvsConfig.setAesInitializationVector("ThisIsATestInitializationVector123456789012345678901234567890");
+        cryptoService = new CryptoService(cvsConfig);
+    }
+
+    @Test
+    @DisplayName("Should encrypt to the raw cipher texts of the JSON path and decrypt them back")
+    void shouldEncryptToRawCipherTextsAndDecryptBack() throws Exception {
+        // Given
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("objectId", "12345");
+        data.put("plain", "sensitive data");
+        data.put("unicode", "ümlaut € 😀");
+        data.put("empty", "");
+        data.put("long", "x".repeat(70_000));
+        Map<String, String> plaintext = new LinkedHashMap<>();
+        data.forEach((key, value) -> plaintext.put(key, (String) value));
+        Map<String, String> expected = cryptoService.encryptWithAesCbc(plaintext, "user123");
+
+        // When
+        EncryptListRequestDto request = (EncryptListRequestDto) read(EncryptListRequestDto.class,
+                cbor(Map.of("data", data, "iv", "user123")));
+        Map<String, String> encrypted = cryptoService.encryptWithAesCbc(request.data(), request.iv());
+
+        // Then
+        assertInstanceOf(CborEntries.class, encrypted);
+        // The map view shows cipher texts transport-encoded; it is read before writing releases the buffer
+        assertEquals(expected, encrypted);
+        Map<String, Object> response = parse(write(encrypted));
+        assertEquals("12345", response.get("objectId"));
+        for (String key : List.of("plain", "unicode", "empty", "long")) {
+            assertArrayEquals(AESUtil.decodeCipherText(expected.get(key)), (byte[]) response.get(key), key);
+        }
+
+        // When
+        Map<String, Object> cipherTexts = new LinkedHashMap<>(response);
+        // Transport-encoded text is accepted next to raw bytes
+        cipherTexts.put("plain", expected.get("plain"));
+        DecryptListRequestDto decryptRequest = (DecryptListRequestDto) read(DecryptListRequestDto.class,
+                cbor(Map.of("data", cipherTexts, "iv", "user123")));
+        Map<String, String> decrypted = cryptoService.decryptWithAesCbc(decryptRequest.data(), decryptRequest.iv());
+
+        // Then
+        assertEquals(plaintext, decrypted);
+        assertEquals(data, parse(write(decrypted)));
+    }
+
+    @Test
+    @DisplayName("Should fail decryption of a value that does not match the initialization vector")
+    void shouldFailForOtherUser() throws Exception {
+        // Given
+        EncryptListRequestDto request = (EncryptListRequestDto) read(EncryptListRequestDto.class,
+                cbor(Map.of("data", Map.of("field", "value"), "iv", "user123")));
+        Map<String, Object> encrypted = parse(write(cryptoService.encryptWithAesCbc(request.data(), request.iv())));
+        DecryptListRequestDto decryptRequest = (DecryptListRequestDto) read(DecryptListRequestDto.class,
+                cbor(Map.of("data", encrypted, "iv", "user456")));
+
+        // When & Then
+        assertThrows(InvalidIvException.class,
+                () -> cryptoService.decryptWithAesCbc(decryptRequest.data(), decryptRequest.iv()));
+    }
+
+    @Test
+    @DisplayName("Should read a self-described request with a null iv")
+    void shouldReadSelfDescribedRequest() throws Exception {
+        // Given
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("iv", null);
+        body.put("data", Map.of("field", "value"));
+        byte[] cbor = cbor(body);
+        byte[] tagged = new byte[cbor.length + 3];
+        tagged[0] = (byte) 0xd9;
+        tagged[1] = (byte) 0xd9;
+        tagged[2] = (byte) 0xf7;
+        System.arraycopy(cbor, 0, tagged, 3, cbor.length);
+
+        // When
+        EncryptListRequestDto request = (EncryptListRequestDto) read(EncryptListRequestDto.class, tagged);
+
+        // Then
+        assertNull(request.iv());
+        assertEquals(Map.of("field", "value"), request.data());
+    }
+
+    @Test
+    @DisplayName("Should reject requests that are not a map of data and iv with string values")
+    void shouldRejectInvalidRequests() throws Exception {
+        byte[] valid = cbor(Map.of("data", Map.of("field", "value")));
+        List<byte[]> invalid = List.of(
+                new byte[0],
+                cbor("data"),
+                cbor(Map.of("data", Map.of("field", "value"), "unknown", "x")),
+                cbor(Map.of("data", Map.of("field", 1L))),
+                cbor(Map.of("data", Map.of("field", "value".getBytes(StandardCharsets.UTF_8)))),
+                cbor(Map.of("iv", "user123")),
+                Arrays.copyOf(valid, valid.length - 1),
+                Arrays.copyOf(valid, valid.length + 1),
+                // Indefinite-length map
+                new byte[]{(byte) 0xbf, 0x64, 'd', 'a', 't', 'a', (byte) 0xa0, (byte) 0xff},
+                // Duplicate key
+                new byte[]{(byte) 0xa1, 0x64, 'd', 'a', 't', 'a',
+                        (byte) 0xa2, 0x61, 'a', 0x61, 'x', 0x61, 'a', 0x61, 'y'},
+                // A map claiming more entries than the body holds
+                new byte[]{(byte) 0xba, 0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xff});
+
+        for (byte[] body : invalid) {
+            assertThrows(HttpMessageNotReadableException.class, () -> read(EncryptListRequestDto.class, body),
+                    Arrays.toString(body));
+        }
+        assertNotNull(read(EncryptListRequestDto.class, valid));
+    }
+
+    @Test
+    @DisplayName("Should reject text values that are not UTF-8 and keep those that are")
+    void shouldRejectTextThatIsNotUtf8() throws Exception {
+        // Given: a text value of the bytes FF 01 7F FF FF FF, which would look like a compressed value
+        byte[] body = cbor(Map.of("data", Map.of("field", "\u0001\u0001\u007f\u0001\u0001\u0001"),
+                "iv", "user123"));
+        int value = indexOf(body, new byte[]{0x66, 1, 1, 0x7f});
+        body[value + 1] = (byte) 0xff;
+        for (int i = value + 4; i <= value + 6; i++) {
+            body[i] = (byte) 0xff;
+        }
+        // A lead byte without its continuation
+        byte[] truncated = cbor(Map.of("data", Map.of("field", "x"), "iv", "user123"));
+        truncated[indexOf(truncated, new byte[]{0x61, 'x'}) + 1] = (byte) 0xc3;
+
+        // When & Then
+        assertThrows(HttpMessageNotReadableException.class, () -> read(EncryptListRequestDto.class, body));
+        assertThrows(HttpMessageNotReadableException.class, () -> read(EncryptListRequestDto.class, truncated));
+
+        // Given
+        String highest = "\uffff\uffff";
+        EncryptListRequestDto request = (EncryptListRequestDto) read(EncryptListRequestDto.class,
+                cbor(Map.of("data", Map.of("field", highest), "iv", "user123")));
+
+        // When
+        Map<String, Object> encrypted = parse(write(cryptoService.encryptWithAesCbc(request.data(), request.iv())));
+        DecryptListRequestDto decryptRequest = (DecryptListRequestDto) read(DecryptListRequestDto.class,
+                cbor(Map.of("data", encrypted, "iv", "user123")));
+
+        // Then
+        assertEquals(Map.of("field", highest),
+                parse(write(cryptoService.decryptWithAesCbc(decryptRequest.data(), decryptRequest.iv()))));
+    }
+
+    private static int indexOf(byte[] bytes, byte[] part) {
+        for (int i = 0; i + part.length <= bytes.length; i++) {
+            if (Arrays.equals(bytes, i, i + part.length, part, 0, part.length)) {
+                return i;
+            }
+        }
+        throw new AssertionError("Not found");
+    }
+
+    private Object read(Class<?> clazz, byte[] body) throws Exception {
+        MockHttpInputMessage input = new MockHttpInputMessage(body);
+        input.getHeaders().setContentType(MediaType.APPLICATION_CBOR);
+        assertTrue(converter.canRead(clazz, MediaType.APPLICATION_CBOR));
+        return converter.read(clazz, input);
+    }
+
+    private byte[] write(Map<String, String> result) throws Exception {
+        assertTrue(converter.canWrite(result.getClass(), MediaType.APPLICATION_CBOR));
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(result, MediaType.APPLICATION_CBOR, output);
+        assertEquals(output.getBodyAsBytes().length, output.getHeaders().getContentLength());
+        return output.getBodyAsBytes();
+    }
+
+    /**
+     * Encodes maps, strings, byte arrays, longs and null as CBOR, for the requests of the tests.
+     */
+    static byte[] cbor(Object value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeCbor(value, out);
+        return out.toByteArray();
+    }
+
+    private static void writeCbor(Object value, ByteArrayOutputStream out) {
+        if (value == null) {
+            out.write(0xf6);
+        } else if (value instanceof Long number) {
+            writeHeader(out, 0, number);
+        } else if (value instanceof String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            writeHeader(out, 3, bytes.length);
+            out.writeBytes(bytes);
+        } else if (value instanceof byte[] bytes) {
+            writeHeader(out, 2, bytes.length);
+            out.writeBytes(bytes);
+        } else if (value instanceof Map<?, ?> map) {
+            writeHeader(out, 5, map.size());
+            map.forEach((key, entry) -> {
+                writeCbor(key, out);
+                writeCbor(entry, out);
+            });
+        } else {
+            throw new IllegalArgumentException("Unsupported value " + value);
+        }
+    }
+
+    private static void writeHeader(ByteArrayOutputStream out, int majorType, long length) {
+        if (length < 24) {
+            out.write(majorType << 5 | (int) length);
+        } else {
+            out.write(majorType << 5 | 27);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (length >> shift));
+            }
+        }
+    }
+
+    /**
+     * Decodes a CBOR map of text keys and text or byte string values.
+     */
+    static Map<String, Object> parse(byte[] cbor) {
+        CborScanner scanner = new CborScanner(cbor, 0, cbor.length);
+        int entries = scanner.scanMap();
+        assertTrue(entries >= 0);
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < entries; i++) {
+            assertTrue(scanner.scanString());
+            String key = new String(cbor, scanner.stringStart(), scanner.stringEnd() - scanner.stringStart(),
+                    StandardCharsets.UTF_8);
+            assertTrue(scanner.scanString());
+            map.put(key, scanner.stringType() == CborScanner.TEXT
+                    ? new String(cbor, scanner.stringStart(), scanner.stringEnd() - scanner.stringStart(),
+                    StandardCharsets.UTF_8)
+                    : Arrays.copyOfRange(cbor, scanner.stringStart(), scanner.stringEnd()));
+        }
+        assertTrue(scanner.atEnd());
+        return map;
+    }
+}
@@ -0,0 +1,192 @@
+package io.openleap.cvs.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"logger"})
+@DisplayName("HTTP transport Integration Tests")
+public class HttpTransportTest {
+
+    @LocalServerPort
+    private int port;
+
+    private HttpClient httpClient;
+
+    @BeforeEach
+    void setUp() {
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+    }
+
+    @Test
+    @DisplayName("Should negotiate HTTP/2 over cleartext")
+    void shouldNegotiateHttp2OverCleartext() throws Exception {
+        // When
+        HttpResponse<String> response = httpClient.send(
+                HttpRequest.newBuilder(uri("/v3/api-docs")).GET().build(), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(200, response.statusCode());
+        assertEquals(HttpClient.Version.HTTP_2, response.version());
+    }
+
+    @Test
+    @DisplayName("Should accept a gzip request and compress a large batch response")
+    void shouldCompressLargeBatchResponse() throws Exception {
+        // Given
+        HttpRequest request = batchRequest("/api/cvs/encryptList")
+                .header("Content-Encoding", "gzip")
+                .header("Accept-Encoding", "gzip")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(
+                        RequestDecompressionFilterTest.gzip(batchBody(100))))
+                .build();
+
+        // When
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        // Then
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        String body = new String(
+                new GZIPInputStream(new ByteArrayInputStream(response.body())).readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("\"field99\""));
+        assertTrue(response.body().length < body.length());
+    }
+
+    @Test
+    @DisplayName("Should not compress a response below the size threshold")
+    void shouldNotCompressSmallResponse() throws Exception {
+        // Given
+        HttpRequest request = batchRequest("/api/cvs/encryptList")
+                .header("Accept-Encoding", "gzip")
+                .POST(HttpRequest.BodyPublishers.ofString(batchBody(1)))
+                .build();
+
+        // When
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals(response.body().length(), response.headers().firstValueAsLong("Content-Length").orElse(-1));
+        assertTrue(response.body().contains("\"field0\""));
+    }
+
+    @Test
+    @DisplayName("Should answer a failed document decryption with only the error response")
+    void shouldDiscardPartialDocumentOnError() throws Exception {
+        // Given
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/cvs/decryptDocument?select=$.b&iv=user123"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"a\": \"kept\", \"b\": \"not encrypted\"}"))
+                .build();
+
+        // When
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(400, response.statusCode());
+        assertTrue(response.body().startsWith("{\"message\":\"Invalid initialization vector\""), response.body());
+    }
+
+    @Test
+    @DisplayName("Should answer a large document with its length and fail it as a whole on a late bad value")
+    void shouldFailLargeDocumentAsWhole() throws Exception {
+        // Given
+        String items = "{\"a\": \"kept\", \"b\": \"sensitive data\"},".repeat(5000);
+        HttpResponse<String> encrypted = httpClient.send(documentRequest(
+                "/api/cvs/encryptDocument?select=$..b&iv=user123", "[" + items + "{}]"),
+                HttpResponse.BodyHandlers.ofString());
+        // More than one response buffer of output lies before the value that does not decrypt
+        String invalid = encrypted.body().substring(0, encrypted.body().length() - 3) + "{\"b\": \"not encrypted\"}]";
+
+        // When
+        HttpResponse<String> decrypted = httpClient.send(documentRequest(
+                "/api/cvs/decryptDocument?select=$..b&iv=user123", invalid), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(200, encrypted.statusCode());
+        assertEquals(encrypted.body().length(),
+                Integer.parseInt(encrypted.headers().firstValue("Content-Length").orElse("-1")));
+        assertTrue(encrypted.body().length() > 64 * 1024);
+        assertEquals(400, decrypted.statusCode());
+        assertTrue(decrypted.body().startsWith("{\"message\":\"Invalid initialization vector\""), decrypted.body());
+    }
+
+    private HttpRequest documentRequest(String path, String document) {
+        // Tomcat does not take a large body with the HTTP/2 upgrade request
+        return HttpRequest.newBuilder(uri(path))
+                .version(HttpClient.Version.HTTP_1_1)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(document))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should exchange CBOR with raw cipher texts when the client negotiates it")
+    void shouldNegotiateCbor() throws Exception {
+        // Given
+        HttpRequest encrypt = HttpRequest.newBuilder(uri("/api/cvs/encryptList"))
+                .header("Content-Type", "application/cbor")
+                .header("Accept", "application/cbor")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(CborListConverterTest.cbor(
+                        Map.of("data", Map.of("objectId", "42", "field", "sensitive data"), "iv", "user123"))))
+                .build();
+
+        // When
+        HttpResponse<byte[]> encrypted = httpClient.send(encrypt, HttpResponse.BodyHandlers.ofByteArray());
+        HttpResponse<byte[]> decrypted = httpClient.send(HttpRequest.newBuilder(uri("/api/cvs/decryptList"))
+                .header("Content-Type", "application/cbor")
+                .header("Accept", "application/cbor")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(CborListConverterTest.cbor(
+                        Map.of("data", CborListConverterTest.parse(encrypted.body()), "iv", "user123"))))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        HttpResponse<byte[]> otherUser = httpClient.send(HttpRequest.newBuilder(uri("/api/cvs/decryptList"))
+                .header("Content-Type", "application/cbor")
+                .header("Accept", "application/cbor")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(CborListConverterTest.cbor(
+                        Map.of("data", CborListConverterTest.parse(encrypted.body()), "iv", "user456"))))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        // Then
+        assertEquals(200, encrypted.statusCode());
+        assertEquals("application/cbor", encrypted.headers().firstValue("Content-Type").orElse(null));
+        assertInstanceOf(byte[].class, CborListConverterTest.parse(encrypted.body()).get("field"));
+        assertEquals(200, decrypted.statusCode());
+        assertEquals(Map.of("objectId", "42", "field", "sensitive data"),
+                CborListConverterTest.parse(decrypted.body()));
+        assertEquals(400, otherUser.statusCode());
+        assertEquals("Invalid initialization vector", CborListConverterTest.parse(otherUser.body()).get("message"));
+    }
+
+    private HttpRequest.Builder batchRequest(String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Content-Type", "application/json");
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String batchBody(int entries) {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < entries; i++) {
+            data.append(i == 0 ? "" : ", ").append("\"field").append(i).append("\": \"sensitive data ").append(i).append('"');
+        }
+        return "{\"data\": {" + data + "}, \"iv\": \"user123\"}";
+    }
+}
@@ -0,0 +1,148 @@
+package io.openleap.cvs.web;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openleap.cvs.config.CvsConfig;
+import io.openleap.cvs.controller.dto.DecryptListRequestDto;
+import io.openleap.cvs.controller.dto.EncryptListRequestDto;
+import io.openleap.cvs.core.InvalidIvException;
+import io.openleap.cvs.service.CryptoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ListRequestConverter Unit Tests")
+public class ListRequestConverterTest {
+    private static final TypeReference<Map<String, String>> STRING_MAP = new TypeReference<>() {
+    };
+
+    @TempDir
+    Path tempDir;
+
+    // Configured like the ObjectMapper of Spring Boot
+    private final ObjectMapper objectMapper =
+            new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final ListRequestConverter converter = new ListRequestConverter(objectMapper);
+    private CryptoService cryptoService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path secretKeyFile = tempDir.resolve("secret.key");
+        Files.writeString(secretKeyFile, "ThisIsATestSecretKeyForAESEncryption123456789012345678901234567890");
+        CvsConfig cvsConfig = new CvsConfig();
+        cvsConfig.setEncryptionKeyPath(secretKeyFile.toString());
+        cvsConfig.setAesInitializationVector("ThisIsATestInitializationVector123456789012345678901234567890");
+        cryptoService = new CryptoService(cvsConfig);
+    }
+
+    @Test
+    @DisplayName("Should read a plain list request without Jackson")
+    void shouldReadPlainRequest() throws Exception {
+        // Given
+        String body = "{ \"iv\": \"user123\",\n \"data\": {\"objectId\": \"42\", \"field1\": \"value 1\"} }";
+
+        // When
+        EncryptListRequestDto request = (EncryptListRequestDto) read(EncryptListRequestDto.class, body);
+
+        // Then
+        assertInstanceOf(JsonEntries.class, request.data());
+        assertEquals("user123", request.iv());
+        assertEquals(Map.of("objectId", "42", "field1", "value 1"), request.data());
+        assertEquals("42", request.data().get("objectId"));
+    }
+
+    @Test
+    @DisplayName("Should encrypt byte-identically to the map path and decrypt back, including escapes")
+    void shouldEncryptIdenticallyAndDecryptBack() throws Exception {
+        // Given
+        Map<String, String> data = new LinkedHashMap<>();
+        data.put("objectId", "12345");
+        data.put("plain", "sensitive data");
+        data.put("escaped", "quote \" backslash \\ newline \n tab \t control \u0001 slash /");
+        data.put("unicode", "ümlaut € 😀");
+        data.put("empty", "");
+        String body = objectMapper.writeValueAsString(Map.of("data", data, "iv", "user123"));
+
+        // When
+        EncryptListRequestDto encryptRequest = (EncryptListRequestDto) read(EncryptListRequestDto.class, body);
+        String encrypted = write(cryptoService.encryptWithAesCbc(encryptRequest.data(), "user123"));
+        DecryptListRequestDto decryptRequest = (DecryptListRequestDto) read(DecryptListRequestDto.class,
+                "{\"data\":" + encrypted + ",\"iv\":\"user123\"}");
+        String decrypted = write(cryptoService.decryptWithAesCbc(decryptRequest.data(), "user123"));
+
+        // Then
+        assertInstanceOf(JsonEntries.class, encryptRequest.data());
+        assertEquals(cryptoService.encryptWithAesCbc(data, "user123"), objectMapper.readValue(encrypted, STRING_MAP));
+        assertEquals(data, objectMapper.readValue(decrypted, STRING_MAP));
+        assertEquals(objectMapper.writeValueAsString(data), decrypted);
+    }
+
+    @Test
+    @DisplayName("Should fail the whole batch if a value does not decrypt")
+    void shouldFailBatchOnInvalidValue() throws Exception {
+        // Given
+        String body = "{\"data\": {\"field1\": \"" + cryptoService.encryptWithAesCbc("value", "user123")
+                + "\", \"field2\": \"AAAA\"}, \"iv\": \"user123\"}";
+        DecryptListRequestDto request = (DecryptListRequestDto) read(DecryptListRequestDto.class, body);
+
+        // When & Then
+        assertThrows(InvalidIvException.class, () -> cryptoService.decryptWithAesCbc(request.data(), "user123"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "{\"data\": {\"field1\": 1}, \"iv\": \"user123\"}",
+        "{\"data\": {\"field1\": \"a\", \"field1\": \"b\"}, \"iv\": \"user123\"}",
+        "{\"data\": {\"fi\\u0065ld1\": \"a\"}, \"iv\": \"user123\"}",
+        "{\"data\": {\"field1\": \"a\"}, \"iv\": \"user123\", \"other\": true}",
+        "{\"data\": {\"field1\": null}}",
+        "{\"data\": null, \"iv\": \"user123\"}"
+    })
+    @DisplayName("Should hand unusual requests to Jackson")
+    void shouldFallBackToJackson(String body) throws Exception {
+        // When
+        EncryptListRequestDto request = (EncryptListRequestDto) read(EncryptListRequestDto.class, body);
+
+        // Then
+        assertFalse(request.data() instanceof JsonEntries);
+        assertEquals(objectMapper.readValue(body, EncryptListRequestDto.class), request);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid JSON like Jackson")
+    void shouldRejectInvalidJson() {
+        // When & Then
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> read(EncryptListRequestDto.class, "{\"data\": {\"field1\": \"a\""));
+    }
+
+    private Object read(Class<?> clazz, String body) throws Exception {
+        MockHttpInputMessage input = new MockHttpInputMessage(body.getBytes(StandardCharsets.UTF_8));
+        input.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        assertTrue(converter.canRead(clazz, MediaType.APPLICATION_JSON));
+        return converter.read(clazz, input);
+    }
+
+    private String write(Map<String, String> result) throws Exception {
+        assertTrue(converter.canWrite(result.getClass(), MediaType.APPLICATION_JSON));
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(result, MediaType.APPLICATION_JSON, output);
+        return output.getBodyAsString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,220 @@
+package io.openleap.cvs.web;
+
+import io.openleap.cvs.config.RequestDecompressionProperties;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RequestDecompressionFilter Unit Tests")
+public class RequestDecompressionFilterTest {
+    private static final String BODY = "{\"data\": {\"field1\": \"sensitive data 1\"}, \"iv\": \"user123\"}";
+
+    private RequestDecompressionProperties properties;
+    private RequestDecompressionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RequestDecompressionProperties();
+        filter = new RequestDecompressionFilter(properties);
+    }
+
+    @Test
+    @DisplayName("Should inflate a gzip encoded request body")
+    void shouldInflateGzipRequestBody() throws Exception {
+        // Given
+        MockHttpServletRequest request = createRequest("gzip", gzip(BODY));
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Then
+        HttpServletRequest forwarded = (HttpServletRequest) chain.getRequest();
+        assertEquals(BODY, new String(forwarded.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        assertNull(forwarded.getHeader("Content-Encoding"));
+        assertEquals(-1, forwarded.getContentLengthLong());
+    }
+
+    @Test
+    @DisplayName("Should inflate a gzip encoded request body for an asynchronous reader")
+    void shouldInflateForReadListener() throws Exception {
+        // Given
+        MockHttpServletRequest request = createRequest("gzip", gzip(BODY));
+        request.setAsyncSupported(true);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        HttpServletRequest forwarded = (HttpServletRequest) chain.getRequest();
+        ServletInputStream inputStream = forwarded.getInputStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        AtomicBoolean allDataRead = new AtomicBoolean();
+
+        // When
+        forwarded.startAsync();
+        inputStream.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buffer = new byte[16];
+                int read;
+                while (inputStream.isReady() && (read = inputStream.read(buffer)) != -1) {
+                    body.write(buffer, 0, read);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allDataRead.set(true);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail(throwable);
+            }
+        });
+
+        // Then
+        assertEquals(BODY, body.toString(StandardCharsets.UTF_8));
+        assertTrue(allDataRead.get());
+    }
+
+    @Test
+    @DisplayName("Should reject a read listener outside of an asynchronous request")
+    void shouldRejectReadListenerWithoutAsyncRequest() throws Exception {
+        // Given
+        MockHttpServletRequest request = createRequest("gzip", gzip(BODY));
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        ServletInputStream inputStream = chain.getRequest().getInputStream();
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> inputStream.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() {
+            }
+
+            @Override
+            public void onAllDataRead() {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+        }));
+    }
+
+    @Test
+    @DisplayName("Should inflate a deflate encoded request body")
+    void shouldInflateDeflateRequestBody() throws Exception {
+        // Given
+        MockHttpServletRequest request = createRequest("deflate", deflate(BODY));
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Then
+        HttpServletRequest forwarded = (HttpServletRequest) chain.getRequest();
+        assertEquals(BODY, forwarded.getReader().readLine());
+    }
+
+    @Test
+    @DisplayName("Should pass through a request without content encoding")
+    void shouldPassThroughUncompressedRequest() throws Exception {
+        // Given
+        MockHttpServletRequest request = createRequest(null, BODY.getBytes(StandardCharsets.UTF_8));
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Then
+        assertSame(request, chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Should stop reading once the inflated body exceeds the limit")
+    void shouldRejectBodyExceedingLimit() throws Exception {
+        // Given
+        properties.setMaxSize(DataSize.ofKilobytes(1));
+        MockHttpServletRequest request = createRequest("gzip", gzip("0".repeat(1024 * 1024)));
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Then
+        HttpServletRequest forwarded = (HttpServletRequest) chain.getRequest();
+        assertThrows(RequestBodyTooLargeException.class, () -> forwarded.getInputStream().readAllBytes());
+    }
+
+    @Test
+    @DisplayName("Should answer 415 for an unsupported content encoding")
+    void shouldRejectUnsupportedEncoding() throws Exception {
+        // Given
+        MockHttpServletRequest request = createRequest("br", new byte[]{1, 2, 3});
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        assertEquals(415, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Should answer 400 for a body that is not gzip")
+    void shouldRejectInvalidGzipBody() throws Exception {
+        // Given
+        MockHttpServletRequest request = createRequest("gzip", BODY.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, new MockFilterChain());
+
+        // Then
+        assertEquals(400, response.getStatus());
+    }
+
+    private static MockHttpServletRequest createRequest(String encoding, byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/cvs/decryptList");
+        request.setContentType("application/json");
+        if (encoding != null) {
+            request.addHeader("Content-Encoding", encoding);
+        }
+        request.setContent(body);
+        return request;
+    }
+
+    static byte[] gzip(String value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(String value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(out)) {
+            deflate.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
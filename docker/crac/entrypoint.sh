@@ -0,0 +1,17 @@
+#!/bin/bash
+# Restores the service from /crac if a checkpoint exists. Otherwise the service is started, warmed up
+# with a training run and checkpointed; the checkpointing process exits and is restored right away.
+# The key material is dropped before the checkpoint and read from ENCRYPTION_KEY_PATH after each restore.
+# Requires the CHECKPOINT_RESTORE and SYS_PTRACE capabilities.
+set -e
+
+CHECKPOINT_DIR=/crac
+
+if [ ! -f "$CHECKPOINT_DIR/core.img" ]; then
+  java -XX:CRaCCheckpointTo="$CHECKPOINT_DIR" \
+    -Dcvs.training.enabled=true \
+    -Dcvs.training.mode=checkpoint \
+    -jar /application/app.jar "$@" || true
+fi
+
+exec java -XX:CRaCRestoreFrom="$CHECKPOINT_DIR"
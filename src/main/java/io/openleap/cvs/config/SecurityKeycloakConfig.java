@@ -1,34 +0,0 @@
-package io.openleap.cvs.config;
-
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Profile;
-import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
-import org.springframework.security.web.SecurityFilterChain;
-
-@Profile({"keycloak"})
-@Configuration
-public class SecurityKeycloakConfig {
-
-    @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
-        http.authorizeHttpRequests(
-                        authorize ->
-                                authorize
-                                        .requestMatchers("/swagger-ui/**", "/v3/**").permitAll()
-                                        .requestMatchers("/api/cvs/**").hasAuthority("ROLE_cvs.read")
-                                        .anyRequest().authenticated())
-                .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt ->
-                        jwt.jwtAuthenticationConverter(customJwtAuthenticationConverter())));
-
-        return http.build();
-    }
-
-    @Bean
-    public static JwtAuthenticationConverter customJwtAuthenticationConverter() {
-        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(new CustomJwtGrantedAuthoritiesConverter());
-        return converter;
-    }
-}
@@ -1,7 +0,0 @@
-package io.openleap.cvs.exception;
-
-public class InvalidIvException extends RuntimeException {
-    public InvalidIvException(String message) {
-        super(message);
-    }
-}